@@ -0,0 +1,30 @@
+package com.example.adplatform.application.exception;
+
+/**
+ * Exception thrown when a batch of tracking events holds more events than one request may carry.
+ * The client may split the batch into batches of at most {@link #getLimit()} events.
+ */
+public class TrackingBatchTooLargeException extends AdvertisementValidationException {
+
+    private final int limit;
+
+    /**
+     * Constructs a new tracking batch too large exception.
+     *
+     * @param limit the maximum number of events in one request
+     */
+    public TrackingBatchTooLargeException(int limit) {
+        super("Too many tracking events in one request");
+        this.limit = limit;
+        addError("events", "at most " + limit + " per request");
+    }
+
+    /**
+     * Gets the maximum number of events in one request.
+     *
+     * @return the batch limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
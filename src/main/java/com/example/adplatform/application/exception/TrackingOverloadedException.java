@@ -0,0 +1,32 @@
+package com.example.adplatform.application.exception;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a tracking event is not accepted because tracking is overloaded.
+ * The client may send the event again after {@link #getRetryAfter()}.
+ */
+public class TrackingOverloadedException extends AdvertisementException {
+
+    private final Duration retryAfter;
+
+    /**
+     * Constructs a new tracking overloaded exception.
+     *
+     * @param message the detail message
+     * @param retryAfter how long the client should wait before sending the event again
+     */
+    public TrackingOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Gets how long the client should wait before sending the event again.
+     *
+     * @return the retry delay
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
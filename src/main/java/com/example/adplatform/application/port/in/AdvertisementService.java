@@ -1,15 +1,21 @@
 package com.example.adplatform.application.port.in;
 
 import com.example.adplatform.domain.model.Advertisement;
+import com.example.adplatform.domain.model.AdvertisementSeekKey;
 import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.domain.model.AdvertisementSummary;
 import com.example.adplatform.domain.model.Mood;
+import com.example.adplatform.domain.model.TrackingBeacon;
+import com.example.adplatform.domain.model.TrackingBeaconResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Service port for Advertisement operations.
@@ -35,6 +41,73 @@ public interface AdvertisementService {
         throw new UnsupportedOperationException("Pagination not implemented yet");
     }
 
+    /**
+     * Get summaries of all advertisements with pagination, for list views.
+     *
+     * @param pageable pagination information
+     * @return Page of advertisement summaries
+     */
+    default Page<AdvertisementSummary> getAdvertisementSummaries(Pageable pageable) {
+        throw new UnsupportedOperationException("Summaries not implemented yet");
+    }
+
+    /**
+     * Get summaries of advertisements by source with pagination, for list views.
+     *
+     * @param source The source of the advertisement
+     * @param pageable pagination information
+     * @return Page of advertisement summaries
+     */
+    default Page<AdvertisementSummary> getAdvertisementSummariesBySource(AdvertisementSource source, Pageable pageable) {
+        throw new UnsupportedOperationException("Summaries not implemented yet");
+    }
+
+    /**
+     * Get summaries of advertisements by title with pagination, for list views.
+     *
+     * @param title The title to search for
+     * @param pageable pagination information
+     * @return Page of advertisement summaries
+     */
+    default Page<AdvertisementSummary> getAdvertisementSummariesByTitle(String title, Pageable pageable) {
+        throw new UnsupportedOperationException("Summaries not implemented yet");
+    }
+
+    /**
+     * Get summaries of the advertisements whose title is most similar to the given text, for
+     * search-as-you-type. Tolerates typos and word order.
+     *
+     * @param title The text to search for
+     * @param limit Maximum number of results
+     * @return Summaries of the matching advertisements, best match first
+     */
+    default List<AdvertisementSummary> getSimilarAdvertisementSummaries(String title, int limit) {
+        throw new UnsupportedOperationException("Similarity search not implemented yet");
+    }
+
+    /**
+     * Export every advertisement, in id order, one at a time.
+     * Intended for bulk exports: the inventory is streamed from the database rather than
+     * loaded into a list, and the result is never cached.
+     *
+     * @param sink callback invoked once per advertisement
+     */
+    default void exportAllAdvertisements(Consumer<? super Advertisement> sink) {
+        throw new UnsupportedOperationException("Export not implemented yet");
+    }
+
+    /**
+     * Get the advertisements following the given id using keyset pagination.
+     * Unlike offset pages, the cost does not grow with the depth of the slice and no total is counted.
+     *
+     * @param afterId id of the last advertisement of the previous slice, or null for the first slice
+     * @param size maximum number of advertisements in the slice
+     * @return Slice of advertisements ordered by id
+     */
+    default Slice<Advertisement> getAllAdvertisementsAfter(Long afterId, int size) {
+        throw new UnsupportedOperationException("Keyset pagination not implemented yet");
+    }
+
     /**
      * Get all active advertisements.
      *
@@ -52,6 +125,17 @@ public interface AdvertisementService {
         throw new UnsupportedOperationException("Pagination not implemented yet");
     }
 
+    /**
+     * Get the active advertisements following the given position using keyset pagination.
+     *
+     * @param after seek key of the last advertisement of the previous slice, or null for the first slice
+     * @param size maximum number of advertisements in the slice
+     * @return Slice of active advertisements ordered by weight descending, then newest first, then id descending
+     */
+    default Slice<Advertisement> getActiveAdvertisementsAfter(AdvertisementSeekKey after, int size) {
+        throw new UnsupportedOperationException("Keyset pagination not implemented yet");
+    }
+
     /**
      * Get advertisement by ID.
      *
@@ -68,6 +152,17 @@ public interface AdvertisementService {
      */
     Advertisement saveAdvertisement(Advertisement advertisement);
 
+    /**
+     * Create or update many advertisements at once, for campaign imports.
+     * Either all advertisements are saved or none is; caches are evicted once for the whole batch.
+     *
+     * @param advertisements The advertisements to save; those with an id are updated
+     * @return The saved advertisements, in input order
+     */
+    default List<Advertisement> saveAdvertisements(List<Advertisement> advertisements) {
+        throw new UnsupportedOperationException("Bulk save not implemented yet");
+    }
+
     /**
      * Delete an advertisement by ID.
      *
@@ -185,16 +280,55 @@ public interface AdvertisementService {
 
     /**
      * Track a view event for an advertisement.
+     * The advertisement is not loaded; its id is checked against the id registry, if enabled.
+     *
+     * @param id the advertisement ID
+     * @throws com.example.adplatform.application.exception.AdvertisementNotFoundException if the id is unknown
+     */
+    default void trackAdvertisementView(Long id) {
+        trackAdvertisementView(id, null);
+    }
+
+    /**
+     * Track a view event for an advertisement, at most once per idempotency key within the
+     * deduplication window.
      *
      * @param id the advertisement ID
+     * @param idempotencyKey key of the event chosen by the client, or {@code null} to always track it
      */
-    void trackAdvertisementView(Long id);
+    void trackAdvertisementView(Long id, String idempotencyKey);
 
     /**
      * Track an interaction event for an advertisement.
+     * The advertisement is not loaded; its id is checked against the id registry, if enabled.
      *
      * @param id the advertisement ID
      * @param interactionType the interaction type (e.g., CLICK, LIKE)
+     * @throws com.example.adplatform.application.exception.AdvertisementNotFoundException if the id is unknown
+     */
+    default void trackAdvertisementInteraction(Long id, String interactionType) {
+        trackAdvertisementInteraction(id, interactionType, null);
+    }
+
+    /**
+     * Track an interaction event for an advertisement, at most once per idempotency key within the
+     * deduplication window.
+     *
+     * @param id the advertisement ID
+     * @param interactionType the interaction type (e.g., CLICK, LIKE)
+     * @param idempotencyKey key of the event chosen by the client, or {@code null} to always track it
+     */
+    void trackAdvertisementInteraction(Long id, String interactionType, String idempotencyKey);
+
+    /**
+     * Track a batch of view, click and interaction events reported by a player.
+     * Every beacon is validated first, then the valid ones are handed to the event publisher
+     * together, without loading the advertisements. A beacon already received within the
+     * deduplication window is reported as a duplicate and not tracked again; a beacon the
+     * publisher cannot accept is reported as dropped so the client can resend it.
+     *
+     * @param beacons the events, in the order they were reported
+     * @return one result per beacon, in the same order
      */
-    void trackAdvertisementInteraction(Long id, String interactionType);
+    List<TrackingBeaconResult> trackAdvertisementEvents(List<TrackingBeacon> beacons);
 }
\ No newline at end of file
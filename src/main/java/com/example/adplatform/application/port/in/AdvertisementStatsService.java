@@ -0,0 +1,37 @@
+package com.example.adplatform.application.port.in;
+
+import com.example.adplatform.domain.model.AdvertisementStats;
+import com.example.adplatform.domain.model.HyperLogLog;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Real-time statistics of tracked advertisement events.
+ * Windows are answered from minute, hour and day buckets; the edges of a window snap outward to
+ * the finest bucket still retained, so the result may include events slightly before {@code from}
+ * or after {@code to}, and windows reaching beyond the retained buckets only count what is retained.
+ */
+public interface AdvertisementStatsService {
+
+    /**
+     * Statistics of the advertisement for events in [from, to).
+     * @return the statistics; all counts are zero if nothing was tracked in the window
+     */
+    AdvertisementStats getStats(Long advertisementId, Instant from, Instant to);
+
+    /**
+     * Statistics of the advertisement for the trailing window ending now.
+     */
+    AdvertisementStats getStats(Long advertisementId, Duration window);
+
+    /**
+     * Sketch of the distinct viewers of the advertisement for views in [from, to), from which
+     * {@link AdvertisementStats#getUniqueReach()} is estimated. It is a copy that can be merged
+     * with sketches of other windows or nodes, once {@link HyperLogLog#fold(int) folded} to a
+     * common precision, to estimate the reach of their union.
+     *
+     * @return the sketch, or {@code null} if the window is too fine to estimate its reach
+     */
+    HyperLogLog getReachSketch(Long advertisementId, Instant from, Instant to);
+}
@@ -0,0 +1,21 @@
+package com.example.adplatform.application.port.in;
+
+import com.example.adplatform.domain.model.InventoryVersion;
+
+/**
+ * Tracks the version of the advertisement inventory so read endpoints can tell
+ * clients whether anything changed since their last request (e.g. via ETags).
+ */
+public interface InventoryVersionService {
+
+    /**
+     * @return the current inventory version
+     */
+    InventoryVersion current();
+
+    /**
+     * Records that the inventory changed. When called inside a transaction the version
+     * is bumped only after it commits, so a new version is never observed before the data.
+     */
+    void markChanged();
+}
@@ -1,12 +1,30 @@
 package com.example.adplatform.application.port.out;
 
 import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
 import com.example.adplatform.domain.event.AdvertisementViewedEvent;
 
+import java.util.List;
+
 /**
  * Output port for publishing advertisement-related domain events.
  */
 public interface AdvertisementEventPublisher {
     void publish(AdvertisementViewedEvent event);
     void publish(AdvertisementInteractedEvent event);
-}
\ No newline at end of file
+
+    /**
+     * Publishes the events in order, stopping at the first one that cannot be accepted.
+     *
+     * @return how many events, from the start of the list, were accepted
+     */
+    default int publishAll(List<AdvertisementTrackingEvent> events) {
+        for (AdvertisementTrackingEvent event : events) {
+            switch (event) {
+                case AdvertisementViewedEvent viewed -> publish(viewed);
+                case AdvertisementInteractedEvent interacted -> publish(interacted);
+            }
+        }
+        return events.size();
+    }
+}
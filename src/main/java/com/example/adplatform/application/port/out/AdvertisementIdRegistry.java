@@ -0,0 +1,34 @@
+package com.example.adplatform.application.port.out;
+
+/**
+ * Output port for an in-memory set of the ids of existing advertisements.
+ * Lets the tracking path reject unknown advertisements without querying the database once it
+ * has been loaded; until then callers accept every id.
+ */
+public interface AdvertisementIdRegistry {
+
+    /**
+     * @return true once the registry holds the whole inventory and can answer existence checks
+     */
+    boolean isReady();
+
+    /**
+     * @param id The advertisement ID
+     * @return true if an advertisement with this id exists
+     */
+    boolean contains(long id);
+
+    /**
+     * Add an advertisement once the current transaction commits.
+     *
+     * @param id The saved advertisement ID
+     */
+    void add(Long id);
+
+    /**
+     * Remove an advertisement once the current transaction commits.
+     *
+     * @param id The deleted advertisement ID
+     */
+    void remove(Long id);
+}
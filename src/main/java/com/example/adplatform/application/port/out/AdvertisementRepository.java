@@ -1,13 +1,18 @@
 package com.example.adplatform.application.port.out;
 
 import com.example.adplatform.domain.model.Advertisement;
+import com.example.adplatform.domain.model.AdvertisementSeekKey;
 import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.domain.model.AdvertisementSummary;
 import com.example.adplatform.domain.model.Mood;
+import com.example.adplatform.domain.model.TargetingStatistics;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Repository port for Advertisement domain entity.
@@ -33,12 +38,108 @@ public interface AdvertisementRepository {
         throw new UnsupportedOperationException("Pagination not implemented yet");
     }
 
+    /**
+     * Find summaries of all advertisements with pagination, without loading targeting rules.
+     *
+     * @param pageable pagination information
+     * @return Page of advertisement summaries
+     */
+    default Page<AdvertisementSummary> findAllSummaries(Pageable pageable) {
+        throw new UnsupportedOperationException("Summaries not implemented yet");
+    }
+
+    /**
+     * Find the summary of one advertisement, without loading targeting rules.
+     *
+     * @param id The advertisement ID
+     * @return Optional containing the summary if found
+     */
+    default Optional<AdvertisementSummary> findSummaryById(Long id) {
+        throw new UnsupportedOperationException("Summaries not implemented yet");
+    }
+
+    /**
+     * Find summaries of advertisements by source with pagination.
+     *
+     * @param source The source of the advertisement
+     * @param pageable pagination information
+     * @return Page of advertisement summaries
+     */
+    default Page<AdvertisementSummary> findSummariesBySource(AdvertisementSource source, Pageable pageable) {
+        throw new UnsupportedOperationException("Summaries not implemented yet");
+    }
+
+    /**
+     * Find summaries of advertisements by title containing the given text (case insensitive) with pagination.
+     *
+     * @param title The text to search for in advertisement titles
+     * @param pageable pagination information
+     * @return Page of advertisement summaries
+     */
+    default Page<AdvertisementSummary> findSummariesByTitleContainingIgnoreCase(String title, Pageable pageable) {
+        throw new UnsupportedOperationException("Summaries not implemented yet");
+    }
+
+    /**
+     * Pass every advertisement, in id order, to the given action without holding the whole
+     * inventory in memory.
+     *
+     * @param action callback invoked once per advertisement
+     */
+    default void forEachAdvertisement(Consumer<? super Advertisement> action) {
+        throw new UnsupportedOperationException("Streaming not implemented yet");
+    }
+
+    /**
+     * Find the advertisements following the given id, ordered by id, without counting the total.
+     *
+     * @param afterId id of the last advertisement of the previous slice, or null for the first slice
+     * @param size maximum number of advertisements in the slice
+     * @return Slice of advertisements
+     */
+    default Slice<Advertisement> findAllAfter(Long afterId, int size) {
+        throw new UnsupportedOperationException("Keyset pagination not implemented yet");
+    }
+
+    /**
+     * Find the ids of the advertisements following the given id, in id order, without loading them.
+     *
+     * @param afterId id to continue after, or null for the first ids
+     * @param size maximum number of ids
+     * @return the ids
+     */
+    default List<Long> findIdsAfter(Long afterId, int size) {
+        throw new UnsupportedOperationException("Keyset pagination not implemented yet");
+    }
+
+    /**
+     * Check whether an advertisement exists without loading it.
+     *
+     * @param id The advertisement ID
+     * @return true if the advertisement exists
+     */
+    default boolean existsById(Long id) {
+        return findById(id).isPresent();
+    }
+
     /**
      * Find all active advertisements.
      *
      * @return List of active advertisements
      */
     List<Advertisement> findByActiveTrue();
+
+    /**
+     * Find the active advertisements following the given position, ordered by weight descending,
+     * then newest first, then id descending, without counting the total.
+     *
+     * @param after seek key of the last advertisement of the previous slice, or null for the first slice
+     * @param size maximum number of advertisements in the slice
+     * @return Slice of active advertisements
+     */
+    default Slice<Advertisement> findActiveAfter(AdvertisementSeekKey after, int size) {
+        throw new UnsupportedOperationException("Keyset pagination not implemented yet");
+    }
     
     /**
      * Find all active advertisements with pagination.
@@ -66,6 +167,29 @@ public interface AdvertisementRepository {
      */
     Advertisement save(Advertisement advertisement);
 
+    /**
+     * Find the advertisements with the given IDs, in the order of the IDs.
+     * IDs that do not exist are skipped. Implementations should load them in a fixed number
+     * of queries; the default looks them up one by one.
+     *
+     * @param ids The advertisement IDs
+     * @return The advertisements found, in the order of {@code ids}
+     */
+    default List<Advertisement> findAllById(List<Long> ids) {
+        return ids.stream().map(this::findById).flatMap(Optional::stream).toList();
+    }
+
+    /**
+     * Save many new or existing advertisements in one unit of work.
+     * Implementations should batch the writes; the default saves them one by one.
+     *
+     * @param advertisements The advertisements to save
+     * @return The saved advertisements, in input order
+     */
+    default List<Advertisement> saveAll(List<Advertisement> advertisements) {
+        return advertisements.stream().map(this::save).toList();
+    }
+
     /**
      * Delete an advertisement by ID.
      *
@@ -153,4 +277,14 @@ public interface AdvertisementRepository {
      * @return List of advertisements targeting the specified mood
      */
     List<Advertisement> findByMood(Mood mood);
+
+    /**
+     * Count the active advertisements per country, mood and age range of their include targets,
+     * so callers can estimate how selective a targeting predicate is.
+     *
+     * @return statistics of the active inventory
+     */
+    default TargetingStatistics loadTargetingStatistics() {
+        throw new UnsupportedOperationException("Targeting statistics not implemented yet");
+    }
 }
\ No newline at end of file
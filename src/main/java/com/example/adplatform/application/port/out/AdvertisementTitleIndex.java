@@ -0,0 +1,50 @@
+package com.example.adplatform.application.port.out;
+
+import com.example.adplatform.domain.model.AdvertisementSummary;
+
+import java.util.List;
+
+/**
+ * Output port for an in-memory index over advertisement titles.
+ * Answers title searches without querying the database once it has been loaded;
+ * until then callers fall back to the repository.
+ */
+public interface AdvertisementTitleIndex {
+
+    /**
+     * @return true once the index holds the whole inventory and can answer searches
+     */
+    boolean isReady();
+
+    /**
+     * Find the advertisements whose title contains the given text (case insensitive).
+     *
+     * @param text The text to search for
+     * @return Summaries of the matching advertisements, in id order
+     */
+    List<AdvertisementSummary> findByTitleContaining(String text);
+
+    /**
+     * Find the advertisements whose title is most similar to the given text, tolerating typos
+     * and word order.
+     *
+     * @param text The text to search for
+     * @param limit Maximum number of results
+     * @return Summaries of the matching advertisements, best match first
+     */
+    List<AdvertisementSummary> findSimilarTitles(String text, int limit);
+
+    /**
+     * Add or replace an advertisement once the current transaction commits.
+     *
+     * @param summary The saved advertisement
+     */
+    void put(AdvertisementSummary summary);
+
+    /**
+     * Remove an advertisement once the current transaction commits.
+     *
+     * @param id The deleted advertisement ID
+     */
+    void remove(Long id);
+}
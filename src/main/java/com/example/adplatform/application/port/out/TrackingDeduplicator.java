@@ -0,0 +1,25 @@
+package com.example.adplatform.application.port.out;
+
+/**
+ * Output port remembering the keys of recently tracked events, so events resent by players
+ * are counted once. Keys are remembered for a bounded window; the implementation may report a
+ * small, configurable share of new keys as duplicates.
+ */
+public interface TrackingDeduplicator {
+
+    /**
+     * Record a key.
+     *
+     * @param key The deduplication key of the event
+     * @return true if the key was not seen within the window, false for a duplicate
+     */
+    boolean firstSeen(String key);
+
+    /**
+     * Forget a key recorded by {@link #firstSeen(String)}, so the event can be resent;
+     * used for events that could not be enqueued after all.
+     *
+     * @param key The deduplication key of the event
+     */
+    void forget(String key);
+}
@@ -3,42 +3,82 @@ package com.example.adplatform.application.service;
 import com.example.adplatform.application.exception.AdvertisementNotFoundException;
 import com.example.adplatform.application.exception.AdvertisementOperationException;
 import com.example.adplatform.application.exception.AdvertisementValidationException;
+import com.example.adplatform.application.exception.TrackingOverloadedException;
 import com.example.adplatform.application.port.in.AdvertisementService;
+import com.example.adplatform.application.port.in.InventoryVersionService;
 import com.example.adplatform.application.port.in.TargetingService;
 import com.example.adplatform.application.port.in.ViewingPolicyService;
+import com.example.adplatform.application.port.out.AdvertisementIdRegistry;
 import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.application.port.out.AdvertisementTitleIndex;
+import com.example.adplatform.application.port.out.TrackingDeduplicator;
+import com.example.adplatform.application.service.targeting.TargetingPlanner;
 import com.example.adplatform.config.CacheConfig;
 import com.example.adplatform.domain.model.Advertisement;
+import com.example.adplatform.domain.model.AdvertisementSeekKey;
 import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.domain.model.AdvertisementSummary;
+import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
 import com.example.adplatform.domain.model.Mood;
+import com.example.adplatform.domain.model.TrackingBeacon;
+import com.example.adplatform.domain.model.TrackingBeaconResult;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Implementation of the AdvertisementService port.
  * This is a service in the hexagonal architecture that implements
  * the business logic for advertisement operations.
+ *
+ * Cached reads are declared with {@code sync = true} so that concurrent misses on the same
+ * key (e.g. right after a write evicted the caches) run the underlying query only once.
+ * Title searches are matched by the in-memory {@link AdvertisementTitleIndex} once it is loaded,
+ * and by the database before that. Targeting candidates are loaded as chosen by the
+ * {@link TargetingPlanner}, or from the whole active inventory when no planner is configured.
  */
 @Service
 @Slf4j
 @Transactional
 public class AdvertisementServiceImpl implements AdvertisementService {
 
+    /** How far a beacon's occurrence time may be ahead of the server clock. */
+    private static final Duration MAX_BEACON_CLOCK_SKEW = Duration.ofMinutes(5);
+    /** How old a beacon may be; older ones fall outside the real-time statistics. */
+    private static final Duration MAX_BEACON_AGE = Duration.ofHours(24);
+
     private final AdvertisementRepository advertisementRepository;
     private final TargetingService targetingService;
     private final ViewingPolicyService viewingPolicyService;
     private final com.example.adplatform.application.port.out.AdvertisementEventPublisher eventPublisher;
+    private final InventoryVersionService inventoryVersionService;
+    private final AdvertisementTitleIndex titleIndex;
+    private final TargetingPlanner targetingPlanner;
+    private final AdvertisementIdRegistry idRegistry;
+    private final TrackingDeduplicator deduplicator;
 
     /**
      * Primary constructor for AdvertisementServiceImpl with event publishing support.
@@ -47,21 +87,38 @@ public class AdvertisementServiceImpl implements AdvertisementService {
      * @param targetingService the service for handling advertisement targeting logic
      * @param viewingPolicyService the service for managing viewing policies and fairness
      * @param eventPublisher the publisher for advertisement-related domain events
+     * @param inventoryVersionService the inventory version bumped on every save or delete
+     * @param titleIndex the in-memory title index, if enabled
+     * @param targetingPlanner the planner choosing how targeting candidates are loaded, if enabled
+     * @param idRegistry the in-memory registry of advertisement ids checked when tracking, if enabled
+     * @param deduplicator the filter of tracked events resent by players, if enabled
      */
     @org.springframework.beans.factory.annotation.Autowired
     public AdvertisementServiceImpl(AdvertisementRepository advertisementRepository,
                                     TargetingService targetingService,
                                     ViewingPolicyService viewingPolicyService,
-                                    com.example.adplatform.application.port.out.AdvertisementEventPublisher eventPublisher) {
+                                    com.example.adplatform.application.port.out.AdvertisementEventPublisher eventPublisher,
+                                    InventoryVersionService inventoryVersionService,
+                                    ObjectProvider<AdvertisementTitleIndex> titleIndex,
+                                    ObjectProvider<TargetingPlanner> targetingPlanner,
+                                    ObjectProvider<AdvertisementIdRegistry> idRegistry,
+                                    ObjectProvider<TrackingDeduplicator> deduplicator) {
         this.advertisementRepository = advertisementRepository;
         this.targetingService = targetingService;
         this.viewingPolicyService = viewingPolicyService;
         this.eventPublisher = eventPublisher;
+        this.inventoryVersionService = inventoryVersionService;
+        this.titleIndex = titleIndex.getIfAvailable(NoOpAdvertisementTitleIndex::new);
+        this.targetingPlanner = targetingPlanner.getIfAvailable();
+        this.idRegistry = idRegistry.getIfAvailable();
+        this.deduplicator = deduplicator.getIfAvailable();
     }
 
     /**
      * Backward-compatible constructor for tests and legacy wiring.
-     * Creates default instances of ViewingPolicyService and NoOpAdvertisementEventPublisher.
+     * Creates default instances of ViewingPolicyService, InventoryVersionService and NoOpAdvertisementEventPublisher;
+     * title searches always use the repository, targeting always filters the whole active inventory
+     * and tracking accepts every advertisement id and never deduplicates.
      * 
      * @param advertisementRepository the repository for advertisement persistence operations
      * @param targetingService the service for handling advertisement targeting logic
@@ -72,6 +129,11 @@ public class AdvertisementServiceImpl implements AdvertisementService {
         this.targetingService = targetingService;
         this.viewingPolicyService = new ViewingPolicyServiceImpl();
         this.eventPublisher = new NoOpAdvertisementEventPublisher();
+        this.inventoryVersionService = new InventoryVersionServiceImpl();
+        this.titleIndex = new NoOpAdvertisementTitleIndex();
+        this.targetingPlanner = null;
+        this.idRegistry = null;
+        this.deduplicator = null;
     }
 
     // No-op publisher used when event infrastructure is not wired (e.g., in unit tests)
@@ -86,6 +148,30 @@ public class AdvertisementServiceImpl implements AdvertisementService {
         }
     }
 
+    // Title index that is never ready, used when the index is disabled; searches go to the repository
+    private static final class NoOpAdvertisementTitleIndex implements AdvertisementTitleIndex {
+        @Override
+        public boolean isReady() {
+            return false;
+        }
+        @Override
+        public List<AdvertisementSummary> findByTitleContaining(String text) {
+            return List.of();
+        }
+        @Override
+        public List<AdvertisementSummary> findSimilarTitles(String text, int limit) {
+            return List.of();
+        }
+        @Override
+        public void put(AdvertisementSummary summary) {
+            // no-op
+        }
+        @Override
+        public void remove(Long id) {
+            // no-op
+        }
+    }
+
     /**
      * Retrieves all advertisements from the repository.
      * Results are cached to improve performance for repeated queries.
@@ -94,7 +180,7 @@ public class AdvertisementServiceImpl implements AdvertisementService {
      */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = CacheConfig.CACHE_ALL_ADVERTISEMENTS)
+    @Cacheable(cacheNames = CacheConfig.CACHE_ALL_ADVERTISEMENTS, sync = true)
     public List<Advertisement> getAllAdvertisements() {
         log.debug("Fetching all advertisements from database");
         return advertisementRepository.findAll();
@@ -109,12 +195,100 @@ public class AdvertisementServiceImpl implements AdvertisementService {
      */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = CacheConfig.CACHE_ALL_ADVERTISEMENTS, key = "#pageable")
+    @Cacheable(cacheNames = CacheConfig.CACHE_ALL_ADVERTISEMENTS, key = "#pageable", sync = true)
     public Page<Advertisement> getAllAdvertisements(Pageable pageable) {
         log.debug("Fetching all advertisements with pagination from database");
         return advertisementRepository.findAll(pageable);
     }
 
+    /**
+     * Retrieves summaries of all advertisements with pagination.
+     * Summaries are read with a column projection and are not cached.
+     *
+     * @param pageable the pagination information (page number, size, sorting)
+     * @return a page of advertisement summaries
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<AdvertisementSummary> getAdvertisementSummaries(Pageable pageable) {
+        log.debug("Fetching advertisement summaries with pagination from database");
+        return advertisementRepository.findAllSummaries(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<AdvertisementSummary> getAdvertisementSummariesBySource(AdvertisementSource source, Pageable pageable) {
+        log.debug("Fetching advertisement summaries by source: {} with pagination from database", source);
+        return advertisementRepository.findSummariesBySource(source, pageable);
+    }
+
+    /**
+     * Retrieves summaries of the advertisements whose title contains the given text.
+     * Answered from the title index without a transaction when it is loaded and the sort
+     * only uses summary properties.
+     *
+     * @param title the text to search for in advertisement titles
+     * @param pageable the pagination information (page number, size, sorting)
+     * @return a page of advertisement summaries
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Page<AdvertisementSummary> getAdvertisementSummariesByTitle(String title, Pageable pageable) {
+        if (titleIndex.isReady() && SummaryPages.isSortable(pageable.getSort())) {
+            log.debug("Searching advertisement summaries by title: {} in the title index", title);
+            return SummaryPages.page(titleIndex.findByTitleContaining(title), pageable);
+        }
+        log.debug("Fetching advertisement summaries by title: {} with pagination from database", title);
+        return advertisementRepository.findSummariesByTitleContainingIgnoreCase(title, pageable);
+    }
+
+    /**
+     * Retrieves summaries of the advertisements with the most similar titles, ranked by trigram similarity.
+     * Until the title index is loaded, falls back to the first titles containing the text.
+     *
+     * @param title the text to search for
+     * @param limit maximum number of results
+     * @return summaries of the matching advertisements, best match first
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<AdvertisementSummary> getSimilarAdvertisementSummaries(String title, int limit) {
+        if (titleIndex.isReady()) {
+            log.debug("Searching advertisement summaries similar to: {} in the title index", title);
+            return titleIndex.findSimilarTitles(title, limit);
+        }
+        log.debug("Fetching advertisement summaries by title: {} from database (title index not ready)", title);
+        return advertisementRepository.findSummariesByTitleContainingIgnoreCase(title, PageRequest.of(0, limit)).getContent();
+    }
+
+    /**
+     * Streams every advertisement to the sink inside one read-only transaction.
+     * Deliberately not cached: the export must not pull the whole inventory onto the heap.
+     *
+     * @param sink callback invoked once per advertisement
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAllAdvertisements(Consumer<? super Advertisement> sink) {
+        log.debug("Streaming all advertisements from database");
+        advertisementRepository.forEachAdvertisement(sink);
+    }
+
+    /**
+     * Retrieves the advertisements following the given id with keyset pagination.
+     * Slices are not cached: each one is a cheap index range scan and the cursors are rarely repeated.
+     *
+     * @param afterId id of the last advertisement of the previous slice, or null for the first slice
+     * @param size maximum number of advertisements in the slice
+     * @return a slice of advertisements ordered by id
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Advertisement> getAllAdvertisementsAfter(Long afterId, int size) {
+        log.debug("Fetching advertisements after id {} from database", afterId);
+        return advertisementRepository.findAllAfter(afterId, size);
+    }
+
     /**
      * Retrieves only active advertisements from the repository.
      * Results are cached to improve performance for repeated queries.
@@ -123,7 +297,7 @@ public class AdvertisementServiceImpl implements AdvertisementService {
      */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = CacheConfig.CACHE_ACTIVE_ADVERTISEMENTS)
+    @Cacheable(cacheNames = CacheConfig.CACHE_ACTIVE_ADVERTISEMENTS, sync = true)
     public List<Advertisement> getActiveAdvertisements() {
         log.debug("Fetching active advertisements from database");
         return advertisementRepository.findByActiveTrue();
@@ -138,12 +312,26 @@ public class AdvertisementServiceImpl implements AdvertisementService {
      */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = CacheConfig.CACHE_ACTIVE_ADVERTISEMENTS, key = "#pageable")
+    @Cacheable(cacheNames = CacheConfig.CACHE_ACTIVE_ADVERTISEMENTS, key = "#pageable", sync = true)
     public Page<Advertisement> getActiveAdvertisements(Pageable pageable) {
         log.debug("Fetching active advertisements with pagination from database");
         return advertisementRepository.findByActiveTrue(pageable);
     }
 
+    /**
+     * Retrieves the active advertisements following the given position with keyset pagination.
+     *
+     * @param after seek key of the last advertisement of the previous slice, or null for the first slice
+     * @param size maximum number of advertisements in the slice
+     * @return a slice of active advertisements
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<Advertisement> getActiveAdvertisementsAfter(AdvertisementSeekKey after, int size) {
+        log.debug("Fetching active advertisements after {} from database", after);
+        return advertisementRepository.findActiveAfter(after, size);
+    }
+
     /**
      * Retrieves an advertisement by its unique identifier.
      * Results are cached to improve performance for repeated queries.
@@ -153,7 +341,7 @@ public class AdvertisementServiceImpl implements AdvertisementService {
      */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = CacheConfig.CACHE_ADVERTISEMENT_BY_ID, key = "#id")
+    @Cacheable(cacheNames = CacheConfig.CACHE_ADVERTISEMENT_BY_ID, key = "#id", sync = true)
     public Optional<Advertisement> getAdvertisementById(Long id) {
         if (id == null) {
             log.warn("Attempted to fetch advertisement with null id");
@@ -171,7 +359,7 @@ public class AdvertisementServiceImpl implements AdvertisementService {
      * @throws AdvertisementNotFoundException if the advertisement is not found
      */
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = CacheConfig.CACHE_ADVERTISEMENT_BY_ID, key = "#id")
+    @Cacheable(cacheNames = CacheConfig.CACHE_ADVERTISEMENT_BY_ID, key = "#id", sync = true)
     public Advertisement getAdvertisementByIdOrThrow(Long id) {
         if (id == null) {
             throw new IllegalArgumentException("Advertisement ID cannot be null");
@@ -209,7 +397,13 @@ public class AdvertisementServiceImpl implements AdvertisementService {
         try {
             log.debug("Saving advertisement and evicting caches");
             validateAdvertisement(advertisement);
-            return advertisementRepository.save(advertisement);
+            Advertisement saved = advertisementRepository.save(advertisement);
+            titleIndex.put(AdvertisementSummary.of(saved));
+            if (idRegistry != null) {
+                idRegistry.add(saved.getId());
+            }
+            inventoryVersionService.markChanged();
+            return saved;
         } catch (AdvertisementValidationException e) {
             throw e;
         } catch (Exception e) {
@@ -223,6 +417,66 @@ public class AdvertisementServiceImpl implements AdvertisementService {
         }
     }
     
+    /**
+     * Saves a batch of advertisements in one transaction after validating all of them.
+     * Validation errors of the whole batch are reported together, keyed by position
+     * (e.g. {@code [3].title}). Caches are evicted and the inventory version bumped once per batch
+     * instead of once per advertisement.
+     *
+     * @param advertisements the advertisements to create or update
+     * @return the saved advertisements, in input order
+     * @throws AdvertisementValidationException if any advertisement fails validation
+     * @throws AdvertisementOperationException if the save operation fails
+     */
+    @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.CACHE_ALL_ADVERTISEMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CACHE_ACTIVE_ADVERTISEMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CACHE_ADVERTISEMENT_BY_ID, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CACHE_ADVERTISEMENTS_BY_SOURCE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CACHE_ADVERTISEMENTS_BY_TITLE, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CACHE_TARGETED_ADVERTISEMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CACHE_GEO_TARGETED_ADVERTISEMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CACHE_BIO_TARGETED_ADVERTISEMENTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CACHE_MOOD_TARGETED_ADVERTISEMENTS, allEntries = true)
+    })
+    public List<Advertisement> saveAdvertisements(List<Advertisement> advertisements) {
+        if (advertisements == null) {
+            throw new IllegalArgumentException("Advertisements cannot be null");
+        }
+        AdvertisementValidationException batchException = new AdvertisementValidationException("Bulk validation failed");
+        for (int i = 0; i < advertisements.size(); i++) {
+            try {
+                validateAdvertisement(advertisements.get(i));
+            } catch (AdvertisementValidationException e) {
+                String prefix = "[" + i + "].";
+                e.getErrors().forEach((field, message) -> batchException.addError(prefix + field, message));
+            } catch (IllegalArgumentException e) {
+                batchException.addError("[" + i + "]", e.getMessage());
+            }
+        }
+        if (!batchException.getErrors().isEmpty()) {
+            throw batchException;
+        }
+        try {
+            log.debug("Saving {} advertisements in bulk and evicting caches", advertisements.size());
+            List<Advertisement> saved = advertisementRepository.saveAll(advertisements);
+            saved.forEach(advertisement -> titleIndex.put(AdvertisementSummary.of(advertisement)));
+            if (idRegistry != null) {
+                saved.forEach(advertisement -> idRegistry.add(advertisement.getId()));
+            }
+            inventoryVersionService.markChanged();
+            return saved;
+        } catch (Exception e) {
+            throw new AdvertisementOperationException(
+                    AdvertisementOperationException.OperationType.CREATE,
+                    "Failed to save advertisements in bulk",
+                    e
+            );
+        }
+    }
+
     /**
      * Validates an advertisement before saving.
      *
@@ -317,6 +571,11 @@ public class AdvertisementServiceImpl implements AdvertisementService {
                 throw new AdvertisementNotFoundException(id);
             }
             advertisementRepository.deleteById(id);
+            titleIndex.remove(id);
+            if (idRegistry != null) {
+                idRegistry.remove(id);
+            }
+            inventoryVersionService.markChanged();
         } catch (AdvertisementNotFoundException e) {
             throw e;
         } catch (Exception e) {
@@ -330,7 +589,7 @@ public class AdvertisementServiceImpl implements AdvertisementService {
 
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = CacheConfig.CACHE_ADVERTISEMENTS_BY_SOURCE, key = "#source")
+    @Cacheable(cacheNames = CacheConfig.CACHE_ADVERTISEMENTS_BY_SOURCE, key = "#source", sync = true)
     public List<Advertisement> getAdvertisementsBySource(AdvertisementSource source) {
         log.debug("Fetching advertisements by source: {} from database", source);
         return advertisementRepository.findBySource(source);
@@ -338,32 +597,52 @@ public class AdvertisementServiceImpl implements AdvertisementService {
     
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = CacheConfig.CACHE_ADVERTISEMENTS_BY_SOURCE, key = "#source.toString() + '-' + #pageable")
+    @Cacheable(cacheNames = CacheConfig.CACHE_ADVERTISEMENTS_BY_SOURCE, key = "#source.toString() + '-' + #pageable", sync = true)
     public Page<Advertisement> getAdvertisementsBySource(AdvertisementSource source, Pageable pageable) {
         log.debug("Fetching advertisements by source: {} with pagination from database", source);
         return advertisementRepository.findBySource(source, pageable);
     }
 
+    /**
+     * Retrieves the advertisements whose title contains the given text.
+     * Matches are found in the title index and loaded by id; not cached per search string,
+     * since every keystroke of a search box would add an entry.
+     *
+     * @param title the text to search for in advertisement titles
+     * @return the matching advertisements, in id order when answered from the index
+     */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = CacheConfig.CACHE_ADVERTISEMENTS_BY_TITLE, key = "#title")
     public List<Advertisement> getAdvertisementsByTitle(String title) {
+        if (titleIndex.isReady()) {
+            log.debug("Searching advertisements by title: {} in the title index", title);
+            return advertisementRepository.findAllById(ids(titleIndex.findByTitleContaining(title)));
+        }
         log.debug("Fetching advertisements by title: {} from database", title);
         return advertisementRepository.findByTitleContainingIgnoreCase(title);
     }
     
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(cacheNames = CacheConfig.CACHE_ADVERTISEMENTS_BY_TITLE, key = "#title + '-' + #pageable")
     public Page<Advertisement> getAdvertisementsByTitle(String title, Pageable pageable) {
+        if (titleIndex.isReady() && SummaryPages.isSortable(pageable.getSort())) {
+            log.debug("Searching advertisements by title: {} with pagination in the title index", title);
+            Page<AdvertisementSummary> matches = SummaryPages.page(titleIndex.findByTitleContaining(title), pageable);
+            List<Advertisement> content = advertisementRepository.findAllById(ids(matches.getContent()));
+            return new PageImpl<>(content, pageable, matches.getTotalElements());
+        }
         log.debug("Fetching advertisements by title: {} with pagination from database", title);
         return advertisementRepository.findByTitleContainingIgnoreCase(title, pageable);
     }
 
+    private static List<Long> ids(List<AdvertisementSummary> summaries) {
+        return summaries.stream().map(AdvertisementSummary::id).toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     @Cacheable(cacheNames = CacheConfig.CACHE_TARGETED_ADVERTISEMENTS, 
-               key = "{#countryCode, #userBioData.toString(), #mood != null ? #mood.toString() : 'null'}")
+               key = "{#countryCode, #userBioData.toString(), #mood != null ? #mood.toString() : 'null'}", sync = true)
     public List<Advertisement> getTargetedAdvertisements(
             String countryCode,
             Map<String, Object> userBioData,
@@ -371,11 +650,11 @@ public class AdvertisementServiceImpl implements AdvertisementService {
     ) {
         log.debug("Fetching targeted advertisements for country: {}, mood: {} from database", countryCode, mood);
         try {
-            // Get all active advertisements
-            List<Advertisement> activeAds = getActiveAdvertisements();
+            Integer age = userBioData != null && userBioData.get("age") instanceof Integer value ? value : null;
+            List<Advertisement> candidates = getTargetingCandidates(countryCode, age, mood);
             
             // Use the targeting service to filter advertisements
-            List<Advertisement> filtered = targetingService.filterByTargetingCriteria(activeAds, countryCode, userBioData, mood);
+            List<Advertisement> filtered = targetingService.filterByTargetingCriteria(candidates, countryCode, userBioData, mood);
             return viewingPolicyService.orderForDisplayWithFairFirst(filtered);
         } catch (Exception e) {
             throw new AdvertisementOperationException(
@@ -389,7 +668,7 @@ public class AdvertisementServiceImpl implements AdvertisementService {
     @Override
     @Transactional(readOnly = true)
     @Cacheable(cacheNames = CacheConfig.CACHE_GEO_TARGETED_ADVERTISEMENTS, 
-               key = "{#countryCode, #region, #city, #latitude, #longitude}")
+               key = "{#countryCode, #region, #city, #latitude, #longitude}", sync = true)
     public List<Advertisement> getGeoTargetedAdvertisements(
             String countryCode,
             String region,
@@ -400,10 +679,10 @@ public class AdvertisementServiceImpl implements AdvertisementService {
         log.debug("Fetching geo-targeted advertisements for country: {}, region: {}, city: {} from database", 
                  countryCode, region, city);
         try {
-            List<Advertisement> activeAds = getActiveAdvertisements();
+            List<Advertisement> candidates = getTargetingCandidates(countryCode, null, null);
             
             // Use the targeting service to filter advertisements by geo targeting
-            List<Advertisement> filtered = targetingService.filterByGeoTargeting(activeAds, countryCode, region, city, latitude, longitude);
+            List<Advertisement> filtered = targetingService.filterByGeoTargeting(candidates, countryCode, region, city, latitude, longitude);
             return viewingPolicyService.orderForDisplayWithFairFirst(filtered);
         } catch (Exception e) {
             throw new AdvertisementOperationException(
@@ -417,7 +696,7 @@ public class AdvertisementServiceImpl implements AdvertisementService {
     @Override
     @Transactional(readOnly = true)
     @Cacheable(cacheNames = CacheConfig.CACHE_BIO_TARGETED_ADVERTISEMENTS, 
-               key = "{#age, #gender, #occupation, #educationLevel, #language, #interests != null ? #interests.toString() : 'null'}")
+               key = "{#age, #gender, #occupation, #educationLevel, #language, #interests != null ? #interests.toString() : 'null'}", sync = true)
     public List<Advertisement> getBioTargetedAdvertisements(
             Integer age,
             String gender,
@@ -429,10 +708,10 @@ public class AdvertisementServiceImpl implements AdvertisementService {
         log.debug("Fetching bio-targeted advertisements for age: {}, gender: {}, occupation: {} from database", 
                  age, gender, occupation);
         try {
-            List<Advertisement> activeAds = getActiveAdvertisements();
+            List<Advertisement> candidates = getTargetingCandidates(null, age, null);
             
             // Use the targeting service to filter advertisements by bio targeting
-            List<Advertisement> filtered = targetingService.filterByBioTargeting(activeAds, age, gender, occupation, educationLevel, language, interests);
+            List<Advertisement> filtered = targetingService.filterByBioTargeting(candidates, age, gender, occupation, educationLevel, language, interests);
             return viewingPolicyService.orderForDisplayWithFairFirst(filtered);
         } catch (Exception e) {
             throw new AdvertisementOperationException(
@@ -446,7 +725,7 @@ public class AdvertisementServiceImpl implements AdvertisementService {
     @Override
     @Transactional(readOnly = true)
     @Cacheable(cacheNames = CacheConfig.CACHE_MOOD_TARGETED_ADVERTISEMENTS, 
-               key = "{#mood != null ? #mood.toString() : 'null', #intensity, #timeOfDay, #dayOfWeek, #season}")
+               key = "{#mood != null ? #mood.toString() : 'null', #intensity, #timeOfDay, #dayOfWeek, #season}", sync = true)
     public List<Advertisement> getMoodTargetedAdvertisements(
             Mood mood,
             Integer intensity,
@@ -457,10 +736,10 @@ public class AdvertisementServiceImpl implements AdvertisementService {
         log.debug("Fetching mood-targeted advertisements for mood: {}, intensity: {}, timeOfDay: {} from database", 
                  mood, intensity, timeOfDay);
         try {
-            List<Advertisement> activeAds = getActiveAdvertisements();
+            List<Advertisement> candidates = getTargetingCandidates(null, null, mood);
             
             // Use the targeting service to filter advertisements by mood targeting
-            List<Advertisement> filtered = targetingService.filterByMoodTargeting(activeAds, mood, intensity, timeOfDay, dayOfWeek, season);
+            List<Advertisement> filtered = targetingService.filterByMoodTargeting(candidates, mood, intensity, timeOfDay, dayOfWeek, season);
             return viewingPolicyService.orderForDisplayWithFairFirst(filtered);
         } catch (Exception e) {
             throw new AdvertisementOperationException(
@@ -471,21 +750,191 @@ public class AdvertisementServiceImpl implements AdvertisementService {
         }
     }
 
+    /**
+     * Loads the advertisements that can match the given predicates: the whole active inventory,
+     * or the active advertisements including the most selective predicate when the planner
+     * estimates that to be cheaper. The targeting strategies still filter the result exactly.
+     */
+    private List<Advertisement> getTargetingCandidates(String countryCode, Integer age, Mood mood) {
+        TargetingPlanner.Plan plan = targetingPlanner != null
+                ? targetingPlanner.plan(countryCode, age, mood)
+                : TargetingPlanner.Plan.SNAPSHOT;
+        return switch (plan) {
+            case COUNTRY -> advertisementRepository.findByCountryCode(countryCode);
+            case AGE -> advertisementRepository.findByAgeRange(age);
+            case MOOD -> advertisementRepository.findByMood(mood);
+            case SNAPSHOT -> getActiveAdvertisements();
+        };
+    }
+
     @Override
-    public void trackAdvertisementView(Long id) {
-        // Ensure the advertisement exists (will throw if not found)
-        getAdvertisementByIdOrThrow(id);
-        var event = new com.example.adplatform.domain.event.AdvertisementViewedEvent(id, java.time.Instant.now());
-        eventPublisher.publish(event);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void trackAdvertisementView(Long id, String idempotencyKey) {
+        // Checked against the id registry only: tracking must never wait for the database
+        requireTrackedId(id);
+        var event = new AdvertisementViewedEvent(id, Instant.now());
+        String key = deduplicationKey(event, idempotencyKey, null);
+        if (!firstSeen(key)) {
+            log.debug("Ignored duplicate advertisement view for id: {}", id);
+            return;
+        }
+        try {
+            eventPublisher.publish(event);
+        } catch (TrackingOverloadedException e) {
+            forget(key);
+            throw e;
+        }
         log.debug("Tracked advertisement view for id: {}", id);
     }
 
     @Override
-    public void trackAdvertisementInteraction(Long id, String interactionType) {
-        // Ensure the advertisement exists (will throw if not found)
-        getAdvertisementByIdOrThrow(id);
-        var event = new com.example.adplatform.domain.event.AdvertisementInteractedEvent(id, interactionType, java.time.Instant.now());
-        eventPublisher.publish(event);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void trackAdvertisementInteraction(Long id, String interactionType, String idempotencyKey) {
+        requireTrackedId(id);
+        var event = new AdvertisementInteractedEvent(id, interactionType, Instant.now());
+        String key = deduplicationKey(event, idempotencyKey, null);
+        if (!firstSeen(key)) {
+            log.debug("Ignored duplicate advertisement interaction for id: {} type: {}", id, interactionType);
+            return;
+        }
+        try {
+            eventPublisher.publish(event);
+        } catch (TrackingOverloadedException e) {
+            forget(key);
+            throw e;
+        }
         log.debug("Tracked advertisement interaction for id: {} type: {}", id, interactionType);
     }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TrackingBeaconResult> trackAdvertisementEvents(List<TrackingBeacon> beacons) {
+        if (beacons == null) {
+            throw new IllegalArgumentException("Tracking events cannot be null");
+        }
+        Instant receivedAt = Instant.now();
+        TrackingBeaconResult[] results = new TrackingBeaconResult[beacons.size()];
+        List<AdvertisementTrackingEvent> events = new ArrayList<>(beacons.size());
+        List<String> keys = new ArrayList<>(beacons.size());
+        int[] positions = new int[beacons.size()];
+        for (int i = 0; i < beacons.size(); i++) {
+            TrackingBeacon beacon = beacons.get(i);
+            String error = validateBeacon(beacon, receivedAt);
+            if (error != null) {
+                results[i] = TrackingBeaconResult.invalid(error);
+                continue;
+            }
+            Instant occurredAt = beacon.occurredAt() != null ? beacon.occurredAt() : receivedAt;
+            AdvertisementTrackingEvent event = switch (beacon.kind()) {
+                case VIEW -> new AdvertisementViewedEvent(beacon.advertisementId(), occurredAt, sessionId(beacon));
+                case CLICK -> new AdvertisementInteractedEvent(beacon.advertisementId(), "CLICK", occurredAt, sessionId(beacon));
+                case INTERACTION -> new AdvertisementInteractedEvent(beacon.advertisementId(),
+                        beacon.interactionType().trim().toUpperCase(Locale.ROOT), occurredAt, sessionId(beacon));
+            };
+            String key = deduplicationKey(event, beacon.idempotencyKey(),
+                    beacon.occurredAt() != null ? beacon.sessionId() : null);
+            if (!firstSeen(key)) {
+                results[i] = TrackingBeaconResult.duplicate();
+                continue;
+            }
+            positions[events.size()] = i;
+            events.add(event);
+            keys.add(key);
+        }
+        int published = events.isEmpty() ? 0 : eventPublisher.publishAll(events);
+        for (int e = 0; e < events.size(); e++) {
+            if (e < published) {
+                results[positions[e]] = TrackingBeaconResult.accepted();
+            } else {
+                forget(keys.get(e));
+                results[positions[e]] = TrackingBeaconResult.dropped();
+            }
+        }
+        log.debug("Tracked {} of {} advertisement events in a batch", published, beacons.size());
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Key identifying a resent event: the client's idempotency key, or else its session and
+     * occurrence time, scoped to the advertisement and event type.
+     *
+     * @return the key, or {@code null} if the event cannot be told apart from others
+     */
+    private String deduplicationKey(AdvertisementTrackingEvent event, String idempotencyKey, String sessionId) {
+        if (deduplicator == null) {
+            return null;
+        }
+        String type = event instanceof AdvertisementInteractedEvent interacted ? interacted.interactionType() : "VIEW";
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            return "key|" + event.advertisementId() + '|' + type + '|' + idempotencyKey;
+        }
+        if (sessionId != null && !sessionId.isBlank()) {
+            return "session|" + event.advertisementId() + '|' + type + '|' + sessionId + '|' + event.occurredAt();
+        }
+        return null;
+    }
+
+    private boolean firstSeen(String key) {
+        return key == null || deduplicator.firstSeen(key);
+    }
+
+    /**
+     * Called when an event was not tracked after all, so the resent event is not taken for a duplicate.
+     */
+    private void forget(String key) {
+        if (key != null) {
+            deduplicator.forget(key);
+        }
+    }
+
+    private static String sessionId(TrackingBeacon beacon) {
+        return beacon.sessionId() == null || beacon.sessionId().isBlank() ? null : beacon.sessionId();
+    }
+
+    /**
+     * @return why the beacon cannot be tracked, or {@code null} if it can
+     */
+    private String validateBeacon(TrackingBeacon beacon, Instant receivedAt) {
+        if (beacon == null) {
+            return "event is required";
+        }
+        if (beacon.kind() == null) {
+            return "type must be one of VIEW, CLICK, INTERACTION";
+        }
+        if (beacon.advertisementId() == null || beacon.advertisementId() <= 0) {
+            return "advertisementId must be a positive number";
+        }
+        if (!isKnownAdvertisement(beacon.advertisementId())) {
+            return "advertisement not found";
+        }
+        if (beacon.kind() == TrackingBeacon.Kind.INTERACTION
+                && (beacon.interactionType() == null || beacon.interactionType().isBlank())) {
+            return "interactionType is required for INTERACTION events";
+        }
+        if (beacon.occurredAt() != null) {
+            if (beacon.occurredAt().isAfter(receivedAt.plus(MAX_BEACON_CLOCK_SKEW))) {
+                return "occurredAt is in the future";
+            }
+            if (beacon.occurredAt().isBefore(receivedAt.minus(MAX_BEACON_AGE))) {
+                return "occurredAt is more than " + MAX_BEACON_AGE.toHours() + " hours ago";
+            }
+        }
+        return null;
+    }
+
+    private void requireTrackedId(Long id) {
+        if (id == null) {
+            throw new IllegalArgumentException("Advertisement ID cannot be null");
+        }
+        if (!isKnownAdvertisement(id)) {
+            throw new AdvertisementNotFoundException(id);
+        }
+    }
+
+    /**
+     * @return false only if the id registry is loaded and does not hold the id
+     */
+    private boolean isKnownAdvertisement(long id) {
+        return idRegistry == null || !idRegistry.isReady() || idRegistry.contains(id);
+    }
 }
@@ -0,0 +1,57 @@
+package com.example.adplatform.application.service;
+
+import com.example.adplatform.application.port.in.InventoryVersionService;
+import com.example.adplatform.domain.model.InventoryVersion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory inventory version.
+ * The version is incremented on every change and qualified by a random epoch drawn at startup,
+ * so versions counted by different instances or before a restart never compare equal.
+ */
+@Service
+@Slf4j
+public class InventoryVersionServiceImpl implements InventoryVersionService {
+
+    private final AtomicReference<InventoryVersion> current;
+
+    public InventoryVersionServiceImpl() {
+        Instant now = Instant.now();
+        String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, Character.MAX_RADIX);
+        this.current = new AtomicReference<>(new InventoryVersion(epoch, 0, now.truncatedTo(ChronoUnit.SECONDS)));
+    }
+
+    @Override
+    public InventoryVersion current() {
+        return current.get();
+    }
+
+    @Override
+    public void markChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump();
+                }
+            });
+        } else {
+            bump();
+        }
+    }
+
+    private void bump() {
+        // HTTP dates have second precision; truncate so If-Modified-Since comparisons are exact
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        InventoryVersion next = current.updateAndGet(v -> v.next(now.isAfter(v.lastModified()) ? now : v.lastModified()));
+        log.debug("Inventory version bumped to {}", next.tag());
+    }
+}
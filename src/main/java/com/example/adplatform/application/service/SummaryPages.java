@@ -0,0 +1,71 @@
+package com.example.adplatform.application.service;
+
+import com.example.adplatform.domain.model.AdvertisementSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Sorts and pages advertisement summaries held in memory the way the repository would.
+ * Only the properties carried by {@link AdvertisementSummary} can be sorted on.
+ */
+final class SummaryPages {
+
+    private static final Map<String, Function<AdvertisementSummary, Comparable<?>>> PROPERTIES = Map.of(
+            "id", AdvertisementSummary::id,
+            "title", AdvertisementSummary::title,
+            "source", AdvertisementSummary::source,
+            "active", AdvertisementSummary::active,
+            "weight", AdvertisementSummary::weight,
+            "updatedAt", AdvertisementSummary::updatedAt);
+
+    private SummaryPages() {
+    }
+
+    /**
+     * @return true if every sort property is available on summaries
+     */
+    static boolean isSortable(Sort sort) {
+        return sort.stream().allMatch(order -> PROPERTIES.containsKey(order.getProperty()));
+    }
+
+    /**
+     * @param summaries all matching summaries
+     * @param pageable page to cut out; its sort must be {@link #isSortable sortable}
+     * @return the requested page of the sorted summaries
+     */
+    static Page<AdvertisementSummary> page(List<AdvertisementSummary> summaries, Pageable pageable) {
+        List<AdvertisementSummary> sorted = pageable.getSort().isSorted()
+                ? summaries.stream().sorted(comparator(pageable.getSort())).toList()
+                : summaries;
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(sorted, pageable, sorted.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<AdvertisementSummary> comparator(Sort sort) {
+        Comparator<AdvertisementSummary> result = null;
+        for (Sort.Order order : sort) {
+            Function<AdvertisementSummary, Comparable> property = (Function) PROPERTIES.get(order.getProperty());
+            Comparator<Comparable> values = Comparator.naturalOrder();
+            if (order.isIgnoreCase()) {
+                values = Comparator.comparing((Comparable value) -> value.toString().toLowerCase(Locale.ROOT));
+            }
+            values = order.isAscending() ? Comparator.nullsFirst(values) : Comparator.nullsLast(values.reversed());
+            Comparator<AdvertisementSummary> next = Comparator.comparing(property, values);
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.adplatform.application.service.stats;
+
+import com.example.adplatform.domain.event.AdClickEvent;
+import com.example.adplatform.domain.event.AdEvent;
+import com.example.adplatform.domain.event.AdEvent.AdEventType;
+import com.example.adplatform.domain.event.AdViewEvent;
+import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streaming join attributing clicks and conversions to the view they followed, by session id and
+ * advertisement id within the attribution window. It takes tracked views and CLICK or CONVERSION
+ * interactions as well as view and click events.
+ *
+ * Views and not yet attributed clicks are kept in hash maps partitioned by event time, so a
+ * lookup only touches the partitions the window spans. A click is attributed to a view of its
+ * session at most {@code window} before it; a view arriving after its clicks picks up the ones
+ * still held. Attributed clicks are counted by the {@link RealTimeStatsAggregator} at the time of
+ * the view, so its windows divide them by the views they came from.
+ *
+ * The watermark trails the arrival time by {@code allowedLateness}, so a batch of beacons the
+ * player buffered for hours is still joined however far ahead of it live traffic is; events older
+ * than the watermark are not joined. A partition is dropped once nothing was added to it for a
+ * window of arrival time, so state is bounded by what arrived within the last window rather than
+ * by the allowed lateness; a click arriving more than a window after its view was added is not
+ * attributed. Each partition keeps the first and last view of a session, so a click between two
+ * views of the same session and advertisement that are both outside its window but fall in one
+ * partition is not attributed.
+ */
+@Slf4j
+public class AttributionJoin {
+
+    private static final int STRIPES = 16;
+
+    private final RealTimeStatsAggregator aggregator;
+    private final long windowMillis;
+    private final long partitionMillis;
+    private final long allowedLatenessMillis;
+    private final Clock clock;
+    private final ConcurrentSkipListMap<Long, Partition> partitions = new ConcurrentSkipListMap<>();
+    private final Object[] stripes = new Object[STRIPES];
+    private final AtomicLong nextExpiry = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder attributed = new LongAdder();
+    private final LongAdder unattributed = new LongAdder();
+    private final LongAdder late = new LongAdder();
+
+    /**
+     * @param window longest time from a view to a click attributed to it
+     * @param partition time span of one state partition
+     * @param allowedLateness how long after it occurred an event may arrive and still be joined
+     */
+    public AttributionJoin(RealTimeStatsAggregator aggregator, Duration window, Duration partition,
+                           Duration allowedLateness, Clock clock) {
+        if (window.isNegative() || window.isZero() || partition.isNegative() || partition.isZero() || allowedLateness.isNegative()) {
+            throw new IllegalArgumentException("Attribution window and partition must be positive and the allowed lateness not negative");
+        }
+        this.aggregator = aggregator;
+        this.windowMillis = window.toMillis();
+        this.partitionMillis = partition.toMillis();
+        this.allowedLatenessMillis = allowedLateness.toMillis();
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Joins a view or click event; events without a session id or advertisement id are ignored.
+     */
+    public void accept(AdEvent event) {
+        Instant occurredAt = event.getTimestamp() == null ? null : event.getTimestamp().atZone(clock.getZone()).toInstant();
+        if (event instanceof AdViewEvent view) {
+            accept(view.getAdvertisementId(), view.getSessionId(), occurredAt, false, false);
+        } else if (event instanceof AdClickEvent click) {
+            accept(click.getAdvertisementId(), click.getSessionId(), occurredAt, true,
+                    Boolean.TRUE.equals(click.getResultedInConversion()));
+        }
+    }
+
+    /**
+     * Joins a tracked view, or a CLICK or CONVERSION interaction; other interactions and events
+     * without a session id or advertisement id are ignored.
+     */
+    public void accept(AdvertisementTrackingEvent event) {
+        switch (event) {
+            case AdvertisementViewedEvent viewed ->
+                    accept(viewed.advertisementId(), viewed.sessionId(), viewed.occurredAt(), false, false);
+            case AdvertisementInteractedEvent interacted -> {
+                String type = interacted.interactionType() == null ? "" : interacted.interactionType().trim().toUpperCase(Locale.ROOT);
+                if (type.equals(AdEventType.CLICK.name()) || type.equals(AdEventType.CONVERSION.name())) {
+                    accept(interacted.advertisementId(), interacted.sessionId(), interacted.occurredAt(), true,
+                            type.equals(AdEventType.CONVERSION.name()));
+                }
+            }
+        }
+    }
+
+    private void accept(Long advertisementId, String sessionId, Instant occurredAt, boolean click, boolean conversion) {
+        if (sessionId == null || advertisementId == null) {
+            return;
+        }
+        long now = clock.millis();
+        long at = occurredAt == null ? now : Math.min(occurredAt.toEpochMilli(), now);
+        if (at < now - allowedLatenessMillis) {
+            late.increment();
+            return;
+        }
+        Key key = new Key(advertisementId, sessionId);
+        synchronized (stripes[(key.hashCode() & 0x7FFFFFFF) % STRIPES]) {
+            if (click) {
+                click(key, at, now, conversion);
+            } else {
+                view(key, at, now);
+            }
+        }
+        long next = nextExpiry.get();
+        if (now >= next && nextExpiry.compareAndSet(next, now + partitionMillis)) {
+            expire(now);
+        }
+    }
+
+    /**
+     * Drops partitions nothing was added to for a window.
+     *
+     * @return number of partitions dropped
+     */
+    public int expire() {
+        return expire(clock.millis());
+    }
+
+    /**
+     * @return clicks and conversions attributed to a view
+     */
+    public long attributed() {
+        return attributed.sum();
+    }
+
+    /**
+     * @return clicks and conversions dropped with their partition without a view to attribute them to
+     */
+    public long unattributed() {
+        return unattributed.sum();
+    }
+
+    /**
+     * @return events that arrived behind the watermark and were not joined
+     */
+    public long late() {
+        return late.sum();
+    }
+
+    /**
+     * @return sessions with views or pending clicks held, summed over partitions
+     */
+    public int size() {
+        int size = 0;
+        for (Partition partition : partitions.values()) {
+            size += partition.views.size() + partition.clicks.size();
+        }
+        return size;
+    }
+
+    private void click(Key key, long at, long now, boolean conversion) {
+        for (Partition partition : partitions.subMap(partitionOf(at - windowMillis), true, partitionOf(at), true).descendingMap().values()) {
+            long[] views = partition.views.get(key);
+            if (views == null) {
+                continue;
+            }
+            long viewedAt = views[1] <= at && views[1] >= at - windowMillis ? views[1]
+                    : views[0] <= at && views[0] >= at - windowMillis ? views[0] : Long.MIN_VALUE;
+            if (viewedAt != Long.MIN_VALUE) {
+                attribute(key, viewedAt, conversion);
+                return;
+            }
+        }
+        partition(at, now).clicks.computeIfAbsent(key, k -> new ArrayList<>()).add(new PendingClick(at, conversion));
+    }
+
+    private void view(Key key, long at, long now) {
+        partition(at, now).views.merge(key, new long[]{at, at},
+                (held, added) -> new long[]{Math.min(held[0], at), Math.max(held[1], at)});
+        for (Partition partition : partitions.subMap(partitionOf(at), true, partitionOf(at + windowMillis), true).values()) {
+            List<PendingClick> clicks = partition.clicks.get(key);
+            if (clicks == null) {
+                continue;
+            }
+            clicks.removeIf(click -> {
+                boolean matches = click.at() >= at && click.at() - at <= windowMillis;
+                if (matches) {
+                    attribute(key, at, click.conversion());
+                }
+                return matches;
+            });
+            if (clicks.isEmpty()) {
+                partition.clicks.remove(key);
+            }
+        }
+    }
+
+    private void attribute(Key key, long viewedAt, boolean conversion) {
+        attributed.increment();
+        aggregator.recordAttributed(key.advertisementId(), viewedAt, conversion);
+    }
+
+    private int expire(long now) {
+        int expired = 0;
+        for (Map.Entry<Long, Partition> entry : partitions.entrySet()) {
+            Partition partition = entry.getValue();
+            if (partition.addedAt + windowMillis <= now && partitions.remove(entry.getKey(), partition)) {
+                partition.clicks.values().forEach(clicks -> unattributed.add(clicks.size()));
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.debug("Dropped {} attribution partitions nothing was added to for a window", expired);
+        }
+        return expired;
+    }
+
+    private long partitionOf(long at) {
+        return Math.floorDiv(at, partitionMillis);
+    }
+
+    private Partition partition(long at, long now) {
+        Partition partition = partitions.computeIfAbsent(partitionOf(at), index -> new Partition());
+        partition.addedAt = Math.max(partition.addedAt, now);
+        return partition;
+    }
+
+    private record Key(long advertisementId, String sessionId) {
+    }
+
+    private record PendingClick(long at, boolean conversion) {
+    }
+
+    /**
+     * State of one time partition; a key is only changed under its stripe lock.
+     */
+    private static final class Partition {
+        /** First and last view time per session and advertisement. */
+        private final Map<Key, long[]> views = new ConcurrentHashMap<>();
+        private final Map<Key, List<PendingClick>> clicks = new ConcurrentHashMap<>();
+        /** Arrival time of the last view or click added. */
+        private volatile long addedAt = Long.MIN_VALUE;
+    }
+}
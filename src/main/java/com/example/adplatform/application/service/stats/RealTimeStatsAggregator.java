@@ -0,0 +1,507 @@
+package com.example.adplatform.application.service.stats;
+
+import com.example.adplatform.application.port.in.AdvertisementStatsService;
+import com.example.adplatform.domain.event.AdClickEvent;
+import com.example.adplatform.domain.event.AdEvent;
+import com.example.adplatform.domain.event.AdEvent.AdEventType;
+import com.example.adplatform.domain.event.AdViewEvent;
+import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
+import com.example.adplatform.domain.model.AdvertisementStats;
+import com.example.adplatform.domain.model.HyperLogLog;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates tracked events into per-advertisement counters for every {@link AdEventType}.
+ *
+ * Each advertisement has three rings of time buckets: minutes, hours and days. An event is
+ * counted in the current bucket of every ring it is still retained by; a bucket whose slot comes
+ * round again is replaced by a fresh one for the new window. Counters are {@link LongAdder}s,
+ * which spread contended increments over several cells, and readers only sum them, so queries
+ * never block writers. A window is answered with the coarsest buckets that fit inside it, see
+ * {@link AdvertisementStatsService}. Events older than their ring are not counted there.
+ *
+ * Views carrying a user or session id are also added to a {@link HyperLogLog} sketch of their day
+ * and hour buckets, created with the first such view; the sketches of a window are merged to
+ * estimate its unique reach, which plain counters cannot give. Hour sketches are
+ * {@value #HOURLY_REACH_PRECISION_REDUCTION} precision steps coarser, a sixteenth of the size, and
+ * minute buckets keep none, so windows answered partly with minute buckets have no reach: the
+ * sketches of their whole hours would count viewers outside the window.
+ */
+@Slf4j
+public class RealTimeStatsAggregator implements AdvertisementStatsService {
+
+    private static final AdEventType[] TYPES = AdEventType.values();
+    static final int HOURLY_REACH_PRECISION_REDUCTION = 4;
+
+    /**
+     * Bucket widths, coarsest first.
+     */
+    enum Granularity {
+        DAY(Duration.ofDays(1)),
+        HOUR(Duration.ofHours(1)),
+        MINUTE(Duration.ofMinutes(1));
+
+        private final long millis;
+
+        Granularity(Duration width) {
+            this.millis = width.toMillis();
+        }
+    }
+
+    private final Map<Long, Windows> advertisements = new ConcurrentHashMap<>();
+    private final int[] slots = new int[Granularity.values().length];
+    private final int reachPrecision;
+    private final int hourlyReachPrecision;
+    private final Clock clock;
+
+    /**
+     * @param clock its zone interprets the local timestamps of view and click events
+     */
+    public RealTimeStatsAggregator(int minuteSlots, int hourSlots, int daySlots, Clock clock) {
+        this(minuteSlots, hourSlots, daySlots, HyperLogLog.DEFAULT_PRECISION, clock);
+    }
+
+    /**
+     * @param reachPrecision precision of the daily unique reach sketches, see {@link HyperLogLog}
+     * @param clock its zone interprets the local timestamps of view and click events
+     */
+    public RealTimeStatsAggregator(int minuteSlots, int hourSlots, int daySlots, int reachPrecision, Clock clock) {
+        if (minuteSlots < 60 || hourSlots < 24 || daySlots < 1) {
+            throw new IllegalArgumentException("Stats rings must cover at least an hour of minutes, a day of hours and one day");
+        }
+        this.slots[Granularity.MINUTE.ordinal()] = minuteSlots;
+        this.slots[Granularity.HOUR.ordinal()] = hourSlots;
+        this.slots[Granularity.DAY.ordinal()] = daySlots;
+        // Fail fast on an invalid precision rather than with the first view
+        this.reachPrecision = new HyperLogLog(reachPrecision).precision();
+        this.hourlyReachPrecision = Math.max(HyperLogLog.MIN_PRECISION, reachPrecision - HOURLY_REACH_PRECISION_REDUCTION);
+        this.clock = clock;
+    }
+
+    /**
+     * Counts a view or click event, including its device, browser and viewer for views.
+     */
+    public void record(AdEvent event) {
+        Instant occurredAt = event.getTimestamp() == null ? null : event.getTimestamp().atZone(clock.getZone()).toInstant();
+        if (event instanceof AdViewEvent view) {
+            AdEventType type = Boolean.TRUE.equals(view.getIsCompleteView()) ? AdEventType.COMPLETE_VIEW : AdEventType.VIEW;
+            String viewerId = view.getUserId() != null ? view.getUserId() : view.getSessionId();
+            record(view.getAdvertisementId(), type, occurredAt, view.getDeviceType(), view.getBrowserInfo(), viewerId);
+        } else if (event instanceof AdClickEvent click) {
+            AdEventType type = Boolean.TRUE.equals(click.getResultedInConversion()) ? AdEventType.CONVERSION : AdEventType.CLICK;
+            record(click.getAdvertisementId(), type, occurredAt, null, null);
+        } else {
+            record(event.getAdvertisementId(), event.getEventType(), occurredAt, null, null);
+        }
+    }
+
+    /**
+     * Counts a tracked view, including its session for the unique reach, or an interaction whose
+     * type names an {@link AdEventType}.
+     */
+    public void record(AdvertisementTrackingEvent event) {
+        switch (event) {
+            case AdvertisementViewedEvent viewed ->
+                    record(viewed.advertisementId(), AdEventType.VIEW, viewed.occurredAt(), null, null, viewed.sessionId());
+            case AdvertisementInteractedEvent interacted -> {
+                AdEventType type = interactionType(interacted.interactionType());
+                if (type == null) {
+                    log.debug("Interaction type {} has no counter, not counted", interacted.interactionType());
+                    return;
+                }
+                record(interacted.advertisementId(), type, interacted.occurredAt(), null, null);
+            }
+        }
+    }
+
+    /**
+     * Counts one event; a missing timestamp counts as now.
+     */
+    public void record(Long advertisementId, AdEventType type, Instant occurredAt, String deviceType, String browserInfo) {
+        record(advertisementId, type, occurredAt, deviceType, browserInfo, null);
+    }
+
+    /**
+     * Counts one event; a missing timestamp counts as now.
+     *
+     * @param viewerId identifies the viewer of a view for the unique reach, or {@code null}
+     */
+    public void record(Long advertisementId, AdEventType type, Instant occurredAt, String deviceType, String browserInfo,
+                       String viewerId) {
+        if (advertisementId == null || type == null) {
+            return;
+        }
+        boolean view = type == AdEventType.VIEW || type == AdEventType.COMPLETE_VIEW;
+        long viewerHash = view && viewerId != null ? HyperLogLog.hash(viewerId) : 0;
+        long now = clock.millis();
+        long at = occurredAt == null ? now : Math.min(occurredAt.toEpochMilli(), now);
+        Windows windows = advertisements.get(advertisementId);
+        if (windows == null) {
+            windows = advertisements.computeIfAbsent(advertisementId, id -> new Windows(slots));
+        }
+        for (Granularity granularity : Granularity.values()) {
+            Bucket bucket = windows.rings[granularity.ordinal()].current(granularity, at, now);
+            if (bucket != null) {
+                bucket.record(type, at, deviceType, browserInfo);
+                if (view && viewerId != null && granularity != Granularity.MINUTE) {
+                    bucket.reach(granularity == Granularity.DAY ? reachPrecision : hourlyReachPrecision).addHash(viewerHash);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a click, or a conversion, that an {@link AttributionJoin} attributed to a view at
+     * {@code viewedAt}. It is counted at the time of the view, so a window's attributed rates
+     * relate to the views in it.
+     */
+    public void recordAttributed(Long advertisementId, long viewedAt, boolean conversion) {
+        long now = clock.millis();
+        long at = Math.min(viewedAt, now);
+        Windows windows = advertisements.get(advertisementId);
+        if (windows == null) {
+            windows = advertisements.computeIfAbsent(advertisementId, id -> new Windows(slots));
+        }
+        for (Granularity granularity : Granularity.values()) {
+            Bucket bucket = windows.rings[granularity.ordinal()].current(granularity, at, now);
+            if (bucket != null) {
+                bucket.attributedClicks.increment();
+                if (conversion) {
+                    bucket.attributedConversions.increment();
+                }
+            }
+        }
+    }
+
+    @Override
+    public AdvertisementStats getStats(Long advertisementId, Duration window) {
+        Instant now = clock.instant();
+        return getStats(advertisementId, now.minus(window), now);
+    }
+
+    @Override
+    public AdvertisementStats getStats(Long advertisementId, Instant from, Instant to) {
+        List<Bucket> buckets = buckets(advertisementId, from, to);
+        return toStats(buckets, reach(buckets));
+    }
+
+    /**
+     * {@inheritDoc}
+     * The sketch has the precision of the daily sketches if the window is covered by day buckets
+     * only, otherwise the coarser one of the hourly sketches. Windows that need minute buckets,
+     * which keep no sketch, have none.
+     */
+    @Override
+    public HyperLogLog getReachSketch(Long advertisementId, Instant from, Instant to) {
+        return reach(buckets(advertisementId, from, to));
+    }
+
+    private List<Bucket> buckets(Long advertisementId, Instant from, Instant to) {
+        if (advertisementId == null) {
+            throw new IllegalArgumentException("Advertisement ID cannot be null");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Stats window must start before it ends: " + from + " - " + to);
+        }
+        Windows windows = advertisements.get(advertisementId);
+        return windows == null
+                ? List.of()
+                : windows.cover(from.toEpochMilli(), to.toEpochMilli(), clock.millis());
+    }
+
+    private HyperLogLog reach(List<Bucket> buckets) {
+        Set<Bucket> counted = Collections.newSetFromMap(new IdentityHashMap<>());
+        int precision = reachPrecision;
+        for (Bucket bucket : buckets) {
+            if (bucket.granularity == Granularity.MINUTE) {
+                return null;
+            }
+            if (bucket.reach != null && counted.add(bucket)) {
+                precision = Math.min(precision, bucket.reach.precision());
+            }
+        }
+        HyperLogLog reach = new HyperLogLog(precision);
+        for (Bucket bucket : counted) {
+            reach.merge(bucket.reach.precision() == precision ? bucket.reach : bucket.reach.fold(precision));
+        }
+        return reach;
+    }
+
+    /**
+     * Forgets advertisements without events in any retained bucket.
+     *
+     * @return number of advertisements forgotten
+     */
+    public int purgeIdle() {
+        long now = clock.millis();
+        int purged = 0;
+        for (Map.Entry<Long, Windows> entry : advertisements.entrySet()) {
+            if (entry.getValue().isIdle(now) && advertisements.remove(entry.getKey(), entry.getValue())) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * @return number of advertisements with counters
+     */
+    public int size() {
+        return advertisements.size();
+    }
+
+    private AdvertisementStats toStats(List<Bucket> buckets, HyperLogLog reach) {
+        long[] counts = new long[TYPES.length];
+        Map<String, Long> viewsByDevice = new HashMap<>();
+        Map<String, Long> viewsByBrowser = new HashMap<>();
+        long lastRecorded = Long.MIN_VALUE;
+        long attributedClicks = 0;
+        long attributedConversions = 0;
+        for (Bucket bucket : buckets) {
+            attributedClicks += bucket.attributedClicks.sum();
+            attributedConversions += bucket.attributedConversions.sum();
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += bucket.counts[i].sum();
+            }
+            bucket.viewsByDevice.forEach((device, views) -> viewsByDevice.merge(device, views.sum(), Long::sum));
+            bucket.viewsByBrowser.forEach((browser, views) -> viewsByBrowser.merge(browser, views.sum(), Long::sum));
+            lastRecorded = Math.max(lastRecorded, bucket.lastRecorded.get());
+        }
+        long views = counts[AdEventType.VIEW.ordinal()] + counts[AdEventType.COMPLETE_VIEW.ordinal()];
+        long clicks = counts[AdEventType.CLICK.ordinal()] + counts[AdEventType.CONVERSION.ordinal()];
+        long conversions = counts[AdEventType.CONVERSION.ordinal()];
+        return AdvertisementStats.builder()
+                .viewCount(views)
+                .completeViewCount(counts[AdEventType.COMPLETE_VIEW.ordinal()])
+                .clickCount(clicks)
+                .conversionCount(conversions)
+                .skipCount(counts[AdEventType.SKIP.ordinal()])
+                .shareCount(counts[AdEventType.SHARE.ordinal()])
+                .likeCount(counts[AdEventType.LIKE.ordinal()])
+                .dislikeCount(counts[AdEventType.DISLIKE.ordinal()])
+                .clickThroughRate(views > 0 ? (double) clicks / views : 0.0)
+                .conversionRate(views > 0 ? (double) conversions / views : 0.0)
+                .attributedClickCount(attributedClicks)
+                .attributedConversionCount(attributedConversions)
+                .attributedClickThroughRate(views > 0 ? (double) attributedClicks / views : 0.0)
+                .attributedConversionRate(views > 0 ? (double) attributedConversions / views : 0.0)
+                .viewsByDevice(viewsByDevice)
+                .viewsByBrowser(viewsByBrowser)
+                .uniqueReach(reach == null ? null : reach.estimate())
+                .lastUpdated(lastRecorded == Long.MIN_VALUE
+                        ? null
+                        : LocalDateTime.ofInstant(Instant.ofEpochMilli(lastRecorded), clock.getZone()))
+                .build();
+    }
+
+    private static AdEventType interactionType(String interactionType) {
+        if (interactionType == null) {
+            return null;
+        }
+        try {
+            return AdEventType.valueOf(interactionType.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The rings of one advertisement, indexed by {@link Granularity#ordinal()}.
+     */
+    private static final class Windows {
+
+        private final Ring[] rings;
+
+        private Windows(int[] slots) {
+            this.rings = new Ring[slots.length];
+            for (int i = 0; i < slots.length; i++) {
+                rings[i] = new Ring(slots[i]);
+            }
+        }
+
+        /**
+         * Walks from {@code from} to {@code to}, taking at each step the coarsest retained bucket
+         * that starts there and ends inside the window (or is still open when the window reaches now),
+         * otherwise the finest retained bucket containing the step.
+         */
+        private List<Bucket> cover(long from, long to, long now) {
+            List<Bucket> buckets = new ArrayList<>();
+            if (to >= now) {
+                // Events are never counted after now, so a window reaching now includes the current buckets
+                to = now + 1;
+            }
+            long at = from;
+            while (at < to) {
+                Granularity chosen = null;
+                for (Granularity granularity : Granularity.values()) {
+                    long start = Math.floorDiv(at, granularity.millis) * granularity.millis;
+                    if (start == at && (start + granularity.millis <= to || to >= now)
+                            && rings[granularity.ordinal()].retains(granularity, start, now)) {
+                        chosen = granularity;
+                        break;
+                    }
+                }
+                if (chosen == null) {
+                    for (int i = Granularity.values().length - 1; i >= 0 && chosen == null; i--) {
+                        Granularity granularity = Granularity.values()[i];
+                        long start = Math.floorDiv(at, granularity.millis) * granularity.millis;
+                        if (rings[i].retains(granularity, start, now)) {
+                            chosen = granularity;
+                        }
+                    }
+                }
+                if (chosen == null) {
+                    // Older than every ring: nothing retained until the oldest day bucket
+                    long oldestDay = (Math.floorDiv(now, Granularity.DAY.millis) - rings[Granularity.DAY.ordinal()].size() + 1)
+                            * Granularity.DAY.millis;
+                    if (oldestDay <= at) {
+                        break;
+                    }
+                    at = oldestDay;
+                    continue;
+                }
+                long start = Math.floorDiv(at, chosen.millis) * chosen.millis;
+                Bucket bucket = rings[chosen.ordinal()].get(chosen, start);
+                if (bucket != null) {
+                    buckets.add(bucket);
+                }
+                at = start + chosen.millis;
+            }
+            return buckets;
+        }
+
+        private boolean isIdle(long now) {
+            Ring days = rings[Granularity.DAY.ordinal()];
+            long current = Math.floorDiv(now, Granularity.DAY.millis);
+            for (int i = 0; i < days.size(); i++) {
+                Bucket bucket = days.buckets.get(i);
+                if (bucket != null && bucket.window > current - days.size()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Fixed number of bucket slots of one granularity; window {@code w} lives in slot {@code w mod size}.
+     */
+    private static final class Ring {
+
+        private final AtomicReferenceArray<Bucket> buckets;
+
+        private Ring(int size) {
+            this.buckets = new AtomicReferenceArray<>(size);
+        }
+
+        private int size() {
+            return buckets.length();
+        }
+
+        private boolean retains(Granularity granularity, long start, long now) {
+            long window = Math.floorDiv(start, granularity.millis);
+            long current = Math.floorDiv(now, granularity.millis);
+            return window <= current && window > current - size();
+        }
+
+        /**
+         * @return the bucket counting events at {@code at}, or {@code null} if the ring no longer retains it
+         */
+        private Bucket current(Granularity granularity, long at, long now) {
+            if (!retains(granularity, at, now)) {
+                return null;
+            }
+            long window = Math.floorDiv(at, granularity.millis);
+            int slot = (int) Math.floorMod(window, (long) size());
+            while (true) {
+                Bucket bucket = buckets.get(slot);
+                if (bucket != null && bucket.window == window) {
+                    return bucket;
+                }
+                if (bucket != null && bucket.window > window) {
+                    return null;
+                }
+                Bucket fresh = new Bucket(granularity, window);
+                if (buckets.compareAndSet(slot, bucket, fresh)) {
+                    return fresh;
+                }
+            }
+        }
+
+        private Bucket get(Granularity granularity, long start) {
+            long window = Math.floorDiv(start, granularity.millis);
+            Bucket bucket = buckets.get((int) Math.floorMod(window, (long) size()));
+            return bucket != null && bucket.window == window ? bucket : null;
+        }
+    }
+
+    /**
+     * Counters of one advertisement in one time window.
+     */
+    private static final class Bucket {
+
+        private final Granularity granularity;
+        private final long window;
+        private final LongAdder[] counts = new LongAdder[TYPES.length];
+        private final Map<String, LongAdder> viewsByDevice = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> viewsByBrowser = new ConcurrentHashMap<>();
+        private final LongAccumulator lastRecorded = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final LongAdder attributedClicks = new LongAdder();
+        private final LongAdder attributedConversions = new LongAdder();
+        private volatile HyperLogLog reach;
+
+        private Bucket(Granularity granularity, long window) {
+            this.granularity = granularity;
+            this.window = window;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+
+        private void record(AdEventType type, long at, String deviceType, String browserInfo) {
+            counts[type.ordinal()].increment();
+            if (type == AdEventType.VIEW || type == AdEventType.COMPLETE_VIEW) {
+                if (deviceType != null) {
+                    viewsByDevice.computeIfAbsent(deviceType, key -> new LongAdder()).increment();
+                }
+                if (browserInfo != null) {
+                    viewsByBrowser.computeIfAbsent(browserInfo, key -> new LongAdder()).increment();
+                }
+            }
+            lastRecorded.accumulate(at);
+        }
+
+        private HyperLogLog reach(int precision) {
+            HyperLogLog sketch = reach;
+            if (sketch == null) {
+                synchronized (this) {
+                    sketch = reach;
+                    if (sketch == null) {
+                        sketch = new HyperLogLog(precision);
+                        reach = sketch;
+                    }
+                }
+            }
+            return sketch;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.adplatform.application.service.targeting;
+
+import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.domain.model.Mood;
+import com.example.adplatform.domain.model.TargetingStatistics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Chooses how to load the candidates of a targeting request.
+ *
+ * Country, age and mood targeting only match advertisements with an include target for the
+ * requested value, so the repository can return a superset of the matches with one indexed
+ * predicate; the strategies then filter those candidates exactly as they filter the snapshot.
+ * The cost of a plan is the number of rows it loads: the whole active inventory for the snapshot,
+ * or the estimated matches of the predicate plus a fixed overhead for the extra queries.
+ * Estimates come from {@link TargetingStatistics} refreshed at most once per interval; stale
+ * statistics can only make a plan slower, never change the result.
+ */
+@Slf4j
+public class TargetingPlanner {
+
+    /**
+     * Where the candidates of a targeting request are loaded from.
+     */
+    public enum Plan {
+        /** All active advertisements, filtered in memory. */
+        SNAPSHOT,
+        /** Active advertisements including the requested country. */
+        COUNTRY,
+        /** Active advertisements with an age range containing the requested age. */
+        AGE,
+        /** Active advertisements including the requested mood. */
+        MOOD;
+
+        /**
+         * @return the value of the {@code plan} metric tag
+         */
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final AdvertisementRepository advertisementRepository;
+    private final long queryOverheadRows;
+    private final Duration statisticsRefreshInterval;
+    private final Clock clock;
+
+    private volatile TargetingStatistics statistics;
+    private volatile Instant statisticsLoadedAt = Instant.MIN;
+
+    /**
+     * @param queryOverheadRows rows a pushed-down query must save to pay for its extra round trips
+     * @param statisticsRefreshInterval how long loaded statistics are used before they are reloaded
+     */
+    public TargetingPlanner(AdvertisementRepository advertisementRepository,
+                            long queryOverheadRows,
+                            Duration statisticsRefreshInterval,
+                            Clock clock) {
+        this.advertisementRepository = advertisementRepository;
+        this.queryOverheadRows = queryOverheadRows;
+        this.statisticsRefreshInterval = statisticsRefreshInterval;
+        this.clock = clock;
+    }
+
+    /**
+     * Chooses the cheapest plan for the given predicates; {@code null} predicates are not targeted.
+     *
+     * @return the plan loading the fewest rows
+     */
+    public Plan plan(String countryCode, Integer age, Mood mood) {
+        if (countryCode == null && age == null && mood == null) {
+            return Plan.SNAPSHOT;
+        }
+        TargetingStatistics current = statistics();
+        if (current == null) {
+            return Plan.SNAPSHOT;
+        }
+        Plan best = Plan.SNAPSHOT;
+        long bestCost = current.activeCount();
+        if (countryCode != null && current.estimateCountry(countryCode) + queryOverheadRows < bestCost) {
+            best = Plan.COUNTRY;
+            bestCost = current.estimateCountry(countryCode) + queryOverheadRows;
+        }
+        if (age != null && current.estimateAge(age) + queryOverheadRows < bestCost) {
+            best = Plan.AGE;
+            bestCost = current.estimateAge(age) + queryOverheadRows;
+        }
+        if (mood != null && current.estimateMood(mood) + queryOverheadRows < bestCost) {
+            best = Plan.MOOD;
+        }
+        return best;
+    }
+
+    /**
+     * @return current statistics, or {@code null} if they could not be loaded
+     */
+    private TargetingStatistics statistics() {
+        if (isFresh()) {
+            return statistics;
+        }
+        synchronized (this) {
+            if (!isFresh()) {
+                try {
+                    statistics = advertisementRepository.loadTargetingStatistics();
+                } catch (RuntimeException e) {
+                    // Plan from the snapshot until the next refresh rather than failing the request
+                    log.warn("Failed to load targeting statistics: {}", e.getMessage());
+                    statistics = null;
+                }
+                statisticsLoadedAt = clock.instant();
+            }
+            return statistics;
+        }
+    }
+
+    private boolean isFresh() {
+        return clock.instant().isBefore(statisticsLoadedAt.plus(statisticsRefreshInterval));
+    }
+}
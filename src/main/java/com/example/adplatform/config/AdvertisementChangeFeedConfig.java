@@ -0,0 +1,66 @@
+package com.example.adplatform.config;
+
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChangeFeed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Configuration for the advertisement change feed.
+ * Saves and deletes are recorded in the {@code advertisement_changes} outbox; this feed polls it every
+ * {@code app.advertisements.change-feed.poll-interval} and hands the changes to in-process consumers.
+ * Checkpoints are kept per {@code app.advertisements.change-feed.instance-id}, which defaults to the
+ * host name so that an instance resumes from its checkpoints after a restart.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "app.advertisements.change-feed", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdvertisementChangeFeedConfig {
+
+    @Bean
+    public AdvertisementChangeFeed advertisementChangeFeed(@Qualifier("writeDataSource") DataSource dataSource,
+                                                           Environment env,
+                                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        return new AdvertisementChangeFeed(
+                dataSource,
+                instanceId(env),
+                env.getProperty("app.advertisements.change-feed.batch-size", Integer.class, 500),
+                env.getProperty("app.advertisements.change-feed.retention", Duration.class, Duration.ofDays(1)),
+                env.getProperty("app.advertisements.change-feed.gap-timeout", Duration.class, Duration.ofMinutes(10)),
+                Clock.systemUTC(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * The configured instance id, else the host name, which is stable across restarts of a
+     * StatefulSet pod or a VM. A random id would orphan the checkpoints of every previous start.
+     */
+    private static String instanceId(Environment env) {
+        String instanceId = env.getProperty("app.advertisements.change-feed.instance-id");
+        if (instanceId != null && !instanceId.isBlank()) {
+            return instanceId;
+        }
+        String hostname = env.getProperty("HOSTNAME");
+        if (hostname != null && !hostname.isBlank()) {
+            return hostname;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException(
+                    "Cannot derive a change feed instance id from the host name; set app.advertisements.change-feed.instance-id", e);
+        }
+    }
+}
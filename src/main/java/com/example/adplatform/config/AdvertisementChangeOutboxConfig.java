@@ -0,0 +1,24 @@
+package com.example.adplatform.config;
+
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChangeOutbox;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration for the advertisement change outbox.
+ * The outbox is only written while {@code app.advertisements.change-feed.enabled} is set, as the
+ * change feed is what reads and purges it.
+ */
+@Configuration
+public class AdvertisementChangeOutboxConfig {
+
+    @Bean
+    public AdvertisementChangeOutbox advertisementChangeOutbox(DataSource dataSource, Environment env) {
+        return new AdvertisementChangeOutbox(
+                dataSource,
+                env.getProperty("app.advertisements.change-feed.enabled", Boolean.class, true));
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.adplatform.config;
+
+import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidationTransport;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChangeFeed;
+import com.example.adplatform.infrastructure.registry.AdvertisementIdRegistryAdapter;
+import com.example.adplatform.infrastructure.registry.CompactIdSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the in-memory registry of advertisement ids checked on the tracking path.
+ * The ids are loaded in the background after startup; tracking accepts every id until it is ready.
+ * With several instances, the registry follows the advertisement change feed, or, when the feed is
+ * disabled, updates travel over the cache invalidation transport.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.tracking.id-registry", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AdvertisementIdRegistryConfig {
+
+    @Bean
+    public AdvertisementIdRegistryAdapter advertisementIdRegistry(AdvertisementRepository advertisementRepository,
+                                                                  PlatformTransactionManager transactionManager,
+                                                                  ObjectProvider<CacheInvalidationTransport> transport,
+                                                                  ObjectProvider<AdvertisementChangeFeed> changeFeed,
+                                                                  Environment env,
+                                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        AdvertisementChangeFeed feed = changeFeed.getIfAvailable();
+        AdvertisementIdRegistryAdapter registry = new AdvertisementIdRegistryAdapter(
+                new CompactIdSet(
+                        env.getProperty("app.tracking.id-registry.dense-id-limit", Integer.class, 1 << 26),
+                        env.getProperty("app.tracking.id-registry.false-positive-rate", Double.class, 0.01)),
+                advertisementRepository,
+                new TransactionTemplate(transactionManager),
+                feed == null ? transport.getIfAvailable() : null,
+                env.getProperty("app.tracking.id-registry.load-page-size", Integer.class, 10000),
+                env.getProperty("app.tracking.id-registry.load-retry-delay", Duration.class, Duration.ofSeconds(1)),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        if (feed != null) {
+            feed.subscribe(registry);
+        }
+        return registry;
+    }
+}
@@ -1,18 +1,40 @@
 package com.example.adplatform.config;
 
+import com.example.adplatform.infrastructure.cache.CoalescingCache;
+import com.example.adplatform.infrastructure.cache.OffHeapArena;
+import com.example.adplatform.infrastructure.cache.OffHeapPageCache;
+import com.example.adplatform.infrastructure.cache.invalidation.BroadcastingCache;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidationBus;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
 import java.util.Arrays;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration class for caching in the application.
- * Uses Caffeine as the caching provider.
+ * Uses Caffeine as the caching provider; every cache is wrapped in a {@link CoalescingCache}
+ * so concurrent misses on the same key are computed only once.
+ *
+ * Paginated results of the list caches ({@link #OFF_HEAP_PAGE_CACHES}) are additionally kept as
+ * serialized blobs in a size-bounded off-heap arena ({@code app.cache.offheap.*}) rather than as
+ * object graphs on the heap.
+ *
+ * When a {@link CacheInvalidationBus} is configured, every eviction is also broadcast to the other
+ * application instances (see {@link CacheInvalidationConfig}).
  */
 @Configuration
 @EnableCaching
@@ -32,18 +54,50 @@ public class CacheConfig {
     public static final String CACHE_BIO_TARGETED_ADVERTISEMENTS = "bioTargetedAdvertisements";
     public static final String CACHE_MOOD_TARGETED_ADVERTISEMENTS = "moodTargetedAdvertisements";
 
+    /**
+     * Caches whose {@code Page<Advertisement>} values are stored off-heap.
+     */
+    public static final Set<String> OFF_HEAP_PAGE_CACHES = Set.of(
+            CACHE_ALL_ADVERTISEMENTS,
+            CACHE_ACTIVE_ADVERTISEMENTS,
+            CACHE_ADVERTISEMENTS_BY_SOURCE
+    );
+
+    private static final long CACHE_TTL_MINUTES = 10;
+    private static final int MAX_OFFHEAP_CAPACITY_MB = Integer.MAX_VALUE / (1024 * 1024);
+
     /**
      * Configures the Caffeine cache manager with appropriate settings.
      * 
+     * @param meterRegistry registry for the coalescing metrics; falls back to the global registry
+     * @param env environment providing the {@code app.cache.offheap.*} settings
+     * @param invalidationBus bus broadcasting evictions to other instances, if enabled
      * @return the configured cache manager
      */
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    public CacheManager cacheManager(ObjectProvider<MeterRegistry> meterRegistry,
+                                     Environment env,
+                                     ObjectProvider<CacheInvalidationBus> invalidationBus) {
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        OffHeapArena pageArena = offHeapPageArena(env, registry);
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                Cache adapted = super.adaptCaffeineCache(name, cache);
+                if (pageArena != null && OFF_HEAP_PAGE_CACHES.contains(name)) {
+                    adapted = new OffHeapPageCache(adapted, pageArena);
+                }
+                if (bus != null) {
+                    adapted = new BroadcastingCache(adapted, bus);
+                }
+                return new CoalescingCache(adapted, registry);
+            }
+        };
         
         // Set default cache specification
         cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .expireAfterWrite(CACHE_TTL_MINUTES, TimeUnit.MINUTES)
                 .maximumSize(1000));
         
         // Add all cache names
@@ -61,4 +115,40 @@ public class CacheConfig {
         
         return cacheManager;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates the arena shared by the off-heap page caches, or {@code null} when the tier is disabled.
+     */
+    private static OffHeapArena offHeapPageArena(Environment env, MeterRegistry registry) {
+        if (!env.getProperty("app.cache.offheap.enabled", Boolean.class, true)) {
+            return null;
+        }
+        int capacityMb = env.getProperty("app.cache.offheap.capacity-mb", Integer.class, 64);
+        // One direct buffer holds the arena, so it cannot exceed 2 GiB
+        if (capacityMb < 1 || capacityMb > MAX_OFFHEAP_CAPACITY_MB) {
+            throw new IllegalStateException("app.cache.offheap.capacity-mb must be between 1 and "
+                    + MAX_OFFHEAP_CAPACITY_MB + ", was " + capacityMb);
+        }
+        OffHeapArena arena = new OffHeapArena(capacityMb * 1024 * 1024, TimeUnit.MINUTES.toNanos(CACHE_TTL_MINUTES));
+        Gauge.builder("advertisements.cache.offheap.bytes", arena, OffHeapArena::liveBytes)
+                .description("Bytes held by cached pages in the off-heap arena")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("advertisements.cache.offheap.entries", arena, OffHeapArena::size)
+                .description("Number of cached pages in the off-heap arena")
+                .register(registry);
+        return arena;
+    }
+
+    /**
+     * Keeps Actuator's Caffeine cache metrics working for the coalescing wrappers.
+     *
+     * @return binder provider that unwraps {@link CoalescingCache} to its native Caffeine cache
+     */
+    @Bean
+    public CacheMeterBinderProvider<CoalescingCache> coalescingCacheMeterBinderProvider() {
+        return (cache, tags) -> cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache
+                ? new CaffeineCacheMetrics<>(nativeCache, cache.getName(), tags)
+                : null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.adplatform.config;
+
+import com.example.adplatform.application.port.in.InventoryVersionService;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidationBus;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidationTransport;
+import com.example.adplatform.infrastructure.cache.invalidation.JdbcCacheInvalidationTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuration for cross-instance cache coherence.
+ * Local cache evictions are broadcast through a {@link CacheInvalidationTransport}; unless another
+ * transport bean is provided, the JDBC change table {@code cache_invalidations} is used and polled
+ * every {@code app.cache.invalidation.poll-interval}.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "app.cache.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(CacheInvalidationTransport.class)
+    public JdbcCacheInvalidationTransport jdbcCacheInvalidationTransport(@Qualifier("writeDataSource") DataSource dataSource,
+                                                                         Environment env) {
+        // Always the primary database: a lagging replica would hide fresh invalidations
+        return new JdbcCacheInvalidationTransport(
+                dataSource,
+                env.getProperty("app.cache.invalidation.batch-size", Integer.class, 500),
+                env.getProperty("app.cache.invalidation.retention", Duration.class, Duration.ofHours(1)));
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(CacheInvalidationTransport transport,
+                                                     ObjectProvider<CacheManager> cacheManager,
+                                                     InventoryVersionService inventoryVersionService,
+                                                     ObjectProvider<MeterRegistry> meterRegistry) {
+        return new CacheInvalidationBus(transport, cacheManager, inventoryVersionService,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.adplatform.config;
+
+import com.example.adplatform.application.port.in.AdvertisementService;
+import com.example.adplatform.infrastructure.cache.CacheWarmer;
+import com.example.adplatform.infrastructure.cache.TargetingHotKeyRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration for warming the targeting caches after a restart or deploy.
+ * Hot targeting keys are recorded to a local file ({@code app.cache.warmup.file}) while the
+ * application runs and replayed on the next startup before the instance reports ready.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "app.cache.warmup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CacheWarmupConfig {
+
+    @Bean
+    public TargetingHotKeyRecorder targetingHotKeyRecorder(Environment env, ObjectProvider<ObjectMapper> objectMapper) {
+        return new TargetingHotKeyRecorder(
+                objectMapper.getIfAvailable(CacheWarmupConfig::defaultObjectMapper),
+                warmupFile(env),
+                env.getProperty("app.cache.warmup.top-n", Integer.class, 200),
+                env.getProperty("app.cache.warmup.max-tracked-keys", Integer.class, 10_000));
+    }
+
+    @Bean
+    public CacheWarmer cacheWarmer(AdvertisementService advertisementService,
+                                   TargetingHotKeyRecorder targetingHotKeyRecorder,
+                                   Environment env,
+                                   ObjectProvider<ObjectMapper> objectMapper,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new CacheWarmer(
+                advertisementService,
+                targetingHotKeyRecorder,
+                objectMapper.getIfAvailable(CacheWarmupConfig::defaultObjectMapper),
+                warmupFile(env),
+                env.getProperty("app.cache.warmup.parallelism", Integer.class, 4),
+                env.getProperty("app.cache.warmup.timeout", Duration.class, Duration.ofSeconds(30)),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    private static Path warmupFile(Environment env) {
+        return Path.of(env.getProperty("app.cache.warmup.file", "cache-warmup/hot-keys.json"));
+    }
+
+    private static ObjectMapper defaultObjectMapper() {
+        return JsonMapper.builder().findAndAddModules().build();
+    }
+}
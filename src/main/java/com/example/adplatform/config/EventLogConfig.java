@@ -0,0 +1,45 @@
+package com.example.adplatform.config;
+
+import com.example.adplatform.infrastructure.eventlog.EventLogRecorder;
+import com.example.adplatform.infrastructure.eventlog.MappedEventLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Configuration for the durable event log of tracked views, clicks and interactions.
+ * Events are appended to memory-mapped segment files under {@code app.tracking.event-log.directory}
+ * and can be replayed in order from {@link MappedEventLog}. Only one process can open a directory,
+ * so the log is off unless {@code app.tracking.event-log.enabled} is set.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.tracking.event-log", name = "enabled", havingValue = "true")
+public class EventLogConfig {
+
+    @Bean
+    public MappedEventLog mappedEventLog(Environment env, ObjectProvider<MeterRegistry> meterRegistry) {
+        DataSize segmentSize = env.getProperty("app.tracking.event-log.segment-size", DataSize.class, DataSize.ofMegabytes(64));
+        return new MappedEventLog(
+                Path.of(env.getProperty("app.tracking.event-log.directory", "event-log")),
+                Math.toIntExact(segmentSize.toBytes()),
+                env.getProperty("app.tracking.event-log.fsync-interval", Duration.class, Duration.ofMillis(200)),
+                env.getProperty("app.tracking.event-log.fsync-batch-records", Integer.class, 10000),
+                env.getProperty("app.tracking.event-log.retention", Duration.class, Duration.ofDays(7)),
+                Clock.systemUTC(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    @Bean
+    public EventLogRecorder eventLogRecorder(MappedEventLog mappedEventLog) {
+        return new EventLogRecorder(mappedEventLog);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.adplatform.config;
+
+import com.example.adplatform.application.service.stats.AttributionJoin;
+import com.example.adplatform.application.service.stats.RealTimeStatsAggregator;
+import com.example.adplatform.domain.model.HyperLogLog;
+import com.example.adplatform.infrastructure.event.AdvertisementStatsEventListener;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Configuration for the real-time statistics of tracked events, kept in memory per advertisement
+ * in minute, hour and day buckets and queried through {@code AdvertisementStatsService}, and for
+ * the join attributing clicks to the views they followed.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.tracking.stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RealTimeStatsConfig {
+
+    @Bean
+    public RealTimeStatsAggregator realTimeStatsAggregator(Environment env, ObjectProvider<MeterRegistry> meterRegistry) {
+        RealTimeStatsAggregator aggregator = new RealTimeStatsAggregator(
+                env.getProperty("app.tracking.stats.minute-buckets", Integer.class, 60),
+                env.getProperty("app.tracking.stats.hour-buckets", Integer.class, 48),
+                env.getProperty("app.tracking.stats.day-buckets", Integer.class, 30),
+                env.getProperty("app.tracking.stats.reach-precision", Integer.class, HyperLogLog.DEFAULT_PRECISION),
+                Clock.systemDefaultZone());
+        Gauge.builder("advertisements.tracking.stats.advertisements", aggregator, RealTimeStatsAggregator::size)
+                .description("Advertisements with real-time tracking statistics in memory")
+                .register(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        return aggregator;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.tracking.attribution", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AttributionJoin attributionJoin(RealTimeStatsAggregator realTimeStatsAggregator, Environment env,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        AttributionJoin join = new AttributionJoin(realTimeStatsAggregator,
+                env.getProperty("app.tracking.attribution.window", Duration.class, Duration.ofMinutes(30)),
+                env.getProperty("app.tracking.attribution.partition", Duration.class, Duration.ofMinutes(1)),
+                env.getProperty("app.tracking.attribution.allowed-lateness", Duration.class, Duration.ofHours(24)),
+                Clock.systemDefaultZone());
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        FunctionCounter.builder("advertisements.tracking.attribution.attributed", join, AttributionJoin::attributed)
+                .description("Clicks and conversions attributed to a view of the same session")
+                .register(registry);
+        FunctionCounter.builder("advertisements.tracking.attribution.unattributed", join, AttributionJoin::unattributed)
+                .description("Clicks and conversions without a view within the attribution window")
+                .register(registry);
+        FunctionCounter.builder("advertisements.tracking.attribution.late", join, AttributionJoin::late)
+                .description("View and click events arriving later than the allowed lateness, not joined")
+                .register(registry);
+        Gauge.builder("advertisements.tracking.attribution.sessions", join, AttributionJoin::size)
+                .description("Session entries held by the attribution join")
+                .register(registry);
+        return join;
+    }
+
+    @Bean
+    public AdvertisementStatsEventListener advertisementStatsEventListener(RealTimeStatsAggregator realTimeStatsAggregator,
+                                                                           ObjectProvider<AttributionJoin> attributionJoin) {
+        return new AdvertisementStatsEventListener(realTimeStatsAggregator, attributionJoin.getIfAvailable());
+    }
+}
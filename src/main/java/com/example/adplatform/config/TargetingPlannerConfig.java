@@ -0,0 +1,30 @@
+package com.example.adplatform.config;
+
+import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.application.service.targeting.TargetingPlanner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Configuration for the targeting planner, which loads targeting candidates with the most selective
+ * country, age or mood predicate when that is estimated to read fewer rows than the whole active inventory.
+ * When disabled, targeting always filters the whole active inventory.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.targeting.planner", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TargetingPlannerConfig {
+
+    @Bean
+    public TargetingPlanner targetingPlanner(AdvertisementRepository advertisementRepository, Environment env) {
+        return new TargetingPlanner(
+                advertisementRepository,
+                env.getProperty("app.targeting.planner.query-overhead-rows", Long.class, 200L),
+                env.getProperty("app.targeting.planner.statistics-refresh-interval", Duration.class, Duration.ofMinutes(1)),
+                Clock.systemUTC());
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.adplatform.config;
+
+import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidationTransport;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChangeFeed;
+import com.example.adplatform.infrastructure.search.AdvertisementTitleIndexAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Configuration for the in-memory title search index.
+ * The index is loaded in the background after startup; title searches use the database until it is ready.
+ * With several instances, the index follows the advertisement change feed, or, when the feed is
+ * disabled, updates travel over the cache invalidation transport.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.search.title-index", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TitleSearchConfig {
+
+    @Bean
+    public AdvertisementTitleIndexAdapter advertisementTitleIndex(AdvertisementRepository advertisementRepository,
+                                                                  PlatformTransactionManager transactionManager,
+                                                                  ObjectProvider<CacheInvalidationTransport> transport,
+                                                                  ObjectProvider<AdvertisementChangeFeed> changeFeed,
+                                                                  Environment env,
+                                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        AdvertisementChangeFeed feed = changeFeed.getIfAvailable();
+        AdvertisementTitleIndexAdapter index = new AdvertisementTitleIndexAdapter(
+                advertisementRepository,
+                new TransactionTemplate(transactionManager),
+                feed == null ? transport.getIfAvailable() : null,
+                env.getProperty("app.search.title-index.load-page-size", Integer.class, 1000),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        if (feed != null) {
+            feed.subscribe(index);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.adplatform.config;
+
+import com.example.adplatform.infrastructure.dedup.RotatingTrackingDeduplicator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Configuration for the deduplication of tracked events resent by players.
+ * Keys are remembered per instance for {@code app.tracking.dedup.window}, in memory sized by
+ * {@code expected-events}; a share of about {@code false-positive-rate} of new events is
+ * mistaken for duplicates.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.tracking.dedup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TrackingDeduplicationConfig {
+
+    @Bean
+    public RotatingTrackingDeduplicator trackingDeduplicator(Environment env, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RotatingTrackingDeduplicator(
+                env.getProperty("app.tracking.dedup.window", Duration.class, Duration.ofMinutes(10)),
+                env.getProperty("app.tracking.dedup.generations", Integer.class, 4),
+                env.getProperty("app.tracking.dedup.expected-events", Integer.class, 1_000_000),
+                env.getProperty("app.tracking.dedup.false-positive-rate", Double.class, 0.001),
+                Clock.systemUTC(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.adplatform.config;
+
+import com.example.adplatform.infrastructure.messaging.BatchingAdvertisementEventPublisher;
+import com.example.adplatform.infrastructure.messaging.BatchingAdvertisementEventPublisher.ShedPolicy;
+import com.example.adplatform.infrastructure.messaging.TrackingEventSink;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Configuration for the asynchronous view and interaction tracking pipeline.
+ * Tracking requests only enqueue their event; consumer threads drain the buffer in batches into
+ * every {@link TrackingEventSink} bean. When the buffer fills up, events are shed by the configured
+ * {@link ShedPolicy}. When disabled, events are published in-line on the request thread.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.tracking.pipeline", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TrackingPipelineConfig {
+
+    @Bean
+    @Primary
+    public BatchingAdvertisementEventPublisher batchingAdvertisementEventPublisher(ObjectProvider<TrackingEventSink> sinks,
+                                                                                   Environment env,
+                                                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BatchingAdvertisementEventPublisher(
+                env.getProperty("app.tracking.pipeline.capacity", Integer.class, 65536),
+                env.getProperty("app.tracking.pipeline.consumers", Integer.class, 2),
+                env.getProperty("app.tracking.pipeline.batch-size", Integer.class, 512),
+                env.getProperty("app.tracking.pipeline.max-idle-wait", Duration.class, Duration.ofMillis(1)),
+                env.getProperty("app.tracking.pipeline.shed-policy", ShedPolicy.class, ShedPolicy.REJECT),
+                env.getProperty("app.tracking.pipeline.shed-threshold", Double.class, 0.5),
+                env.getProperty("app.tracking.pipeline.retry-after", Duration.class, Duration.ofSeconds(1)),
+                sinks.orderedStream().toList(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
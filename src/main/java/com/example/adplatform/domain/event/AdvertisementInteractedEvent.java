@@ -5,5 +5,10 @@ import java.time.Instant;
 /**
  * Domain event emitted when an advertisement interaction occurs (e.g., CLICK, LIKE, SHARE).
  */
-public record AdvertisementInteractedEvent(Long advertisementId, String interactionType, Instant occurredAt) {
-}
\ No newline at end of file
+public record AdvertisementInteractedEvent(Long advertisementId, String interactionType, Instant occurredAt,
+                                           String sessionId) implements AdvertisementTrackingEvent {
+
+    public AdvertisementInteractedEvent(Long advertisementId, String interactionType, Instant occurredAt) {
+        this(advertisementId, interactionType, occurredAt, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.adplatform.domain.event;
+
+import java.time.Instant;
+
+/**
+ * Common shape of the tracking events recorded for an advertisement: views and interactions.
+ */
+public sealed interface AdvertisementTrackingEvent permits AdvertisementViewedEvent, AdvertisementInteractedEvent {
+
+    Long advertisementId();
+
+    Instant occurredAt();
+
+    /**
+     * @return the player session the event was reported from, or {@code null} if unknown
+     */
+    String sessionId();
+}
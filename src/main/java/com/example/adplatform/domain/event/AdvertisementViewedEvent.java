@@ -5,5 +5,9 @@ import java.time.Instant;
 /**
  * Domain event emitted when an advertisement is viewed.
  */
-public record AdvertisementViewedEvent(Long advertisementId, Instant occurredAt) {
-}
\ No newline at end of file
+public record AdvertisementViewedEvent(Long advertisementId, Instant occurredAt, String sessionId) implements AdvertisementTrackingEvent {
+
+    public AdvertisementViewedEvent(Long advertisementId, Instant occurredAt) {
+        this(advertisementId, occurredAt, null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.adplatform.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of an advertisement in the active-inventory ordering
+ * (weight descending, then newest first, then id descending).
+ * Keyset pagination continues strictly after this position.
+ */
+public record AdvertisementSeekKey(int weight, LocalDateTime createdAt, long id) {
+
+    /**
+     * @return the seek key of the given advertisement
+     */
+    public static AdvertisementSeekKey of(Advertisement advertisement) {
+        return new AdvertisementSeekKey(advertisement.getWeight(), advertisement.getCreatedAt(), advertisement.getId());
+    }
+}
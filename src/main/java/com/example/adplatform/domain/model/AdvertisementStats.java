@@ -49,6 +49,24 @@ public class AdvertisementStats {
     @Builder.Default
     private Double conversionRate = 0.0;
     
+    /**
+     * Clicks, conversions included, attributed to a view of the same session within the attribution window.
+     */
+    @Builder.Default
+    private Long attributedClickCount = 0L;
+    
+    @Builder.Default
+    private Long attributedConversionCount = 0L;
+    
+    /**
+     * Attributed clicks per view, unlike {@link #clickThroughRate}, which divides every click.
+     */
+    @Builder.Default
+    private Double attributedClickThroughRate = 0.0;
+    
+    @Builder.Default
+    private Double attributedConversionRate = 0.0;
+    
     @Builder.Default
     private Map<String, Long> viewsByDevice = new HashMap<>();
     
@@ -58,6 +76,13 @@ public class AdvertisementStats {
     @Builder.Default
     private Map<String, Long> viewsByCountry = new HashMap<>();
     
+    /**
+     * Estimated number of distinct viewers, by user id or else session id; {@code null} for windows
+     * too fine to estimate it, such as the last few minutes.
+     */
+    @Builder.Default
+    private Long uniqueReach = 0L;
+    
     private LocalDateTime lastUpdated;
     
     /**
@@ -0,0 +1,25 @@
+package com.example.adplatform.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only summary of an advertisement for list views.
+ * Carries only the fields a listing needs, so it can be loaded without the content,
+ * YouTube details or targeting rules.
+ */
+public record AdvertisementSummary(
+        Long id,
+        String title,
+        AdvertisementSource source,
+        boolean active,
+        int weight,
+        LocalDateTime updatedAt) {
+
+    /**
+     * @return the summary of the given advertisement
+     */
+    public static AdvertisementSummary of(Advertisement advertisement) {
+        return new AdvertisementSummary(advertisement.getId(), advertisement.getTitle(), advertisement.getSource(),
+                advertisement.isActive(), advertisement.getWeight(), advertisement.getUpdatedAt());
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.adplatform.domain.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HyperLogLog sketch estimating the number of distinct values added to it, such as the unique
+ * viewers of an advertisement, in fixed memory.
+ *
+ * A sketch of precision {@code p} has {@code 2^p} one-byte registers, so the default precision of
+ * 12 takes 4KB and estimates with a standard error of about 1.6% ({@code 1.04 / sqrt(2^p)}). Until
+ * a quarter of the registers are set, only the set ones are kept, at four bytes each, so sketches
+ * of quiet time buckets stay small. Sketches of the same precision merge into a sketch of the
+ * union, whether they come from other time buckets or, through {@link #toBytes()}, other nodes.
+ */
+public final class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 12;
+    public static final int MIN_PRECISION = 4;
+    public static final int MAX_PRECISION = 16;
+
+    private final int precision;
+    /** Dense registers, or {@code null} while the sketch is sparse. */
+    private byte[] registers;
+    /** Sparse registers sorted by index, each {@code index << 8 | value}; the first {@code sparseSize} are used. */
+    private int[] sparse = new int[4];
+    private int sparseSize;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between " + MIN_PRECISION + " and " + MAX_PRECISION + ": " + precision);
+        }
+        this.precision = precision;
+    }
+
+    /**
+     * Reads a sketch written by {@link #toBytes()}.
+     *
+     * @throws IllegalArgumentException if the bytes are not a sketch
+     */
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] < MIN_PRECISION || bytes[0] > MAX_PRECISION || bytes.length != 1 + (1 << bytes[0])) {
+            throw new IllegalArgumentException("Not a HyperLogLog sketch");
+        }
+        HyperLogLog sketch = new HyperLogLog(bytes[0]);
+        sketch.registers = Arrays.copyOfRange(bytes, 1, bytes.length);
+        sketch.sparse = null;
+        return sketch;
+    }
+
+    public int precision() {
+        return precision;
+    }
+
+    /**
+     * Adds a value.
+     */
+    public void add(String value) {
+        addHash(hash(value));
+    }
+
+    /**
+     * FNV-1a over the UTF-8 bytes, finished with the SplitMix64 finalizer to spread all 64 bits.
+     */
+    public static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Adds a value by its {@link #hash(String)}, so a value added to several sketches is hashed once.
+     */
+    public synchronized void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // The guard bit caps the run of zeros at the bits left after the index
+        int value = Long.numberOfLeadingZeros(hash << precision | 1L << (precision - 1)) + 1;
+        set(index, value);
+    }
+
+    /**
+     * Adds every value of {@code other} to this sketch.
+     *
+     * @throws IllegalArgumentException if the precisions differ
+     */
+    public void merge(HyperLogLog other) {
+        if (other == this) {
+            return;
+        }
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of precision " + other.precision + " into " + precision);
+        }
+        byte[] values = other.registers();
+        synchronized (this) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != 0) {
+                    set(i, values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Folds the sketch into one of a lower precision, as if every value had been added to that:
+     * index bits dropped from a register's index become leading bits of its value. Sketches of
+     * different precisions merge once folded to the lower one.
+     *
+     * @throws IllegalArgumentException if {@code precision} is above this sketch's or out of range
+     */
+    public HyperLogLog fold(int precision) {
+        if (precision > this.precision) {
+            throw new IllegalArgumentException("Cannot fold a sketch of precision " + this.precision + " to " + precision);
+        }
+        HyperLogLog folded = new HyperLogLog(precision);
+        int dropped = this.precision - precision;
+        byte[] values = registers();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == 0) {
+                continue;
+            }
+            int low = i & ((1 << dropped) - 1);
+            int value = low != 0 ? Integer.numberOfLeadingZeros(low) - (Integer.SIZE - dropped) + 1 : dropped + values[i];
+            folded.set(i >>> dropped, value);
+        }
+        return folded;
+    }
+
+    /**
+     * @return the estimated number of distinct values added
+     */
+    public synchronized long estimate() {
+        int m = 1 << precision;
+        double sum;
+        int zeros;
+        if (registers == null) {
+            zeros = m - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += Math.scalb(1.0, -(sparse[i] & 0xFF));
+            }
+        } else {
+            zeros = 0;
+            sum = 0;
+            for (byte value : registers) {
+                if (value == 0) {
+                    zeros++;
+                }
+                sum += Math.scalb(1.0, -value);
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // Linear counting is more accurate while many registers are still empty
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return the precision followed by the registers, for {@link #fromBytes(byte[])} on another node
+     */
+    public byte[] toBytes() {
+        byte[] values = registers();
+        byte[] bytes = new byte[1 + values.length];
+        bytes[0] = (byte) precision;
+        System.arraycopy(values, 0, bytes, 1, values.length);
+        return bytes;
+    }
+
+    /**
+     * @return bytes held by the registers
+     */
+    public synchronized int sizeInBytes() {
+        return registers == null ? sparse.length * Integer.BYTES : registers.length;
+    }
+
+    /**
+     * @return a copy of the registers in dense form
+     */
+    private synchronized byte[] registers() {
+        if (registers != null) {
+            return registers.clone();
+        }
+        byte[] dense = new byte[1 << precision];
+        for (int i = 0; i < sparseSize; i++) {
+            dense[sparse[i] >>> 8] = (byte) sparse[i];
+        }
+        return dense;
+    }
+
+    private void set(int index, int value) {
+        if (registers != null) {
+            if (registers[index] < value) {
+                registers[index] = (byte) value;
+            }
+            return;
+        }
+        int position = search(index);
+        if (position >= 0) {
+            if ((sparse[position] & 0xFF) < value) {
+                sparse[position] = index << 8 | value;
+            }
+            return;
+        }
+        if (sparseSize == (1 << precision) / 4) {
+            registers = registers();
+            sparse = null;
+            sparseSize = 0;
+            registers[index] = (byte) value;
+            return;
+        }
+        int insertAt = -position - 1;
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.min(2 * sparse.length, (1 << precision) / 4));
+        }
+        System.arraycopy(sparse, insertAt, sparse, insertAt + 1, sparseSize - insertAt);
+        sparse[insertAt] = index << 8 | value;
+        sparseSize++;
+    }
+
+    private int search(int index) {
+        int low = 0;
+        int high = sparseSize - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int found = sparse[middle] >>> 8;
+            if (found < index) {
+                low = middle + 1;
+            } else if (found > index) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static double alpha(int m) {
+        return switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+    }
+}
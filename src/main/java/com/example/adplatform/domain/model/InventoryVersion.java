@@ -0,0 +1,26 @@
+package com.example.adplatform.domain.model;
+
+import java.time.Instant;
+
+/**
+ * Version stamp of the advertisement inventory as a whole.
+ * The version increases monotonically with every change to any advertisement,
+ * and lastModified records when that change happened. Versions are counted per instance, so the
+ * epoch identifies the instance and run that counted them.
+ */
+public record InventoryVersion(String epoch, long version, Instant lastModified) {
+
+    /**
+     * @return the version that follows this one, stamped with the given time
+     */
+    public InventoryVersion next(Instant changedAt) {
+        return new InventoryVersion(epoch, version + 1, changedAt);
+    }
+
+    /**
+     * @return the version qualified by its epoch, equal only for the same version of the same run
+     */
+    public String tag() {
+        return epoch + "-" + version;
+    }
+}
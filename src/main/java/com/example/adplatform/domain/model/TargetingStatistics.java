@@ -0,0 +1,60 @@
+package com.example.adplatform.domain.model;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cardinality statistics of the active inventory's include targets, used to estimate how many
+ * advertisements a targeting predicate can match.
+ *
+ * Counts are numbers of distinct active advertisements. An advertisement with several age ranges
+ * containing the same age is counted once per range, so age estimates are upper bounds.
+ *
+ * @param activeCount number of active advertisements
+ * @param countryCounts advertisements per upper-case country code of their include geo targets
+ * @param moodCounts advertisements per mood of their include mood targets
+ * @param ageRanges advertisements per age range of their include bio targets
+ */
+public record TargetingStatistics(
+        long activeCount,
+        Map<String, Long> countryCounts,
+        Map<Mood, Long> moodCounts,
+        List<AgeRangeCount> ageRanges) {
+
+    /**
+     * Number of active advertisements with an include bio target of the given age range;
+     * a missing bound leaves the range open on that side.
+     */
+    public record AgeRangeCount(Integer minAge, Integer maxAge, long count) {
+
+        boolean contains(int age) {
+            return (minAge == null || minAge <= age) && (maxAge == null || maxAge >= age);
+        }
+    }
+
+    /**
+     * @return the estimated number of active advertisements including the given country
+     */
+    public long estimateCountry(String countryCode) {
+        return countryCounts.getOrDefault(countryCode.toUpperCase(Locale.ROOT), 0L);
+    }
+
+    /**
+     * @return the estimated number of active advertisements including the given mood
+     */
+    public long estimateMood(Mood mood) {
+        return moodCounts.getOrDefault(mood, 0L);
+    }
+
+    /**
+     * @return the estimated number of active advertisements with an age range containing the given age
+     */
+    public long estimateAge(int age) {
+        long estimate = ageRanges.stream()
+                .filter(range -> range.contains(age))
+                .mapToLong(AgeRangeCount::count)
+                .sum();
+        return Math.min(estimate, activeCount);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.adplatform.domain.model;
+
+import java.time.Instant;
+
+/**
+ * One tracking event reported by a player in a batch.
+ * The occurrence time is optional and defaults to the time the batch is received.
+ * A player resending the event identifies it by the same {@code idempotencyKey}, or, without one,
+ * by the same {@code sessionId} and {@code occurredAt}; events without either are never deduplicated.
+ */
+public record TrackingBeacon(Kind kind, Long advertisementId, String interactionType, Instant occurredAt,
+                             String sessionId, String idempotencyKey) {
+
+    public enum Kind {
+        VIEW,
+        CLICK,
+        /** Any other interaction, named by {@code interactionType} (e.g. LIKE, SHARE). */
+        INTERACTION
+    }
+
+    public TrackingBeacon(Kind kind, Long advertisementId, String interactionType, Instant occurredAt) {
+        this(kind, advertisementId, interactionType, occurredAt, null, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.adplatform.domain.model;
+
+/**
+ * Outcome of one {@link TrackingBeacon} of a batch.
+ *
+ * @param error why the beacon was not accepted, or {@code null}
+ */
+public record TrackingBeaconResult(Status status, String error) {
+
+    public enum Status {
+        /** Enqueued for the tracking sinks. */
+        ACCEPTED,
+        /** Rejected by validation; resending it will not help. */
+        INVALID,
+        /** Valid but not enqueued because the tracking pipeline was full; it can be resent. */
+        DROPPED,
+        /** Already received within the deduplication window, so not counted again; nothing to resend. */
+        DUPLICATE
+    }
+
+    public static TrackingBeaconResult accepted() {
+        return new TrackingBeaconResult(Status.ACCEPTED, null);
+    }
+
+    public static TrackingBeaconResult invalid(String error) {
+        return new TrackingBeaconResult(Status.INVALID, error);
+    }
+
+    public static TrackingBeaconResult dropped() {
+        return new TrackingBeaconResult(Status.DROPPED, "tracking pipeline is full, retry later");
+    }
+
+    public static TrackingBeaconResult duplicate() {
+        return new TrackingBeaconResult(Status.DUPLICATE, null);
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.adplatform.infrastructure.cache;
+
+import com.example.adplatform.domain.model.Advertisement;
+import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.domain.model.BioTarget;
+import com.example.adplatform.domain.model.Gender;
+import com.example.adplatform.domain.model.GeoTarget;
+import com.example.adplatform.domain.model.Mood;
+import com.example.adplatform.domain.model.MoodTarget;
+import com.example.adplatform.domain.model.YouTubeDetails;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Compact binary encoding of {@code Page<Advertisement>} for the off-heap cache tier.
+ *
+ * The format is positional and only lives in process memory, so enums are written by ordinal and
+ * there is no versioning. Nullable values carry a presence flag; strings are length-prefixed UTF-8.
+ * Decoding reads straight from the arena's {@link ByteBuffer} without an intermediate heap copy.
+ */
+public final class AdvertisementPageCodec {
+
+    private static final AdvertisementSource[] SOURCES = AdvertisementSource.values();
+    private static final Gender[] GENDERS = Gender.values();
+    private static final Mood[] MOODS = Mood.values();
+    private static final Sort.Direction[] DIRECTIONS = Sort.Direction.values();
+    private static final Sort.NullHandling[] NULL_HANDLINGS = Sort.NullHandling.values();
+
+    private AdvertisementPageCodec() {
+    }
+
+    /**
+     * @return true if every element of the page is an {@link Advertisement} and can be encoded
+     */
+    public static boolean supports(Object value) {
+        return value instanceof Page<?> page
+                && page.getContent().stream().allMatch(Advertisement.class::isInstance);
+    }
+
+    public static Output encode(Page<?> page) {
+        Output out = new Output(256 + page.getNumberOfElements() * 256);
+        Pageable pageable = page.getPageable();
+        out.writeBoolean(pageable.isPaged());
+        if (pageable.isPaged()) {
+            out.writeInt(pageable.getPageNumber());
+            out.writeInt(pageable.getPageSize());
+            List<Sort.Order> orders = pageable.getSort().toList();
+            out.writeInt(orders.size());
+            for (Sort.Order order : orders) {
+                out.writeString(order.getProperty());
+                out.writeByte(order.getDirection().ordinal());
+                out.writeBoolean(order.isIgnoreCase());
+                out.writeByte(order.getNullHandling().ordinal());
+            }
+        }
+        out.writeLong(page.getTotalElements());
+        out.writeInt(page.getNumberOfElements());
+        for (Object element : page.getContent()) {
+            writeAdvertisement(out, (Advertisement) element);
+        }
+        return out;
+    }
+
+    public static Page<Advertisement> decode(ByteBuffer in) {
+        Pageable pageable = Pageable.unpaged();
+        if (readBoolean(in)) {
+            int pageNumber = in.getInt();
+            int pageSize = in.getInt();
+            Sort.Order[] orders = new Sort.Order[in.getInt()];
+            for (int i = 0; i < orders.length; i++) {
+                String property = readString(in);
+                Sort.Direction direction = DIRECTIONS[in.get()];
+                boolean ignoreCase = readBoolean(in);
+                Sort.Order order = new Sort.Order(direction, property, NULL_HANDLINGS[in.get()]);
+                orders[i] = ignoreCase ? order.ignoreCase() : order;
+            }
+            pageable = PageRequest.of(pageNumber, pageSize, Sort.by(Arrays.asList(orders)));
+        }
+        long total = in.getLong();
+        int count = in.getInt();
+        List<Advertisement> content = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            content.add(readAdvertisement(in));
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static void writeAdvertisement(Output out, Advertisement ad) {
+        out.writeNullableLong(ad.getId());
+        out.writeString(ad.getTitle());
+        out.writeString(ad.getDescription());
+        out.writeString(ad.getContent());
+        out.writeEnum(ad.getSource());
+        out.writeString(ad.getSourceIdentifier());
+        out.writeDateTime(ad.getCreatedAt());
+        out.writeDateTime(ad.getUpdatedAt());
+        out.writeBoolean(ad.isActive());
+        out.writeString(ad.getTargetUrl());
+        out.writeBoolean(ad.isClickable());
+        out.writeInt(ad.getWeight());
+        out.writeDateTime(ad.getOverrideStart());
+        out.writeDateTime(ad.getOverrideEnd());
+
+        YouTubeDetails yt = ad.getYoutubeDetails();
+        out.writeBoolean(yt != null);
+        if (yt != null) {
+            out.writeString(yt.getVideoId());
+            out.writeString(yt.getVideoTitle());
+            out.writeString(yt.getChannelId());
+            out.writeString(yt.getChannelTitle());
+            out.writeNullableInt(yt.getDurationSeconds());
+            out.writeBoolean(yt.getPublishedAt() != null);
+            if (yt.getPublishedAt() != null) {
+                out.writeLong(yt.getPublishedAt().getEpochSecond());
+                out.writeInt(yt.getPublishedAt().getNano());
+            }
+            out.writeString(yt.getThumbnailUrl());
+        }
+
+        writeSet(out, ad.getGeoTargets(), geo -> {
+            out.writeString(geo.getCountryCode());
+            out.writeString(geo.getRegion());
+            out.writeString(geo.getCity());
+            out.writeNullableDouble(geo.getLatitude());
+            out.writeNullableDouble(geo.getLongitude());
+            out.writeNullableInt(geo.getRadiusKm());
+            out.writeBoolean(geo.isInclude());
+        });
+        writeSet(out, ad.getBioTargets(), bio -> {
+            out.writeNullableInt(bio.getMinAge());
+            out.writeNullableInt(bio.getMaxAge());
+            out.writeEnum(bio.getGender());
+            out.writeString(bio.getOccupation());
+            out.writeString(bio.getEducationLevel());
+            out.writeString(bio.getLanguage());
+            out.writeString(bio.getInterestCategory());
+            out.writeBoolean(bio.isInclude());
+        });
+        writeSet(out, ad.getMoodTargets(), mood -> {
+            out.writeEnum(mood.getMood());
+            out.writeNullableInt(mood.getIntensityMin());
+            out.writeNullableInt(mood.getIntensityMax());
+            out.writeString(mood.getTimeOfDay());
+            out.writeString(mood.getDayOfWeek());
+            out.writeString(mood.getSeason());
+            out.writeBoolean(mood.isInclude());
+        });
+    }
+
+    private static Advertisement readAdvertisement(ByteBuffer in) {
+        Advertisement ad = Advertisement.builder()
+                .id(readNullableLong(in))
+                .title(readString(in))
+                .description(readString(in))
+                .content(readString(in))
+                .source(readEnum(in, SOURCES))
+                .sourceIdentifier(readString(in))
+                .createdAt(readDateTime(in))
+                .updatedAt(readDateTime(in))
+                .active(readBoolean(in))
+                .targetUrl(readString(in))
+                .clickable(readBoolean(in))
+                .weight(in.getInt())
+                .overrideStart(readDateTime(in))
+                .overrideEnd(readDateTime(in))
+                .build();
+
+        if (readBoolean(in)) {
+            YouTubeDetails.YouTubeDetailsBuilder yt = YouTubeDetails.builder()
+                    .videoId(readString(in))
+                    .videoTitle(readString(in))
+                    .channelId(readString(in))
+                    .channelTitle(readString(in))
+                    .durationSeconds(readNullableInt(in));
+            if (readBoolean(in)) {
+                yt.publishedAt(Instant.ofEpochSecond(in.getLong(), in.getInt()));
+            }
+            ad.setYoutubeDetails(yt.thumbnailUrl(readString(in)).build());
+        }
+
+        ad.setGeoTargets(readSet(in, () -> GeoTarget.builder()
+                .countryCode(readString(in))
+                .region(readString(in))
+                .city(readString(in))
+                .latitude(readNullableDouble(in))
+                .longitude(readNullableDouble(in))
+                .radiusKm(readNullableInt(in))
+                .include(readBoolean(in))
+                .build()));
+        ad.setBioTargets(readSet(in, () -> BioTarget.builder()
+                .minAge(readNullableInt(in))
+                .maxAge(readNullableInt(in))
+                .gender(readEnum(in, GENDERS))
+                .occupation(readString(in))
+                .educationLevel(readString(in))
+                .language(readString(in))
+                .interestCategory(readString(in))
+                .include(readBoolean(in))
+                .build()));
+        ad.setMoodTargets(readSet(in, () -> MoodTarget.builder()
+                .mood(readEnum(in, MOODS))
+                .intensityMin(readNullableInt(in))
+                .intensityMax(readNullableInt(in))
+                .timeOfDay(readString(in))
+                .dayOfWeek(readString(in))
+                .season(readString(in))
+                .include(readBoolean(in))
+                .build()));
+        return ad;
+    }
+
+    private static <T> void writeSet(Output out, Set<T> values, Consumer<T> writer) {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        values.forEach(writer);
+    }
+
+    private static <T> Set<T> readSet(ByteBuffer in, Supplier<T> reader) {
+        int size = in.getInt();
+        if (size < 0) {
+            return null;
+        }
+        Set<T> values = new HashSet<>(Math.max(4, size * 2));
+        for (int i = 0; i < size; i++) {
+            values.add(reader.get());
+        }
+        return values;
+    }
+
+    private static boolean readBoolean(ByteBuffer in) {
+        return in.get() != 0;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Long readNullableLong(ByteBuffer in) {
+        return readBoolean(in) ? in.getLong() : null;
+    }
+
+    private static Integer readNullableInt(ByteBuffer in) {
+        return readBoolean(in) ? in.getInt() : null;
+    }
+
+    private static Double readNullableDouble(ByteBuffer in) {
+        return readBoolean(in) ? in.getDouble() : null;
+    }
+
+    private static <E extends Enum<E>> E readEnum(ByteBuffer in, E[] values) {
+        byte ordinal = in.get();
+        return ordinal < 0 ? null : values[ordinal];
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer in) {
+        return readNullable(in, buffer -> LocalDateTime.of(
+                buffer.getInt(), buffer.get(), buffer.get(), buffer.get(), buffer.get(), buffer.get(), buffer.getInt()));
+    }
+
+    private static <T> T readNullable(ByteBuffer in, Function<ByteBuffer, T> reader) {
+        return readBoolean(in) ? reader.apply(in) : null;
+    }
+
+    /**
+     * Growable heap buffer used while encoding; only its filled prefix is copied into the arena.
+     */
+    public static final class Output {
+
+        private byte[] bytes;
+        private int length;
+
+        private Output(int initialCapacity) {
+            this.bytes = new byte[initialCapacity];
+        }
+
+        public byte[] bytes() {
+            return bytes;
+        }
+
+        public int length() {
+            return length;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[length++] = (byte) value;
+        }
+
+        void writeBoolean(boolean value) {
+            writeByte(value ? 1 : 0);
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            ByteBuffer.wrap(bytes, length, 4).putInt(value);
+            length += 4;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            ByteBuffer.wrap(bytes, length, 8).putLong(value);
+            length += 8;
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeInt(-1);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeInt(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, length, utf8.length);
+            length += utf8.length;
+        }
+
+        void writeNullableLong(Long value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeLong(value);
+            }
+        }
+
+        void writeNullableInt(Integer value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeInt(value);
+            }
+        }
+
+        void writeNullableDouble(Double value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeLong(Double.doubleToRawLongBits(value));
+            }
+        }
+
+        void writeEnum(Enum<?> value) {
+            writeByte(value == null ? -1 : value.ordinal());
+        }
+
+        void writeDateTime(LocalDateTime value) {
+            writeBoolean(value != null);
+            if (value != null) {
+                writeInt(value.getYear());
+                writeByte(value.getMonthValue());
+                writeByte(value.getDayOfMonth());
+                writeByte(value.getHour());
+                writeByte(value.getMinute());
+                writeByte(value.getSecond());
+                writeInt(value.getNano());
+            }
+        }
+    }
+}
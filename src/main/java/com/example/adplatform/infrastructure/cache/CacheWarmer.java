@@ -0,0 +1,185 @@
+package com.example.adplatform.infrastructure.cache;
+
+import com.example.adplatform.application.port.in.AdvertisementService;
+import com.example.adplatform.domain.model.Mood;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Replays the hot targeting keys recorded by {@link TargetingHotKeyRecorder} through the
+ * {@link AdvertisementService} at startup so the targeting caches are populated before traffic arrives.
+ *
+ * Runs as an {@link ApplicationRunner}: Spring Boot only reports the application as ready to accept
+ * traffic after all runners have completed, so the readiness probe stays down until the warm-up is done
+ * or its timeout expires. Keys are replayed in parallel; individual failures are logged and skipped.
+ */
+@Slf4j
+public class CacheWarmer implements ApplicationRunner {
+
+    public static final String STRATEGY_COMBINED = "combined";
+    public static final String STRATEGY_GEO = "geo";
+    public static final String STRATEGY_BIO = "bio";
+    public static final String STRATEGY_MOOD = "mood";
+
+    private static final TypeReference<Map<String, Object>> BIO_DATA = new TypeReference<>() {};
+    private static final TypeReference<Set<String>> INTERESTS = new TypeReference<>() {};
+
+    private final AdvertisementService advertisementService;
+    private final TargetingHotKeyRecorder recorder;
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final int parallelism;
+    private final Duration timeout;
+    private final MeterRegistry meterRegistry;
+    private final AtomicReference<Double> coverage = new AtomicReference<>(0.0);
+
+    public CacheWarmer(AdvertisementService advertisementService,
+                       TargetingHotKeyRecorder recorder,
+                       ObjectMapper objectMapper,
+                       Path file,
+                       int parallelism,
+                       Duration timeout,
+                       MeterRegistry meterRegistry) {
+        this.advertisementService = advertisementService;
+        this.recorder = recorder;
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.parallelism = parallelism;
+        this.timeout = timeout;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("advertisements.cache.warmup.coverage", coverage, AtomicReference::get)
+                .description("Share of recorded targeted traffic whose keys were warmed at startup")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    /**
+     * Replays the recorded keys and blocks until they are done or the timeout expires.
+     *
+     * @return number of keys successfully warmed
+     */
+    public int warmUp() {
+        HotKeySnapshot snapshot = readSnapshot();
+        if (snapshot == null || snapshot.keys() == null || snapshot.keys().isEmpty()) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        AtomicLong warmedHits = new AtomicLong();
+        int warmed = 0;
+        int failed = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        recorder.pause();
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (HotKeySnapshot.HotKey key : snapshot.keys()) {
+                tasks.add(executor.submit(() -> {
+                    replay(key);
+                    warmedHits.addAndGet(key.hits());
+                }));
+            }
+            long deadline = System.nanoTime() + timeout.toNanos();
+            for (int i = 0; i < tasks.size(); i++) {
+                Future<?> task = tasks.get(i);
+                try {
+                    task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    warmed++;
+                } catch (TimeoutException e) {
+                    task.cancel(true);
+                    failed++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    task.cancel(true);
+                    failed++;
+                } catch (Exception e) {
+                    log.debug("Cache warm-up of {} failed: {}", snapshot.keys().get(i), e.getMessage());
+                    failed++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            recorder.resume();
+        }
+
+        Timer.builder("advertisements.cache.warmup.duration")
+                .description("Time spent replaying hot keys into the caches at startup")
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Counter.builder("advertisements.cache.warmup.keys").tag("status", "warmed")
+                .register(meterRegistry).increment(warmed);
+        Counter.builder("advertisements.cache.warmup.keys").tag("status", "failed")
+                .register(meterRegistry).increment(failed);
+        coverage.set(snapshot.totalHits() > 0 ? (double) warmedHits.get() / snapshot.totalHits() : 0.0);
+
+        log.info("Cache warm-up replayed {} of {} hot keys in {} ms ({}% of recorded traffic)",
+                warmed, snapshot.keys().size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                Math.round(coverage.get() * 100));
+        return warmed;
+    }
+
+    private void replay(HotKeySnapshot.HotKey key) {
+        List<Object> a = key.args();
+        switch (key.strategy()) {
+            case STRATEGY_COMBINED -> advertisementService.getTargetedAdvertisements(
+                    arg(a, 0, String.class), objectMapper.convertValue(a.get(1), BIO_DATA), arg(a, 2, Mood.class));
+            case STRATEGY_GEO -> advertisementService.getGeoTargetedAdvertisements(
+                    arg(a, 0, String.class), arg(a, 1, String.class), arg(a, 2, String.class),
+                    arg(a, 3, Double.class), arg(a, 4, Double.class));
+            case STRATEGY_BIO -> advertisementService.getBioTargetedAdvertisements(
+                    arg(a, 0, Integer.class), arg(a, 1, String.class), arg(a, 2, String.class),
+                    arg(a, 3, String.class), arg(a, 4, String.class), objectMapper.convertValue(a.get(5), INTERESTS));
+            case STRATEGY_MOOD -> advertisementService.getMoodTargetedAdvertisements(
+                    arg(a, 0, Mood.class), arg(a, 1, Integer.class), arg(a, 2, String.class),
+                    arg(a, 3, String.class), arg(a, 4, String.class));
+            default -> throw new IllegalArgumentException("Unknown targeting strategy: " + key.strategy());
+        }
+    }
+
+    private <T> T arg(List<Object> args, int index, Class<T> type) {
+        return objectMapper.convertValue(args.get(index), type);
+    }
+
+    private HotKeySnapshot readSnapshot() {
+        if (!Files.isReadable(file)) {
+            log.info("No cache warm-up file at {}, starting with cold caches", file);
+            return null;
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), HotKeySnapshot.class);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cache warm-up file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.adplatform.infrastructure.cache;
+
+import com.example.adplatform.infrastructure.persistence.routing.ReadYourWrites;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache decorator that coalesces concurrent misses for the same key (single-flight).
+ *
+ * Only the first caller for a missing key runs the value loader; every other caller
+ * arriving while that computation is in flight waits for its result instead of
+ * recomputing it. Waiters are counted in the {@code advertisements.cache.coalesced}
+ * metric, tagged with the cache name.
+ *
+ * Spring only routes through {@link #get(Object, Callable)} for {@code @Cacheable(sync = true)}
+ * operations, so cached reads that should be coalesced must declare {@code sync = true}.
+ *
+ * Evictions that happen while a load is in flight detach that load: its result is still
+ * handed to the callers already waiting for it, but it is not written back to the cache,
+ * so a write that evicted the cache is never overwritten by a value computed before it.
+ *
+ * Loads read from the primary database, never from a read replica: a replica behind the write
+ * that just evicted the key would fill the cache with the old value for the whole TTL, and serve
+ * it to requests pinned to the primary by {@link ReadYourWrites} as well.
+ */
+public class CoalescingCache implements Cache {
+
+    private final Cache delegate;
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Counter coalescedWaiters;
+
+    public CoalescingCache(Cache delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.coalescedWaiters = Counter.builder("advertisements.cache.coalesced")
+                .description("Callers that awaited an in-flight computation instead of loading the value themselves")
+                .tag("cache", delegate.getName())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalescedWaiters.increment();
+            return (T) await(key, valueLoader, existing);
+        }
+
+        long generation = invalidations.get();
+        try {
+            // Re-check: another leader may have populated the cache between our miss and registration
+            cached = delegate.get(key);
+            T value = cached != null ? (T) cached.get() : ReadYourWrites.onPrimary(valueLoader);
+            if (cached == null && invalidations.get() == generation) {
+                delegate.put(key, value);
+            }
+            mine.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            mine.completeExceptionally(ex);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException ex) {
+            // Surface the leader's failure the same way a failed local load would be surfaced
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause() != null ? ex.getCause() : ex);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        detachInFlight(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        detachInFlight(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        detachInFlight(null);
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        detachInFlight(null);
+        return delegate.invalidate();
+    }
+
+    /**
+     * Prevents in-flight loads from populating the cache and lets new callers start a fresh load.
+     *
+     * @param key the evicted key, or {@code null} when the whole cache is cleared
+     */
+    private void detachInFlight(Object key) {
+        invalidations.incrementAndGet();
+        if (key == null) {
+            inFlight.clear();
+        } else {
+            inFlight.remove(key);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.adplatform.infrastructure.cache;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Hottest targeted-query keys recorded by {@link TargetingHotKeyRecorder}, as persisted to the warm-up file.
+ *
+ * @param recordedAt when the snapshot was taken
+ * @param totalHits targeted calls observed across all tracked keys, used to compute warm-up coverage
+ * @param keys the top keys ordered by hit count, highest first
+ */
+public record HotKeySnapshot(Instant recordedAt, long totalHits, List<HotKey> keys) {
+
+    /**
+     * @param strategy targeting strategy (combined, geo, bio or mood), selecting the service method to replay
+     * @param args arguments of the service call in declaration order
+     * @param hits number of calls observed for these arguments
+     */
+    public record HotKey(String strategy, List<Object> args, long hits) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.adplatform.infrastructure.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fixed-size off-heap byte arena used as a serialized cache tier.
+ *
+ * Entries are appended to a single direct {@link ByteBuffer} in a ring (log-structured) layout.
+ * When the write position reaches the end of the buffer it wraps to the start, evicting the
+ * oldest entries whose bytes are about to be overwritten, which bounds memory usage to the
+ * configured capacity with FIFO eviction. Entries also expire after a fixed time-to-live.
+ *
+ * Reads decode directly from the arena under a shared lock; writes take the exclusive lock.
+ */
+public class OffHeapArena {
+
+    private final ByteBuffer buffer;
+    private final long timeToLiveNanos;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Object, Entry> index = new HashMap<>();
+    private final Deque<Entry> writeOrder = new ArrayDeque<>();
+    private int writePosition;
+    private long liveBytes;
+
+    private record Entry(Object key, int offset, int length, long writtenAtNanos) {
+    }
+
+    /**
+     * @param capacityBytes size of the direct buffer backing the arena
+     * @param timeToLiveNanos how long an entry stays readable after it was written
+     */
+    public OffHeapArena(int capacityBytes, long timeToLiveNanos) {
+        if (capacityBytes <= 0) {
+            throw new IllegalArgumentException("Arena capacity must be positive");
+        }
+        this.buffer = ByteBuffer.allocateDirect(capacityBytes);
+        this.timeToLiveNanos = timeToLiveNanos;
+    }
+
+    /**
+     * Stores a serialized value, replacing any previous value for the key.
+     *
+     * @return false if the value is larger than the whole arena and was not stored
+     */
+    public boolean put(Object key, byte[] bytes, int length) {
+        if (length > buffer.capacity()) {
+            remove(key);
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            Entry previous = index.remove(key);
+            if (previous != null) {
+                liveBytes -= previous.length();
+            }
+            if (writePosition + length > buffer.capacity()) {
+                // Skip the unusable tail: every entry still stored there belongs to the previous lap
+                while (!writeOrder.isEmpty() && writeOrder.peekFirst().offset() >= writePosition) {
+                    evictOldest();
+                }
+                writePosition = 0;
+            }
+            while (!writeOrder.isEmpty() && overlaps(writeOrder.peekFirst(), writePosition, length)) {
+                evictOldest();
+            }
+            buffer.put(writePosition, bytes, 0, length);
+            Entry entry = new Entry(key, writePosition, length, System.nanoTime());
+            index.put(key, entry);
+            writeOrder.addLast(entry);
+            liveBytes += length;
+            writePosition += length;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Decodes the value stored for a key straight from off-heap memory.
+     *
+     * @param decoder receives a read-only view positioned at the entry and limited to its length
+     * @return the decoded value, or {@code null} if absent or expired
+     */
+    public <T> T read(Object key, Function<ByteBuffer, T> decoder) {
+        lock.readLock().lock();
+        try {
+            Entry entry = index.get(key);
+            if (entry == null || isExpired(entry)) {
+                return null;
+            }
+            ByteBuffer view = buffer.asReadOnlyBuffer();
+            view.limit(entry.offset() + entry.length()).position(entry.offset());
+            return decoder.apply(view.slice());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(Object key) {
+        lock.writeLock().lock();
+        try {
+            Entry removed = index.remove(key);
+            if (removed != null) {
+                liveBytes -= removed.length();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes every entry whose key matches; the bytes are reclaimed as the ring wraps.
+     */
+    public void removeIf(Predicate<Object> keyFilter) {
+        lock.writeLock().lock();
+        try {
+            index.values().removeIf(entry -> {
+                if (keyFilter.test(entry.key())) {
+                    liveBytes -= entry.length();
+                    return true;
+                }
+                return false;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * @return bytes held by entries that are still addressable
+     */
+    public long liveBytes() {
+        lock.readLock().lock();
+        try {
+            return liveBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void evictOldest() {
+        Entry oldest = writeOrder.pollFirst();
+        // Only drop the index mapping if it still points at these bytes (the key may have been rewritten)
+        if (oldest != null && index.remove(oldest.key(), oldest)) {
+            liveBytes -= oldest.length();
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.nanoTime() - entry.writtenAtNanos() > timeToLiveNanos;
+    }
+
+    private static boolean overlaps(Entry entry, int offset, int length) {
+        return entry.offset() < offset + length && offset < entry.offset() + entry.length();
+    }
+}
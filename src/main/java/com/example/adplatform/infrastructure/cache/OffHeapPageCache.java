@@ -0,0 +1,129 @@
+package com.example.adplatform.infrastructure.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache decorator that keeps {@code Page<Advertisement>} values serialized in a shared
+ * {@link OffHeapArena} instead of on the heap.
+ *
+ * Pages are encoded with {@link AdvertisementPageCodec} and decoded straight from off-heap memory
+ * on every hit, so the cached graph never reaches the old generation. Any other value (for example
+ * the unpaged lists cached under the same name) and pages the arena cannot hold fall through to the
+ * delegate cache unchanged.
+ */
+public class OffHeapPageCache implements Cache {
+
+    private final Cache delegate;
+    private final OffHeapArena arena;
+
+    private record ArenaKey(String cacheName, Object key) {
+    }
+
+    public OffHeapPageCache(Cache delegate, OffHeapArena arena) {
+        this.delegate = delegate;
+        this.arena = arena;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Page<?> page = arena.read(arenaKey(key), AdvertisementPageCodec::decode);
+        return page != null ? new SimpleValueWrapper(page) : delegate.get(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (AdvertisementPageCodec.supports(value)) {
+            AdvertisementPageCodec.Output encoded = AdvertisementPageCodec.encode((Page<?>) value);
+            if (arena.put(arenaKey(key), encoded.bytes(), encoded.length())) {
+                delegate.evict(key);
+                return;
+            }
+        }
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        arena.remove(arenaKey(key));
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean offHeap = arena.read(arenaKey(key), buffer -> Boolean.TRUE) != null;
+        arena.remove(arenaKey(key));
+        return delegate.evictIfPresent(key) || offHeap;
+    }
+
+    @Override
+    public void clear() {
+        clearArena();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        clearArena();
+        return delegate.invalidate();
+    }
+
+    private void clearArena() {
+        String name = getName();
+        arena.removeIf(key -> key instanceof ArenaKey arenaKey && arenaKey.cacheName().equals(name));
+    }
+
+    private ArenaKey arenaKey(Object key) {
+        return new ArenaKey(getName(), key);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.adplatform.infrastructure.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how often each combination of targeting criteria is requested so the hottest
+ * ones can be replayed into the caches after a restart (see {@link CacheWarmer}).
+ *
+ * Calls are counted before the cache, so the ranking reflects demand rather than cache misses.
+ * Counting happens in memory; {@link #flush()} periodically writes the top-N keys to a local
+ * JSON file. The number of distinct keys tracked is bounded, new keys beyond the bound are ignored
+ * until the next restart.
+ */
+@Aspect
+// Outside the cache interceptor, so cache hits are counted too; inside ExposeInvocationInterceptor
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Slf4j
+public class TargetingHotKeyRecorder {
+
+    private record Key(String strategy, List<Object> args) {
+    }
+
+    private final Map<Key, LongAdder> hits = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final int topN;
+    private final int maxTrackedKeys;
+    private volatile boolean paused;
+
+    public TargetingHotKeyRecorder(ObjectMapper objectMapper, Path file, int topN, int maxTrackedKeys) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.topN = topN;
+        this.maxTrackedKeys = maxTrackedKeys;
+    }
+
+    /* =========================
+     *  Pointcuts
+     * ========================= */
+
+    @Pointcut("execution(* com.example.adplatform.application.service.AdvertisementServiceImpl.getTargetedAdvertisements(..))")
+    public void combinedTargeting() {}
+
+    @Pointcut("execution(* com.example.adplatform.application.service.AdvertisementServiceImpl.getGeoTargetedAdvertisements(..))")
+    public void geoTargeting() {}
+
+    @Pointcut("execution(* com.example.adplatform.application.service.AdvertisementServiceImpl.getBioTargetedAdvertisements(..))")
+    public void bioTargeting() {}
+
+    @Pointcut("execution(* com.example.adplatform.application.service.AdvertisementServiceImpl.getMoodTargetedAdvertisements(..))")
+    public void moodTargeting() {}
+
+    /* =========================
+     *  Advices
+     * ========================= */
+
+    @AfterReturning("combinedTargeting()")
+    public void recordCombined(JoinPoint jp) {
+        record(CacheWarmer.STRATEGY_COMBINED, jp.getArgs());
+    }
+
+    @AfterReturning("geoTargeting()")
+    public void recordGeo(JoinPoint jp) {
+        record(CacheWarmer.STRATEGY_GEO, jp.getArgs());
+    }
+
+    @AfterReturning("bioTargeting()")
+    public void recordBio(JoinPoint jp) {
+        record(CacheWarmer.STRATEGY_BIO, jp.getArgs());
+    }
+
+    @AfterReturning("moodTargeting()")
+    public void recordMood(JoinPoint jp) {
+        record(CacheWarmer.STRATEGY_MOOD, jp.getArgs());
+    }
+
+    void record(String strategy, Object[] args) {
+        if (paused) {
+            return;
+        }
+        Key key = new Key(strategy, Arrays.asList(args.clone()));
+        LongAdder counter = hits.get(key);
+        if (counter == null) {
+            if (hits.size() >= maxTrackedKeys) {
+                return;
+            }
+            counter = hits.computeIfAbsent(key, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Stops counting calls, used while the warmer replays keys so warm-up traffic is not recorded.
+     */
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+    }
+
+    /**
+     * @return the current top-N keys by hit count
+     */
+    public HotKeySnapshot snapshot() {
+        long totalHits = 0;
+        for (LongAdder counter : hits.values()) {
+            totalHits += counter.sum();
+        }
+        List<HotKeySnapshot.HotKey> top = hits.entrySet().stream()
+                .map(e -> new HotKeySnapshot.HotKey(e.getKey().strategy(), e.getKey().args(), e.getValue().sum()))
+                .sorted(Comparator.comparingLong(HotKeySnapshot.HotKey::hits).reversed())
+                .limit(topN)
+                .toList();
+        return new HotKeySnapshot(Instant.now(), totalHits, top);
+    }
+
+    /**
+     * Writes the current top-N keys to the warm-up file, periodically and once more on shutdown.
+     * Nothing is written before any call was recorded, so a restart followed by a quick shutdown
+     * does not wipe the previous snapshot.
+     */
+    @Scheduled(initialDelayString = "${app.cache.warmup.flush-interval:PT1M}",
+               fixedDelayString = "${app.cache.warmup.flush-interval:PT1M}")
+    @PreDestroy
+    public void flush() {
+        HotKeySnapshot snapshot = snapshot();
+        if (snapshot.keys().isEmpty()) {
+            return;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Recorded {} hot targeting keys to {}", snapshot.keys().size(), file);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to record hot targeting keys to {}: {}", file, e.getMessage());
+        }
+    }
+}
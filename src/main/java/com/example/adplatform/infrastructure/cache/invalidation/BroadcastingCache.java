@@ -0,0 +1,82 @@
+package com.example.adplatform.infrastructure.cache.invalidation;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache decorator that forwards every local eviction or clear to the {@link CacheInvalidationBus}
+ * so other application instances drop the same entries.
+ */
+public class BroadcastingCache implements Cache {
+
+    private final Cache delegate;
+    private final CacheInvalidationBus bus;
+
+    public BroadcastingCache(Cache delegate, CacheInvalidationBus bus) {
+        this.delegate = delegate;
+        this.bus = bus;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        bus.publish(CacheInvalidation.evict(getName(), key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        // Other instances may hold the entry even when this one does not
+        bus.publish(CacheInvalidation.evict(getName(), key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        bus.publish(CacheInvalidation.clear(getName()));
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = delegate.invalidate();
+        bus.publish(CacheInvalidation.clear(getName()));
+        return present;
+    }
+}
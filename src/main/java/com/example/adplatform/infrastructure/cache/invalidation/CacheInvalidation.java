@@ -0,0 +1,46 @@
+package com.example.adplatform.infrastructure.cache.invalidation;
+
+/**
+ * Compact cross-node invalidation message: a cache name plus an encoded key,
+ * or no key when the whole cache was cleared.
+ *
+ * Only simple keys (longs such as advertisement ids, and strings) are sent individually;
+ * an eviction of any other key type is widened to a clear of that cache on the receiving side.
+ *
+ * @param cacheName name of the cache in {@code CacheConfig}
+ * @param key encoded key ({@code l:<long>} or {@code s:<string>}), or {@code null} to clear the cache
+ */
+public record CacheInvalidation(String cacheName, String key) {
+
+    private static final String LONG_PREFIX = "l:";
+    private static final String STRING_PREFIX = "s:";
+    private static final int MAX_KEY_LENGTH = 512;
+
+    public static CacheInvalidation clear(String cacheName) {
+        return new CacheInvalidation(cacheName, null);
+    }
+
+    public static CacheInvalidation evict(String cacheName, Object key) {
+        String encoded = null;
+        if (key instanceof Long) {
+            encoded = LONG_PREFIX + key;
+        } else if (key instanceof String s && s.length() + STRING_PREFIX.length() <= MAX_KEY_LENGTH) {
+            encoded = STRING_PREFIX + s;
+        }
+        return new CacheInvalidation(cacheName, encoded);
+    }
+
+    public boolean isClear() {
+        return key == null;
+    }
+
+    /**
+     * @return the decoded key; only meaningful when {@link #isClear()} is false
+     */
+    public Object decodedKey() {
+        if (key.startsWith(LONG_PREFIX)) {
+            return Long.valueOf(key.substring(LONG_PREFIX.length()));
+        }
+        return key.substring(STRING_PREFIX.length());
+    }
+}
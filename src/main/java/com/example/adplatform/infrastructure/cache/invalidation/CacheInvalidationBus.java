@@ -0,0 +1,147 @@
+package com.example.adplatform.infrastructure.cache.invalidation;
+
+import com.example.adplatform.application.port.in.InventoryVersionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the local caches of several application instances coherent.
+ *
+ * Local evictions (captured by {@link BroadcastingCache}) are published through a pluggable
+ * {@link CacheInvalidationTransport}. Inside a transaction they are collected and sent as one batch
+ * after commit, so other instances never reload data that is not committed yet. Batches received
+ * from other instances are collapsed (a clear wins over single-key evictions of the same cache),
+ * applied to the local caches without being re-broadcast, and bump the inventory version so
+ * ETags handed out by this instance change as well.
+ */
+@Slf4j
+public class CacheInvalidationBus {
+
+    private static final ThreadLocal<Boolean> APPLYING_REMOTE = ThreadLocal.withInitial(() -> false);
+
+    private final CacheInvalidationTransport transport;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final InventoryVersionService inventoryVersionService;
+    private final Counter sent;
+    private final Counter received;
+
+    public CacheInvalidationBus(CacheInvalidationTransport transport,
+                                ObjectProvider<CacheManager> cacheManager,
+                                InventoryVersionService inventoryVersionService,
+                                MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.cacheManager = cacheManager;
+        this.inventoryVersionService = inventoryVersionService;
+        this.sent = Counter.builder("advertisements.cache.invalidations")
+                .description("Cache invalidation messages exchanged with other instances")
+                .tag("direction", "sent")
+                .register(meterRegistry);
+        this.received = Counter.builder("advertisements.cache.invalidations")
+                .description("Cache invalidation messages exchanged with other instances")
+                .tag("direction", "received")
+                .register(meterRegistry);
+        transport.subscribe(this::apply);
+    }
+
+    /**
+     * Publishes a local invalidation to the other instances.
+     * Invalidations performed while applying a remote batch are not published again.
+     */
+    public void publish(CacheInvalidation invalidation) {
+        if (APPLYING_REMOTE.get()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingBatch().add(invalidation);
+        } else {
+            send(List.of(invalidation));
+        }
+    }
+
+    private List<CacheInvalidation> pendingBatch() {
+        @SuppressWarnings("unchecked")
+        List<CacheInvalidation> batch = (List<CacheInvalidation>) TransactionSynchronizationManager.getResource(this);
+        if (batch == null) {
+            List<CacheInvalidation> newBatch = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, newBatch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(newBatch);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationBus.this);
+                }
+            });
+            batch = newBatch;
+        }
+        return batch;
+    }
+
+    private void send(List<CacheInvalidation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transport.send(List.copyOf(new LinkedHashSet<>(batch)));
+            sent.increment(batch.size());
+        } catch (RuntimeException e) {
+            // The local write already happened; other instances fall back to the cache TTL
+            log.warn("Failed to broadcast {} cache invalidations: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Applies a batch received from another instance to the local caches.
+     */
+    void apply(List<CacheInvalidation> batch) {
+        Set<String> clearedCaches = new LinkedHashSet<>();
+        Map<String, Set<Object>> keysByCache = new LinkedHashMap<>();
+        for (CacheInvalidation invalidation : batch) {
+            if (invalidation.isClear()) {
+                clearedCaches.add(invalidation.cacheName());
+            } else {
+                keysByCache.computeIfAbsent(invalidation.cacheName(), name -> new LinkedHashSet<>())
+                        .add(invalidation.decodedKey());
+            }
+        }
+        keysByCache.keySet().removeAll(clearedCaches);
+
+        CacheManager manager = cacheManager.getObject();
+        APPLYING_REMOTE.set(true);
+        try {
+            clearedCaches.forEach(name -> {
+                Cache cache = manager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            });
+            keysByCache.forEach((name, keys) -> {
+                Cache cache = manager.getCache(name);
+                if (cache != null) {
+                    keys.forEach(cache::evict);
+                }
+            });
+        } finally {
+            APPLYING_REMOTE.remove();
+        }
+        received.increment(batch.size());
+        inventoryVersionService.markChanged();
+        log.debug("Applied {} remote cache invalidations ({} caches cleared)", batch.size(), clearedCaches.size());
+    }
+}
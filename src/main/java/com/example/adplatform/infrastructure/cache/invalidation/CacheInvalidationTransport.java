@@ -0,0 +1,21 @@
+package com.example.adplatform.infrastructure.cache.invalidation;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Transport carrying {@link CacheInvalidation} batches between application instances.
+ * Implementations must not deliver a batch back to the instance that sent it.
+ */
+public interface CacheInvalidationTransport {
+
+    /**
+     * Sends a batch of invalidations to every other instance.
+     */
+    void send(List<CacheInvalidation> batch);
+
+    /**
+     * Registers the callback that receives batches sent by other instances.
+     */
+    void subscribe(Consumer<List<CacheInvalidation>> listener);
+}
@@ -0,0 +1,125 @@
+package com.example.adplatform.infrastructure.cache.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Default {@link CacheInvalidationTransport} backed by the {@code cache_invalidations} change table.
+ *
+ * Each instance appends its invalidations tagged with its own origin id and periodically polls
+ * the table for rows written by other instances. Identity values can become visible out of order
+ * when writers commit concurrently, so every poll re-reads a small window below the cursor and
+ * skips rows it has already delivered; it reads at most that window plus one batch, so a backlog
+ * is worked off over several polls. Rows older than the retention period are purged.
+ */
+@Slf4j
+public class JdbcCacheInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final int LOOKBACK_IDS = 256;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String origin = UUID.randomUUID().toString();
+    private final int batchSize;
+    private final Duration retention;
+    private final List<Consumer<List<CacheInvalidation>>> listeners = new CopyOnWriteArrayList<>();
+    private final NavigableSet<Long> delivered = new ConcurrentSkipListSet<>();
+    private volatile long cursor = -1;
+    private long startId;
+
+    public JdbcCacheInvalidationTransport(DataSource dataSource, int batchSize, Duration retention) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Override
+    public void send(List<CacheInvalidation> batch) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO cache_invalidations (origin, cache_name, cache_key, created_at) VALUES (?, ?, ?, ?)",
+                batch, batch.size(), (ps, invalidation) -> {
+                    ps.setString(1, origin);
+                    ps.setString(2, invalidation.cacheName());
+                    ps.setString(3, invalidation.key());
+                    ps.setTimestamp(4, now);
+                });
+    }
+
+    @Override
+    public void subscribe(Consumer<List<CacheInvalidation>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Reads invalidations written by other instances since the last poll and hands them to the
+     * listeners as one batch. The first poll only positions the cursor, history is not replayed.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.poll-interval:PT1S}")
+    public synchronized void poll() {
+        if (cursor < 0) {
+            Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM cache_invalidations", Long.class);
+            cursor = max != null ? max : 0;
+            startId = cursor;
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>();
+        List<CacheInvalidation> batch = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT id, origin, cache_name, cache_key FROM cache_invalidations WHERE id > ? ORDER BY id LIMIT ?",
+                rs -> {
+                    long id = rs.getLong("id");
+                    if (delivered.contains(id) || ids.size() >= batchSize) {
+                        return;
+                    }
+                    ids.add(id);
+                    if (!origin.equals(rs.getString("origin"))) {
+                        batch.add(new CacheInvalidation(rs.getString("cache_name"), rs.getString("cache_key")));
+                    }
+                },
+                Math.max(startId, cursor - LOOKBACK_IDS),
+                // The delivered ids in the window take at most LOOKBACK_IDS rows of it
+                LOOKBACK_IDS + batchSize);
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        if (!batch.isEmpty()) {
+            for (Consumer<List<CacheInvalidation>> listener : listeners) {
+                try {
+                    listener.accept(batch);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to apply {} cache invalidations: {}", batch.size(), e.getMessage());
+                }
+            }
+        }
+        delivered.addAll(ids);
+        cursor = Math.max(cursor, ids.get(ids.size() - 1));
+        delivered.headSet(cursor - LOOKBACK_IDS, true).clear();
+    }
+
+    /**
+     * Deletes rows every instance has had ample time to read.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.invalidation.purge-interval:PT5M}")
+    public void purge() {
+        int purged = jdbcTemplate.update("DELETE FROM cache_invalidations WHERE created_at < ?",
+                Timestamp.from(Instant.now().minus(retention)));
+        if (purged > 0) {
+            log.debug("Purged {} old cache invalidations", purged);
+        }
+    }
+}
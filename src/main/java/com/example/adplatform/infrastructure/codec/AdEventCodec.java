@@ -0,0 +1,436 @@
+package com.example.adplatform.infrastructure.codec;
+
+import com.example.adplatform.domain.event.AdClickEvent;
+import com.example.adplatform.domain.event.AdViewEvent;
+import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary encoding of view, click and interaction events.
+ *
+ * <pre>
+ * byte    header: bits 0-2 type (1 AdViewEvent, 2 AdClickEvent, 3 AdvertisementViewedEvent,
+ *         4 AdvertisementInteractedEvent), bit 3 complete view / conversion present, bit 4 its value,
+ *         bit 5 context section present (views, clicks) or session id present (tracking events)
+ * varint  advertisement id, zigzag + 1 (0 when absent)
+ * varint  timestamp in epoch milliseconds (UTC for local date-times), zigzag + 1 (0 when absent)
+ * ...     per type: view duration seconds / click x and y position as varints (zigzag + 1), then strings
+ * ...     context section: entry count, then per entry a string key and a tagged value
+ * </pre>
+ *
+ * View strings are user id, session id, device type, browser info and IP address; clicks add
+ * the target URL and referrer; interactions carry the interaction type; tracking events end with
+ * their session id when they have one. Each string starts with a varint token: 0 absent, 1 UTF-8
+ * bytes follow (length first), 2 a UUID in 16 bytes, 3 an IPv4 address in 4 bytes, and 4 or more
+ * the id (token - 4) of a {@link ValueDictionary} entry. Device
+ * type, browser info, referrer, interaction type and the keys and string values of the context
+ * (such as a country) go through the dictionary. Context values are tagged as null, string,
+ * int, long, double or boolean; any other value is written as its {@code toString()} and read
+ * back as a string.
+ *
+ * Timestamps are kept to the millisecond and strings cut to {@value #MAX_STRING_CHARS} characters.
+ * A context that does not fit in the target buffer is left out.
+ */
+public final class AdEventCodec {
+
+    public static final int MAX_STRING_CHARS = 1024;
+
+    private static final int VIEW = 1;
+    private static final int CLICK = 2;
+    private static final int ADVERTISEMENT_VIEWED = 3;
+    private static final int ADVERTISEMENT_INTERACTED = 4;
+    private static final int TYPE_MASK = 0x07;
+    private static final int FLAG_PRESENT = 0x08;
+    private static final int FLAG_SET = 0x10;
+    private static final int CONTEXT_PRESENT = 0x20;
+    private static final int SESSION_PRESENT = 0x20;
+
+    private static final int ABSENT = 0;
+    private static final int LITERAL = 1;
+    private static final int UUID_BYTES = 2;
+    private static final int IPV4_BYTES = 3;
+    private static final int FIRST_DICTIONARY_TOKEN = 4;
+
+    private static final int NULL_VALUE = 0;
+    private static final int STRING_VALUE = 1;
+    private static final int INT_VALUE = 2;
+    private static final int LONG_VALUE = 3;
+    private static final int DOUBLE_VALUE = 4;
+    private static final int TRUE_VALUE = 5;
+    private static final int FALSE_VALUE = 6;
+    private static final int OTHER_VALUE = 7;
+
+    private final ValueDictionary dictionary;
+
+    public AdEventCodec(ValueDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public static boolean supports(Object event) {
+        return event instanceof AdViewEvent
+                || event instanceof AdClickEvent
+                || event instanceof AdvertisementViewedEvent
+                || event instanceof AdvertisementInteractedEvent;
+    }
+
+    /**
+     * Writes the event at the position of {@code target}, leaving the position after it.
+     *
+     * @throws BufferOverflowException if the event does not fit even without its context
+     */
+    public void encode(Object event, ByteBuffer target) {
+        int start = target.position();
+        try {
+            encode(event, target, true);
+        } catch (BufferOverflowException e) {
+            target.position(start);
+            encode(event, target, false);
+        }
+    }
+
+    /**
+     * Reads one event from the position of {@code source}, leaving the position after it.
+     *
+     * @throws IllegalArgumentException if the bytes are not an event written by this codec
+     */
+    public Object decode(ByteBuffer source) {
+        int header = source.get() & 0xFF;
+        Long advertisementId = getOptionalLong(source);
+        Long epochMilli = getOptionalLong(source);
+        Instant timestamp = epochMilli == null ? null : Instant.ofEpochMilli(epochMilli);
+        Boolean flag = (header & FLAG_PRESENT) == 0 ? null : (header & FLAG_SET) != 0;
+        return switch (header & TYPE_MASK) {
+            case VIEW -> AdViewEvent.builder()
+                    .advertisementId(advertisementId)
+                    .timestamp(localDateTime(timestamp))
+                    .isCompleteView(flag)
+                    .viewDurationSeconds(getOptionalInt(source))
+                    .userId(getString(source))
+                    .sessionId(getString(source))
+                    .deviceType(getString(source))
+                    .browserInfo(getString(source))
+                    .ipAddress(getString(source))
+                    .contextData(getContext(source, header))
+                    .build();
+            case CLICK -> AdClickEvent.builder()
+                    .advertisementId(advertisementId)
+                    .timestamp(localDateTime(timestamp))
+                    .resultedInConversion(flag)
+                    .xPosition(getOptionalInt(source))
+                    .yPosition(getOptionalInt(source))
+                    .userId(getString(source))
+                    .sessionId(getString(source))
+                    .deviceType(getString(source))
+                    .browserInfo(getString(source))
+                    .ipAddress(getString(source))
+                    .targetUrl(getString(source))
+                    .referrer(getString(source))
+                    .contextData(getContext(source, header))
+                    .build();
+            case ADVERTISEMENT_VIEWED -> new AdvertisementViewedEvent(advertisementId, timestamp, getSessionId(source, header));
+            case ADVERTISEMENT_INTERACTED -> new AdvertisementInteractedEvent(advertisementId, getString(source), timestamp,
+                    getSessionId(source, header));
+            default -> throw new IllegalArgumentException("Unknown event type " + (header & TYPE_MASK));
+        };
+    }
+
+    private void encode(Object event, ByteBuffer target, boolean withContext) {
+        switch (event) {
+            case AdViewEvent view -> {
+                Map<String, Object> context = withContext ? view.getContextData() : null;
+                target.put((byte) header(VIEW, view.getIsCompleteView(), context));
+                putOptionalLong(target, view.getAdvertisementId());
+                putOptionalLong(target, epochMilli(view.getTimestamp()));
+                putOptionalLong(target, toLong(view.getViewDurationSeconds()));
+                putString(target, view.getUserId(), false);
+                putString(target, view.getSessionId(), false);
+                putString(target, view.getDeviceType(), true);
+                putString(target, view.getBrowserInfo(), true);
+                putString(target, view.getIpAddress(), false);
+                putContext(target, context);
+            }
+            case AdClickEvent click -> {
+                Map<String, Object> context = withContext ? click.getContextData() : null;
+                target.put((byte) header(CLICK, click.getResultedInConversion(), context));
+                putOptionalLong(target, click.getAdvertisementId());
+                putOptionalLong(target, epochMilli(click.getTimestamp()));
+                putOptionalLong(target, toLong(click.getXPosition()));
+                putOptionalLong(target, toLong(click.getYPosition()));
+                putString(target, click.getUserId(), false);
+                putString(target, click.getSessionId(), false);
+                putString(target, click.getDeviceType(), true);
+                putString(target, click.getBrowserInfo(), true);
+                putString(target, click.getIpAddress(), false);
+                putString(target, click.getTargetUrl(), false);
+                putString(target, click.getReferrer(), true);
+                putContext(target, context);
+            }
+            case AdvertisementViewedEvent viewed -> {
+                target.put((byte) (viewed.sessionId() == null ? ADVERTISEMENT_VIEWED : ADVERTISEMENT_VIEWED | SESSION_PRESENT));
+                putOptionalLong(target, viewed.advertisementId());
+                putOptionalLong(target, epochMilli(viewed.occurredAt()));
+                putSessionId(target, viewed.sessionId());
+            }
+            case AdvertisementInteractedEvent interacted -> {
+                target.put((byte) (interacted.sessionId() == null ? ADVERTISEMENT_INTERACTED : ADVERTISEMENT_INTERACTED | SESSION_PRESENT));
+                putOptionalLong(target, interacted.advertisementId());
+                putOptionalLong(target, epochMilli(interacted.occurredAt()));
+                putString(target, interacted.interactionType(), true);
+                putSessionId(target, interacted.sessionId());
+            }
+            default -> throw new IllegalArgumentException("Unsupported event type: " + event.getClass().getName());
+        }
+    }
+
+    private static int header(int type, Boolean flag, Map<String, Object> context) {
+        int header = type;
+        if (flag != null) {
+            header |= FLAG_PRESENT | (flag ? FLAG_SET : 0);
+        }
+        return context == null ? header : header | CONTEXT_PRESENT;
+    }
+
+    private void putSessionId(ByteBuffer target, String sessionId) {
+        if (sessionId != null) {
+            putString(target, sessionId, false);
+        }
+    }
+
+    private String getSessionId(ByteBuffer source, int header) {
+        return (header & SESSION_PRESENT) == 0 ? null : getString(source);
+    }
+
+    private void putContext(ByteBuffer target, Map<String, Object> context) {
+        if (context == null) {
+            return;
+        }
+        putVarint(target, context.size());
+        for (Map.Entry<String, Object> entry : context.entrySet()) {
+            putString(target, entry.getKey(), true);
+            switch (entry.getValue()) {
+                case null -> target.put((byte) NULL_VALUE);
+                case String value -> {
+                    target.put((byte) STRING_VALUE);
+                    putString(target, value, true);
+                }
+                case Integer value -> {
+                    target.put((byte) INT_VALUE);
+                    putVarint(target, zigzag(value));
+                }
+                case Long value -> {
+                    target.put((byte) LONG_VALUE);
+                    putVarint(target, zigzag(value));
+                }
+                case Double value -> {
+                    target.put((byte) DOUBLE_VALUE);
+                    target.order(ByteOrder.LITTLE_ENDIAN).putDouble(value);
+                }
+                case Boolean value -> target.put((byte) (value ? TRUE_VALUE : FALSE_VALUE));
+                default -> {
+                    target.put((byte) OTHER_VALUE);
+                    putString(target, entry.getValue().toString(), false);
+                }
+            }
+        }
+    }
+
+    private Map<String, Object> getContext(ByteBuffer source, int header) {
+        if ((header & CONTEXT_PRESENT) == 0) {
+            return null;
+        }
+        int entries = (int) getVarint(source);
+        Map<String, Object> context = new LinkedHashMap<>(Math.max(4, entries * 2));
+        for (int i = 0; i < entries; i++) {
+            String key = getString(source);
+            int tag = source.get();
+            context.put(key, switch (tag) {
+                case NULL_VALUE -> null;
+                case STRING_VALUE, OTHER_VALUE -> getString(source);
+                case INT_VALUE -> (int) unzigzag(getVarint(source));
+                case LONG_VALUE -> unzigzag(getVarint(source));
+                case DOUBLE_VALUE -> source.order(ByteOrder.LITTLE_ENDIAN).getDouble();
+                case TRUE_VALUE -> Boolean.TRUE;
+                case FALSE_VALUE -> Boolean.FALSE;
+                default -> throw new IllegalArgumentException("Unknown context value tag " + tag);
+            });
+        }
+        return context;
+    }
+
+    private void putString(ByteBuffer target, String value, boolean dictionaryCoded) {
+        if (value == null) {
+            putVarint(target, ABSENT);
+            return;
+        }
+        value = truncate(value);
+        if (dictionaryCoded) {
+            int id = dictionary.idOf(value);
+            if (id >= 0) {
+                putVarint(target, FIRST_DICTIONARY_TOKEN + (long) id);
+                return;
+            }
+        }
+        UUID uuid = parseUuid(value);
+        if (uuid != null) {
+            putVarint(target, UUID_BYTES);
+            target.order(ByteOrder.BIG_ENDIAN).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+            return;
+        }
+        int ipv4 = parseIpv4(value);
+        if (ipv4 != -1 || "255.255.255.255".equals(value)) {
+            putVarint(target, IPV4_BYTES);
+            target.order(ByteOrder.BIG_ENDIAN).putInt(ipv4);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarint(target, LITERAL);
+        putVarint(target, bytes.length);
+        target.put(bytes);
+    }
+
+    private String getString(ByteBuffer source) {
+        long token = getVarint(source);
+        if (token == ABSENT) {
+            return null;
+        }
+        if (token == LITERAL) {
+            int length = (int) getVarint(source);
+            byte[] bytes = new byte[length];
+            source.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (token == UUID_BYTES) {
+            source.order(ByteOrder.BIG_ENDIAN);
+            return new UUID(source.getLong(), source.getLong()).toString();
+        }
+        if (token == IPV4_BYTES) {
+            int address = source.order(ByteOrder.BIG_ENDIAN).getInt();
+            return (address >>> 24) + "." + (address >>> 16 & 0xFF) + "." + (address >>> 8 & 0xFF) + "." + (address & 0xFF);
+        }
+        return dictionary.valueOf((int) (token - FIRST_DICTIONARY_TOKEN));
+    }
+
+    /**
+     * @return the UUID if the value is one in canonical lower-case form, so it reads back unchanged
+     */
+    private static UUID parseUuid(String value) {
+        if (value.length() != 36 || value.charAt(8) != '-' || value.charAt(13) != '-'
+                || value.charAt(18) != '-' || value.charAt(23) != '-') {
+            return null;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '-' && (c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return null;
+            }
+        }
+        return UUID.fromString(value);
+    }
+
+    /**
+     * @return the address if the value is a dotted IPv4 address without leading zeros, otherwise -1
+     */
+    private static int parseIpv4(String value) {
+        if (value.length() < 7 || value.length() > 15) {
+            return -1;
+        }
+        int address = 0;
+        int part = 0;
+        int digits = 0;
+        int parts = 0;
+        for (int i = 0; i <= value.length(); i++) {
+            char c = i < value.length() ? value.charAt(i) : '.';
+            if (c == '.') {
+                if (digits == 0 || part > 255 || ++parts > 4) {
+                    return -1;
+                }
+                address = address << 8 | part;
+                part = 0;
+                digits = 0;
+            } else if (c >= '0' && c <= '9' && !(digits == 1 && part == 0)) {
+                part = part * 10 + (c - '0');
+                digits++;
+            } else {
+                return -1;
+            }
+        }
+        return parts == 4 ? address : -1;
+    }
+
+    private static void putOptionalLong(ByteBuffer target, Long value) {
+        putVarint(target, value == null ? 0 : zigzag(value) + 1);
+    }
+
+    private static Long getOptionalLong(ByteBuffer source) {
+        long value = getVarint(source);
+        return value == 0 ? null : unzigzag(value - 1);
+    }
+
+    private static Integer getOptionalInt(ByteBuffer source) {
+        Long value = getOptionalLong(source);
+        return value == null ? null : value.intValue();
+    }
+
+    private static void putVarint(ByteBuffer target, long value) {
+        while ((value & ~0x7FL) != 0) {
+            target.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+
+    private static long getVarint(ByteBuffer source) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = source.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static Long toLong(Integer value) {
+        return value == null ? null : value.longValue();
+    }
+
+    private static String truncate(String value) {
+        if (value.length() <= MAX_STRING_CHARS) {
+            return value;
+        }
+        int end = Character.isHighSurrogate(value.charAt(MAX_STRING_CHARS - 1)) ? MAX_STRING_CHARS - 1 : MAX_STRING_CHARS;
+        return value.substring(0, end);
+    }
+
+    private static Long epochMilli(Instant timestamp) {
+        return timestamp == null ? null : timestamp.toEpochMilli();
+    }
+
+    private static Long epochMilli(LocalDateTime timestamp) {
+        return timestamp == null ? null : timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime localDateTime(Instant timestamp) {
+        return timestamp == null ? null : LocalDateTime.ofInstant(timestamp, ZoneOffset.UTC);
+    }
+}
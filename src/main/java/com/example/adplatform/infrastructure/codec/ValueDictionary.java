@@ -0,0 +1,96 @@
+package com.example.adplatform.infrastructure.codec;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Thread-safe, append-only dictionary of recurring string values such as device types, browsers
+ * and countries, so the {@link AdEventCodec} can write a small id instead of the value.
+ *
+ * Ids are assigned in order and never change. New values are handed to {@code onAdded} before
+ * the id is returned, so an owner that persists them writes every value before any record that
+ * refers to it. Once {@code maxEntries} values are held, or for values longer than
+ * {@link #MAX_VALUE_CHARS}, no id is assigned and the codec writes the value itself.
+ */
+public class ValueDictionary {
+
+    /** Longer values are unlikely to recur and are never added. */
+    public static final int MAX_VALUE_CHARS = 512;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<String> values;
+    private final Consumer<String> onAdded;
+    private volatile int size;
+
+    /**
+     * @param maxEntries maximum number of values
+     * @param initial values with ids 0, 1, ... as previously assigned
+     * @param onAdded called with every new value, in id order, before its id is used
+     */
+    public ValueDictionary(int maxEntries, List<String> initial, Consumer<String> onAdded) {
+        this.values = new AtomicReferenceArray<>(maxEntries);
+        this.onAdded = onAdded;
+        for (String value : initial) {
+            if (size == maxEntries) {
+                break;
+            }
+            ids.putIfAbsent(value, size);
+            values.set(size, value);
+            size++;
+        }
+    }
+
+    /**
+     * An empty dictionary that is not persisted, for encoding within one process.
+     */
+    public static ValueDictionary inMemory(int maxEntries) {
+        return new ValueDictionary(maxEntries, List.of(), value -> {
+        });
+    }
+
+    /**
+     * @return the id of the value, adding it if there is room, or -1 if it has none
+     */
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        if (value.length() > MAX_VALUE_CHARS || size == values.length()) {
+            return -1;
+        }
+        synchronized (this) {
+            id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            if (size == values.length()) {
+                return -1;
+            }
+            onAdded.accept(value);
+            int added = size;
+            values.set(added, value);
+            ids.put(value, added);
+            size = added + 1;
+            return added;
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if no value has the id
+     */
+    public String valueOf(int id) {
+        String value = id >= 0 && id < values.length() ? values.get(id) : null;
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown dictionary id " + id);
+        }
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.adplatform.infrastructure.dedup;
+
+import java.util.Arrays;
+
+/**
+ * Cuckoo filter over 64-bit hashes: buckets of four fingerprints, each of which may live in one of
+ * two buckets. Unlike a Bloom filter it supports removal, and with fingerprints of {@code f} bits
+ * its false positive rate is about {@code 8 / 2^f}.
+ *
+ * Not thread-safe. {@link #add(long)} refuses keys once the nominal capacity is reached, so the
+ * table stays below the load at which inserts start to fail.
+ */
+final class CuckooFilter {
+
+    private static final int SLOTS_PER_BUCKET = 4;
+    private static final double MAX_LOAD = 0.95;
+    private static final int MAX_KICKS = 500;
+
+    /** Fingerprints, {@link #SLOTS_PER_BUCKET} per bucket; 0 marks an empty slot. */
+    private final short[] slots;
+    private final int bucketMask;
+    private final int fingerprintMask;
+    private final int capacity;
+    private int size;
+    private long kickSeed = 0x9E3779B97F4A7C15L;
+
+    /**
+     * @param capacity number of keys the filter accepts
+     * @param fingerprintBits bits per fingerprint, 4 to 16
+     */
+    CuckooFilter(int capacity, int fingerprintBits) {
+        if (fingerprintBits < 4 || fingerprintBits > 16) {
+            throw new IllegalArgumentException("fingerprintBits must be between 4 and 16");
+        }
+        int buckets = Integer.highestOneBit(Math.max(1, (int) Math.ceil(capacity / (SLOTS_PER_BUCKET * MAX_LOAD))) * 2 - 1);
+        this.slots = new short[buckets * SLOTS_PER_BUCKET];
+        this.bucketMask = buckets - 1;
+        this.fingerprintMask = (1 << fingerprintBits) - 1;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the fingerprint size giving at most the requested false positive rate
+     */
+    static int fingerprintBits(double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1 (exclusive)");
+        }
+        int bits = (int) Math.ceil(Math.log(2.0 * SLOTS_PER_BUCKET / falsePositiveRate) / Math.log(2));
+        if (bits > 16) {
+            throw new IllegalArgumentException("falsePositiveRate must be at least " + 2.0 * SLOTS_PER_BUCKET / (1 << 16));
+        }
+        return Math.max(4, bits);
+    }
+
+    boolean mightContain(long hash) {
+        int fingerprint = fingerprint(hash);
+        int first = firstBucket(hash);
+        return find(first, fingerprint) >= 0 || find(alternate(first, fingerprint), fingerprint) >= 0;
+    }
+
+    /**
+     * @return false if the filter is full and the key was not added
+     */
+    boolean add(long hash) {
+        if (size >= capacity) {
+            return false;
+        }
+        int fingerprint = fingerprint(hash);
+        int bucket = firstBucket(hash);
+        if (!insert(bucket, fingerprint) && !insert(alternate(bucket, fingerprint), fingerprint)) {
+            // Relocate fingerprints to their other bucket until one lands in a free slot
+            for (int kick = 0; kick < MAX_KICKS; kick++) {
+                int slot = bucket * SLOTS_PER_BUCKET + (int) (nextRandom() & (SLOTS_PER_BUCKET - 1));
+                int evicted = slots[slot] & 0xFFFF;
+                slots[slot] = (short) fingerprint;
+                fingerprint = evicted;
+                bucket = alternate(bucket, fingerprint);
+                if (insert(bucket, fingerprint)) {
+                    size++;
+                    return true;
+                }
+            }
+            // Unreachable below the maximum load in practice; the last evicted key is forgotten
+            return true;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes one copy of the key's fingerprint. Removing a key that was never added may remove
+     * the fingerprint of another key sharing it.
+     */
+    boolean remove(long hash) {
+        int fingerprint = fingerprint(hash);
+        int first = firstBucket(hash);
+        int slot = find(first, fingerprint);
+        if (slot < 0) {
+            slot = find(alternate(first, fingerprint), fingerprint);
+        }
+        if (slot < 0) {
+            return false;
+        }
+        slots[slot] = 0;
+        size--;
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(slots, (short) 0);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int fingerprint(long hash) {
+        int fingerprint = (int) (hash >>> 40) & fingerprintMask;
+        return fingerprint == 0 ? 1 : fingerprint;
+    }
+
+    private int firstBucket(long hash) {
+        return (int) hash & bucketMask;
+    }
+
+    /** The other bucket of a fingerprint; applying it twice returns the original bucket. */
+    private int alternate(int bucket, int fingerprint) {
+        return (bucket ^ (fingerprint * 0x5BD1E995)) & bucketMask;
+    }
+
+    private int find(int bucket, int fingerprint) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if ((slots[slot] & 0xFFFF) == fingerprint) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean insert(int bucket, int fingerprint) {
+        int start = bucket * SLOTS_PER_BUCKET;
+        for (int slot = start; slot < start + SLOTS_PER_BUCKET; slot++) {
+            if (slots[slot] == 0) {
+                slots[slot] = (short) fingerprint;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long nextRandom() {
+        kickSeed ^= kickSeed << 13;
+        kickSeed ^= kickSeed >>> 7;
+        kickSeed ^= kickSeed << 17;
+        return kickSeed;
+    }
+}
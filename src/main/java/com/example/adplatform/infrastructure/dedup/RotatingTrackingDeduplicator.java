@@ -0,0 +1,162 @@
+package com.example.adplatform.infrastructure.dedup;
+
+import com.example.adplatform.application.port.out.TrackingDeduplicator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * {@link TrackingDeduplicator} keeping the keys of a sliding window in rotating generations of
+ * {@link CuckooFilter}s, so memory stays fixed however many events arrive.
+ *
+ * The window is split into {@code generations - 1} periods; keys go into the current generation
+ * and are looked up in all of them, and when a period ends the oldest generation is cleared and
+ * becomes the current one. A key is therefore remembered for at least the window and at most
+ * {@code generations / (generations - 1)} times it. A generation that fills up before its period
+ * ends is rotated early, which shortens the window while traffic exceeds the expected rate.
+ * Keys are spread over independently locked stripes, so concurrent requests rarely contend.
+ */
+@Slf4j
+public class RotatingTrackingDeduplicator implements TrackingDeduplicator {
+
+    private static final int STRIPES = 16;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final long periodMillis;
+    private final Clock clock;
+    private final Counter checked;
+    private final Counter duplicates;
+    private final Counter overflows;
+
+    /**
+     * @param window how long keys are remembered at least
+     * @param generations number of filters the window rotates through, at least 2
+     * @param expectedKeys keys expected within one window; sizes the filters
+     * @param falsePositiveRate share of new keys that may be reported as duplicates
+     */
+    public RotatingTrackingDeduplicator(Duration window, int generations, int expectedKeys, double falsePositiveRate,
+                                        Clock clock, MeterRegistry meterRegistry) {
+        if (generations < 2) {
+            throw new IllegalArgumentException("generations must be at least 2");
+        }
+        if (window.toMillis() < generations - 1) {
+            throw new IllegalArgumentException("window is too short");
+        }
+        this.periodMillis = window.toMillis() / (generations - 1);
+        this.clock = clock;
+        // A key is looked up in every generation, each of which may report a false positive
+        int fingerprintBits = CuckooFilter.fingerprintBits(falsePositiveRate / generations);
+        int perGeneration = Math.max(16, (int) Math.ceil((double) expectedKeys / (generations - 1) / STRIPES));
+        long now = clock.millis();
+        for (int i = 0; i < STRIPES; i++) {
+            CuckooFilter[] filters = new CuckooFilter[generations];
+            for (int g = 0; g < generations; g++) {
+                filters[g] = new CuckooFilter(perGeneration, fingerprintBits);
+            }
+            stripes[i] = new Stripe(filters, now);
+        }
+        this.checked = Counter.builder("advertisements.tracking.dedup.checked")
+                .description("Tracked events with a deduplication key")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("advertisements.tracking.dedup.duplicates")
+                .description("Tracked events dropped as duplicates of an event within the window")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("advertisements.tracking.dedup.overflows")
+                .description("Filter generations rotated early because they were full")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean firstSeen(String key) {
+        long hash = hash(key);
+        Stripe stripe = stripes[(int) (hash >>> 60)];
+        checked.increment();
+        synchronized (stripe) {
+            stripe.rotate(clock.millis());
+            if (stripe.mightContain(hash)) {
+                duplicates.increment();
+                return false;
+            }
+            if (!stripe.current().add(hash)) {
+                overflows.increment();
+                log.debug("Deduplication filter full before the end of its period, rotating early");
+                stripe.advance(1);
+                stripe.current().add(hash);
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public void forget(String key) {
+        long hash = hash(key);
+        Stripe stripe = stripes[(int) (hash >>> 60)];
+        synchronized (stripe) {
+            stripe.remove(hash);
+        }
+    }
+
+    /** FNV-1a over the UTF-8 bytes, finished with the SplitMix64 finalizer to spread all 64 bits. */
+    static long hash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /** Generations of one stripe; guarded by the stripe's monitor. */
+    private final class Stripe {
+        private final CuckooFilter[] generations;
+        private int current;
+        private long periodStart;
+
+        Stripe(CuckooFilter[] generations, long now) {
+            this.generations = generations;
+            this.periodStart = now;
+        }
+
+        CuckooFilter current() {
+            return generations[current];
+        }
+
+        void rotate(long now) {
+            long periods = (now - periodStart) / periodMillis;
+            if (periods > 0) {
+                advance((int) Math.min(periods, generations.length));
+                periodStart = periods >= generations.length ? now : periodStart + periods * periodMillis;
+            }
+        }
+
+        void advance(int periods) {
+            for (int i = 0; i < periods; i++) {
+                current = (current + 1) % generations.length;
+                generations[current].clear();
+            }
+        }
+
+        boolean mightContain(long hash) {
+            for (CuckooFilter generation : generations) {
+                if (generation.mightContain(hash)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** Removes the key from the newest generation holding it, where it was most likely recorded. */
+        void remove(long hash) {
+            for (int i = 0; i < generations.length; i++) {
+                if (generations[Math.floorMod(current - i, generations.length)].remove(hash)) {
+                    return;
+                }
+            }
+        }
+    }
+}
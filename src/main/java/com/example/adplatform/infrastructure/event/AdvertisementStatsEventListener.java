@@ -0,0 +1,59 @@
+package com.example.adplatform.infrastructure.event;
+
+import com.example.adplatform.application.service.stats.AttributionJoin;
+import com.example.adplatform.application.service.stats.RealTimeStatsAggregator;
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Feeds published tracking, view and click events into the {@link RealTimeStatsAggregator}, and
+ * into the {@link AttributionJoin} when there is one.
+ */
+@Slf4j
+public class AdvertisementStatsEventListener {
+
+    private final RealTimeStatsAggregator aggregator;
+    private final AttributionJoin attributionJoin;
+
+    public AdvertisementStatsEventListener(RealTimeStatsAggregator aggregator) {
+        this(aggregator, null);
+    }
+
+    /**
+     * @param attributionJoin join of clicks to views, or {@code null} without attribution
+     */
+    public AdvertisementStatsEventListener(RealTimeStatsAggregator aggregator, AttributionJoin attributionJoin) {
+        this.aggregator = aggregator;
+        this.attributionJoin = attributionJoin;
+    }
+
+    @EventListener
+    public void onTrackingEvent(AdvertisementTrackingEvent event) {
+        aggregator.record(event);
+        if (attributionJoin != null) {
+            attributionJoin.accept(event);
+        }
+    }
+
+    @EventListener
+    public void onAdEvent(SpringAdEventPublisher.SpringAdEventWrapper wrapper) {
+        aggregator.record(wrapper.getAdEvent());
+        if (attributionJoin != null) {
+            attributionJoin.accept(wrapper.getAdEvent());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.tracking.stats.purge-interval:PT10M}")
+    public void purgeIdle() {
+        int purged = aggregator.purgeIdle();
+        if (purged > 0) {
+            log.debug("Forgot the stats of {} idle advertisements", purged);
+        }
+        if (attributionJoin != null) {
+            // Events only expire state as they arrive, so this drops what the last of them left
+            attributionJoin.expire();
+        }
+    }
+}
@@ -28,9 +28,9 @@ public class SpringAdEventPublisher implements AdEventPublisher {
     }
     
     /**
-     * Wrapper class that adapts our domain events to Spring application events.
+     * Wrapper class that adapts our domain events to Spring application events; listen for it to receive them.
      */
-    private static class SpringAdEventWrapper {
+    public static class SpringAdEventWrapper {
         private final AdEvent adEvent;
         
         public SpringAdEventWrapper(AdEvent adEvent) {
@@ -0,0 +1,102 @@
+package com.example.adplatform.infrastructure.eventlog;
+
+import com.example.adplatform.infrastructure.codec.AdEventCodec;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32C;
+
+/**
+ * Framing of event log records, little-endian:
+ *
+ * <pre>
+ * 0  int    record length in bytes, header included; 0 marks the end of a segment
+ * 4  int    CRC-32C of the payload
+ * 8  ...    the event as written by {@link AdEventCodec}
+ * </pre>
+ *
+ * Records are not padded, so a typical view takes a few dozen bytes.
+ */
+final class EventLogCodec {
+
+    static final int HEADER_BYTES = 8;
+    /** Room for the largest event without context; a context that does not fit is left out. */
+    static final int MAX_RECORD_BYTES = 1 << 16;
+
+    private static final int LENGTH = 0;
+    private static final int CHECKSUM = 4;
+
+    private final AdEventCodec events;
+
+    EventLogCodec(AdEventCodec events) {
+        this.events = events;
+    }
+
+    static boolean supports(Object event) {
+        return AdEventCodec.supports(event);
+    }
+
+    static ByteBuffer newRecordBuffer() {
+        return ByteBuffer.allocate(MAX_RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Writes the record for {@code event} at the start of {@code target}.
+     *
+     * @param target a buffer from {@link #newRecordBuffer()}
+     * @return the record length
+     */
+    int encode(Object event, ByteBuffer target) {
+        target.clear();
+        target.position(HEADER_BYTES);
+        try {
+            events.encode(event, target);
+        } catch (BufferOverflowException e) {
+            throw new IllegalArgumentException("Event does not fit in an event log record: " + event.getClass().getName(), e);
+        }
+        int length = target.position();
+        target.order(ByteOrder.LITTLE_ENDIAN);
+        target.putInt(LENGTH, length);
+        target.putInt(CHECKSUM, checksum(target, 0, length));
+        return length;
+    }
+
+    /**
+     * @return the length of the intact record at {@code offset}, or 0 if there is none
+     */
+    static int recordLength(ByteBuffer source, int offset) {
+        if (source.limit() - offset < HEADER_BYTES) {
+            return 0;
+        }
+        int length = source.getInt(offset + LENGTH);
+        if (length <= HEADER_BYTES || length > MAX_RECORD_BYTES
+                || length > source.limit() - offset
+                || source.getInt(offset + CHECKSUM) != checksum(source, offset, length)) {
+            return 0;
+        }
+        return length;
+    }
+
+    /**
+     * Reads the intact record at {@code offset}, as checked by {@link #recordLength(ByteBuffer, int)}.
+     *
+     * @throws IllegalStateException if the payload cannot be decoded, such as when it refers to a
+     *                               dictionary value that was lost in a crash
+     */
+    Object decode(ByteBuffer source, int offset, int length) {
+        ByteBuffer payload = source.slice(offset + HEADER_BYTES, length - HEADER_BYTES);
+        try {
+            return events.decode(payload);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new IllegalStateException("Undecodable event log record: " + e.getMessage(), e);
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + HEADER_BYTES, length - HEADER_BYTES));
+        return (int) crc.getValue();
+    }
+}
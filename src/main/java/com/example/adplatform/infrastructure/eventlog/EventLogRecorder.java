@@ -0,0 +1,42 @@
+package com.example.adplatform.infrastructure.eventlog;
+
+import com.example.adplatform.application.port.in.AdEventListener;
+import com.example.adplatform.domain.event.AdEvent;
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
+import com.example.adplatform.infrastructure.event.SpringAdEventPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Appends published view, click and interaction events to the {@link MappedEventLog}.
+ *
+ * Advertisement views and interactions arrive as Spring events, on the tracking pipeline's
+ * consumer threads when the pipeline is enabled; ad view and click events arrive wrapped by the
+ * {@link SpringAdEventPublisher}. Event types the log has no layout for are skipped.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class EventLogRecorder implements AdEventListener {
+
+    private final MappedEventLog eventLog;
+
+    @EventListener
+    public void onTrackingEvent(AdvertisementTrackingEvent event) {
+        eventLog.append(event);
+    }
+
+    @EventListener
+    public void onAdEvent(SpringAdEventPublisher.SpringAdEventWrapper wrapper) {
+        onEvent(wrapper.getAdEvent());
+    }
+
+    @Override
+    public void onEvent(AdEvent event) {
+        if (EventLogCodec.supports(event)) {
+            eventLog.append(event);
+        } else {
+            log.debug("Event log has no layout for {} events, skipped", event.getEventType());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.adplatform.infrastructure.eventlog;
+
+/**
+ * An event read back from the {@link MappedEventLog}.
+ *
+ * @param position where the record starts in the log
+ * @param nextPosition where the following record starts; pass it to resume a replay after this event
+ * @param event an {@code AdViewEvent}, {@code AdClickEvent}, {@code AdvertisementViewedEvent} or {@code AdvertisementInteractedEvent}
+ */
+public record LoggedEvent(long position, long nextPosition, Object event) {
+}
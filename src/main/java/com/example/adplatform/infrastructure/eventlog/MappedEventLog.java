@@ -0,0 +1,553 @@
+package com.example.adplatform.infrastructure.eventlog;
+
+import com.example.adplatform.infrastructure.codec.AdEventCodec;
+import com.example.adplatform.infrastructure.codec.ValueDictionary;
+import com.example.adplatform.infrastructure.messaging.BatchingAdvertisementEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable, append-only log of tracking events, stored as memory-mapped segment files in one directory.
+ *
+ * Appending encodes the event into a thread-local buffer with the compact {@link AdEventCodec},
+ * framed by {@link EventLogCodec}, and copies it into the mapped active segment, so no system call
+ * is made per event. Recurring values such as device types and countries are written as ids of a
+ * dictionary kept in its own file; a new value is written there before the first record using it,
+ * and is forced to disk before the segments on every flush. A flusher thread forces the written range to disk every {@code fsyncInterval}, or
+ * sooner once {@code fsyncBatchRecords} records are pending; events appended since the last
+ * flush can be lost if the machine crashes. When a record does not fit in the active segment, a
+ * new segment is started; segments are named after their start position, and positions keep
+ * counting across segments. Segments that were rolled longer than the retention period ago
+ * are deleted.
+ *
+ * On start-up the last segment is scanned up to its first incomplete or undecodable record, which
+ * is treated as a torn write: everything after it is cleared and appending resumes there. A torn
+ * entry at the end of the dictionary is truncated the same way. A lock file keeps a second
+ * instance from opening the same directory.
+ */
+@Slf4j
+public class MappedEventLog implements SmartLifecycle, AutoCloseable {
+
+    static final int MIN_SEGMENT_BYTES = 1 << 20;
+
+    /** Values the dictionary holds at most; later new values are written in full. */
+    static final int DICTIONARY_ENTRIES = 1 << 16;
+
+    private static final String SEGMENT_SUFFIX = ".events";
+    private static final String DICTIONARY_FILE = "dictionary.dat";
+    private static final String LOCK_FILE = ".lock";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long fsyncIntervalNanos;
+    private final int fsyncBatchRecords;
+    private final Duration retention;
+    private final Clock clock;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final FileChannel dictionaryChannel;
+    private final EventLogCodec codec;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ThreadLocal<ByteBuffer> recordBuffer = ThreadLocal.withInitial(EventLogCodec::newRecordBuffer);
+    private final AtomicInteger pendingRecords = new AtomicInteger();
+    private final Counter appended;
+    private final Counter deletedSegments;
+    private final Timer fsyncs;
+    private Segment active;
+    private volatile long endPosition;
+    private volatile long flushedPosition;
+    private volatile boolean dictionaryDirty;
+    private volatile boolean closed;
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    /**
+     * @param fsyncBatchRecords pending records that trigger a flush before the interval elapses; 0 flushes on the interval only
+     */
+    public MappedEventLog(Path directory,
+                          int segmentBytes,
+                          Duration fsyncInterval,
+                          int fsyncBatchRecords,
+                          Duration retention,
+                          Clock clock,
+                          MeterRegistry meterRegistry) {
+        if (segmentBytes < MIN_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("Segment size must be at least " + MIN_SEGMENT_BYTES + " bytes: " + segmentBytes);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.fsyncBatchRecords = fsyncBatchRecords;
+        this.retention = retention;
+        this.clock = clock;
+        try {
+            Files.createDirectories(directory);
+            this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            this.lock = tryLock(lockChannel);
+            if (lock == null) {
+                lockChannel.close();
+                throw new IllegalStateException("Event log " + directory + " is in use by another instance");
+            }
+            this.dictionaryChannel = FileChannel.open(directory.resolve(DICTIONARY_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.codec = new EventLogCodec(new AdEventCodec(
+                    new ValueDictionary(DICTIONARY_ENTRIES, loadDictionary(), this::appendDictionaryEntry)));
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open event log " + directory, e);
+        }
+        this.appended = Counter.builder("advertisements.event.log.appended")
+                .description("Tracking events appended to the event log")
+                .register(meterRegistry);
+        this.deletedSegments = Counter.builder("advertisements.event.log.segments.deleted")
+                .description("Event log segments deleted after the retention period")
+                .register(meterRegistry);
+        this.fsyncs = Timer.builder("advertisements.event.log.fsync")
+                .description("Time spent forcing appended event log records to disk")
+                .register(meterRegistry);
+        Gauge.builder("advertisements.event.log.segments", segments, Map::size)
+                .description("Event log segments on disk")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appends the event; see {@link AdEventCodec} for the supported types.
+     *
+     * @return the position of the record
+     */
+    public long append(Object event) {
+        ByteBuffer record = recordBuffer.get();
+        int length = codec.encode(event, record);
+        long position;
+        appendLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Event log " + directory + " is closed");
+            }
+            if (active.buffer.capacity() - active.size < length) {
+                roll();
+            }
+            Segment segment = active;
+            int offset = segment.size;
+            segment.buffer.put(offset, record, 0, length);
+            segment.size = offset + length;
+            position = segment.basePosition + offset;
+            endPosition = position + length;
+        } finally {
+            appendLock.unlock();
+        }
+        appended.increment();
+        if (fsyncBatchRecords > 0 && pendingRecords.incrementAndGet() == fsyncBatchRecords) {
+            Thread thread = flusher;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Hands up to {@code maxRecords} events to {@code consumer} in append order, starting at
+     * {@code fromPosition}. A position before the oldest retained segment starts at that segment.
+     *
+     * @param fromPosition 0, or a {@link LoggedEvent#nextPosition()} or return value of an earlier replay
+     * @return the position to resume from
+     */
+    public long replay(long fromPosition, int maxRecords, Consumer<LoggedEvent> consumer) {
+        long end = endPosition;
+        long position = fromPosition;
+        int delivered = 0;
+        while (delivered < maxRecords && position < end) {
+            position = Math.max(position, startPosition());
+            Map.Entry<Long, Segment> entry = segments.floorEntry(position);
+            if (entry == null) {
+                break;
+            }
+            Segment segment = entry.getValue();
+            int offset = (int) (position - segment.basePosition);
+            int length = offset < segment.size ? EventLogCodec.recordLength(segment.buffer, offset) : 0;
+            if (length == 0) {
+                Long next = segments.higherKey(segment.basePosition);
+                if (next == null) {
+                    break;
+                }
+                position = next;
+                continue;
+            }
+            Object event = codec.decode(segment.buffer, offset, length);
+            consumer.accept(new LoggedEvent(position, position + length, event));
+            position += length;
+            delivered++;
+        }
+        return position;
+    }
+
+    /**
+     * @return the position of the oldest retained record
+     */
+    public long startPosition() {
+        return segments.firstKey();
+    }
+
+    /**
+     * @return the position the next record will be appended at
+     */
+    public long endPosition() {
+        return endPosition;
+    }
+
+    /**
+     * Forces everything appended so far to disk.
+     */
+    public synchronized void flush() {
+        long target = endPosition;
+        long from = flushedPosition;
+        if (target == from) {
+            return;
+        }
+        long started = System.nanoTime();
+        forceDictionary();
+        Long first = segments.floorKey(from);
+        for (Segment segment : segments.tailMap(first == null ? startPosition() : first).values()) {
+            if (segment.basePosition >= target) {
+                break;
+            }
+            int start = (int) Math.max(0, from - segment.basePosition);
+            int stop = (int) Math.min(segment.size, target - segment.basePosition);
+            if (stop > start) {
+                segment.buffer.force(start, stop - start);
+            }
+        }
+        flushedPosition = target;
+        fsyncs.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Deletes flushed segments that were rolled longer than the retention period ago.
+     */
+    public void enforceRetention() {
+        Instant cutoff = clock.instant().minus(retention);
+        for (Segment segment : segments.values()) {
+            Instant rolledAt = segment.rolledAt;
+            if (rolledAt == null || rolledAt.isAfter(cutoff) || segment.basePosition + segment.size > flushedPosition) {
+                return;
+            }
+            segments.remove(segment.basePosition);
+            try {
+                Files.deleteIfExists(segment.file);
+                deletedSegments.increment();
+                log.info("Deleted event log segment {} rolled at {}", segment.file.getFileName(), rolledAt);
+            } catch (IOException e) {
+                log.warn("Could not delete event log segment {}: {}", segment.file, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || closed) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::runFlusher, "event-log-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Stops the flusher after a final flush.
+     */
+    @Override
+    public void stop() {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = flusher;
+            flusher = null;
+        }
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the tracking pipeline, which still appends while it drains, and so after the web server.
+     */
+    @Override
+    public int getPhase() {
+        return BatchingAdvertisementEventPublisher.PHASE - 1;
+    }
+
+    /**
+     * Flushes, rejects further appends and releases the directory.
+     */
+    @Override
+    public void close() {
+        stop();
+        appendLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            appendLock.unlock();
+        }
+        flush();
+        try {
+            dictionaryChannel.close();
+            lock.release();
+            lockChannel.close();
+        } catch (IOException e) {
+            log.warn("Could not release event log lock {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by this JVM
+            return null;
+        }
+    }
+
+    private void runFlusher() {
+        while (running) {
+            LockSupport.parkNanos(fsyncIntervalNanos);
+            pendingRecords.set(0);
+            try {
+                flush();
+                enforceRetention();
+            } catch (RuntimeException e) {
+                log.warn("Event log flush failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void roll() {
+        Segment previous = active;
+        previous.rolledAt = clock.instant();
+        active = openSegment(previous.basePosition + previous.size, segmentBytes);
+        segments.put(active.basePosition, active);
+        log.debug("Rolled event log to segment {}", active.file.getFileName());
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            String name = file.getFileName().toString();
+            long basePosition = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            boolean last = i == files.size() - 1;
+            Segment segment = last
+                    ? openSegment(basePosition, (int) Math.max(segmentBytes, Files.size(file)))
+                    : mapSegment(file, basePosition, FileChannel.MapMode.READ_ONLY, Files.size(file));
+            segment.size = scan(segment.buffer, last);
+            if (last) {
+                clearTail(segment);
+            } else {
+                segment.rolledAt = Files.getLastModifiedTime(file).toInstant();
+            }
+            segments.put(basePosition, segment);
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, openSegment(0L, segmentBytes));
+        }
+        active = segments.lastEntry().getValue();
+        endPosition = active.basePosition + active.size;
+        flushedPosition = endPosition;
+        log.info("Opened event log {} with {} segments, positions {} to {}", directory, segments.size(), startPosition(), endPosition);
+    }
+
+    private Segment openSegment(long basePosition, int bytes) {
+        Path file = directory.resolve(String.format("%020d%s", basePosition, SEGMENT_SUFFIX));
+        try {
+            return mapSegment(file, basePosition, FileChannel.MapMode.READ_WRITE, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create event log segment " + file, e);
+        }
+    }
+
+    private static Segment mapSegment(Path file, long basePosition, FileChannel.MapMode mode, long bytes) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE};
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            MappedByteBuffer buffer = channel.map(mode, 0, bytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new Segment(file, basePosition, buffer);
+        }
+    }
+
+    /**
+     * @param decode also stop at a record that cannot be decoded, which only the last segment can
+     *               hold after a crash
+     */
+    private int scan(ByteBuffer buffer, boolean decode) {
+        int offset = 0;
+        int length;
+        while ((length = EventLogCodec.recordLength(buffer, offset)) > 0) {
+            if (decode) {
+                try {
+                    codec.decode(buffer, offset, length);
+                } catch (IllegalStateException e) {
+                    break;
+                }
+            }
+            offset += length;
+        }
+        return offset;
+    }
+
+    /**
+     * Reads the dictionary entries, each an int byte count, an int CRC-32C and UTF-8 bytes, and
+     * truncates the file after the last intact one.
+     */
+    private List<String> loadDictionary() throws IOException {
+        ByteBuffer content = ByteBuffer.allocate((int) dictionaryChannel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        while (content.hasRemaining() && dictionaryChannel.read(content, content.position()) >= 0) {
+            // read the whole file
+        }
+        content.flip();
+        List<String> values = new ArrayList<>();
+        while (content.remaining() >= 8) {
+            int length = content.getInt(content.position());
+            if (length < 0 || length > content.remaining() - 8
+                    || content.getInt(content.position() + 4) != checksum(content.slice(content.position() + 8, length))) {
+                break;
+            }
+            byte[] bytes = new byte[length];
+            content.get(content.position() + 8, bytes);
+            values.add(new String(bytes, StandardCharsets.UTF_8));
+            content.position(content.position() + 8 + length);
+        }
+        if (content.position() < dictionaryChannel.size()) {
+            log.warn("Truncated {} bytes after the last intact entry of event log dictionary {}",
+                    dictionaryChannel.size() - content.position(), directory.resolve(DICTIONARY_FILE));
+            dictionaryChannel.truncate(content.position());
+        }
+        dictionaryChannel.position(content.position());
+        return values;
+    }
+
+    /**
+     * Called by the dictionary, which serializes additions, before the new value is used.
+     */
+    private void appendDictionaryEntry(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(8 + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        entry.putInt(bytes.length).putInt(checksum(ByteBuffer.wrap(bytes))).put(bytes).flip();
+        try {
+            while (entry.hasRemaining()) {
+                dictionaryChannel.write(entry);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write event log dictionary " + directory.resolve(DICTIONARY_FILE), e);
+        }
+        dictionaryDirty = true;
+    }
+
+    private void forceDictionary() {
+        if (!dictionaryDirty) {
+            return;
+        }
+        dictionaryDirty = false;
+        try {
+            dictionaryChannel.force(false);
+        } catch (IOException e) {
+            dictionaryDirty = true;
+            throw new UncheckedIOException("Could not force event log dictionary " + directory.resolve(DICTIONARY_FILE), e);
+        }
+    }
+
+    private static int checksum(ByteBuffer bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Zeroes whatever follows the last intact record, so a later append cannot run into stale
+     * records that were written after the torn one.
+     */
+    private static void clearTail(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int end = buffer.capacity() & ~7;
+        while (end > segment.size && buffer.getLong(end - 8) == 0) {
+            end -= 8;
+        }
+        if (end <= segment.size) {
+            return;
+        }
+        byte[] zeros = new byte[8192];
+        for (int offset = segment.size; offset < end; offset += zeros.length) {
+            buffer.put(offset, zeros, 0, Math.min(zeros.length, end - offset));
+        }
+        buffer.force(segment.size, end - segment.size);
+        log.warn("Cleared {} bytes after the last intact record of event log segment {}", end - segment.size, segment.file);
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final long basePosition;
+        private final MappedByteBuffer buffer;
+        private volatile int size;
+        private volatile Instant rolledAt;
+
+        private Segment(Path file, long basePosition, MappedByteBuffer buffer) {
+            this.file = file;
+            this.basePosition = basePosition;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.adplatform.infrastructure.messaging;
+
+import com.example.adplatform.application.exception.TrackingOverloadedException;
+import com.example.adplatform.application.port.out.AdvertisementEventPublisher;
+import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous tracking pipeline: publishing only enqueues the event into a bounded
+ * {@link EventRingBuffer}, so request threads never wait for the sinks.
+ *
+ * Consumer threads drain the buffer in batches and hand every batch to each
+ * {@link TrackingEventSink} in turn. Idle consumers back off from spinning to parking for up to
+ * {@code maxIdleWait}. Publishing never blocks the request: when the buffer fills up, events are
+ * shed according to the {@link ShedPolicy}. On shutdown the consumers drain what is left before stopping.
+ *
+ * The publisher stops after the web server, so requests still served during a graceful shutdown
+ * are drained too; events published once it has stopped are handed to the sinks in-line.
+ */
+@Slf4j
+public class BatchingAdvertisementEventPublisher implements AdvertisementEventPublisher, SmartLifecycle {
+
+    private static final long MIN_IDLE_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Lifecycle phase below the web server, which stops at {@code SMART_LIFECYCLE_PHASE - 1024}
+     * once its graceful shutdown is done.
+     */
+    public static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    /**
+     * What happens to events offered while the buffer is (nearly) full.
+     */
+    public enum ShedPolicy {
+        /** New events that do not fit are dropped. */
+        DROP_NEWEST,
+        /** The oldest buffered events make room for new ones, favouring fresh data. */
+        DROP_OLDEST,
+        /**
+         * Above the shed threshold, events are admitted with a probability falling from 1 at the
+         * threshold to 0 at full; the others are acknowledged but not tracked.
+         */
+        SAMPLE,
+        /**
+         * Single events that do not fit fail with a {@link TrackingOverloadedException}, so the
+         * client can retry; batches keep reporting the events that were not accepted.
+         */
+        REJECT
+    }
+
+    private final EventRingBuffer<AdvertisementTrackingEvent> buffer;
+    private final List<TrackingEventSink> sinks;
+    private final int consumers;
+    private final int batchSize;
+    private final long maxIdleWaitNanos;
+    private final ShedPolicy shedPolicy;
+    private final int shedThreshold;
+    private final Duration retryAfter;
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter shed;
+    private final Counter rejected;
+    private final Counter sinkFailures;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+    private volatile boolean stopped;
+
+    public BatchingAdvertisementEventPublisher(int capacity,
+                                               int consumers,
+                                               int batchSize,
+                                               Duration maxIdleWait,
+                                               List<TrackingEventSink> sinks,
+                                               MeterRegistry meterRegistry) {
+        this(capacity, consumers, batchSize, maxIdleWait, ShedPolicy.DROP_NEWEST, 1.0, Duration.ofSeconds(1), sinks, meterRegistry);
+    }
+
+    /**
+     * @param shedThreshold fill ratio of the buffer above which {@link ShedPolicy#SAMPLE} starts shedding
+     * @param retryAfter delay suggested to clients whose events are rejected
+     */
+    public BatchingAdvertisementEventPublisher(int capacity,
+                                               int consumers,
+                                               int batchSize,
+                                               Duration maxIdleWait,
+                                               ShedPolicy shedPolicy,
+                                               double shedThreshold,
+                                               Duration retryAfter,
+                                               List<TrackingEventSink> sinks,
+                                               MeterRegistry meterRegistry) {
+        if (shedThreshold < 0 || shedThreshold > 1) {
+            throw new IllegalArgumentException("Shed threshold must be between 0 and 1: " + shedThreshold);
+        }
+        this.buffer = new EventRingBuffer<>(capacity);
+        this.sinks = List.copyOf(sinks);
+        this.consumers = consumers;
+        this.batchSize = batchSize;
+        this.maxIdleWaitNanos = Math.max(MIN_IDLE_WAIT_NANOS, maxIdleWait.toNanos());
+        this.shedPolicy = shedPolicy;
+        this.shedThreshold = (int) Math.min(buffer.capacity() - 1L, (long) Math.floor(shedThreshold * buffer.capacity()));
+        this.retryAfter = retryAfter;
+        this.accepted = Counter.builder("advertisements.tracking.events")
+                .description("Tracking events offered to the ingestion pipeline")
+                .tag("outcome", "accepted")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("advertisements.tracking.events")
+                .description("Tracking events offered to the ingestion pipeline")
+                .tag("outcome", "dropped")
+                .register(meterRegistry);
+        this.shed = Counter.builder("advertisements.tracking.events")
+                .description("Tracking events offered to the ingestion pipeline")
+                .tag("outcome", "shed")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("advertisements.tracking.events")
+                .description("Tracking events offered to the ingestion pipeline")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        this.sinkFailures = Counter.builder("advertisements.tracking.sink.failures")
+                .description("Batches of tracking events a sink failed to accept")
+                .register(meterRegistry);
+        Gauge.builder("advertisements.tracking.buffer.size", buffer, EventRingBuffer::size)
+                .description("Tracking events waiting in the ingestion buffer")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void publish(AdvertisementViewedEvent event) {
+        enqueue(event);
+    }
+
+    @Override
+    public void publish(AdvertisementInteractedEvent event) {
+        enqueue(event);
+    }
+
+    /**
+     * Enqueues the events in order until one cannot be accepted; the rest are dropped and counted,
+     * so the caller can tell the client which ones to resend. Events shed by sampling count as
+     * accepted, since sending them again would not help.
+     */
+    @Override
+    public int publishAll(List<AdvertisementTrackingEvent> events) {
+        int enqueued = 0;
+        while (enqueued < events.size() && offer(events.get(enqueued))) {
+            enqueued++;
+        }
+        if (enqueued < events.size()) {
+            dropped.increment(events.size() - enqueued);
+            log.debug("Tracking buffer full, dropped {} of {} events", events.size() - enqueued, events.size());
+        }
+        return enqueued;
+    }
+
+    /**
+     * @return events waiting in the buffer
+     */
+    public int queued() {
+        return buffer.size();
+    }
+
+    private void enqueue(AdvertisementTrackingEvent event) {
+        if (offer(event)) {
+            return;
+        }
+        if (shedPolicy == ShedPolicy.REJECT) {
+            rejected.increment();
+            throw new TrackingOverloadedException("Tracking is overloaded, try again later", retryAfter);
+        }
+        dropped.increment();
+        log.debug("Tracking buffer full, dropped {}", event);
+    }
+
+    /**
+     * @return false if the event did not fit and was not shed on purpose
+     */
+    private boolean offer(AdvertisementTrackingEvent event) {
+        if (stopped) {
+            accepted.increment();
+            deliver(List.of(event));
+            return true;
+        }
+        if (shedPolicy == ShedPolicy.SAMPLE) {
+            int free = buffer.capacity() - buffer.size();
+            int headroom = buffer.capacity() - shedThreshold;
+            if (free < headroom && ThreadLocalRandom.current().nextInt(headroom) >= free) {
+                shed.increment();
+                return true;
+            }
+        }
+        if (buffer.offer(event)) {
+            accepted.increment();
+            if (stopped) {
+                // The consumers may have finished draining before the event was enqueued
+                drainStopped();
+            }
+            return true;
+        }
+        if (shedPolicy == ShedPolicy.DROP_OLDEST) {
+            // Consumers may empty the buffer meanwhile, in which case the retried offer succeeds
+            for (int attempt = 0; attempt < 4; attempt++) {
+                if (buffer.poll() != null) {
+                    shed.increment();
+                }
+                if (buffer.offer(event)) {
+                    accepted.increment();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        stopped = false;
+        for (int i = 0; i < consumers; i++) {
+            Thread thread = new Thread(this::consume, "tracking-consumer-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+    }
+
+    /**
+     * Stops the consumers once they have drained the buffer.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        stopped = true;
+        for (Thread thread : threads) {
+            LockSupport.unpark(thread);
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        threads.clear();
+        drainStopped();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server has finished its graceful shutdown, so the requests it still
+     * serves are tracked.
+     */
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void consume() {
+        List<AdvertisementTrackingEvent> batch = new ArrayList<>(batchSize);
+        long idleWait = 0;
+        while (true) {
+            if (buffer.drainTo(batch, batchSize) > 0) {
+                deliver(batch);
+                batch.clear();
+                idleWait = 0;
+            } else if (!running) {
+                return;
+            } else if (idleWait == 0) {
+                Thread.onSpinWait();
+                idleWait = MIN_IDLE_WAIT_NANOS;
+            } else {
+                LockSupport.parkNanos(idleWait);
+                idleWait = Math.min(idleWait * 2, maxIdleWaitNanos);
+            }
+        }
+    }
+
+    private void drainStopped() {
+        List<AdvertisementTrackingEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            deliver(batch);
+            batch.clear();
+        }
+    }
+
+    private void deliver(List<AdvertisementTrackingEvent> batch) {
+        List<AdvertisementTrackingEvent> view = List.copyOf(batch);
+        for (TrackingEventSink sink : sinks) {
+            try {
+                sink.accept(view);
+            } catch (RuntimeException e) {
+                sinkFailures.increment();
+                log.warn("Tracking sink {} failed to accept {} events: {}", sink.getClass().getSimpleName(), view.size(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.adplatform.infrastructure.messaging;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and many consumers.
+ *
+ * Every slot carries a sequence number telling whether it is free for the producer of a given
+ * position or filled for its consumer, so producers and consumers only contend on their own
+ * position counter (Dmitry Vyukov's bounded MPMC queue). {@link #offer(Object)} never blocks:
+ * it returns false when the buffer is full.
+ *
+ * @param <E> element type
+ */
+public final class EventRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong producerPosition = new AtomicLong();
+    private final AtomicLong consumerPosition = new AtomicLong();
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     */
+    public EventRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false if the buffer is full and the element was not added
+     */
+    public boolean offer(E element) {
+        long position = producerPosition.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long available = sequences.get(slot) - position;
+            if (available == 0) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    elements.lazySet(slot, element);
+                    // Publishes the element to the consumer of this position
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = producerPosition.get();
+            } else if (available < 0) {
+                return false;
+            } else {
+                position = producerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * @return the oldest element, or {@code null} if the buffer is empty
+     */
+    public E poll() {
+        long position = consumerPosition.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long filled = sequences.get(slot) - (position + 1);
+            if (filled == 0) {
+                if (consumerPosition.compareAndSet(position, position + 1)) {
+                    E element = elements.get(slot);
+                    elements.lazySet(slot, null);
+                    // Frees the slot for the producer one lap ahead
+                    sequences.set(slot, position + mask + 1);
+                    return element;
+                }
+                position = consumerPosition.get();
+            } else if (filled < 0) {
+                return null;
+            } else {
+                position = consumerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code max} elements into {@code target}, oldest first.
+     *
+     * @return number of elements moved
+     */
+    public int drainTo(List<? super E> target, int max) {
+        int drained = 0;
+        E element;
+        while (drained < max && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * @return approximate number of elements in the buffer
+     */
+    public int size() {
+        long size = producerPosition.get() - consumerPosition.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -2,19 +2,23 @@ package com.example.adplatform.infrastructure.messaging;
 
 import com.example.adplatform.application.port.out.AdvertisementEventPublisher;
 import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
 import com.example.adplatform.domain.event.AdvertisementViewedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Infrastructure adapter that publishes events using Spring's ApplicationEventPublisher.
+ * Used in-line without the tracking pipeline, and as the pipeline's default sink otherwise.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class SpringAdvertisementEventPublisher implements AdvertisementEventPublisher {
+public class SpringAdvertisementEventPublisher implements AdvertisementEventPublisher, TrackingEventSink {
 
     private final ApplicationEventPublisher applicationEventPublisher;
 
@@ -29,4 +33,9 @@ public class SpringAdvertisementEventPublisher implements AdvertisementEventPubl
         log.debug("Publishing AdvertisementInteractedEvent: {}", event);
         applicationEventPublisher.publishEvent(event);
     }
+
+    @Override
+    public void accept(List<AdvertisementTrackingEvent> batch) {
+        batch.forEach(applicationEventPublisher::publishEvent);
+    }
 }
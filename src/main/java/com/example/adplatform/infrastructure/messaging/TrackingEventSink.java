@@ -0,0 +1,17 @@
+package com.example.adplatform.infrastructure.messaging;
+
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
+
+import java.util.List;
+
+/**
+ * Receives batches of tracking events drained by the {@link BatchingAdvertisementEventPublisher}.
+ *
+ * Sinks are called from the pipeline's consumer threads, possibly several at once, and never
+ * from a request thread. A failing batch is logged and dropped; sinks that must not lose events
+ * handle retries themselves.
+ */
+public interface TrackingEventSink {
+
+    void accept(List<AdvertisementTrackingEvent> batch);
+}
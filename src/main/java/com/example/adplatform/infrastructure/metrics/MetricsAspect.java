@@ -2,6 +2,7 @@ package com.example.adplatform.infrastructure.metrics;
 
 import com.example.adplatform.application.exception.AdvertisementNotFoundException;
 import com.example.adplatform.application.exception.AdvertisementValidationException;
+import com.example.adplatform.application.service.targeting.TargetingPlanner;
 import com.example.adplatform.domain.model.Advertisement;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -9,6 +10,7 @@ import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
@@ -56,6 +58,9 @@ public class MetricsAspect {
     @Pointcut("execution(* com.example.adplatform.application.service.AdvertisementServiceImpl.getMoodTargetedAdvertisements(..))")
     public void moodTargeting() {}
 
+    @Pointcut("execution(* com.example.adplatform.application.service.targeting.TargetingPlanner.plan(..))")
+    public void targetingPlan() {}
+
     /* =========================
      *  Advices
      * ========================= */
@@ -133,6 +138,14 @@ public class MetricsAspect {
         return timeTargetingWithStrategy(pjp, "mood");
     }
 
+    @AfterReturning(pointcut = "targetingPlan()", returning = "plan")
+    public void countTargetingPlan(TargetingPlanner.Plan plan) {
+        Counter.builder("advertisements.targeting.plans")
+                .tags(Tags.of("plan", plan.tag()))
+                .register(getRegistry())
+                .increment();
+    }
+
     private Object timeTargetingWithStrategy(ProceedingJoinPoint pjp, String strategy) throws Throwable {
         Timer.Sample sample = Timer.start(getRegistry());
         try {
@@ -3,28 +3,53 @@ package com.example.adplatform.infrastructure.persistence.adapter;
 import com.example.adplatform.application.port.out.AdvertisementRepository;
 import com.example.adplatform.domain.model.*;
 import com.example.adplatform.infrastructure.persistence.entity.*;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChange;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChangeOutbox;
+import com.example.adplatform.infrastructure.persistence.projection.AdvertisementSummaryProjection;
 import com.example.adplatform.infrastructure.persistence.repository.AdvertisementJpaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Adapter implementation of the AdvertisementRepository port.
  * This is an adapter in the hexagonal architecture that connects
  * the application core to the infrastructure layer.
+ * Saves and deletes also record the change in the {@link AdvertisementChangeOutbox}, in the same transaction.
  */
 @Component
 @RequiredArgsConstructor
 @Transactional
 public class AdvertisementRepositoryAdapter implements AdvertisementRepository {
 
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    // Multiple of hibernate.jdbc.batch_size so every flush sends full batches
+    private static final int SAVE_CHUNK_SIZE = 500;
+
     private final AdvertisementJpaRepository jpaRepository;
+    private final AdvertisementChangeOutbox changeOutbox;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public List<Advertisement> findAll() {
@@ -39,9 +64,93 @@ public class AdvertisementRepositoryAdapter implements AdvertisementRepository {
                 .map(this::mapToAdvertisement);
     }
 
+    @Override
+    public Page<AdvertisementSummary> findAllSummaries(Pageable pageable) {
+        return jpaRepository.findAllProjectedBy(pageable).map(this::mapToSummary);
+    }
+
+    @Override
+    public Optional<AdvertisementSummary> findSummaryById(Long id) {
+        return jpaRepository.findProjectedById(id).map(this::mapToSummary);
+    }
+
+    @Override
+    public Page<AdvertisementSummary> findSummariesBySource(AdvertisementSource source, Pageable pageable) {
+        return jpaRepository.findProjectedBySource(source, pageable).map(this::mapToSummary);
+    }
+
+    @Override
+    public Page<AdvertisementSummary> findSummariesByTitleContainingIgnoreCase(String title, Pageable pageable) {
+        return jpaRepository.findProjectedByTitleContainingIgnoreCase(title, pageable).map(this::mapToSummary);
+    }
+
+    /**
+     * Streams the whole inventory in chunks: the targets of each chunk are fetched with one query
+     * per collection, the chunk is handed to the action and then detached, so the persistence
+     * context never holds more than one chunk.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachAdvertisement(Consumer<? super Advertisement> action) {
+        List<AdvertisementJpaEntity> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        try (Stream<AdvertisementJpaEntity> entities = jpaRepository.streamAllOrderById()) {
+            entities.forEach(entity -> {
+                chunk.add(entity);
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    emitChunk(chunk, action);
+                }
+            });
+        }
+        emitChunk(chunk, action);
+    }
+
+    private void emitChunk(List<AdvertisementJpaEntity> chunk, Consumer<? super Advertisement> action) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        jpaRepository.fetchGeoTargets(chunk);
+        jpaRepository.fetchBioTargets(chunk);
+        jpaRepository.fetchMoodTargets(chunk);
+        chunk.forEach(entity -> action.accept(mapToAdvertisement(entity)));
+        chunk.clear();
+        entityManager.clear();
+    }
+
+    @Override
+    public Slice<Advertisement> findAllAfter(Long afterId, int size) {
+        Slice<AdvertisementJpaEntity> slice = jpaRepository.findByIdGreaterThanOrderByIdAsc(
+                afterId != null ? afterId : 0L, PageRequest.of(0, size));
+        return withTargets(slice).map(this::mapToAdvertisement);
+    }
+
+    @Override
+    public List<Long> findIdsAfter(Long afterId, int size) {
+        return jpaRepository.findIdsAfter(afterId != null ? afterId : 0L, PageRequest.of(0, size));
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return jpaRepository.existsById(id);
+    }
+
+    @Override
+    public Slice<Advertisement> findActiveAfter(AdvertisementSeekKey after, int size) {
+        Pageable first = PageRequest.of(0, size);
+        Slice<AdvertisementJpaEntity> slice = after == null
+                ? jpaRepository.findActiveSeekFirst(first)
+                : jpaRepository.findActiveSeekAfter(after.weight(), after.createdAt(), after.id(), first);
+        return withTargets(slice).map(this::mapToAdvertisement);
+    }
+
     @Override
     public List<Advertisement> findByActiveTrue() {
-        return jpaRepository.findByActiveTrue().stream()
+        List<AdvertisementJpaEntity> active = jpaRepository.findByActiveTrue();
+        if (!active.isEmpty()) {
+            // Same persistence context: these queries initialize the collections of the entities above
+            jpaRepository.findActiveWithBioTargets();
+            jpaRepository.findActiveWithMoodTargets();
+        }
+        return active.stream()
                 .map(this::mapToAdvertisement)
                 .collect(Collectors.toList());
     }
@@ -58,16 +167,108 @@ public class AdvertisementRepositoryAdapter implements AdvertisementRepository {
                 .map(this::mapToAdvertisement);
     }
 
+    /**
+     * Loads the advertisements with one query for the rows and one per target collection,
+     * then restores the order of the requested IDs.
+     */
+    @Override
+    public List<Advertisement> findAllById(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<AdvertisementJpaEntity> entities = jpaRepository.findAllById(ids);
+        if (!entities.isEmpty()) {
+            jpaRepository.fetchGeoTargets(entities);
+            jpaRepository.fetchBioTargets(entities);
+            jpaRepository.fetchMoodTargets(entities);
+        }
+        Map<Long, AdvertisementJpaEntity> byId = entities.stream()
+                .collect(Collectors.toMap(AdvertisementJpaEntity::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToAdvertisement)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Advertisement save(Advertisement advertisement) {
         AdvertisementJpaEntity jpaEntity = mapToJpaEntity(advertisement);
         AdvertisementJpaEntity savedEntity = jpaRepository.save(jpaEntity);
+        // Flush first: the row lock orders concurrent changes of the advertisement in the outbox
+        jpaRepository.flush();
+        changeOutbox.record(List.of(savedEntity.getId()), AdvertisementChange.Operation.UPSERT);
         return mapToAdvertisement(savedEntity);
     }
 
+    /**
+     * Saves the advertisements chunk by chunk. Each chunk is flushed as JDBC batches and then
+     * detached. Rows to update are loaded with their targets up front, in four queries per
+     * chunk, so that merging them does not select each one separately.
+     */
+    @Override
+    public List<Advertisement> saveAll(List<Advertisement> advertisements) {
+        List<Advertisement> saved = new ArrayList<>(advertisements.size());
+        for (int from = 0; from < advertisements.size(); from += SAVE_CHUNK_SIZE) {
+            List<AdvertisementJpaEntity> chunk = advertisements
+                    .subList(from, Math.min(from + SAVE_CHUNK_SIZE, advertisements.size())).stream()
+                    .map(this::mapToJpaEntity)
+                    .collect(Collectors.toList());
+            List<Long> existingIds = chunk.stream()
+                    .map(AdvertisementJpaEntity::getId)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            if (!existingIds.isEmpty()) {
+                List<AdvertisementJpaEntity> existing = jpaRepository.findAllById(existingIds);
+                if (!existing.isEmpty()) {
+                    jpaRepository.fetchGeoTargets(existing);
+                    jpaRepository.fetchBioTargets(existing);
+                    jpaRepository.fetchMoodTargets(existing);
+                    reuseUnchangedTargets(chunk, existing);
+                }
+            }
+            List<Long> savedIds = new ArrayList<>(chunk.size());
+            jpaRepository.saveAll(chunk).forEach(entity -> {
+                saved.add(mapToAdvertisement(entity));
+                savedIds.add(entity.getId());
+            });
+            jpaRepository.flush();
+            changeOutbox.record(savedIds, AdvertisementChange.Operation.UPSERT);
+            entityManager.clear();
+        }
+        return saved;
+    }
+
+    /**
+     * Hands unchanged target sets of the managed rows back to the incoming entities. Merging a
+     * new collection instance makes Hibernate delete and re-insert all its rows one owner at a time,
+     * which would defeat batching for the common case of updates that only touch scalar fields.
+     */
+    private void reuseUnchangedTargets(List<AdvertisementJpaEntity> chunk, List<AdvertisementJpaEntity> existing) {
+        Map<Long, AdvertisementJpaEntity> managedById = existing.stream()
+                .collect(Collectors.toMap(AdvertisementJpaEntity::getId, Function.identity()));
+        for (AdvertisementJpaEntity entity : chunk) {
+            AdvertisementJpaEntity managed = entity.getId() != null ? managedById.get(entity.getId()) : null;
+            if (managed == null) {
+                continue;
+            }
+            if (managed.getGeoTargets().equals(entity.getGeoTargets())) {
+                entity.setGeoTargets(managed.getGeoTargets());
+            }
+            if (managed.getBioTargets().equals(entity.getBioTargets())) {
+                entity.setBioTargets(managed.getBioTargets());
+            }
+            if (managed.getMoodTargets().equals(entity.getMoodTargets())) {
+                entity.setMoodTargets(managed.getMoodTargets());
+            }
+        }
+    }
+
     @Override
     public void deleteById(Long id) {
         jpaRepository.deleteById(id);
+        jpaRepository.flush();
+        changeOutbox.record(List.of(id), AdvertisementChange.Operation.DELETE);
     }
 
     @Override
@@ -111,14 +312,14 @@ public class AdvertisementRepositoryAdapter implements AdvertisementRepository {
 
     @Override
     public List<Advertisement> findByCountryCode(String countryCode) {
-        return jpaRepository.findByCountryCode(countryCode).stream()
+        return withTargets(jpaRepository.findByCountryCode(countryCode)).stream()
                 .map(this::mapToAdvertisement)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<Advertisement> findByAgeRange(Integer age) {
-        return jpaRepository.findByAgeRange(age).stream()
+        return withTargets(jpaRepository.findByAgeRange(age)).stream()
                 .map(this::mapToAdvertisement)
                 .collect(Collectors.toList());
     }
@@ -126,11 +327,68 @@ public class AdvertisementRepositoryAdapter implements AdvertisementRepository {
     @Override
     public List<Advertisement> findByMood(Mood mood) {
         MoodTargetJpaEntity.MoodJpaEnum moodJpaEnum = mapToMoodJpaEnum(mood);
-        return jpaRepository.findByMood(moodJpaEnum).stream()
+        return withTargets(jpaRepository.findByMood(moodJpaEnum)).stream()
                 .map(this::mapToAdvertisement)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public TargetingStatistics loadTargetingStatistics() {
+        Map<String, Long> countries = new HashMap<>();
+        for (Object[] row : jpaRepository.countActiveByIncludedCountry()) {
+            countries.put((String) row[0], (Long) row[1]);
+        }
+        Map<Mood, Long> moods = new EnumMap<>(Mood.class);
+        for (Object[] row : jpaRepository.countActiveByIncludedMood()) {
+            moods.put(mapToMood((MoodTargetJpaEntity.MoodJpaEnum) row[0]), (Long) row[1]);
+        }
+        List<TargetingStatistics.AgeRangeCount> ageRanges = new ArrayList<>();
+        for (Object[] row : jpaRepository.countActiveByIncludedAgeRange()) {
+            ageRanges.add(new TargetingStatistics.AgeRangeCount((Integer) row[0], (Integer) row[1], (Long) row[2]));
+        }
+        return new TargetingStatistics(jpaRepository.countByActiveTrue(), countries, moods, ageRanges);
+    }
+
+    /**
+     * Initialize the target collections of the given advertisements with one query per collection
+     * instead of three lazy loads per advertisement.
+     */
+    private List<AdvertisementJpaEntity> withTargets(List<AdvertisementJpaEntity> entities) {
+        if (!entities.isEmpty()) {
+            jpaRepository.fetchGeoTargets(entities);
+            jpaRepository.fetchBioTargets(entities);
+            jpaRepository.fetchMoodTargets(entities);
+        }
+        return entities;
+    }
+
+    /**
+     * Initialize the target collections of a slice with one query per collection
+     * instead of three lazy loads per advertisement.
+     */
+    private Slice<AdvertisementJpaEntity> withTargets(Slice<AdvertisementJpaEntity> slice) {
+        if (slice.hasContent()) {
+            jpaRepository.fetchGeoTargets(slice.getContent());
+            jpaRepository.fetchBioTargets(slice.getContent());
+            jpaRepository.fetchMoodTargets(slice.getContent());
+        }
+        return slice;
+    }
+
+    /**
+     * Map a summary projection to a domain summary.
+     */
+    private AdvertisementSummary mapToSummary(AdvertisementSummaryProjection projection) {
+        return new AdvertisementSummary(
+                projection.getId(),
+                projection.getTitle(),
+                projection.getSource(),
+                projection.isActive(),
+                projection.getWeight(),
+                projection.getUpdatedAt());
+    }
+
     /**
      * Map a JPA entity to a domain entity.
      */
@@ -224,10 +482,11 @@ public class AdvertisementRepositoryAdapter implements AdvertisementRepository {
 
     /**
      * Map a domain entity to a JPA entity.
+     * Country codes are stored upper case so that lookups by country can use the index.
      */
     private GeoTargetJpaEntity mapToGeoTargetJpaEntity(GeoTarget geoTarget) {
         return GeoTargetJpaEntity.builder()
-                .countryCode(geoTarget.getCountryCode())
+                .countryCode(geoTarget.getCountryCode() != null ? geoTarget.getCountryCode().toUpperCase(Locale.ROOT) : null)
                 .region(geoTarget.getRegion())
                 .city(geoTarget.getCity())
                 .latitude(geoTarget.getLatitude())
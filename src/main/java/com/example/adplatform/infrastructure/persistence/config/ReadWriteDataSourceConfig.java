@@ -1,35 +1,39 @@
 package com.example.adplatform.infrastructure.persistence.config;
 
+import com.example.adplatform.infrastructure.persistence.routing.ReplicaRoutingDataSource;
+import com.example.adplatform.infrastructure.persistence.routing.ReplicationLagProbe;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
-import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 
 /**
- * Simple read/write routing datasource.
- * Routes read-only transactions to the read replica when configured; otherwise falls back to the write datasource.
+ * Read/write routing datasource.
+ * Routes read-only transactions to the least busy read replica that is not lagging behind;
+ * without replicas, or when none is available, the write datasource is used for all operations.
+ *
+ * Replicas are configured as {@code app.datasource.replicas[n].url} (plus username, password and
+ * driver-class-name); the single {@code app.datasource.read.url} replica is still supported.
  */
 @Configuration
 public class ReadWriteDataSourceConfig {
 
-    static class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
-        @Override
-        protected Object determineCurrentLookupKey() {
-            boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
-            return readOnly ? "read" : "write";
-        }
-    }
-
     @Bean(name = "writeDataSource")
-    public DataSource writeDataSource(org.springframework.core.env.Environment env) {
+    public DataSource writeDataSource(Environment env) {
         return DataSourceBuilder.create()
                 .url(env.getProperty("app.datasource.write.url"))
                 .username(env.getProperty("app.datasource.write.username"))
@@ -38,31 +42,60 @@ public class ReadWriteDataSourceConfig {
                 .build();
     }
 
-    @Bean(name = "readDataSource")
-    @ConditionalOnProperty(prefix = "app.datasource.read", name = "url")
-    public DataSource readDataSource(org.springframework.core.env.Environment env) {
-        String url = env.getProperty("app.datasource.read.url");
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(@Qualifier("writeDataSource") DataSource write, Environment env) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        DataSource legacy = replicaDataSource(env, "app.datasource.read");
+        if (legacy != null) {
+            replicas.add(new ReplicaRoutingDataSource.Replica("read", legacy));
+        }
+        for (int i = 0; ; i++) {
+            DataSource replica = replicaDataSource(env, "app.datasource.replicas[" + i + "]");
+            if (replica == null) {
+                break;
+            }
+            replicas.add(new ReplicaRoutingDataSource.Replica("replica-" + i, replica));
+        }
+        return new ReplicaRoutingDataSource(write, replicas);
+    }
+
+    private static DataSource replicaDataSource(Environment env, String prefix) {
+        String url = env.getProperty(prefix + ".url");
         if (url == null || url.isBlank()) {
             return null;
         }
+        String driver = env.getProperty(prefix + ".driver-class-name");
         return DataSourceBuilder.create()
                 .url(url)
-                .username(env.getProperty("app.datasource.read.username"))
-                .password(env.getProperty("app.datasource.read.password"))
-                .driverClassName(env.getProperty("app.datasource.read.driver-class-name", "org.h2.Driver"))
+                .username(env.getProperty(prefix + ".username"))
+                .password(env.getProperty(prefix + ".password"))
+                .driverClassName(driver == null || driver.isBlank() ? "org.h2.Driver" : driver)
                 .build();
     }
 
     @Bean
-    public DataSource dataSource(@Qualifier("writeDataSource") DataSource write,
-                                 @Qualifier("readDataSource") DataSource read) {
-        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
-        Map<Object, Object> targets = new HashMap<>();
-        targets.put("write", write);
-        // Fallback to write if read is null
-        targets.put("read", read != null ? read : write);
-        routing.setTargetDataSources(targets);
-        routing.setDefaultTargetDataSource(write);
-        return routing;
+    public ReplicationLagProbe replicationLagProbe(@Qualifier("writeDataSource") DataSource write,
+                                                   ReplicaRoutingDataSource routing,
+                                                   Environment env,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ReplicationLagProbe(
+                write,
+                routing.replicas(),
+                UUID.randomUUID().toString(),
+                env.getProperty("app.datasource.replica-lag.max-lag", Duration.class, Duration.ofSeconds(5)),
+                env.getProperty("app.datasource.replica-lag.probe-interval", Duration.class, Duration.ofSeconds(1)),
+                env.getProperty("app.datasource.replica-lag.query-timeout", Duration.class, Duration.ofSeconds(2)),
+                Clock.systemUTC(),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+
+    /**
+     * The routing datasource behind a lazy proxy, so connections are only fetched once the
+     * transaction manager has marked the transaction read-only or read-write.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
     }
 }
@@ -25,8 +25,13 @@ import java.util.Set;
 @AllArgsConstructor
 public class AdvertisementJpaEntity {
 
+    /**
+     * Pooled sequence rather than IDENTITY: Hibernate can only batch inserts when it knows the ids
+     * up front. allocationSize must match the sequence increment in the Liquibase changelog.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "advertisements_seq")
+    @SequenceGenerator(name = "advertisements_seq", sequenceName = "advertisements_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
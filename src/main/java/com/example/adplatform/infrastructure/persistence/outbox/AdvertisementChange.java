@@ -0,0 +1,22 @@
+package com.example.adplatform.infrastructure.persistence.outbox;
+
+import java.time.Instant;
+
+/**
+ * One row of the advertisement change outbox.
+ *
+ * @param position position in the change feed; increases with every change, but changes may
+ *                 become visible slightly out of position order when writers commit concurrently
+ * @param advertisementId the changed advertisement
+ * @param operation whether the advertisement was saved or deleted
+ * @param version increases with every change of this advertisement, so consumers can ignore
+ *                changes older than the state they already hold
+ * @param createdAt time of the change
+ */
+public record AdvertisementChange(long position, Long advertisementId, Operation operation, long version, Instant createdAt) {
+
+    public enum Operation {
+        UPSERT,
+        DELETE
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.adplatform.infrastructure.persistence.outbox;
+
+import java.util.List;
+
+/**
+ * In-process consumer of the {@link AdvertisementChangeFeed}.
+ *
+ * Changes are delivered at least once: after a restart, or when {@link #accept(List)} throws,
+ * some changes are delivered again. Consumers therefore apply changes idempotently, typically
+ * by re-reading the current state of the advertisement or by comparing versions.
+ */
+public interface AdvertisementChangeConsumer {
+
+    /**
+     * @return stable name of the consumer, part of the key of its checkpoint
+     */
+    String name();
+
+    /**
+     * Applies a batch of changes, in feed order. Throwing leaves the checkpoint where it was,
+     * so the same changes are offered again on the next poll.
+     */
+    void accept(List<AdvertisementChange> changes);
+}
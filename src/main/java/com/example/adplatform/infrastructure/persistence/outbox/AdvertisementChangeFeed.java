@@ -0,0 +1,240 @@
+package com.example.adplatform.infrastructure.persistence.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Streams the {@code advertisement_changes} outbox to the registered {@link AdvertisementChangeConsumer}s.
+ *
+ * Every consumer has its own position, checkpointed in {@code advertisement_change_checkpoints}
+ * under {@code <instance id>/<consumer name>} after each delivered batch. A consumer with a
+ * checkpoint resumes from it; a consumer without one starts at the end of the feed as of
+ * {@link #subscribe}, as it is expected to load the current state itself afterwards.
+ *
+ * Positions are identity values, drawn when a row is inserted rather than when its transaction
+ * commits, so a long transaction such as a bulk save can commit rows far below the position.
+ * Ids skipped on the way up are therefore remembered as gaps and looked up again on every poll
+ * until they show up or the gap timeout, the longest a change transaction is expected to stay
+ * open, passes; ids of rolled back transactions never show up. Gaps are kept in memory, so a
+ * restarted consumer re-reads the changes of the last gap timeout before its checkpoint.
+ *
+ * Changes older than the retention period are purged, except the latest change of each
+ * advertisement that still exists, which carries its version forward.
+ */
+@Slf4j
+public class AdvertisementChangeFeed {
+
+    private static final int MAX_TRACKED_GAPS = 100_000;
+
+    private static final String SELECT = "SELECT id, advertisement_id, operation, version, created_at FROM advertisement_changes ";
+
+    private static final RowMapper<AdvertisementChange> ROW_MAPPER = (rs, rowNum) -> new AdvertisementChange(
+            rs.getLong("id"),
+            rs.getLong("advertisement_id"),
+            AdvertisementChange.Operation.valueOf(rs.getString("operation")),
+            rs.getLong("version"),
+            rs.getTimestamp("created_at").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String instanceId;
+    private final int batchSize;
+    private final Duration retention;
+    private final Duration gapTimeout;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param dataSource the primary database; a lagging replica would hide fresh changes
+     * @param instanceId identifies this instance in checkpoint keys; keep it stable across restarts to resume
+     * @param gapTimeout how long a skipped id is waited for; the longest a change transaction may stay open
+     */
+    public AdvertisementChangeFeed(DataSource dataSource,
+                                   String instanceId,
+                                   int batchSize,
+                                   Duration retention,
+                                   Duration gapTimeout,
+                                   Clock clock,
+                                   MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.instanceId = instanceId;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.gapTimeout = gapTimeout;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Registers a consumer and fixes its start position right away, so that changes made while
+     * the consumer loads its initial state are delivered afterwards. Call it before that load begins.
+     */
+    public synchronized void subscribe(AdvertisementChangeConsumer consumer) {
+        Subscription subscription = new Subscription(consumer, instanceId + "/" + consumer.name());
+        try {
+            subscription.start();
+        } catch (DataAccessException e) {
+            log.warn("Failed to fix the start position of {}, retrying on the first poll: {}",
+                    subscription.checkpoint, e.getMessage());
+        }
+        subscriptions.add(subscription);
+    }
+
+    /**
+     * Hands each consumer the changes after its position, at most one batch per consumer and poll.
+     */
+    @Scheduled(fixedDelayString = "${app.advertisements.change-feed.poll-interval:PT1S}")
+    public synchronized void poll() {
+        for (Subscription subscription : subscriptions) {
+            try {
+                subscription.poll();
+            } catch (DataAccessException e) {
+                log.warn("Failed to poll advertisement changes for {}: {}", subscription.checkpoint, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deletes changes every consumer has had ample time to read, and checkpoints of consumers
+     * that have not moved for as long.
+     */
+    @Scheduled(fixedDelayString = "${app.advertisements.change-feed.purge-interval:PT5M}")
+    public void purge() {
+        Timestamp cutoff = Timestamp.from(clock.instant().minus(retention));
+        int purged = jdbcTemplate.update(
+                "DELETE FROM advertisement_changes c WHERE c.created_at < ? AND (c.operation = 'DELETE' OR c.id < " +
+                "(SELECT MAX(l.id) FROM advertisement_changes l WHERE l.advertisement_id = c.advertisement_id))",
+                cutoff);
+        jdbcTemplate.update("DELETE FROM advertisement_change_checkpoints WHERE updated_at < ?", cutoff);
+        if (purged > 0) {
+            log.debug("Purged {} old advertisement changes", purged);
+        }
+    }
+
+    private record Checkpoint(long position, Instant updatedAt) {
+    }
+
+    private final class Subscription {
+        private final AdvertisementChangeConsumer consumer;
+        private final String checkpoint;
+        private final Counter delivered;
+        // Skipped ids below the position, with the time they were noticed
+        private final NavigableMap<Long, Instant> gaps = new TreeMap<>();
+        private long position = -1;
+
+        private Subscription(AdvertisementChangeConsumer consumer, String checkpoint) {
+            this.consumer = consumer;
+            this.checkpoint = checkpoint;
+            this.delivered = Counter.builder("advertisements.change.feed.delivered")
+                    .description("Advertisement changes handed to an in-process consumer")
+                    .tag("consumer", consumer.name())
+                    .register(meterRegistry);
+        }
+
+        private void poll() {
+            if (position < 0) {
+                start();
+            }
+            Instant now = clock.instant();
+            Instant expired = now.minus(gapTimeout);
+            gaps.values().removeIf(noticed -> noticed.isBefore(expired));
+
+            List<AdvertisementChange> batch = new ArrayList<>(filledGaps());
+            if (batch.size() < batchSize) {
+                batch.addAll(jdbcTemplate.query(SELECT + "WHERE id > ? ORDER BY id LIMIT ?",
+                        ROW_MAPPER, position, batchSize - batch.size()));
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                consumer.accept(batch);
+            } catch (RuntimeException e) {
+                log.warn("Consumer {} failed to apply {} advertisement changes, retrying on the next poll: {}",
+                        consumer.name(), batch.size(), e.getMessage());
+                return;
+            }
+            delivered.increment(batch.size());
+            for (AdvertisementChange change : batch) {
+                if (gaps.remove(change.position()) == null) {
+                    skipTo(change.position(), now);
+                }
+            }
+            saveCheckpoint();
+        }
+
+        private List<AdvertisementChange> filledGaps() {
+            if (gaps.isEmpty()) {
+                return List.of();
+            }
+            List<Long> ids = gaps.keySet().stream().limit(batchSize).toList();
+            String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+            return jdbcTemplate.query(SELECT + "WHERE id IN (" + placeholders + ") ORDER BY id", ROW_MAPPER, ids.toArray());
+        }
+
+        /**
+         * Moves the position up to a delivered id, remembering the ids in between as gaps.
+         */
+        private void skipTo(long id, Instant now) {
+            for (long missing = position + 1; missing < id && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                gaps.put(missing, now);
+            }
+            position = Math.max(position, id);
+        }
+
+        private void start() {
+            List<Checkpoint> saved = jdbcTemplate.query(
+                    "SELECT position, updated_at FROM advertisement_change_checkpoints WHERE consumer = ?",
+                    (rs, rowNum) -> new Checkpoint(rs.getLong("position"), rs.getTimestamp("updated_at").toInstant()),
+                    checkpoint);
+            if (!saved.isEmpty()) {
+                // Changes below the checkpoint may have committed after it was written; read them again
+                Long first = jdbcTemplate.queryForObject(
+                        "SELECT MIN(id) FROM advertisement_changes WHERE created_at >= ?", Long.class,
+                        Timestamp.from(saved.get(0).updatedAt().minus(gapTimeout)));
+                position = first != null ? Math.min(saved.get(0).position(), first - 1) : saved.get(0).position();
+                log.info("Consumer {} resumes the advertisement change feed after position {}", checkpoint, position);
+                return;
+            }
+            // Changes of transactions still open may take ids below the end; wait for them as gaps
+            Instant now = clock.instant();
+            List<Long> recent = jdbcTemplate.queryForList(
+                    "SELECT id FROM advertisement_changes WHERE created_at >= ? ORDER BY id", Long.class,
+                    Timestamp.from(now.minus(gapTimeout)));
+            Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM advertisement_changes", Long.class);
+            position = recent.isEmpty() ? (max != null ? max : 0) : recent.get(0);
+            for (long id : recent) {
+                skipTo(id, now);
+            }
+            position = Math.max(position, max != null ? max : 0);
+            saveCheckpoint();
+        }
+
+        private void saveCheckpoint() {
+            Timestamp now = Timestamp.from(clock.instant());
+            if (jdbcTemplate.update("UPDATE advertisement_change_checkpoints SET position = ?, updated_at = ? WHERE consumer = ?",
+                    position, now, checkpoint) == 0) {
+                jdbcTemplate.update("INSERT INTO advertisement_change_checkpoints (consumer, position, updated_at) VALUES (?, ?, ?)",
+                        checkpoint, position, now);
+            }
+        }
+    }
+}
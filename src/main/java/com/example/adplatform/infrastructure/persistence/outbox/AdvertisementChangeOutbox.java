@@ -0,0 +1,57 @@
+package com.example.adplatform.infrastructure.persistence.outbox;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes rows to the {@code advertisement_changes} outbox.
+ *
+ * Rows are written through the connection of the surrounding transaction, so they commit or roll
+ * back together with the change they describe. The version of each row is one more than the
+ * previous version of the same advertisement; callers flush their change first, so the row lock
+ * of the advertisement orders concurrent writers. A disabled outbox records nothing: without the
+ * change feed nothing reads or purges the rows.
+ */
+public class AdvertisementChangeOutbox {
+
+    private static final String INSERT =
+            "INSERT INTO advertisement_changes (advertisement_id, operation, version, created_at) " +
+            "SELECT ?, ?, COALESCE(MAX(version), 0) + 1, ? FROM advertisement_changes WHERE advertisement_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public AdvertisementChangeOutbox(DataSource dataSource, boolean enabled) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records a change of each advertisement, in one JDBC batch.
+     *
+     * @throws IllegalStateException outside a transaction, where the row would not be atomic with the change
+     */
+    public void record(Collection<Long> advertisementIds, AdvertisementChange.Operation operation) {
+        if (!enabled || advertisementIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Advertisement changes must be recorded in the transaction of the change");
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Long> ids = new ArrayList<>(advertisementIds);
+        jdbcTemplate.batchUpdate(INSERT, ids, ids.size(), (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setString(2, operation.name());
+            ps.setTimestamp(3, now);
+            ps.setLong(4, id);
+        });
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.adplatform.infrastructure.persistence.projection;
+
+import com.example.adplatform.domain.model.AdvertisementSource;
+
+import java.time.LocalDateTime;
+
+/**
+ * Closed Spring Data projection of {@code AdvertisementJpaEntity}.
+ * Queries returning it select only these columns and never touch the target collections.
+ */
+public interface AdvertisementSummaryProjection {
+
+    Long getId();
+
+    String getTitle();
+
+    AdvertisementSource getSource();
+
+    boolean isActive();
+
+    int getWeight();
+
+    LocalDateTime getUpdatedAt();
+}
@@ -3,14 +3,23 @@ package com.example.adplatform.infrastructure.persistence.repository;
 import com.example.adplatform.domain.model.AdvertisementSource;
 import com.example.adplatform.infrastructure.persistence.entity.AdvertisementJpaEntity;
 import com.example.adplatform.infrastructure.persistence.entity.MoodTargetJpaEntity.MoodJpaEnum;
+import com.example.adplatform.infrastructure.persistence.projection.AdvertisementSummaryProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * JPA repository for Advertisement entity.
@@ -20,11 +29,156 @@ import java.util.List;
 public interface AdvertisementJpaRepository extends JpaRepository<AdvertisementJpaEntity, Long> {
 
     /**
-     * Find all active advertisements.
+     * Find summaries of all advertisements with pagination, reading only the summary columns.
+     *
+     * @param pageable pagination information
+     * @return Page of advertisement summaries
+     */
+    Page<AdvertisementSummaryProjection> findAllProjectedBy(Pageable pageable);
+
+    /**
+     * Find the summary of one advertisement.
+     *
+     * @param id The advertisement ID
+     * @return Optional containing the summary if found
+     */
+    Optional<AdvertisementSummaryProjection> findProjectedById(Long id);
+
+    /**
+     * Find summaries of advertisements by source with pagination.
+     *
+     * @param source The source of the advertisement
+     * @param pageable pagination information
+     * @return Page of advertisement summaries
+     */
+    Page<AdvertisementSummaryProjection> findProjectedBySource(AdvertisementSource source, Pageable pageable);
+
+    /**
+     * Find summaries of advertisements whose title contains the given text (case insensitive) with pagination.
+     *
+     * @param title The text to search for in advertisement titles
+     * @param pageable pagination information
+     * @return Page of advertisement summaries
+     */
+    Page<AdvertisementSummaryProjection> findProjectedByTitleContainingIgnoreCase(String title, Pageable pageable);
+
+    /**
+     * Stream all advertisements in id order from a server-side cursor.
+     * Must be consumed and closed inside a transaction; entities are loaded read-only and the
+     * driver fetches 500 rows per round trip instead of materializing the whole result.
+     *
+     * @return Stream of all advertisements
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT a FROM AdvertisementJpaEntity a ORDER BY a.id")
+    Stream<AdvertisementJpaEntity> streamAllOrderById();
+
+    /**
+     * Find the advertisements with an id greater than the given one, in id order.
+     * Returning a slice skips the count query.
+     *
+     * @param id id to continue after
+     * @param pageable slice size (the page number must be 0)
+     * @return Slice of advertisements
+     */
+    Slice<AdvertisementJpaEntity> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Find the ids greater than the given one, in id order, reading only the primary key.
+     *
+     * @param id id to continue after
+     * @param pageable number of ids (the page number must be 0)
+     * @return the ids
+     */
+    @Query("SELECT a.id FROM AdvertisementJpaEntity a WHERE a.id > :id ORDER BY a.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Find the first slice of active advertisements in seek order.
+     *
+     * @param pageable slice size (the page number must be 0)
+     * @return Slice of active advertisements
+     */
+    @Query("SELECT a FROM AdvertisementJpaEntity a WHERE a.active = true " +
+           "ORDER BY a.weight DESC, a.createdAt DESC, a.id DESC")
+    Slice<AdvertisementJpaEntity> findActiveSeekFirst(Pageable pageable);
+
+    /**
+     * Find the active advertisements that come strictly after the given position in seek order
+     * (weight descending, then newest first, then id descending).
+     *
+     * @param weight weight of the last advertisement of the previous slice
+     * @param createdAt creation time of the last advertisement of the previous slice
+     * @param id id of the last advertisement of the previous slice
+     * @param pageable slice size (the page number must be 0)
+     * @return Slice of active advertisements
+     */
+    @Query("SELECT a FROM AdvertisementJpaEntity a WHERE a.active = true AND (" +
+           "a.weight < :weight OR (a.weight = :weight AND (" +
+           "a.createdAt < :createdAt OR (a.createdAt = :createdAt AND a.id < :id)))) " +
+           "ORDER BY a.weight DESC, a.createdAt DESC, a.id DESC")
+    Slice<AdvertisementJpaEntity> findActiveSeekAfter(@Param("weight") int weight,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
+
+    /**
+     * Initialize the geo targets of the given advertisements in the current persistence context.
+     *
+     * @param advertisements managed advertisements
+     * @return the same advertisements with geo targets fetched
+     */
+    @Query("SELECT DISTINCT a FROM AdvertisementJpaEntity a LEFT JOIN FETCH a.geoTargets WHERE a IN :advertisements")
+    List<AdvertisementJpaEntity> fetchGeoTargets(@Param("advertisements") Collection<AdvertisementJpaEntity> advertisements);
+
+    /**
+     * Initialize the bio targets of the given advertisements in the current persistence context.
+     *
+     * @param advertisements managed advertisements
+     * @return the same advertisements with bio targets fetched
+     */
+    @Query("SELECT DISTINCT a FROM AdvertisementJpaEntity a LEFT JOIN FETCH a.bioTargets WHERE a IN :advertisements")
+    List<AdvertisementJpaEntity> fetchBioTargets(@Param("advertisements") Collection<AdvertisementJpaEntity> advertisements);
+
+    /**
+     * Initialize the mood targets of the given advertisements in the current persistence context.
+     *
+     * @param advertisements managed advertisements
+     * @return the same advertisements with mood targets fetched
+     */
+    @Query("SELECT DISTINCT a FROM AdvertisementJpaEntity a LEFT JOIN FETCH a.moodTargets WHERE a IN :advertisements")
+    List<AdvertisementJpaEntity> fetchMoodTargets(@Param("advertisements") Collection<AdvertisementJpaEntity> advertisements);
+
+    /**
+     * Find all active advertisements with their geo targets fetched in the same query.
+     * Use together with {@link #findActiveWithBioTargets()} and {@link #findActiveWithMoodTargets()}
+     * to load the whole active inventory in three queries instead of one per advertisement.
+     * The target collections are fetched separately to avoid a cartesian product of the three sets.
      *
      * @return List of active advertisements
      */
+    @Query("SELECT DISTINCT a FROM AdvertisementJpaEntity a LEFT JOIN FETCH a.geoTargets WHERE a.active = true")
     List<AdvertisementJpaEntity> findByActiveTrue();
+
+    /**
+     * Initialize the bio targets of all active advertisements in the current persistence context.
+     *
+     * @return List of active advertisements with bio targets fetched
+     */
+    @Query("SELECT DISTINCT a FROM AdvertisementJpaEntity a LEFT JOIN FETCH a.bioTargets WHERE a.active = true")
+    List<AdvertisementJpaEntity> findActiveWithBioTargets();
+
+    /**
+     * Initialize the mood targets of all active advertisements in the current persistence context.
+     *
+     * @return List of active advertisements with mood targets fetched
+     */
+    @Query("SELECT DISTINCT a FROM AdvertisementJpaEntity a LEFT JOIN FETCH a.moodTargets WHERE a.active = true")
+    List<AdvertisementJpaEntity> findActiveWithMoodTargets();
     
     /**
      * Find all active advertisements with pagination.
@@ -87,11 +241,13 @@ public interface AdvertisementJpaRepository extends JpaRepository<AdvertisementJ
 
     /**
      * Custom query to find advertisements that match a specific country code.
+     * Country codes are stored upper case, so the parameter is upper-cased and the comparison
+     * can use the country code index.
      *
      * @param countryCode The ISO country code to match
      * @return List of advertisements targeting the specified country
      */
-    @Query("SELECT DISTINCT a FROM AdvertisementJpaEntity a JOIN a.geoTargets g WHERE g.countryCode = :countryCode AND g.include = true AND a.active = true")
+    @Query("SELECT DISTINCT a FROM AdvertisementJpaEntity a JOIN a.geoTargets g WHERE g.countryCode = UPPER(:countryCode) AND g.include = true AND a.active = true")
     List<AdvertisementJpaEntity> findByCountryCode(@Param("countryCode") String countryCode);
 
     /**
@@ -115,4 +271,38 @@ public interface AdvertisementJpaRepository extends JpaRepository<AdvertisementJ
     @Query("SELECT DISTINCT a FROM AdvertisementJpaEntity a JOIN a.moodTargets m WHERE " +
            "m.mood = :mood AND m.include = true AND a.active = true")
     List<AdvertisementJpaEntity> findByMood(@Param("mood") MoodJpaEnum mood);
+
+    /**
+     * Count the active advertisements.
+     *
+     * @return number of active advertisements
+     */
+    long countByActiveTrue();
+
+    /**
+     * Count the active advertisements including each country, by upper-case country code.
+     *
+     * @return rows of [country code, advertisement count]
+     */
+    @Query("SELECT UPPER(g.countryCode), COUNT(DISTINCT a.id) FROM AdvertisementJpaEntity a JOIN a.geoTargets g " +
+           "WHERE g.include = true AND a.active = true GROUP BY UPPER(g.countryCode)")
+    List<Object[]> countActiveByIncludedCountry();
+
+    /**
+     * Count the active advertisements including each mood.
+     *
+     * @return rows of [mood, advertisement count]
+     */
+    @Query("SELECT m.mood, COUNT(DISTINCT a.id) FROM AdvertisementJpaEntity a JOIN a.moodTargets m " +
+           "WHERE m.include = true AND a.active = true GROUP BY m.mood")
+    List<Object[]> countActiveByIncludedMood();
+
+    /**
+     * Count the active advertisements including each age range.
+     *
+     * @return rows of [min age, max age, advertisement count]
+     */
+    @Query("SELECT b.minAge, b.maxAge, COUNT(DISTINCT a.id) FROM AdvertisementJpaEntity a JOIN a.bioTargets b " +
+           "WHERE b.include = true AND a.active = true GROUP BY b.minAge, b.maxAge")
+    List<Object[]> countActiveByIncludedAgeRange();
 }
\ No newline at end of file
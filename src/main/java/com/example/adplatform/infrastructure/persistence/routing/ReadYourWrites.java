@@ -0,0 +1,82 @@
+package com.example.adplatform.infrastructure.persistence.routing;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Per-thread read-your-writes state of the request being served.
+ *
+ * A request is pinned to the primary database when its client wrote recently, or as soon as the
+ * request itself commits a write, so it never reads older data from a lagging replica.
+ * Threads without an open context (background jobs) are only pinned while they run a task
+ * through {@link #onPrimary(Callable)}.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Context> CONTEXT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private static final class Context {
+        private boolean pinned;
+        private final Runnable onWrite;
+
+        private Context(boolean pinned, Runnable onWrite) {
+            this.pinned = pinned;
+            this.onWrite = onWrite;
+        }
+    }
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Opens the context of the current request.
+     *
+     * @param pinned whether the client wrote within the read-your-writes window
+     * @param onWrite called after every committed write, e.g. to hand the client a new token
+     */
+    public static void open(boolean pinned, Runnable onWrite) {
+        CONTEXT.set(new Context(pinned, onWrite));
+    }
+
+    public static void close() {
+        CONTEXT.remove();
+    }
+
+    /**
+     * @return true if reads of the current thread must go to the primary
+     */
+    public static boolean isPinned() {
+        if (PRIMARY.get() != null) {
+            return true;
+        }
+        Context context = CONTEXT.get();
+        return context != null && context.pinned;
+    }
+
+    /**
+     * Runs {@code task} with the reads of the current thread pinned to the primary, for results
+     * that outlive the request, such as cache entries, and must not be older than the last write.
+     */
+    public static <T> T onPrimary(Callable<T> task) throws Exception {
+        if (PRIMARY.get() != null) {
+            return task.call();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return task.call();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    /**
+     * Records that the current thread committed a write: later reads of the request are pinned.
+     */
+    public static void writeCommitted() {
+        Context context = CONTEXT.get();
+        if (context != null) {
+            context.pinned = true;
+            context.onWrite.run();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.adplatform.infrastructure.persistence.routing;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes read-only transactions to the read replica with the fewest connections in use, and
+ * everything else to the primary.
+ *
+ * Reads also go to the primary when no replica is available (the lag probe ejects replicas
+ * that fall behind) or when the request is pinned by {@link ReadYourWrites}. Commits of
+ * read-write transactions are reported to {@link ReadYourWrites} so the rest of the request
+ * and the client's next requests read their own writes.
+ *
+ * The routing decision is taken when a connection is requested, so wrap this data source in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager then only fetches a connection once the read-only flag of the transaction is set.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final AtomicInteger rotation = new AtomicInteger();
+
+    /**
+     * A read replica with its load and replication state.
+     */
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private volatile boolean available;
+        private volatile Duration lag;
+
+        /**
+         * Creates a replica that receives no reads until the lag probe marks it available.
+         */
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        /**
+         * @return connections of this replica currently in use
+         */
+        public int outstanding() {
+            return outstanding.get();
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        /**
+         * @return replication lag measured by the last probe, or {@code null} if it could not be measured
+         */
+        public Duration lag() {
+            return lag;
+        }
+
+        void update(Duration lag, boolean available) {
+            this.lag = lag;
+            this.available = available;
+        }
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+    }
+
+    public List<Replica> replicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = selectReplica();
+        if (replica == null) {
+            trackWrite();
+            return primary.getConnection();
+        }
+        replica.outstanding.incrementAndGet();
+        try {
+            return counted(replica.dataSource.getConnection(), replica);
+        } catch (SQLException | RuntimeException e) {
+            replica.outstanding.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = selectReplica();
+        if (replica == null) {
+            trackWrite();
+            return primary.getConnection(username, password);
+        }
+        replica.outstanding.incrementAndGet();
+        try {
+            return counted(replica.dataSource.getConnection(username, password), replica);
+        } catch (SQLException | RuntimeException e) {
+            replica.outstanding.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the available replica with the fewest connections in use, or {@code null} for the primary
+     */
+    Replica selectReplica() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWrites.isPinned()) {
+            return null;
+        }
+        // Start at a rotating offset so equally loaded replicas take turns
+        int start = Math.floorMod(rotation.getAndIncrement(), replicas.size());
+        Replica best = null;
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica candidate = replicas.get((start + i) % replicas.size());
+            if (candidate.available && (best == null || candidate.outstanding.get() < best.outstanding.get())) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Reports the commit of the current read-write transaction, once per transaction.
+     */
+    private void trackWrite() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ReadYourWrites.writeCommitted();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReplicaRoutingDataSource.this);
+            }
+        });
+    }
+
+    /**
+     * Wraps a replica connection so that closing it releases its slot in the outstanding count.
+     */
+    private static Connection counted(Connection connection, Replica replica) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                ReplicaRoutingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        replica.outstanding.decrementAndGet();
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
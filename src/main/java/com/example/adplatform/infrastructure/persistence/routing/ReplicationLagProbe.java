@@ -0,0 +1,167 @@
+package com.example.adplatform.infrastructure.persistence.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the replication lag of every read replica and ejects those lagging too far behind.
+ *
+ * Each probe writes the current time to this instance's {@code replication_heartbeat} row on the
+ * primary and reads the row back from every replica: the difference is how far the replica is
+ * behind. Every instance keeps its own row, so the lag is measured against one clock only. The
+ * measured lag includes up to one probe interval, so the maximum lag must be larger than that.
+ * A replica that cannot be probed within the query timeout is ejected as well; replicas rejoin
+ * once they have caught up.
+ *
+ * Probes run on a thread of their own, so a hung replica delays no other scheduled work.
+ */
+@Slf4j
+public class ReplicationLagProbe implements SmartLifecycle {
+
+    /** Heartbeats of instances that stopped probing are deleted after this long. */
+    private static final Duration STALE_HEARTBEAT = Duration.ofHours(1);
+
+    private final JdbcTemplate primary;
+    private final Map<ReplicaRoutingDataSource.Replica, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final String instanceId;
+    private final Duration maxLag;
+    private final Duration probeInterval;
+    private final Clock clock;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param instanceId key of this instance's heartbeat row, unique among running instances
+     * @param queryTimeout longest a heartbeat write or replica read may take
+     */
+    public ReplicationLagProbe(DataSource primary,
+                               List<ReplicaRoutingDataSource.Replica> replicas,
+                               String instanceId,
+                               Duration maxLag,
+                               Duration probeInterval,
+                               Duration queryTimeout,
+                               Clock clock,
+                               MeterRegistry meterRegistry) {
+        int timeoutSeconds = (int) Math.max(1, (queryTimeout.toMillis() + 999) / 1000);
+        this.primary = new JdbcTemplate(primary);
+        this.primary.setQueryTimeout(timeoutSeconds);
+        this.instanceId = instanceId;
+        this.maxLag = maxLag;
+        this.probeInterval = probeInterval;
+        this.clock = clock;
+        for (ReplicaRoutingDataSource.Replica replica : replicas) {
+            JdbcTemplate template = new JdbcTemplate(replica.dataSource());
+            template.setQueryTimeout(timeoutSeconds);
+            this.replicas.put(replica, template);
+            Gauge.builder("advertisements.datasource.replica.lag", replica,
+                            r -> r.lag() != null ? r.lag().toMillis() / 1000.0 : Double.NaN)
+                    .description("Replication lag of the read replica measured by the last probe")
+                    .tag("replica", replica.name())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            Gauge.builder("advertisements.datasource.replica.available", replica, r -> r.isAvailable() ? 1 : 0)
+                    .description("Whether the read replica currently receives reads")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    public void probe() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        Instant beat = clock.instant().truncatedTo(ChronoUnit.MILLIS);
+        try {
+            writeHeartbeat(Timestamp.from(beat));
+        } catch (DataAccessException e) {
+            // Without a fresh heartbeat the lag cannot be measured; keep the last decision
+            log.warn("Failed to write the replication heartbeat: {}", e.getMessage());
+            return;
+        }
+        replicas.forEach((replica, template) -> probe(replica, template, beat));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (scheduler != null || replicas.isEmpty()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication-lag-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::probeSafely, 0, probeInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return scheduler != null;
+    }
+
+    private void probeSafely() {
+        try {
+            probe();
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule
+            log.warn("Replication lag probe failed: {}", e.getMessage());
+        }
+    }
+
+    private void writeHeartbeat(Timestamp beat) {
+        if (primary.update("UPDATE replication_heartbeat SET beat_at = ? WHERE instance_id = ?", beat, instanceId) == 0) {
+            primary.update("INSERT INTO replication_heartbeat (instance_id, beat_at) VALUES (?, ?)", instanceId, beat);
+            primary.update("DELETE FROM replication_heartbeat WHERE beat_at < ?",
+                    Timestamp.from(beat.toInstant().minus(STALE_HEARTBEAT)));
+        }
+    }
+
+    private void probe(ReplicaRoutingDataSource.Replica replica, JdbcTemplate template, Instant beat) {
+        Duration lag;
+        try {
+            List<Timestamp> seen = template.queryForList(
+                    "SELECT beat_at FROM replication_heartbeat WHERE instance_id = ?", Timestamp.class, instanceId);
+            lag = seen.isEmpty() ? null : Duration.between(seen.get(0).toInstant(), beat);
+        } catch (DataAccessException e) {
+            log.debug("Failed to probe read replica {}: {}", replica.name(), e.getMessage());
+            lag = null;
+        }
+        if (lag != null && lag.isNegative()) {
+            // The clock was set back since the heartbeat the replica has
+            lag = Duration.ZERO;
+        }
+        boolean available = lag != null && lag.compareTo(maxLag) <= 0;
+        if (available != replica.isAvailable()) {
+            if (available) {
+                log.info("Read replica {} caught up (lag {} ms), routing reads to it", replica.name(), lag.toMillis());
+            } else {
+                log.warn("Read replica {} ejected, lag {}", replica.name(), lag != null ? lag.toMillis() + " ms" : "unknown");
+            }
+        }
+        replica.update(lag, available);
+    }
+}
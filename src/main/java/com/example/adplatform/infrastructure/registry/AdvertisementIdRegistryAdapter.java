@@ -0,0 +1,252 @@
+package com.example.adplatform.infrastructure.registry;
+
+import com.example.adplatform.application.port.out.AdvertisementIdRegistry;
+import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidation;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidationTransport;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChange;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChangeConsumer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link AdvertisementIdRegistry} backed by a {@link CompactIdSet} held in memory.
+ *
+ * The ids are loaded in the background after startup, reading only the primary key; until the
+ * load has finished the registry is not ready and tracking accepts every id. A failed load is
+ * retried, with the delay doubling up to a minute, until it succeeds. Local saves and
+ * deletes are applied after commit. Changes made by other instances arrive either as an
+ * {@link AdvertisementChangeConsumer} of the change feed, whose operations are applied as they
+ * are, or, without one, over a {@link CacheInvalidationTransport}; the existence of those ids is
+ * re-checked on the primary database.
+ */
+@Slf4j
+public class AdvertisementIdRegistryAdapter implements AdvertisementIdRegistry, AdvertisementChangeConsumer, ApplicationRunner {
+
+    /** Channel name of id registry updates on the cache invalidation transport. */
+    public static final String CHANNEL = "advertisementIdRegistry";
+
+    private static final Duration MAX_LOAD_RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final CompactIdSet ids;
+    private final AdvertisementRepository advertisementRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationTransport transport;
+    private final int loadPageSize;
+    private final Duration loadRetryDelay;
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+    private volatile boolean ready;
+
+    /**
+     * @param ids the set to hold the ids in
+     * @param transactionTemplate read-write template, so reads go to the primary rather than a lagging replica
+     * @param transport transport shared with the cache invalidation bus, or {@code null} for a single
+     *                  instance or when the registry consumes the change feed
+     * @param loadRetryDelay delay before the first retry of a failed load
+     */
+    public AdvertisementIdRegistryAdapter(CompactIdSet ids,
+                                          AdvertisementRepository advertisementRepository,
+                                          TransactionTemplate transactionTemplate,
+                                          CacheInvalidationTransport transport,
+                                          int loadPageSize,
+                                          Duration loadRetryDelay,
+                                          MeterRegistry meterRegistry) {
+        this.ids = ids;
+        this.advertisementRepository = advertisementRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.transport = transport;
+        this.loadPageSize = loadPageSize;
+        this.loadRetryDelay = loadRetryDelay;
+        Gauge.builder("advertisements.tracking.id.registry.entries", ids, CompactIdSet::size)
+                .description("Advertisement ids held by the in-memory id registry")
+                .register(meterRegistry);
+        if (transport != null) {
+            transport.subscribe(this::applyRemote);
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread loader = new Thread(this::loadUntilReady, "id-registry-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Loads every advertisement id, retrying with backoff until a load succeeds or the thread is
+     * interrupted.
+     */
+    void loadUntilReady() {
+        long delay = loadRetryDelay.toMillis();
+        while (!load()) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            delay = Math.min(delay * 2, MAX_LOAD_RETRY_DELAY.toMillis());
+        }
+    }
+
+    /**
+     * Loads every advertisement id. Advertisements changed while the load is running keep the
+     * state the change left them in.
+     *
+     * @return whether the load succeeded
+     */
+    boolean load() {
+        long start = System.nanoTime();
+        changedWhileLoading.clear();
+        loading = true;
+        try {
+            Long after = null;
+            List<Long> page;
+            do {
+                Long from = after;
+                page = transactionTemplate.execute(status -> advertisementRepository.findIdsAfter(from, loadPageSize));
+                for (Long id : page) {
+                    synchronized (changedWhileLoading) {
+                        if (!changedWhileLoading.contains(id)) {
+                            ids.add(id);
+                        }
+                    }
+                }
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1);
+                }
+            } while (page.size() == loadPageSize);
+            ready = true;
+            log.info("Id registry loaded {} advertisements in {} ms", ids.size(), (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to load the id registry, tracking accepts every advertisement id until a retry succeeds: {}",
+                    e.getMessage());
+            return false;
+        } finally {
+            loading = false;
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public boolean contains(long id) {
+        return ids.contains(id);
+    }
+
+    @Override
+    public void add(Long id) {
+        enqueue(id, true);
+    }
+
+    @Override
+    public void remove(Long id) {
+        enqueue(id, false);
+    }
+
+    /**
+     * Applies a change after the surrounding transaction commits, or right away without one.
+     * Changes of one transaction are applied and broadcast together.
+     */
+    private void enqueue(Long id, boolean exists) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(Map.of(id, exists));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Boolean> pending = (Map<Long, Boolean>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Boolean> newPending = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, newPending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(newPending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AdvertisementIdRegistryAdapter.this);
+                }
+            });
+            pending = newPending;
+        }
+        pending.put(id, exists);
+    }
+
+    private void apply(Map<Long, Boolean> changes) {
+        List<CacheInvalidation> broadcast = new ArrayList<>(changes.size());
+        changes.forEach((id, exists) -> {
+            update(id, exists);
+            broadcast.add(CacheInvalidation.evict(CHANNEL, id));
+        });
+        if (transport != null) {
+            try {
+                transport.send(broadcast);
+            } catch (RuntimeException e) {
+                // The local registry is current; other instances catch up on their next restart
+                log.warn("Failed to broadcast {} id registry updates: {}", broadcast.size(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return CHANNEL;
+    }
+
+    /**
+     * Applies the operations of the feed; the last change of an advertisement in the batch wins.
+     */
+    @Override
+    public void accept(List<AdvertisementChange> changes) {
+        Map<Long, Boolean> latest = new LinkedHashMap<>();
+        changes.forEach(change -> latest.put(change.advertisementId(), change.operation() == AdvertisementChange.Operation.UPSERT));
+        latest.forEach(this::update);
+    }
+
+    /**
+     * Re-checks the existence of advertisements changed on other instances.
+     */
+    private void applyRemote(List<CacheInvalidation> batch) {
+        for (CacheInvalidation invalidation : batch) {
+            if (!CHANNEL.equals(invalidation.cacheName()) || invalidation.isClear()) {
+                continue;
+            }
+            Long id = (Long) invalidation.decodedKey();
+            update(id, Boolean.TRUE.equals(transactionTemplate.execute(status -> advertisementRepository.existsById(id))));
+        }
+    }
+
+    private void update(Long id, boolean exists) {
+        synchronized (changedWhileLoading) {
+            if (loading) {
+                changedWhileLoading.add(id);
+            }
+            if (exists) {
+                ids.add(id);
+            } else {
+                ids.remove(id);
+            }
+        }
+    }
+}
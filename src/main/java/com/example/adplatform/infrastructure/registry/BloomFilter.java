@@ -0,0 +1,56 @@
+package com.example.adplatform.infrastructure.registry;
+
+/**
+ * Bloom filter over long keys, sized for an expected number of keys and false positive rate.
+ *
+ * Bits are only ever set, never cleared, so a key is reported absent only if it was never added.
+ * {@link #add(long)} is not thread-safe; callers publish the filter safely after adding to it.
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(int expectedKeys, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1 (exclusive)");
+        }
+        int keys = Math.max(1, expectedKeys);
+        long optimalBits = (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new long[(int) Math.max(1, (optimalBits + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / keys * Math.log(2)));
+    }
+
+    void add(long key) {
+        long hash = mix(key);
+        long h1 = hash;
+        long h2 = hash >>> 32 | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long key) {
+        long hash = mix(key);
+        long h1 = hash;
+        long h2 = hash >>> 32 | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Finalizer of SplitMix64, so consecutive ids spread over the whole filter. */
+    private static long mix(long key) {
+        long z = key + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.adplatform.infrastructure.registry;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe set of advertisement ids, answering membership without locking.
+ *
+ * Database ids are mostly dense, so ids below {@code denseLimit} are bits of a bitset that grows
+ * with the largest id; a million advertisements take about 125KB. Ids beyond that (or negative
+ * ones) are kept in a sorted array, with a Bloom filter in front so most unknown ids are rejected
+ * without searching it. Writers are serialized and replace the sparse array on every change,
+ * which suits an inventory that is read on every tracked event and changed rarely.
+ */
+public class CompactIdSet {
+
+    /** Sparse ids with the Bloom filter covering them; replaced as a whole on every change. */
+    private record Sparse(long[] ids, BloomFilter bloom, int capacity, int removed) {
+    }
+
+    private final int denseLimit;
+    private final double falsePositiveRate;
+    private volatile AtomicLongArray words = new AtomicLongArray(1);
+    private volatile Sparse sparse;
+    private volatile int size;
+
+    /**
+     * @param denseLimit ids in [0, denseLimit) are kept in the bitset
+     * @param falsePositiveRate false positive rate of the Bloom filter in front of the sparse ids
+     */
+    public CompactIdSet(int denseLimit, double falsePositiveRate) {
+        if (denseLimit < 64) {
+            throw new IllegalArgumentException("denseLimit must be at least 64");
+        }
+        this.denseLimit = denseLimit;
+        this.falsePositiveRate = falsePositiveRate;
+        this.sparse = sparse(new long[0], 0);
+    }
+
+    public boolean contains(long id) {
+        if (isDense(id)) {
+            AtomicLongArray current = words;
+            int word = (int) (id >>> 6);
+            return word < current.length() && (current.get(word) & 1L << id) != 0;
+        }
+        Sparse current = sparse;
+        return current.bloom().mightContain(id) && Arrays.binarySearch(current.ids(), id) >= 0;
+    }
+
+    public synchronized void add(long id) {
+        if (isDense(id)) {
+            int word = (int) (id >>> 6);
+            AtomicLongArray current = words;
+            if (word >= current.length()) {
+                current = grow(current, word + 1);
+            }
+            long before = current.getAndUpdate(word, bits -> bits | 1L << id);
+            if ((before & 1L << id) == 0) {
+                size++;
+            }
+            return;
+        }
+        Sparse current = sparse;
+        int index = Arrays.binarySearch(current.ids(), id);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        long[] ids = new long[current.ids().length + 1];
+        System.arraycopy(current.ids(), 0, ids, 0, insertAt);
+        ids[insertAt] = id;
+        System.arraycopy(current.ids(), insertAt, ids, insertAt + 1, current.ids().length - insertAt);
+        if (ids.length > current.capacity()) {
+            sparse = sparse(ids, 2 * ids.length);
+        } else {
+            // Setting bits only adds false positives for readers of the previous array
+            current.bloom().add(id);
+            sparse = new Sparse(ids, current.bloom(), current.capacity(), current.removed());
+        }
+        size++;
+    }
+
+    public synchronized void remove(long id) {
+        if (isDense(id)) {
+            AtomicLongArray current = words;
+            int word = (int) (id >>> 6);
+            if (word < current.length() && (current.getAndUpdate(word, bits -> bits & ~(1L << id)) & 1L << id) != 0) {
+                size--;
+            }
+            return;
+        }
+        Sparse current = sparse;
+        int index = Arrays.binarySearch(current.ids(), id);
+        if (index < 0) {
+            return;
+        }
+        long[] ids = new long[current.ids().length - 1];
+        System.arraycopy(current.ids(), 0, ids, 0, index);
+        System.arraycopy(current.ids(), index + 1, ids, index, ids.length - index);
+        // Removed ids still set bits in the filter; rebuild it before they inflate its false positives
+        sparse = current.removed() + 1 > ids.length
+                ? sparse(ids, Math.max(2 * ids.length, 16))
+                : new Sparse(ids, current.bloom(), current.capacity(), current.removed() + 1);
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return ids held in the sorted array rather than the bitset
+     */
+    public int sparseSize() {
+        return sparse.ids().length;
+    }
+
+    private boolean isDense(long id) {
+        return id >= 0 && id < denseLimit;
+    }
+
+    private AtomicLongArray grow(AtomicLongArray current, int minWords) {
+        int length = (int) Math.min(Math.max(minWords, 2L * current.length()), (denseLimit + 63L) >>> 6);
+        AtomicLongArray grown = new AtomicLongArray(length);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        words = grown;
+        return grown;
+    }
+
+    private Sparse sparse(long[] ids, int capacity) {
+        BloomFilter bloom = new BloomFilter(Math.max(capacity, 16), falsePositiveRate);
+        for (long id : ids) {
+            bloom.add(id);
+        }
+        return new Sparse(ids, bloom, Math.max(capacity, 16), 0);
+    }
+}
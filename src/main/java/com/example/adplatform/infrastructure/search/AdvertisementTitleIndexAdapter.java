@@ -0,0 +1,226 @@
+package com.example.adplatform.infrastructure.search;
+
+import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.application.port.out.AdvertisementTitleIndex;
+import com.example.adplatform.domain.model.AdvertisementSummary;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidation;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidationTransport;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChange;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChangeConsumer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link AdvertisementTitleIndex} backed by a {@link TrigramTitleIndex} held in memory.
+ *
+ * The index is loaded from the summary projection in the background after startup, so the
+ * instance does not wait for it; searches go to the database until the load has finished.
+ * Local saves and deletes are applied after commit. Changes made by other instances arrive
+ * either as an {@link AdvertisementChangeConsumer} of the change feed or, without one, over a
+ * {@link CacheInvalidationTransport}; the changed summaries are re-read from the primary database.
+ */
+@Slf4j
+public class AdvertisementTitleIndexAdapter implements AdvertisementTitleIndex, AdvertisementChangeConsumer, ApplicationRunner {
+
+    /** Channel name of title index updates on the cache invalidation transport. */
+    public static final String CHANNEL = "advertisementTitleIndex";
+
+    private final TrigramTitleIndex index = new TrigramTitleIndex();
+    private final AdvertisementRepository advertisementRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationTransport transport;
+    private final int loadPageSize;
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+    private volatile boolean ready;
+
+    /**
+     * @param transactionTemplate read-write template, so reads go to the primary rather than a lagging replica
+     * @param transport transport shared with the cache invalidation bus, or {@code null} for a single
+     *                  instance or when the index consumes the change feed
+     */
+    public AdvertisementTitleIndexAdapter(AdvertisementRepository advertisementRepository,
+                                          TransactionTemplate transactionTemplate,
+                                          CacheInvalidationTransport transport,
+                                          int loadPageSize,
+                                          MeterRegistry meterRegistry) {
+        this.advertisementRepository = advertisementRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.transport = transport;
+        this.loadPageSize = loadPageSize;
+        Gauge.builder("advertisements.search.title.index.entries", index, TrigramTitleIndex::size)
+                .description("Advertisements held by the in-memory title search index")
+                .register(meterRegistry);
+        if (transport != null) {
+            transport.subscribe(this::applyRemote);
+        }
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread loader = new Thread(this::load, "title-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Loads every advertisement summary into the index. Advertisements changed while the load
+     * is running are not overwritten with the possibly older rows read by the load.
+     */
+    void load() {
+        long start = System.nanoTime();
+        changedWhileLoading.clear();
+        loading = true;
+        try {
+            int pageNumber = 0;
+            Page<AdvertisementSummary> page;
+            do {
+                PageRequest request = PageRequest.of(pageNumber++, loadPageSize, Sort.by("id"));
+                page = transactionTemplate.execute(status -> advertisementRepository.findAllSummaries(request));
+                for (AdvertisementSummary summary : page) {
+                    synchronized (changedWhileLoading) {
+                        if (!changedWhileLoading.contains(summary.id())) {
+                            index.put(summary);
+                        }
+                    }
+                }
+            } while (page.hasNext());
+            ready = true;
+            log.info("Title index loaded {} advertisements in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Failed to load the title index, title searches keep using the database: {}", e.getMessage());
+        } finally {
+            loading = false;
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public List<AdvertisementSummary> findByTitleContaining(String text) {
+        return index.findContaining(text);
+    }
+
+    @Override
+    public List<AdvertisementSummary> findSimilarTitles(String text, int limit) {
+        return index.findSimilar(text, limit);
+    }
+
+    @Override
+    public void put(AdvertisementSummary summary) {
+        enqueue(summary.id(), summary);
+    }
+
+    @Override
+    public void remove(Long id) {
+        enqueue(id, null);
+    }
+
+    /**
+     * Applies a change after the surrounding transaction commits, or right away without one.
+     * Changes of one transaction are applied and broadcast together.
+     */
+    private void enqueue(Long id, AdvertisementSummary summary) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(Map.of(id, Optional.ofNullable(summary)));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Optional<AdvertisementSummary>> pending =
+                (Map<Long, Optional<AdvertisementSummary>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Optional<AdvertisementSummary>> newPending = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, newPending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(newPending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AdvertisementTitleIndexAdapter.this);
+                }
+            });
+            pending = newPending;
+        }
+        pending.put(id, Optional.ofNullable(summary));
+    }
+
+    private void apply(Map<Long, Optional<AdvertisementSummary>> changes) {
+        List<CacheInvalidation> broadcast = new ArrayList<>(changes.size());
+        changes.forEach((id, summary) -> {
+            update(id, summary);
+            broadcast.add(CacheInvalidation.evict(CHANNEL, id));
+        });
+        if (transport != null) {
+            try {
+                transport.send(broadcast);
+            } catch (RuntimeException e) {
+                // The local index is current; other instances catch up on their next restart
+                log.warn("Failed to broadcast {} title index updates: {}", broadcast.size(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return CHANNEL;
+    }
+
+    /**
+     * Re-reads the summaries of the changed advertisements; local changes were applied at commit
+     * already, so re-reading them is redundant but harmless.
+     */
+    @Override
+    public void accept(List<AdvertisementChange> changes) {
+        Set<Long> ids = new LinkedHashSet<>();
+        changes.forEach(change -> ids.add(change.advertisementId()));
+        for (Long id : ids) {
+            update(id, transactionTemplate.execute(status -> advertisementRepository.findSummaryById(id)));
+        }
+    }
+
+    /**
+     * Re-reads the summaries changed on other instances.
+     */
+    private void applyRemote(List<CacheInvalidation> batch) {
+        for (CacheInvalidation invalidation : batch) {
+            if (!CHANNEL.equals(invalidation.cacheName()) || invalidation.isClear()) {
+                continue;
+            }
+            Long id = (Long) invalidation.decodedKey();
+            update(id, transactionTemplate.execute(status -> advertisementRepository.findSummaryById(id)));
+        }
+    }
+
+    private void update(Long id, Optional<AdvertisementSummary> summary) {
+        synchronized (changedWhileLoading) {
+            if (loading) {
+                changedWhileLoading.add(id);
+            }
+            summary.ifPresentOrElse(index::put, () -> index.remove(id));
+        }
+    }
+}
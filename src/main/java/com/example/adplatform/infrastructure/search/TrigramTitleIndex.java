@@ -0,0 +1,209 @@
+package com.example.adplatform.infrastructure.search;
+
+import com.example.adplatform.domain.model.AdvertisementSummary;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe trigram index over advertisement titles.
+ *
+ * Titles are lower-cased and split into words; every word is padded like PostgreSQL's pg_trgm
+ * (two spaces before, one after) and cut into trigrams, each with a posting set of advertisement ids.
+ * Substring searches intersect the postings of the query's inner trigrams and verify the candidates,
+ * so only titles sharing all of them are compared. Similarity searches rank titles by the share of
+ * the query's trigrams they contain, so a short query is not penalized for matching a long title,
+ * and then by the overall share of common trigrams (as {@code similarity()} in pg_trgm).
+ */
+public class TrigramTitleIndex {
+
+    /** Titles containing less than this share of the query's trigrams are not considered similar. */
+    static final double SIMILARITY_THRESHOLD = 0.5;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    private record Entry(AdvertisementSummary summary, String normalizedTitle, Set<String> trigrams) {
+    }
+
+    private record Match(Entry entry, double coverage, double similarity) {
+    }
+
+    /**
+     * Adds an advertisement or replaces the indexed version of it.
+     */
+    public void put(AdvertisementSummary summary) {
+        String normalized = normalize(summary.title());
+        Entry entry = new Entry(summary, normalized, trigrams(normalized));
+        lock.writeLock().lock();
+        try {
+            unindex(entries.put(summary.id(), entry));
+            for (String trigram : entry.trigrams()) {
+                postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(summary.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            unindex(entries.remove(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean contains(Long id) {
+        lock.readLock().lock();
+        try {
+            return entries.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void unindex(Entry previous) {
+        if (previous == null) {
+            return;
+        }
+        Long id = previous.summary().id();
+        for (String trigram : previous.trigrams()) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    /**
+     * @return summaries of the titles containing {@code text} (case insensitive), in id order
+     */
+    public List<AdvertisementSummary> findContaining(String text) {
+        String query = normalize(text);
+        List<String> innerTrigrams = innerTrigrams(query);
+        List<AdvertisementSummary> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = innerTrigrams.isEmpty() ? entries.keySet() : smallestPosting(innerTrigrams);
+            for (Long id : candidates) {
+                Entry entry = entries.get(id);
+                if (entry.normalizedTitle().contains(query)) {
+                    result.add(entry.summary());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        result.sort(Comparator.comparing(AdvertisementSummary::id));
+        return result;
+    }
+
+    private Collection<Long> smallestPosting(List<String> trigrams) {
+        Set<Long> smallest = null;
+        for (String trigram : trigrams) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids == null) {
+                return List.of();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * @return summaries of the titles most similar to {@code text}, best match first
+     */
+    public List<AdvertisementSummary> findSimilar(String text, int limit) {
+        Set<String> queryTrigrams = trigrams(normalize(text));
+        if (queryTrigrams.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        List<Match> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> shared = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (Long id : postings.getOrDefault(trigram, Set.of())) {
+                    shared.merge(id, 1, Integer::sum);
+                }
+            }
+            shared.forEach((id, count) -> {
+                double coverage = (double) count / queryTrigrams.size();
+                if (coverage >= SIMILARITY_THRESHOLD) {
+                    Entry entry = entries.get(id);
+                    double similarity = (double) count / (queryTrigrams.size() + entry.trigrams().size() - count);
+                    matches.add(new Match(entry, coverage, similarity));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches.stream()
+                .sorted(Comparator.comparingDouble(Match::coverage)
+                        .thenComparingDouble(Match::similarity)
+                        .reversed()
+                        .thenComparing(match -> match.entry().summary().id()))
+                .limit(limit)
+                .map(match -> match.entry().summary())
+                .toList();
+    }
+
+    static String normalize(String title) {
+        return title == null ? "" : title.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Trigrams of every word of the normalized title, padded as in pg_trgm.
+     */
+    static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * Trigrams of the query made of word characters only: every title containing the query
+     * contains all of them, whatever surrounds the query in the title.
+     */
+    static List<String> innerTrigrams(String query) {
+        List<String> trigrams = new ArrayList<>();
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            String trigram = query.substring(i, i + 3);
+            if (trigram.chars().allMatch(Character::isLetterOrDigit)) {
+                trigrams.add(trigram);
+            }
+        }
+        return trigrams;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.adplatform.infrastructure.web.config;
+
+import com.example.adplatform.infrastructure.web.filter.ReadYourWritesFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Clock;
+import java.time.Duration;
+
+@Configuration
+public class ReadYourWritesConfig {
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilterRegistration(Environment env) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(new ReadYourWritesFilter(
+                env.getProperty("app.datasource.read-your-writes.window", Duration.class, Duration.ofSeconds(10)),
+                Clock.systemUTC()));
+        registration.addUrlPatterns("/api/*");
+        registration.setName("readYourWritesFilter");
+        registration.setOrder(3);
+        return registration;
+    }
+}
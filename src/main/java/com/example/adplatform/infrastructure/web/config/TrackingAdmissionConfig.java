@@ -0,0 +1,36 @@
+package com.example.adplatform.infrastructure.web.config;
+
+import com.example.adplatform.infrastructure.web.filter.TrackingAdmissionFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.tracking.admission", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TrackingAdmissionConfig {
+
+    @Bean
+    public FilterRegistrationBean<TrackingAdmissionFilter> trackingAdmissionFilterRegistration(Environment env,
+                                                                                             ObjectMapper objectMapper,
+                                                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        FilterRegistrationBean<TrackingAdmissionFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(new TrackingAdmissionFilter(
+                env.getProperty("app.tracking.admission.max-concurrent", Integer.class, 32),
+                env.getProperty("app.tracking.admission.queue-timeout", Duration.class, Duration.ofMillis(10)),
+                env.getProperty("app.tracking.admission.retry-after", Duration.class, Duration.ofSeconds(1)),
+                objectMapper,
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry)));
+        registration.addUrlPatterns("/api/*");
+        registration.setName("trackingAdmissionFilter");
+        registration.setOrder(2);
+        return registration;
+    }
+}
@@ -1,26 +1,71 @@
 package com.example.adplatform.infrastructure.web.controller.v1;
 
+import com.example.adplatform.application.exception.AdvertisementValidationException;
+import com.example.adplatform.application.exception.TrackingBatchTooLargeException;
 import com.example.adplatform.application.port.in.AdvertisementService;
+import com.example.adplatform.application.port.in.InventoryVersionService;
 import com.example.adplatform.domain.model.Advertisement;
+import com.example.adplatform.domain.model.AdvertisementSeekKey;
 import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.domain.model.AdvertisementSummary;
+import com.example.adplatform.domain.model.InventoryVersion;
 import com.example.adplatform.domain.model.Mood;
+import com.example.adplatform.domain.model.TrackingBeacon;
+import com.example.adplatform.domain.model.TrackingBeaconResult;
 import com.example.adplatform.infrastructure.web.dto.AdvertisementDTO;
+import com.example.adplatform.infrastructure.web.dto.AdvertisementSummaryDTO;
+import com.example.adplatform.infrastructure.web.dto.CursorPageDTO;
+import com.example.adplatform.infrastructure.web.dto.TrackingBatchResultDTO;
+import com.example.adplatform.infrastructure.web.dto.TrackingEventDTO;
 import com.example.adplatform.infrastructure.web.mapper.AdvertisementMapper;
+import com.example.adplatform.infrastructure.web.pagination.KeysetCursor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * REST controller for Advertisement operations - API Version 1.
  * This is an adapter in the hexagonal architecture that connects
  * the application core to the web layer.
+ *
+ * Read endpoints carry a strong ETag and Last-Modified derived from the inventory version.
+ * A request whose If-None-Match (or If-Modified-Since) still matches is answered with
+ * 304 Not Modified before any service or mapping work is done.
  */
 @RestController
 @RequestMapping("/api/v1/advertisements")
@@ -28,8 +73,20 @@ import java.util.stream.Collectors;
 @Slf4j
 public class AdvertisementControllerV1 {
 
+    private static final int MAX_SLICE_SIZE = 500;
+    private static final int MAX_SIMILAR_LIMIT = 100;
+    private static final int MAX_BULK_SIZE = 5_000;
+    private static final int MAX_TRACKING_BATCH_SIZE = 1_000;
+    static final String TRACKING_BATCH_LIMIT_HEADER = "X-Tracking-Batch-Limit";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final Duration DEFAULT_EXPORT_TIMEOUT = Duration.ofMinutes(30);
+
     private final AdvertisementService advertisementService;
     private final AdvertisementMapper mapper;
+    private final InventoryVersionService inventoryVersionService;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
 
     /**
      * Get all advertisements.
@@ -37,13 +94,15 @@ public class AdvertisementControllerV1 {
      * @return List of all advertisements
      */
     @GetMapping
-    public ResponseEntity<List<AdvertisementDTO>> getAllAdvertisements() {
+    public ResponseEntity<List<AdvertisementDTO>> getAllAdvertisements(WebRequest request) {
         log.debug("REST request to get all advertisements");
-        List<Advertisement> advertisements = advertisementService.getAllAdvertisements();
-        List<AdvertisementDTO> dtos = advertisements.stream()
-                .map(mapper::toDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+        return withInventoryValidators(request, () -> {
+            List<Advertisement> advertisements = advertisementService.getAllAdvertisements();
+            List<AdvertisementDTO> dtos = advertisements.stream()
+                    .map(mapper::toDto)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(dtos);
+        });
     }
     
     /**
@@ -53,11 +112,77 @@ public class AdvertisementControllerV1 {
      * @return Page of all advertisements
      */
     @GetMapping("/page")
-    public ResponseEntity<Page<AdvertisementDTO>> getAllAdvertisementsPage(Pageable pageable) {
+    public ResponseEntity<Page<AdvertisementDTO>> getAllAdvertisementsPage(Pageable pageable, WebRequest request) {
         log.debug("REST request to get a page of advertisements");
-        Page<Advertisement> page = advertisementService.getAllAdvertisements(pageable);
-        Page<AdvertisementDTO> dtoPage = page.map(mapper::toDto);
-        return ResponseEntity.ok(dtoPage);
+        return withInventoryValidators(request, () -> {
+            Page<Advertisement> page = advertisementService.getAllAdvertisements(pageable);
+            Page<AdvertisementDTO> dtoPage = page.map(mapper::toDto);
+            return ResponseEntity.ok(dtoPage);
+        });
+    }
+
+    /**
+     * Get a slice of advertisements in id order using keyset pagination.
+     * Suited to paging through the whole inventory: later slices cost the same as the first
+     * and no total count is computed.
+     *
+     * @param cursor nextCursor of the previous slice; omit for the first slice
+     * @param size maximum number of advertisements (capped at 500)
+     * @return Slice of advertisements with the cursor of the next slice
+     */
+    @GetMapping("/slice")
+    public ResponseEntity<CursorPageDTO<AdvertisementDTO>> getAllAdvertisementsSlice(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            WebRequest request) {
+        log.debug("REST request to get a slice of advertisements after cursor {}", cursor);
+        return withInventoryValidators(request, () -> {
+            Slice<Advertisement> slice = advertisementService.getAllAdvertisementsAfter(
+                    KeysetCursor.decodeId(cursor), clampSliceSize(size));
+            return ResponseEntity.ok(toCursorPage(slice, last -> KeysetCursor.encodeId(last.getId())));
+        });
+    }
+
+    /**
+     * Export the whole inventory as newline-delimited JSON, one advertisement per line in id order.
+     * Advertisements are streamed from the database and written as they are mapped, so memory use
+     * does not depend on the inventory size. Meant for bulk syncs rather than interactive use.
+     * The export runs as an async request with its own timeout, {@code app.advertisements.export.timeout},
+     * rather than the default timeout of every other async request.
+     *
+     * @return task streaming all advertisements as NDJSON, or null when answered with 304 Not Modified
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public WebAsyncTask<Void> exportAdvertisements(WebRequest request, HttpServletResponse response) {
+        log.debug("REST request to export all advertisements");
+        InventoryVersion version = inventoryVersionService.current();
+        String etag = "\"" + version.tag() + "\"";
+        long lastModified = version.lastModified().toEpochMilli();
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return null;
+        }
+        response.setContentType(APPLICATION_NDJSON.toString());
+        // Keep the response open and buffered across values
+        ObjectWriter writer = objectMapper.writerFor(AdvertisementDTO.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        Duration timeout = environment.getProperty("app.advertisements.export.timeout", Duration.class, DEFAULT_EXPORT_TIMEOUT);
+        return new WebAsyncTask<>(timeout.toMillis(), () -> {
+            OutputStream out = new BufferedOutputStream(response.getOutputStream(), 64 * 1024);
+            advertisementService.exportAllAdvertisements(advertisement -> {
+                try {
+                    writer.writeValue(out, mapper.toDto(advertisement));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+            return null;
+        });
     }
 
     /**
@@ -66,13 +191,15 @@ public class AdvertisementControllerV1 {
      * @return List of active advertisements
      */
     @GetMapping("/active")
-    public ResponseEntity<List<AdvertisementDTO>> getActiveAdvertisements() {
+    public ResponseEntity<List<AdvertisementDTO>> getActiveAdvertisements(WebRequest request) {
         log.debug("REST request to get all active advertisements");
-        List<Advertisement> advertisements = advertisementService.getActiveAdvertisements();
-        List<AdvertisementDTO> dtos = advertisements.stream()
-                .map(mapper::toDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+        return withInventoryValidators(request, () -> {
+            List<Advertisement> advertisements = advertisementService.getActiveAdvertisements();
+            List<AdvertisementDTO> dtos = advertisements.stream()
+                    .map(mapper::toDto)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(dtos);
+        });
     }
     
     /**
@@ -82,11 +209,35 @@ public class AdvertisementControllerV1 {
      * @return Page of active advertisements
      */
     @GetMapping("/active/page")
-    public ResponseEntity<Page<AdvertisementDTO>> getActiveAdvertisementsPage(Pageable pageable) {
+    public ResponseEntity<Page<AdvertisementDTO>> getActiveAdvertisementsPage(Pageable pageable, WebRequest request) {
         log.debug("REST request to get a page of active advertisements");
-        Page<Advertisement> page = advertisementService.getActiveAdvertisements(pageable);
-        Page<AdvertisementDTO> dtoPage = page.map(mapper::toDto);
-        return ResponseEntity.ok(dtoPage);
+        return withInventoryValidators(request, () -> {
+            Page<Advertisement> page = advertisementService.getActiveAdvertisements(pageable);
+            Page<AdvertisementDTO> dtoPage = page.map(mapper::toDto);
+            return ResponseEntity.ok(dtoPage);
+        });
+    }
+
+    /**
+     * Get a slice of active advertisements using keyset pagination, ordered by weight descending,
+     * then newest first, then id descending.
+     *
+     * @param cursor nextCursor of the previous slice; omit for the first slice
+     * @param size maximum number of advertisements (capped at 500)
+     * @return Slice of active advertisements with the cursor of the next slice
+     */
+    @GetMapping("/active/slice")
+    public ResponseEntity<CursorPageDTO<AdvertisementDTO>> getActiveAdvertisementsSlice(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            WebRequest request) {
+        log.debug("REST request to get a slice of active advertisements after cursor {}", cursor);
+        return withInventoryValidators(request, () -> {
+            Slice<Advertisement> slice = advertisementService.getActiveAdvertisementsAfter(
+                    KeysetCursor.decodeActive(cursor), clampSliceSize(size));
+            return ResponseEntity.ok(toCursorPage(slice,
+                    last -> KeysetCursor.encodeActive(AdvertisementSeekKey.of(last))));
+        });
     }
 
     /**
@@ -96,12 +247,12 @@ public class AdvertisementControllerV1 {
      * @return The advertisement if found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<AdvertisementDTO> getAdvertisementById(@PathVariable Long id) {
+    public ResponseEntity<AdvertisementDTO> getAdvertisementById(@PathVariable Long id, WebRequest request) {
         log.debug("REST request to get advertisement with id: {}", id);
-        return advertisementService.getAdvertisementById(id)
+        return withInventoryValidators(request, () -> advertisementService.getAdvertisementById(id)
                 .map(mapper::toDto)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()));
     }
 
     /**
@@ -121,6 +272,31 @@ public class AdvertisementControllerV1 {
         return ResponseEntity.status(HttpStatus.CREATED).body(mapper.toDto(result));
     }
 
+    /**
+     * Create or update advertisements in bulk, for campaign imports.
+     * Entries without an id are created, entries with an id are updated. The batch is saved in one
+     * transaction using JDBC batching; if any entry is invalid nothing is saved and the errors are
+     * returned keyed by position.
+     *
+     * @param dtos The advertisements to save (at most 5000 per call)
+     * @return The saved advertisements, in request order
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<List<AdvertisementDTO>> saveAdvertisements(@RequestBody List<AdvertisementDTO> dtos) {
+        log.debug("REST request to save {} advertisements in bulk", dtos.size());
+        if (dtos.size() > MAX_BULK_SIZE) {
+            throw new AdvertisementValidationException("Too many advertisements in one request")
+                    .addError("advertisements", "at most " + MAX_BULK_SIZE + " per request");
+        }
+        List<Advertisement> advertisements = dtos.stream()
+                .map(mapper::toDomain)
+                .collect(Collectors.toList());
+        List<AdvertisementDTO> result = advertisementService.saveAdvertisements(advertisements).stream()
+                .map(mapper::toDto)
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Update an existing advertisement.
      *
@@ -168,13 +344,15 @@ public class AdvertisementControllerV1 {
      * @return List of advertisements from the specified source
      */
     @GetMapping("/source/{source}")
-    public ResponseEntity<List<AdvertisementDTO>> getAdvertisementsBySource(@PathVariable AdvertisementSource source) {
+    public ResponseEntity<List<AdvertisementDTO>> getAdvertisementsBySource(@PathVariable AdvertisementSource source, WebRequest request) {
         log.debug("REST request to get advertisements by source: {}", source);
-        List<Advertisement> advertisements = advertisementService.getAdvertisementsBySource(source);
-        List<AdvertisementDTO> dtos = advertisements.stream()
-                .map(mapper::toDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+        return withInventoryValidators(request, () -> {
+            List<Advertisement> advertisements = advertisementService.getAdvertisementsBySource(source);
+            List<AdvertisementDTO> dtos = advertisements.stream()
+                    .map(mapper::toDto)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(dtos);
+        });
     }
     
     /**
@@ -187,11 +365,14 @@ public class AdvertisementControllerV1 {
     @GetMapping("/source/{source}/page")
     public ResponseEntity<Page<AdvertisementDTO>> getAdvertisementsBySourcePage(
             @PathVariable AdvertisementSource source,
-            Pageable pageable) {
+            Pageable pageable,
+            WebRequest request) {
         log.debug("REST request to get a page of advertisements by source: {}", source);
-        Page<Advertisement> page = advertisementService.getAdvertisementsBySource(source, pageable);
-        Page<AdvertisementDTO> dtoPage = page.map(mapper::toDto);
-        return ResponseEntity.ok(dtoPage);
+        return withInventoryValidators(request, () -> {
+            Page<Advertisement> page = advertisementService.getAdvertisementsBySource(source, pageable);
+            Page<AdvertisementDTO> dtoPage = page.map(mapper::toDto);
+            return ResponseEntity.ok(dtoPage);
+        });
     }
 
     /**
@@ -201,13 +382,15 @@ public class AdvertisementControllerV1 {
      * @return List of advertisements with matching titles
      */
     @GetMapping("/search")
-    public ResponseEntity<List<AdvertisementDTO>> getAdvertisementsByTitle(@RequestParam String title) {
+    public ResponseEntity<List<AdvertisementDTO>> getAdvertisementsByTitle(@RequestParam String title, WebRequest request) {
         log.debug("REST request to get advertisements by title containing: {}", title);
-        List<Advertisement> advertisements = advertisementService.getAdvertisementsByTitle(title);
-        List<AdvertisementDTO> dtos = advertisements.stream()
-                .map(mapper::toDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+        return withInventoryValidators(request, () -> {
+            List<Advertisement> advertisements = advertisementService.getAdvertisementsByTitle(title);
+            List<AdvertisementDTO> dtos = advertisements.stream()
+                    .map(mapper::toDto)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(dtos);
+        });
     }
     
     /**
@@ -220,15 +403,96 @@ public class AdvertisementControllerV1 {
     @GetMapping("/search/page")
     public ResponseEntity<Page<AdvertisementDTO>> getAdvertisementsByTitlePage(
             @RequestParam String title,
-            Pageable pageable) {
+            Pageable pageable,
+            WebRequest request) {
         log.debug("REST request to get a page of advertisements by title: {}", title);
-        Page<Advertisement> page = advertisementService.getAdvertisementsByTitle(title, pageable);
-        Page<AdvertisementDTO> dtoPage = page.map(mapper::toDto);
-        return ResponseEntity.ok(dtoPage);
+        return withInventoryValidators(request, () -> {
+            Page<Advertisement> page = advertisementService.getAdvertisementsByTitle(title, pageable);
+            Page<AdvertisementDTO> dtoPage = page.map(mapper::toDto);
+            return ResponseEntity.ok(dtoPage);
+        });
+    }
+
+    /**
+     * Get summaries of all advertisements with pagination.
+     * Reads only the columns a list view shows; targeting rules and YouTube details are not loaded.
+     *
+     * @param pageable pagination information
+     * @return Page of advertisement summaries
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<Page<AdvertisementSummaryDTO>> getAdvertisementSummaries(Pageable pageable, WebRequest request) {
+        log.debug("REST request to get a page of advertisement summaries");
+        return withInventoryValidators(request, () -> {
+            Page<AdvertisementSummary> page = advertisementService.getAdvertisementSummaries(pageable);
+            return ResponseEntity.ok(page.map(mapper::toSummaryDto));
+        });
+    }
+
+    /**
+     * Get summaries of advertisements by source with pagination.
+     *
+     * @param source The source of the advertisement
+     * @param pageable pagination information
+     * @return Page of advertisement summaries from the specified source
+     */
+    @GetMapping("/summaries/source/{source}")
+    public ResponseEntity<Page<AdvertisementSummaryDTO>> getAdvertisementSummariesBySource(
+            @PathVariable AdvertisementSource source,
+            Pageable pageable,
+            WebRequest request) {
+        log.debug("REST request to get a page of advertisement summaries by source: {}", source);
+        return withInventoryValidators(request, () -> {
+            Page<AdvertisementSummary> page = advertisementService.getAdvertisementSummariesBySource(source, pageable);
+            return ResponseEntity.ok(page.map(mapper::toSummaryDto));
+        });
+    }
+
+    /**
+     * Get summaries of advertisements by title containing the given text with pagination.
+     *
+     * @param title The text to search for in advertisement titles
+     * @param pageable pagination information
+     * @return Page of advertisement summaries with matching titles
+     */
+    @GetMapping("/summaries/search")
+    public ResponseEntity<Page<AdvertisementSummaryDTO>> getAdvertisementSummariesByTitle(
+            @RequestParam String title,
+            Pageable pageable,
+            WebRequest request) {
+        log.debug("REST request to get a page of advertisement summaries by title: {}", title);
+        return withInventoryValidators(request, () -> {
+            Page<AdvertisementSummary> page = advertisementService.getAdvertisementSummariesByTitle(title, pageable);
+            return ResponseEntity.ok(page.map(mapper::toSummaryDto));
+        });
+    }
+
+    /**
+     * Get summaries of the advertisements whose titles are most similar to the given text,
+     * best match first. Tolerates typos and word order, for search-as-you-type.
+     *
+     * @param title The text to search for
+     * @param limit Maximum number of results (default 10, at most 100)
+     * @return List of advertisement summaries ranked by similarity
+     */
+    @GetMapping("/summaries/similar")
+    public ResponseEntity<List<AdvertisementSummaryDTO>> getSimilarAdvertisementSummaries(
+            @RequestParam String title,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest request) {
+        log.debug("REST request to get advertisement summaries similar to: {}", title);
+        return withInventoryValidators(request, () -> {
+            int clamped = Math.max(1, Math.min(limit, MAX_SIMILAR_LIMIT));
+            List<AdvertisementSummaryDTO> dtos = advertisementService.getSimilarAdvertisementSummaries(title, clamped).stream()
+                    .map(mapper::toSummaryDto)
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(dtos);
+        });
     }
 
     /**
      * Get targeted advertisements based on user context.
+     * Not conditional: the result depends on the request body, which the inventory ETag does not cover.
      *
      * @param countryCode The user's country code
      * @param userBioData Map containing user biographical data
@@ -307,21 +571,196 @@ public class AdvertisementControllerV1 {
 
     /**
      * Track a view event for an advertisement.
+     * A retried request with the same {@code Idempotency-Key} is accepted but counted once.
      */
     @PostMapping("/{id}/view")
-    public ResponseEntity<Void> trackView(@PathVariable Long id) {
+    public ResponseEntity<Void> trackView(@PathVariable Long id,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.debug("REST request to track view for advertisement id: {}", id);
-        advertisementService.trackAdvertisementView(id);
+        advertisementService.trackAdvertisementView(id, idempotencyKey);
         return ResponseEntity.accepted().build();
     }
 
     /**
      * Track an interaction event for an advertisement.
+     * A retried request with the same {@code Idempotency-Key} is accepted but counted once.
      */
     @PostMapping("/{id}/interactions")
-    public ResponseEntity<Void> trackInteraction(@PathVariable Long id, @RequestParam String type) {
+    public ResponseEntity<Void> trackInteraction(@PathVariable Long id, @RequestParam String type,
+                                                 @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.debug("REST request to track interaction for advertisement id: {} type: {}", id, type);
-        advertisementService.trackAdvertisementInteraction(id, type);
+        advertisementService.trackAdvertisementInteraction(id, type, idempotencyKey);
         return ResponseEntity.accepted().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Track a batch of view, click and interaction events, for players that buffer their beacons.
+     * Every event is validated on its own; the valid ones are enqueued together and the response
+     * reports the outcome of each event in request order. Every response, including the 400 for
+     * an oversized batch, carries the maximum batch size in the {@code X-Tracking-Batch-Limit} header.
+     * The array is read one event at a time, so an oversized batch is rejected as soon as the
+     * event over the limit is reached instead of after binding the whole array.
+     *
+     * @param body The JSON array of events (at most 1000 per call)
+     * @return 202 Accepted with the per-event results
+     */
+    @PostMapping(value = "/events", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TrackingBatchResultDTO> trackEvents(InputStream body) throws IOException {
+        List<TrackingBeacon> beacons = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new AdvertisementValidationException("Malformed tracking events")
+                        .addError("events", "expected a JSON array");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                requireTrackingBatchSize(beacons.size() + 1);
+                beacons.add(toBeacon(parser.readValueAs(TrackingEventDTO.class)));
+            }
+        } catch (JsonProcessingException e) {
+            throw new AdvertisementValidationException("Malformed tracking events")
+                    .addError("events", e.getOriginalMessage());
+        }
+        log.debug("REST request to track {} events", beacons.size());
+        return trackingBatchResponse(advertisementService.trackAdvertisementEvents(beacons), Map.of());
+    }
+
+    /**
+     * Track a batch of events sent as newline-delimited JSON, one event per line.
+     * A line that is not valid JSON is reported as invalid without failing the other events.
+     *
+     * @param body The NDJSON stream (at most 1000 events per call)
+     * @return 202 Accepted with the per-event results
+     */
+    @PostMapping(value = "/events", consumes = "application/x-ndjson")
+    public ResponseEntity<TrackingBatchResultDTO> trackEventStream(InputStream body) throws IOException {
+        List<TrackingBeacon> beacons = new ArrayList<>();
+        Map<Integer, String> malformed = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                requireTrackingBatchSize(beacons.size() + 1);
+                try {
+                    beacons.add(toBeacon(objectMapper.readValue(line, TrackingEventDTO.class)));
+                } catch (JsonProcessingException e) {
+                    malformed.put(beacons.size(), "malformed JSON: " + e.getOriginalMessage());
+                    beacons.add(null);
+                }
+            }
+        }
+        log.debug("REST request to track {} streamed events", beacons.size());
+        return trackingBatchResponse(advertisementService.trackAdvertisementEvents(beacons), malformed);
+    }
+
+    private static void requireTrackingBatchSize(int size) {
+        if (size > MAX_TRACKING_BATCH_SIZE) {
+            throw new TrackingBatchTooLargeException(MAX_TRACKING_BATCH_SIZE);
+        }
+    }
+
+    private static TrackingBeacon toBeacon(TrackingEventDTO dto) {
+        if (dto == null) {
+            return null;
+        }
+        TrackingBeacon.Kind kind = null;
+        if (dto.getType() != null) {
+            try {
+                kind = TrackingBeacon.Kind.valueOf(dto.getType().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                // Left null and reported by validation
+            }
+        }
+        return new TrackingBeacon(kind, dto.getAdvertisementId(), dto.getInteractionType(), dto.getOccurredAt(),
+                dto.getSessionId(), dto.getIdempotencyKey());
+    }
+
+    private static ResponseEntity<TrackingBatchResultDTO> trackingBatchResponse(List<TrackingBeaconResult> results,
+                                                                               Map<Integer, String> malformed) {
+        List<TrackingBatchResultDTO.Item> items = new ArrayList<>(results.size());
+        int[] counts = new int[TrackingBeaconResult.Status.values().length];
+        for (int i = 0; i < results.size(); i++) {
+            TrackingBeaconResult result = results.get(i);
+            counts[result.status().ordinal()]++;
+            items.add(TrackingBatchResultDTO.Item.builder()
+                    .index(i)
+                    .status(result.status().name())
+                    .error(malformed.getOrDefault(i, result.error()))
+                    .build());
+        }
+        TrackingBatchResultDTO body = TrackingBatchResultDTO.builder()
+                .accepted(counts[TrackingBeaconResult.Status.ACCEPTED.ordinal()])
+                .invalid(counts[TrackingBeaconResult.Status.INVALID.ordinal()])
+                .dropped(counts[TrackingBeaconResult.Status.DROPPED.ordinal()])
+                .duplicates(counts[TrackingBeaconResult.Status.DUPLICATE.ordinal()])
+                .results(items)
+                .build();
+        return ResponseEntity.accepted()
+                .header(TRACKING_BATCH_LIMIT_HEADER, String.valueOf(MAX_TRACKING_BATCH_SIZE))
+                .body(body);
+    }
+
+    private static int clampSliceSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SLICE_SIZE));
+    }
+
+    private CursorPageDTO<AdvertisementDTO> toCursorPage(Slice<Advertisement> slice,
+                                                         Function<Advertisement, String> cursorOf) {
+        List<Advertisement> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? cursorOf.apply(content.get(content.size() - 1))
+                : null;
+        return CursorPageDTO.<AdvertisementDTO>builder()
+                .content(content.stream().map(mapper::toDto).collect(Collectors.toList()))
+                .size(content.size())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Answers with 304 Not Modified when the client's validators still match the inventory version,
+     * otherwise runs the handler and stamps a successful response with the ETag and Last-Modified.
+     * The version is read before the handler runs, so a concurrent change can only make the
+     * returned ETag older than the body, which merely causes one extra refetch.
+     */
+    private <T> ResponseEntity<T> withInventoryValidators(WebRequest request, Supplier<ResponseEntity<T>> handler) {
+        InventoryVersion version = inventoryVersionService.current();
+        String etag = "\"" + version.tag() + "\"";
+        long lastModified = version.lastModified().toEpochMilli();
+        if (isNotModified(request, etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).lastModified(lastModified).build();
+        }
+        ResponseEntity<T> response = handler.get();
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .eTag(etag)
+                .lastModified(lastModified)
+                .body(response.getBody());
+    }
+
+    private static boolean isNotModified(WebRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            // Weak comparison, as required for If-None-Match
+            return Arrays.stream(ifNoneMatch.split(","))
+                    .map(String::trim)
+                    .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                    .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+        }
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince != null) {
+            try {
+                long since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                return lastModified <= since;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.adplatform.infrastructure.web.dto;
+
+import com.example.adplatform.domain.model.AdvertisementSource;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one row of an advertisement list view.
+ * Use the full {@link AdvertisementDTO} endpoints for content and targeting rules.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdvertisementSummaryDTO {
+    private Long id;
+    private String title;
+    private AdvertisementSource source;
+    private boolean active;
+    private int weight;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,25 @@
+package com.example.adplatform.infrastructure.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for one slice of a keyset-paginated listing.
+ * No total is reported; pass {@code nextCursor} back as {@code cursor} to fetch the next slice.
+ *
+ * @param <T> element type
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
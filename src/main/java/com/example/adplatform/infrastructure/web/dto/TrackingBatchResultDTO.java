@@ -0,0 +1,37 @@
+package com.example.adplatform.infrastructure.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the outcome of a tracking batch.
+ * {@code results} holds one entry per submitted event, in submission order. Events with status
+ * DROPPED were valid but not enqueued and can be resent; INVALID events should not be resent, and
+ * DUPLICATE events were already received before and need not be.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingBatchResultDTO {
+
+    private int accepted;
+    private int invalid;
+    private int dropped;
+    private int duplicates;
+    private List<Item> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private int index;
+        private String status;
+        private String error;
+    }
+}
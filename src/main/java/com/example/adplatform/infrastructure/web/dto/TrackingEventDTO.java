@@ -0,0 +1,29 @@
+package com.example.adplatform.infrastructure.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for one event of a tracking batch.
+ * {@code type} is VIEW, CLICK or INTERACTION; {@code interactionType} names the interaction
+ * (e.g. LIKE, SHARE) and is only read for INTERACTION. {@code occurredAt} defaults to the time
+ * the batch is received. An event resent after a failed request carries the same
+ * {@code idempotencyKey}, or the same {@code sessionId} and {@code occurredAt}, and is counted once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrackingEventDTO {
+
+    private String type;
+    private Long advertisementId;
+    private String interactionType;
+    private Instant occurredAt;
+    private String sessionId;
+    private String idempotencyKey;
+}
@@ -3,7 +3,10 @@ package com.example.adplatform.infrastructure.web.exception;
 import com.example.adplatform.application.exception.AdvertisementNotFoundException;
 import com.example.adplatform.application.exception.AdvertisementOperationException;
 import com.example.adplatform.application.exception.AdvertisementValidationException;
+import com.example.adplatform.application.exception.TrackingBatchTooLargeException;
+import com.example.adplatform.application.exception.TrackingOverloadedException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -25,6 +28,8 @@ import java.util.Map;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String TRACKING_BATCH_LIMIT_HEADER = "X-Tracking-Batch-Limit";
+
     /**
      * Handles AdvertisementNotFoundException.
      *
@@ -70,6 +75,32 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles TrackingBatchTooLargeException with a 400 that, like every batch tracking
+     * response, carries the batch limit.
+     *
+     * @param ex the exception
+     * @param request the web request
+     * @return a ResponseEntity with an X-Tracking-Batch-Limit header and error details
+     */
+    @ExceptionHandler(TrackingBatchTooLargeException.class)
+    public ResponseEntity<ValidationErrorResponse> handleTrackingBatchTooLargeException(
+            TrackingBatchTooLargeException ex, WebRequest request) {
+        log.warn("Tracking batch rejected: {}", ex.getMessage());
+
+        ValidationErrorResponse errorResponse = new ValidationErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                request.getDescription(false),
+                LocalDateTime.now(),
+                ex.getErrors()
+        );
+
+        return ResponseEntity.badRequest()
+                .header(TRACKING_BATCH_LIMIT_HEADER, Integer.toString(ex.getLimit()))
+                .body(errorResponse);
+    }
+
     /**
      * Handles AdvertisementOperationException.
      *
@@ -92,6 +123,33 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    /**
+     * Handles TrackingOverloadedException with a 503 telling the client when to resend the event.
+     *
+     * @param ex the exception
+     * @param request the web request
+     * @return a ResponseEntity with a Retry-After header and error details
+     */
+    @ExceptionHandler(TrackingOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleTrackingOverloadedException(
+            TrackingOverloadedException ex, WebRequest request) {
+        // Expected under load and counted by the pipeline metrics; logging each one would add to it
+        log.debug("Tracking overloaded: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                ex.getMessage(),
+                request.getDescription(false),
+                LocalDateTime.now()
+        );
+
+        // Retry-After is in whole seconds
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(errorResponse);
+    }
+
     /**
      * Handles validation errors from @Valid annotations.
      *
@@ -0,0 +1,94 @@
+package com.example.adplatform.infrastructure.web.filter;
+
+import com.example.adplatform.infrastructure.persistence.routing.ReadYourWrites;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Pins the reads of clients that wrote recently to the primary database.
+ *
+ * When a request commits a write, the response carries a read-your-writes token (the time of the
+ * write) both as the {@value #HEADER} header and as the {@value #COOKIE} cookie. Requests presenting
+ * a token younger than the window read from the primary instead of a possibly lagging replica.
+ * The token is stateless, so it works whichever instance serves the next request.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Read-Your-Writes";
+    public static final String COOKIE = "read_your_writes";
+
+    private final Duration window;
+    private final Clock clock;
+
+    public ReadYourWritesFilter(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ReadYourWrites.open(isRecent(token(request)), () -> issueToken(response));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.close();
+        }
+    }
+
+    private static String token(HttpServletRequest request) {
+        String header = request.getHeader(HEADER);
+        if (header != null) {
+            return header;
+        }
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    return cookie.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Tokens from slightly in the future are accepted, as the write may have been served by an
+     * instance whose clock is ahead; a token never pins reads for longer than twice the window.
+     */
+    private boolean isRecent(String token) {
+        if (token == null) {
+            return false;
+        }
+        try {
+            long writtenAt = Long.parseLong(token.trim());
+            return Math.abs(clock.millis() - writtenAt) < window.toMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private void issueToken(HttpServletResponse response) {
+        if (response.isCommitted()) {
+            return;
+        }
+        String token = Long.toString(clock.millis());
+        response.setHeader(HEADER, token);
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, token)
+                .path("/")
+                .httpOnly(true)
+                .sameSite("Lax")
+                .maxAge(window)
+                .build()
+                .toString());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.adplatform.infrastructure.web.filter;
+
+import com.example.adplatform.infrastructure.web.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Admission control for the view, interaction and event batch tracking endpoints.
+ *
+ * - Scope: POST /api/v{n}/advertisements/{id}/view, /{id}/interactions and /events
+ * - Limit: configurable number of tracking requests in flight at once
+ * - Queue: a request over the limit waits up to {@code queueTimeout} for a slot
+ * - Rejection: 503 with a Retry-After header and the same error body as an overloaded tracking pipeline
+ *
+ * Bursts of tracking requests would otherwise take every servlet thread and delay ad serving;
+ * capping them keeps threads free for the other endpoints.
+ */
+public class TrackingAdmissionFilter extends OncePerRequestFilter {
+
+    private static final Pattern TRACKING_PATH = Pattern.compile("^/api/v\\d+/advertisements/([^/]+/(view|interactions)|events)$");
+
+    private final Semaphore slots;
+    private final int maxConcurrent;
+    private final long queueTimeoutNanos;
+    private final String retryAfterSeconds;
+    private final Counter admitted;
+    private final Counter rejected;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param maxConcurrent tracking requests processed at once
+     * @param queueTimeout how long a request over the limit waits for a slot before it is rejected
+     * @param retryAfter delay suggested to rejected clients, rounded up to whole seconds
+     * @param objectMapper writes the error body of rejected requests
+     */
+    public TrackingAdmissionFilter(int maxConcurrent, Duration queueTimeout, Duration retryAfter,
+                                   ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("Max concurrent tracking requests must be positive: " + maxConcurrent);
+        }
+        this.slots = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.queueTimeoutNanos = Math.max(0, queueTimeout.toNanos());
+        this.retryAfterSeconds = Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+        this.objectMapper = objectMapper;
+        this.admitted = Counter.builder("advertisements.tracking.admission")
+                .description("Tracking requests passed to or turned away from the tracking endpoints")
+                .tag("outcome", "admitted")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("advertisements.tracking.admission")
+                .description("Tracking requests passed to or turned away from the tracking endpoints")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        Gauge.builder("advertisements.tracking.admission.in.flight", this, TrackingAdmissionFilter::inFlight)
+                .description("Tracking requests being processed")
+                .register(meterRegistry);
+        Gauge.builder("advertisements.tracking.admission.queued", slots, Semaphore::getQueueLength)
+                .description("Tracking requests waiting for a slot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path == null || !"POST".equals(request.getMethod()) || !TRACKING_PATH.matcher(path).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!acquire()) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            // Same body as GlobalExceptionHandler gives an overloaded tracking pipeline
+            objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(
+                    HttpStatus.SERVICE_UNAVAILABLE.value(),
+                    "Tracking is overloaded, try again later",
+                    "uri=" + request.getRequestURI(),
+                    LocalDateTime.now()));
+            return;
+        }
+        admitted.increment();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            slots.release();
+        }
+    }
+
+    /**
+     * @return tracking requests being processed
+     */
+    public int inFlight() {
+        return maxConcurrent - slots.availablePermits();
+    }
+
+    private boolean acquire() {
+        if (slots.tryAcquire()) {
+            return true;
+        }
+        try {
+            return queueTimeoutNanos > 0 && slots.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -49,6 +49,24 @@ public class AdvertisementMapper {
                 .build();
     }
 
+    /**
+     * Convert a domain summary to a summary DTO.
+     */
+    public AdvertisementSummaryDTO toSummaryDto(AdvertisementSummary summary) {
+        if (summary == null) {
+            return null;
+        }
+
+        return AdvertisementSummaryDTO.builder()
+                .id(summary.id())
+                .title(summary.title())
+                .source(summary.source())
+                .active(summary.active())
+                .weight(summary.weight())
+                .updatedAt(summary.updatedAt())
+                .build();
+    }
+
     /**
      * Convert a DTO to a domain entity.
      */
@@ -0,0 +1,88 @@
+package com.example.adplatform.infrastructure.web.pagination;
+
+import com.example.adplatform.application.exception.AdvertisementValidationException;
+import com.example.adplatform.domain.model.AdvertisementSeekKey;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions as opaque, URL-safe cursors.
+ * Clients only pass back the {@code nextCursor} they received; the format is not part of the API.
+ * Each cursor carries a prefix so a cursor from one listing is rejected by another.
+ */
+public final class KeysetCursor {
+
+    private static final String ID_PREFIX = "i|";
+    private static final String ACTIVE_PREFIX = "a|";
+
+    private KeysetCursor() {
+    }
+
+    public static String encodeId(long id) {
+        return encode(ID_PREFIX + id);
+    }
+
+    /**
+     * @return the id to continue after, or null when no cursor was given
+     * @throws AdvertisementValidationException if the cursor is malformed
+     */
+    public static Long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String payload = decode(cursor, ID_PREFIX);
+        try {
+            return Long.valueOf(payload);
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    public static String encodeActive(AdvertisementSeekKey key) {
+        return encode(ACTIVE_PREFIX + key.weight() + '|' + key.createdAt() + '|' + key.id());
+    }
+
+    /**
+     * @return the position to continue after, or null when no cursor was given
+     * @throws AdvertisementValidationException if the cursor is malformed
+     */
+    public static AdvertisementSeekKey decodeActive(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = decode(cursor, ACTIVE_PREFIX).split("\\|");
+        if (parts.length != 3) {
+            throw invalid();
+        }
+        try {
+            return new AdvertisementSeekKey(Integer.parseInt(parts[0]), LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw invalid();
+        }
+    }
+
+    private static String encode(String payload) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor, String prefix) {
+        String payload;
+        try {
+            payload = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        if (!payload.startsWith(prefix)) {
+            throw invalid();
+        }
+        return payload.substring(prefix.length());
+    }
+
+    private static AdvertisementValidationException invalid() {
+        return new AdvertisementValidationException("Invalid pagination cursor")
+                .addError("cursor", "must be a nextCursor value returned by the same endpoint");
+    }
+}
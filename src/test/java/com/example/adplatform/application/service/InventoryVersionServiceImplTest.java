@@ -0,0 +1,68 @@
+package com.example.adplatform.application.service;
+
+import com.example.adplatform.domain.model.InventoryVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventoryVersionServiceImplTest {
+
+    private final InventoryVersionServiceImpl service = new InventoryVersionServiceImpl();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void markChanged_OutsideTransaction_ShouldBumpImmediately() {
+        InventoryVersion before = service.current();
+
+        service.markChanged();
+
+        assertThat(service.current().version()).isEqualTo(before.version() + 1);
+        assertThat(service.current().lastModified()).isAfterOrEqualTo(before.lastModified());
+    }
+
+    @Test
+    void current_ShouldNotMatchTheVersionOfAnotherInstance() {
+        InventoryVersionServiceImpl other = new InventoryVersionServiceImpl();
+
+        assertThat(other.current().version()).isEqualTo(service.current().version());
+        assertThat(other.current().tag()).isNotEqualTo(service.current().tag());
+        service.markChanged();
+        assertThat(service.current().tag()).startsWith(service.current().epoch() + "-");
+    }
+
+    @Test
+    void markChanged_InsideTransaction_ShouldBumpOnlyAfterCommit() {
+        // Arrange
+        long before = service.current().version();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        service.markChanged();
+
+        // Assert
+        assertThat(service.current().version()).isEqualTo(before);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(service.current().version()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void markChanged_RolledBackTransaction_ShouldKeepVersion() {
+        long before = service.current().version();
+        TransactionSynchronizationManager.initSynchronization();
+
+        service.markChanged();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(service.current().version()).isEqualTo(before);
+    }
+}
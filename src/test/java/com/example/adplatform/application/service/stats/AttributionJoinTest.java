@@ -0,0 +1,171 @@
+package com.example.adplatform.application.service.stats;
+
+import com.example.adplatform.domain.event.AdClickEvent;
+import com.example.adplatform.domain.event.AdViewEvent;
+import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
+import com.example.adplatform.domain.model.AdvertisementStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttributionJoinTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-10T12:30:00Z");
+
+    private MutableClock clock;
+    private RealTimeStatsAggregator aggregator;
+    private AttributionJoin join;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        aggregator = new RealTimeStatsAggregator(60, 48, 30, clock);
+        join = new AttributionJoin(aggregator, Duration.ofMinutes(30), Duration.ofMinutes(1), Duration.ofHours(24), clock);
+    }
+
+    @Test
+    void accept_ShouldAttributeClicksAndConversionsToAViewOfTheSameSessionWithinTheWindow() {
+        record(view(1L, "s3", NOW.minus(Duration.ofMinutes(45))));
+        record(view(1L, "s1", NOW.minus(Duration.ofMinutes(20))));
+        record(view(1L, "s2", NOW.minus(Duration.ofMinutes(20))));
+        record(view(1L, "s4", NOW.minus(Duration.ofMinutes(10))));
+        record(click(1L, "s1", NOW.minus(Duration.ofMinutes(5)), false));
+        record(click(1L, "s2", NOW, true));
+        // Outside the window, another session, another advertisement, no session
+        record(click(1L, "s3", NOW, false));
+        record(click(1L, "s9", NOW, false));
+        record(click(2L, "s4", NOW, false));
+        record(click(1L, null, NOW, false));
+
+        AdvertisementStats stats = aggregator.getStats(1L, Duration.ofHours(1));
+
+        assertThat(join.attributed()).isEqualTo(2);
+        assertThat(stats.getViewCount()).isEqualTo(4L);
+        assertThat(stats.getClickCount()).isEqualTo(5L);
+        assertThat(stats.getAttributedClickCount()).isEqualTo(2L);
+        assertThat(stats.getAttributedConversionCount()).isEqualTo(1L);
+        assertThat(stats.getAttributedClickThroughRate()).isEqualTo(0.5);
+        assertThat(stats.getAttributedConversionRate()).isEqualTo(0.25);
+        // Counted at the time of the view
+        assertThat(aggregator.getStats(1L, Duration.ofMinutes(15)).getAttributedClickCount()).isZero();
+    }
+
+    @Test
+    void accept_ShouldAttributeClicksHeldUntilTheirViewArrives() {
+        record(click(1L, "s1", NOW.minusSeconds(10), false));
+        record(click(1L, "s1", NOW.minusSeconds(50), true));
+        assertThat(join.attributed()).isZero();
+
+        record(view(1L, "s1", NOW.minusSeconds(30)));
+
+        assertThat(join.attributed()).isEqualTo(1);
+        assertThat(aggregator.getStats(1L, Duration.ofMinutes(5)).getAttributedConversionCount()).isZero();
+        assertThat(join.size()).isEqualTo(2);
+    }
+
+    @Test
+    void watermark_ShouldDropLateEventsAndExpireStateNothingWasAddedToForAWindow() {
+        record(view(1L, "s1", NOW.minus(Duration.ofMinutes(40))));
+        record(click(1L, "s2", NOW.minus(Duration.ofMinutes(39)), false));
+
+        // More than the allowed lateness before it arrived
+        record(view(1L, "s2", NOW.minus(Duration.ofHours(25))));
+
+        assertThat(join.late()).isEqualTo(1);
+        assertThat(join.attributed()).isZero();
+        assertThat(join.size()).isEqualTo(2);
+
+        clock.advance(Duration.ofMinutes(29));
+        assertThat(join.expire()).isZero();
+        clock.advance(Duration.ofMinutes(1));
+        assertThat(join.expire()).isEqualTo(2);
+        assertThat(join.unattributed()).isEqualTo(1);
+        assertThat(join.size()).isZero();
+    }
+
+    @Test
+    void accept_ShouldAttributeABeaconBatchBufferedForHoursBehindLiveTraffic() {
+        join.accept(new AdvertisementViewedEvent(1L, NOW, "live"));
+        Instant buffered = NOW.minus(Duration.ofHours(6));
+
+        for (AdvertisementTrackingEvent event : List.of(
+                new AdvertisementViewedEvent(1L, buffered, "s1"),
+                new AdvertisementInteractedEvent(1L, "CLICK", buffered.plusSeconds(20), "s1"),
+                new AdvertisementInteractedEvent(1L, "CONVERSION", buffered.plusSeconds(90), "s1"))) {
+            aggregator.record(event);
+            join.accept(event);
+        }
+
+        assertThat(join.late()).isZero();
+        assertThat(join.attributed()).isEqualTo(2);
+        AdvertisementStats stats = aggregator.getStats(1L, Duration.ofHours(7));
+        assertThat(stats.getAttributedClickCount()).isEqualTo(2L);
+        assertThat(stats.getAttributedConversionCount()).isEqualTo(1L);
+    }
+
+    private void record(Object event) {
+        if (event instanceof AdViewEvent view) {
+            aggregator.record(view);
+            join.accept(view);
+        } else {
+            aggregator.record((AdClickEvent) event);
+            join.accept((AdClickEvent) event);
+        }
+    }
+
+    private static AdViewEvent view(Long advertisementId, String sessionId, Instant at) {
+        return AdViewEvent.builder()
+                .advertisementId(advertisementId)
+                .sessionId(sessionId)
+                .timestamp(LocalDateTime.ofInstant(at, ZoneOffset.UTC))
+                .isCompleteView(false)
+                .build();
+    }
+
+    private static AdClickEvent click(Long advertisementId, String sessionId, Instant at, boolean conversion) {
+        return AdClickEvent.builder()
+                .advertisementId(advertisementId)
+                .sessionId(sessionId)
+                .timestamp(LocalDateTime.ofInstant(at, ZoneOffset.UTC))
+                .resultedInConversion(conversion)
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.adplatform.application.service.stats;
+
+import com.example.adplatform.domain.event.AdClickEvent;
+import com.example.adplatform.domain.event.AdEvent.AdEventType;
+import com.example.adplatform.domain.event.AdViewEvent;
+import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
+import com.example.adplatform.domain.model.AdvertisementStats;
+import com.example.adplatform.domain.model.HyperLogLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RealTimeStatsAggregatorTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-10T12:30:00Z");
+
+    private MutableClock clock;
+    private RealTimeStatsAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(NOW);
+        aggregator = new RealTimeStatsAggregator(60, 48, 30, clock);
+    }
+
+    @Test
+    void getStats_ShouldCountEveryEventTypeWithBreakdownsAndRates() {
+        LocalDateTime localNow = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+        aggregator.record(view(localNow.minusMinutes(1), false, "MOBILE"));
+        aggregator.record(view(localNow.minusMinutes(1), true, "MOBILE"));
+        aggregator.record(view(localNow, null, "DESKTOP"));
+        aggregator.record(view(localNow, false, null));
+        aggregator.record(AdClickEvent.builder().advertisementId(1L).timestamp(localNow).resultedInConversion(true).build());
+        aggregator.record(new AdvertisementViewedEvent(1L, NOW));
+        aggregator.record(new AdvertisementInteractedEvent(1L, "like", NOW));
+        aggregator.record(new AdvertisementInteractedEvent(1L, "CLICK", NOW));
+        aggregator.record(new AdvertisementInteractedEvent(1L, "BOOKMARK", NOW));
+        aggregator.record(new AdvertisementViewedEvent(2L, NOW));
+
+        AdvertisementStats stats = aggregator.getStats(1L, Duration.ofMinutes(5));
+
+        assertThat(stats.getViewCount()).isEqualTo(5L);
+        assertThat(stats.getCompleteViewCount()).isEqualTo(1L);
+        assertThat(stats.getClickCount()).isEqualTo(2L);
+        assertThat(stats.getConversionCount()).isEqualTo(1L);
+        assertThat(stats.getLikeCount()).isEqualTo(1L);
+        assertThat(stats.getSkipCount()).isZero();
+        assertThat(stats.getClickThroughRate()).isEqualTo(0.4);
+        assertThat(stats.getConversionRate()).isEqualTo(0.2);
+        assertThat(stats.getViewsByDevice()).isEqualTo(Map.of("MOBILE", 2L, "DESKTOP", 1L));
+        assertThat(stats.getViewsByBrowser()).isEqualTo(Map.of("Firefox", 4L));
+        assertThat(stats.getLastUpdated()).isEqualTo(localNow);
+        assertThat(aggregator.getStats(3L, Duration.ofMinutes(5)).getViewCount()).isZero();
+    }
+
+    @Test
+    void getStats_ShouldAnswerWindowsFromMinuteHourAndDayBuckets() {
+        aggregator.record(1L, AdEventType.VIEW, Instant.parse("2024-05-08T10:00:00Z"), null, null);
+        aggregator.record(1L, AdEventType.VIEW, Instant.parse("2024-05-10T09:15:00Z"), null, null);
+        aggregator.record(1L, AdEventType.VIEW, Instant.parse("2024-05-10T12:20:00Z"), null, null);
+
+        assertThat(aggregator.getStats(1L, Duration.ofMinutes(15)).getViewCount()).isEqualTo(1L);
+        assertThat(aggregator.getStats(1L, Duration.ofHours(4)).getViewCount()).isEqualTo(2L);
+        assertThat(aggregator.getStats(1L, Duration.ofDays(3)).getViewCount()).isEqualTo(3L);
+        assertThat(aggregator.getStats(1L, Instant.parse("2024-05-08T00:00:00Z"), Instant.parse("2024-05-09T00:00:00Z"))
+                .getViewCount()).isEqualTo(1L);
+        assertThat(aggregator.getStats(1L, Instant.parse("2024-05-10T09:00:00Z"), Instant.parse("2024-05-10T10:00:00Z"))
+                .getViewCount()).isEqualTo(1L);
+        assertThatThrownBy(() -> aggregator.getStats(1L, NOW, NOW)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void getStats_ShouldEstimateUniqueReachByUserOrSessionAcrossBuckets() {
+        LocalDateTime localNow = LocalDateTime.ofInstant(NOW, ZoneOffset.UTC);
+        for (int i = 0; i < 2_000; i++) {
+            // Each viewer returns the next day, and a tenth only have a session
+            String userId = i % 10 == 0 ? null : "user-" + i;
+            for (LocalDateTime at : List.of(localNow.minusDays(1), localNow)) {
+                aggregator.record(AdViewEvent.builder()
+                        .advertisementId(1L)
+                        .timestamp(at)
+                        .userId(userId)
+                        .sessionId("session-" + i)
+                        .isCompleteView(false)
+                        .build());
+            }
+        }
+        aggregator.record(new AdvertisementViewedEvent(1L, NOW));
+        aggregator.record(AdClickEvent.builder().advertisementId(1L).timestamp(localNow).userId("user-x").resultedInConversion(false).build());
+
+        AdvertisementStats today = aggregator.getStats(1L, Duration.ofHours(1));
+        AdvertisementStats twoDays = aggregator.getStats(1L, Duration.ofDays(2));
+        HyperLogLog yesterday = aggregator.getReachSketch(1L, NOW.minus(Duration.ofDays(1)), NOW.minus(Duration.ofHours(1)));
+        HyperLogLog otherNode = new HyperLogLog();
+        for (int i = 0; i < 1_000; i++) {
+            otherNode.add("user-other-" + i);
+        }
+        // Partly covered by hour buckets, so at their coarser precision
+        assertThat(yesterday.precision()).isEqualTo(HyperLogLog.DEFAULT_PRECISION - RealTimeStatsAggregator.HOURLY_REACH_PRECISION_REDUCTION);
+        yesterday.merge(HyperLogLog.fromBytes(otherNode.toBytes()).fold(yesterday.precision()));
+
+        // Standard error is about 1.6% for day sketches and 6.5% for hour sketches
+        assertThat(today.getViewCount()).isEqualTo(2_001L);
+        assertThat(today.getUniqueReach()).isBetween(1_800L, 2_200L);
+        assertThat(twoDays.getViewCount()).isEqualTo(4_001L);
+        assertThat(twoDays.getUniqueReach()).isBetween(1_900L, 2_100L);
+        assertThat(aggregator.getReachSketch(1L, NOW.minus(Duration.ofDays(2)), NOW).precision()).isEqualTo(HyperLogLog.DEFAULT_PRECISION);
+        assertThat(yesterday.estimate()).isBetween(2_700L, 3_300L);
+        assertThat(aggregator.getStats(2L, Duration.ofDays(1)).getUniqueReach()).isZero();
+        // Minute buckets keep no sketch; their hours would count viewers outside the window
+        AdvertisementStats lastMinutes = aggregator.getStats(1L, Duration.ofMinutes(5));
+        assertThat(lastMinutes.getViewCount()).isEqualTo(2_001L);
+        assertThat(lastMinutes.getUniqueReach()).isNull();
+        assertThat(aggregator.getReachSketch(1L, NOW.minus(Duration.ofMinutes(5)), NOW)).isNull();
+    }
+
+    @Test
+    void buckets_ShouldExpireWithTheirRingsAndIdleAdvertisementsBePurged() {
+        aggregator.record(1L, AdEventType.VIEW, NOW, null, null);
+        aggregator.record(1L, AdEventType.VIEW, NOW.minus(Duration.ofDays(31)), null, null);
+
+        clock.advance(Duration.ofHours(2));
+        assertThat(aggregator.getStats(1L, Duration.ofMinutes(60)).getViewCount()).isZero();
+        assertThat(aggregator.getStats(1L, Duration.ofHours(3)).getViewCount()).isEqualTo(1L);
+        assertThat(aggregator.purgeIdle()).isZero();
+
+        clock.advance(Duration.ofDays(30));
+        assertThat(aggregator.getStats(1L, Duration.ofDays(60)).getViewCount()).isZero();
+        assertThat(aggregator.purgeIdle()).isEqualTo(1);
+        assertThat(aggregator.size()).isZero();
+    }
+
+    @Test
+    void concurrentWritersAndReaders_ShouldCountEveryEvent() throws Exception {
+        int writers = 8;
+        int perWriter = 100_000;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perWriter; i++) {
+                        aggregator.record(1L, AdEventType.VIEW, NOW, "MOBILE", null);
+                    }
+                    return null;
+                }));
+            }
+            Future<Long> reader = executor.submit(() -> {
+                start.await();
+                long previous = 0;
+                while (writing.get()) {
+                    long views = aggregator.getStats(1L, Duration.ofMinutes(1)).getViewCount();
+                    assertThat(views).isGreaterThanOrEqualTo(previous);
+                    previous = views;
+                }
+                return previous;
+            });
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            reader.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        AdvertisementStats stats = aggregator.getStats(1L, Duration.ofDays(1));
+        assertThat(stats.getViewCount()).isEqualTo((long) writers * perWriter);
+        assertThat(stats.getViewsByDevice()).containsEntry("MOBILE", (long) writers * perWriter);
+    }
+
+    private static AdViewEvent view(LocalDateTime timestamp, Boolean complete, String deviceType) {
+        return AdViewEvent.builder()
+                .advertisementId(1L)
+                .timestamp(timestamp)
+                .deviceType(deviceType)
+                .browserInfo("Firefox")
+                .isCompleteView(complete)
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.adplatform.application.service.targeting;
+
+import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.application.service.targeting.TargetingPlanner.Plan;
+import com.example.adplatform.domain.model.Mood;
+import com.example.adplatform.domain.model.TargetingStatistics;
+import com.example.adplatform.domain.model.TargetingStatistics.AgeRangeCount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TargetingPlannerTest {
+
+    private static final TargetingStatistics LARGE_INVENTORY = new TargetingStatistics(
+            10_000,
+            Map.of("US", 6_000L, "MT", 40L),
+            Map.of(Mood.HAPPY, 3_000L, Mood.SAD, 500L),
+            List.of(new AgeRangeCount(18, 35, 2_000L), new AgeRangeCount(null, 17, 100L), new AgeRangeCount(null, null, 50L)));
+
+    @Mock
+    private AdvertisementRepository advertisementRepository;
+
+    private MutableClock clock;
+    private TargetingPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        planner = new TargetingPlanner(advertisementRepository, 200, Duration.ofMinutes(1), clock);
+    }
+
+    @Test
+    void plan_ShouldPushDownTheMostSelectivePredicate() {
+        when(advertisementRepository.loadTargetingStatistics()).thenReturn(LARGE_INVENTORY);
+
+        assertThat(planner.plan("us", 25, Mood.HAPPY)).isEqualTo(Plan.AGE);
+        assertThat(planner.plan("US", 25, Mood.SAD)).isEqualTo(Plan.MOOD);
+        assertThat(planner.plan("mt", 25, Mood.SAD)).isEqualTo(Plan.COUNTRY);
+        assertThat(planner.plan(null, 12, null)).isEqualTo(Plan.AGE);
+    }
+
+    @Test
+    void plan_ShouldKeepTheSnapshotWhenNoPredicateSavesEnoughRows() {
+        when(advertisementRepository.loadTargetingStatistics()).thenReturn(new TargetingStatistics(
+                300, Map.of("US", 150L), Map.of(), List.of()));
+
+        // 150 candidates plus the query overhead cost more than the 300 active rows
+        assertThat(planner.plan("US", null, null)).isEqualTo(Plan.SNAPSHOT);
+        // Nothing targets France, so pushing the country down reads no candidate at all
+        assertThat(planner.plan("FR", null, null)).isEqualTo(Plan.COUNTRY);
+    }
+
+    @Test
+    void plan_ShouldNotLoadStatisticsWithoutPredicates() {
+        assertThat(planner.plan(null, null, null)).isEqualTo(Plan.SNAPSHOT);
+
+        verifyNoInteractions(advertisementRepository);
+    }
+
+    @Test
+    void plan_ShouldReloadStatisticsOnlyAfterTheRefreshInterval() {
+        when(advertisementRepository.loadTargetingStatistics()).thenReturn(LARGE_INVENTORY);
+
+        planner.plan("US", null, null);
+        clock.advance(Duration.ofSeconds(59));
+        planner.plan("MT", null, null);
+        verify(advertisementRepository, times(1)).loadTargetingStatistics();
+
+        clock.advance(Duration.ofSeconds(1));
+        planner.plan("MT", null, null);
+        verify(advertisementRepository, times(2)).loadTargetingStatistics();
+    }
+
+    @Test
+    void plan_ShouldFallBackToTheSnapshotWhenStatisticsCannotBeLoaded() {
+        when(advertisementRepository.loadTargetingStatistics()).thenThrow(new IllegalStateException("db down"));
+
+        assertThat(planner.plan("MT", null, null)).isEqualTo(Plan.SNAPSHOT);
+        assertThat(planner.plan("MT", null, null)).isEqualTo(Plan.SNAPSHOT);
+
+        // The failure is not retried before the next refresh
+        verify(advertisementRepository, times(1)).loadTargetingStatistics();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
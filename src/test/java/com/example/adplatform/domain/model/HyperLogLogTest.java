@@ -0,0 +1,92 @@
+package com.example.adplatform.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_ShouldBeWithinAFewStandardErrorsAcrossCardinalities() {
+        for (int distinct : new int[]{0, 1, 100, 1_000, 10_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            for (int i = 0; i < distinct; i++) {
+                sketch.add("user-" + i);
+                sketch.add("user-" + i);
+            }
+
+            // Standard error at precision 12 is about 1.6%
+            assertThat(sketch.estimate()).as("%d distinct", distinct).isCloseTo((long) distinct, within((long) Math.ceil(distinct * 0.05)));
+        }
+    }
+
+    @Test
+    void sketch_ShouldStaySparseForFewValuesAndBeCappedAtItsRegisters() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 50; i++) {
+            sketch.add("user-" + i);
+        }
+        assertThat(sketch.sizeInBytes()).isLessThanOrEqualTo(64 * Integer.BYTES);
+
+        for (int i = 0; i < 100_000; i++) {
+            sketch.add("user-" + i);
+        }
+        assertThat(sketch.sizeInBytes()).isEqualTo(1 << HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    @Test
+    void merge_ShouldEstimateTheUnionOfSparseAndDenseSketches() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        HyperLogLog quiet = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            monday.add("user-" + i);
+            tuesday.add("user-" + (i + 20_000));
+        }
+        quiet.add("user-99999999");
+
+        HyperLogLog union = new HyperLogLog();
+        union.merge(monday);
+        union.merge(tuesday);
+        union.merge(quiet);
+
+        assertThat(union.estimate()).isBetween(47_500L, 52_500L);
+        assertThat(monday.estimate()).isBetween(28_500L, 31_500L);
+    }
+
+    @Test
+    void fold_ShouldGiveTheSketchOfTheSameValuesAtALowerPrecision() {
+        for (int distinct : new int[]{100, 20_000}) {
+            HyperLogLog fine = new HyperLogLog(12);
+            HyperLogLog coarse = new HyperLogLog(8);
+            for (int i = 0; i < distinct; i++) {
+                fine.add("user-" + i);
+                coarse.add("user-" + i);
+            }
+
+            assertThat(fine.fold(8).toBytes()).isEqualTo(coarse.toBytes());
+            assertThat(fine.fold(12).toBytes()).isEqualTo(fine.toBytes());
+        }
+        assertThatThrownBy(() -> new HyperLogLog(8).fold(12)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void fromBytes_ShouldRestoreASketchSentByAnotherNode() {
+        HyperLogLog sketch = new HyperLogLog(10);
+        for (int i = 0; i < 500; i++) {
+            sketch.add("session-" + i);
+        }
+
+        HyperLogLog received = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertThat(received.precision()).isEqualTo(10);
+        assertThat(received.estimate()).isEqualTo(sketch.estimate());
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[]{10, 0}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> received.merge(new HyperLogLog()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("precision");
+    }
+}
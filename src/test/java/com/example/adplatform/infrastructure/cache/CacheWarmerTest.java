@@ -0,0 +1,168 @@
+package com.example.adplatform.infrastructure.cache;
+
+import com.example.adplatform.application.port.in.AdvertisementService;
+import com.example.adplatform.application.port.in.TargetingService;
+import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.application.service.AdvertisementServiceImpl;
+import com.example.adplatform.domain.model.Mood;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    private AdvertisementService advertisementService;
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private SimpleMeterRegistry meterRegistry;
+    private Path file;
+    private TargetingHotKeyRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        file = tempDir.resolve("hot-keys.json");
+        recorder = new TargetingHotKeyRecorder(objectMapper, file, 2, 100);
+    }
+
+    @Test
+    void flush_ShouldPersistTopKeysByHitCount() throws Exception {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            recorder.record(CacheWarmer.STRATEGY_GEO, new Object[]{"US", null, null, 40.7, -74.0});
+        }
+        recorder.record(CacheWarmer.STRATEGY_MOOD, new Object[]{Mood.HAPPY, 5, "Morning", null, null});
+        recorder.record(CacheWarmer.STRATEGY_MOOD, new Object[]{Mood.HAPPY, 5, "Morning", null, null});
+        recorder.record(CacheWarmer.STRATEGY_MOOD, new Object[]{Mood.SAD, null, null, null, null});
+
+        // When
+        recorder.flush();
+
+        // Then
+        HotKeySnapshot snapshot = objectMapper.readValue(file.toFile(), HotKeySnapshot.class);
+        assertEquals(6, snapshot.totalHits());
+        assertEquals(2, snapshot.keys().size());
+        assertEquals(CacheWarmer.STRATEGY_GEO, snapshot.keys().get(0).strategy());
+        assertEquals(3, snapshot.keys().get(0).hits());
+        assertEquals(CacheWarmer.STRATEGY_MOOD, snapshot.keys().get(1).strategy());
+        assertEquals(2, snapshot.keys().get(1).hits());
+    }
+
+    @Test
+    void flush_ShouldKeepPreviousFileWhenNothingWasRecorded() throws Exception {
+        Files.writeString(file, "previous");
+
+        recorder.flush();
+
+        assertEquals("previous", Files.readString(file));
+    }
+
+    @Test
+    void warmUp_ShouldReplayRecordedKeysWithOriginalArgumentTypes() {
+        // Given
+        Map<String, Object> bioData = new HashMap<>();
+        bioData.put("age", 30);
+        bioData.put("gender", "FEMALE");
+        recorder.record(CacheWarmer.STRATEGY_COMBINED, new Object[]{"US", bioData, Mood.EXCITED});
+        recorder.record(CacheWarmer.STRATEGY_BIO, new Object[]{25, "MALE", null, null, "en", Set.of("sports")});
+        recorder.flush();
+        CacheWarmer warmer = new CacheWarmer(advertisementService, recorder, objectMapper, file, 2,
+                Duration.ofSeconds(5), meterRegistry);
+
+        // When
+        int warmed = warmer.warmUp();
+
+        // Then
+        assertEquals(2, warmed);
+        verify(advertisementService).getTargetedAdvertisements("US", bioData, Mood.EXCITED);
+        verify(advertisementService).getBioTargetedAdvertisements(25, "MALE", null, null, "en", Set.of("sports"));
+        assertEquals(1.0, meterRegistry.get("advertisements.cache.warmup.coverage").gauge().value());
+        assertEquals(2, meterRegistry.get("advertisements.cache.warmup.keys").tag("status", "warmed").counter().count());
+        assertEquals(1, meterRegistry.get("advertisements.cache.warmup.duration").timer().count());
+        assertEquals(2, recorder.snapshot().totalHits(), "warm-up calls must not be recorded as traffic");
+    }
+
+    @Test
+    void warmUp_ShouldSkipFailingKeysAndReportPartialCoverage() {
+        recorder.record(CacheWarmer.STRATEGY_GEO, new Object[]{"US", null, null, null, null});
+        recorder.record(CacheWarmer.STRATEGY_GEO, new Object[]{"CA", null, null, null, null});
+        recorder.flush();
+        lenient().when(advertisementService.getGeoTargetedAdvertisements(eq("CA"), any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("db down"));
+        CacheWarmer warmer = new CacheWarmer(advertisementService, recorder, objectMapper, file, 2,
+                Duration.ofSeconds(5), meterRegistry);
+
+        int warmed = warmer.warmUp();
+
+        assertEquals(1, warmed);
+        assertEquals(0.5, meterRegistry.get("advertisements.cache.warmup.coverage").gauge().value());
+        assertEquals(1, meterRegistry.get("advertisements.cache.warmup.keys").tag("status", "failed").counter().count());
+    }
+
+    @Test
+    void warmUp_ShouldDoNothingWithoutFile() {
+        CacheWarmer warmer = new CacheWarmer(advertisementService, recorder, objectMapper, file, 2,
+                Duration.ofSeconds(5), meterRegistry);
+
+        assertEquals(0, warmer.warmUp());
+        verifyNoInteractions(advertisementService);
+    }
+
+    @Test
+    void recorder_ShouldCountCacheHitsThroughTheServiceProxy() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.registerBean(TargetingHotKeyRecorder.class, () -> recorder);
+            context.registerBean(AdvertisementServiceImpl.class,
+                    () -> new AdvertisementServiceImpl(mock(AdvertisementRepository.class), mock(TargetingService.class)));
+            context.register(ProxyConfig.class);
+            context.refresh();
+            AdvertisementService service = context.getBean(AdvertisementService.class);
+
+            // One miss, then two hits served by the cache interceptor
+            for (int i = 0; i < 3; i++) {
+                service.getGeoTargetedAdvertisements("US", null, null, null, null);
+            }
+
+            assertEquals(3, recorder.snapshot().totalHits());
+        }
+    }
+
+    @Configuration
+    @EnableCaching
+    @EnableAspectJAutoProxy
+    static class ProxyConfig {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.adplatform.infrastructure.cache;
+
+import com.example.adplatform.infrastructure.persistence.routing.ReadYourWrites;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoalescingCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CoalescingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CoalescingCache(new ConcurrentMapCache("test"), meterRegistry);
+    }
+
+    @Test
+    void concurrentMisses_ShouldRunLoaderOnceAndCountWaiters() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("key", () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                assertTrue(releaseLoader.await(5, TimeUnit.SECONDS));
+                return "value";
+            })));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> cache.get("key", () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            // Give the waiters time to join the in-flight load before releasing it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (waiters() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            releaseLoader.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(callers - 1, waiters());
+        assertEquals("value", cache.get("key").get());
+    }
+
+    @Test
+    void cachedValue_ShouldBeReturnedWithoutLoading() {
+        cache.put("key", "cached");
+
+        String value = cache.get("key", () -> fail("loader must not run on a hit"));
+
+        assertEquals("cached", value);
+        assertEquals(0, waiters());
+    }
+
+    @Test
+    void loader_ShouldReadFromThePrimary() {
+        assertFalse(ReadYourWrites.isPinned());
+
+        assertTrue(cache.get("key", ReadYourWrites::isPinned));
+        assertFalse(ReadYourWrites.isPinned());
+    }
+
+    @Test
+    void loaderFailure_ShouldPropagateAndNotCache() {
+        RuntimeException failure = new IllegalStateException("boom");
+
+        Cache.ValueRetrievalException ex = assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get("key", () -> {
+                    throw failure;
+                }));
+
+        assertSame(failure, ex.getCause());
+        assertNull(cache.get("key"));
+        assertEquals("recovered", cache.get("key", () -> "recovered"));
+    }
+
+    @Test
+    void evictionDuringLoad_ShouldNotCacheStaleResult() {
+        String value = cache.get("key", () -> {
+            cache.clear();
+            return "stale";
+        });
+
+        assertEquals("stale", value);
+        assertNull(cache.get("key"), "value computed before the eviction must not be written back");
+    }
+
+    private double waiters() {
+        return meterRegistry.get("advertisements.cache.coalesced").tag("cache", "test").counter().count();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.adplatform.infrastructure.cache;
+
+import com.example.adplatform.domain.model.Advertisement;
+import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.domain.model.BioTarget;
+import com.example.adplatform.domain.model.Gender;
+import com.example.adplatform.domain.model.GeoTarget;
+import com.example.adplatform.domain.model.Mood;
+import com.example.adplatform.domain.model.MoodTarget;
+import com.example.adplatform.domain.model.YouTubeDetails;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapPageCacheTest {
+
+    private ConcurrentMapCache heapCache;
+    private OffHeapArena arena;
+    private OffHeapPageCache cache;
+
+    @BeforeEach
+    void setUp() {
+        heapCache = new ConcurrentMapCache("pages");
+        arena = new OffHeapArena(64 * 1024, TimeUnit.MINUTES.toNanos(10));
+        cache = new OffHeapPageCache(heapCache, arena);
+    }
+
+    @Test
+    void page_ShouldBeStoredOffHeapAndDecodedOnHit() {
+        // Given
+        Pageable pageable = PageRequest.of(1, 2, Sort.by(Sort.Order.desc("weight"), Sort.Order.asc("title").ignoreCase()));
+        Page<Advertisement> page = new PageImpl<>(List.of(fullAdvertisement(), minimalAdvertisement()), pageable, 7);
+
+        // When
+        cache.put(pageable, page);
+        Cache.ValueWrapper hit = cache.get(pageable);
+
+        // Then
+        assertNull(heapCache.get(pageable), "page must not stay in the heap cache");
+        assertEquals(1, arena.size());
+        assertNotNull(hit);
+        Page<?> decoded = (Page<?>) hit.get();
+        assertNotSame(page, decoded);
+        assertEquals(page.getContent(), decoded.getContent());
+        assertEquals(pageable, decoded.getPageable());
+        assertEquals(7, decoded.getTotalElements());
+    }
+
+    @Test
+    void nonPageValues_ShouldStayInDelegate() {
+        List<Advertisement> list = List.of(minimalAdvertisement());
+
+        cache.put("list", list);
+
+        assertSame(list, heapCache.get("list").get());
+        assertSame(list, cache.get("list").get());
+        assertEquals(0, arena.size());
+    }
+
+    @Test
+    void evictAndClear_ShouldRemoveOffHeapEntries() {
+        Page<Advertisement> page = new PageImpl<>(List.of(minimalAdvertisement()), PageRequest.of(0, 1), 1);
+        cache.put("a", page);
+        cache.put("b", page);
+
+        cache.evict("a");
+        assertNull(cache.get("a"));
+        assertNotNull(cache.get("b"));
+
+        cache.clear();
+        assertNull(cache.get("b"));
+        assertEquals(0, arena.liveBytes());
+    }
+
+    @Test
+    void arena_ShouldEvictOldestEntriesWhenFull() {
+        OffHeapArena small = new OffHeapArena(100, TimeUnit.MINUTES.toNanos(10));
+        byte[] blob = new byte[40];
+
+        assertTrue(small.put("first", blob, blob.length));
+        assertTrue(small.put("second", blob, blob.length));
+        assertTrue(small.put("third", blob, blob.length));
+        assertFalse(small.put("huge", new byte[101], 101));
+
+        assertNull(small.read("first", buffer -> buffer.remaining()), "oldest entry is overwritten on wrap");
+        assertEquals(Integer.valueOf(40), small.read("second", buffer -> buffer.remaining()));
+        assertEquals(Integer.valueOf(40), small.read("third", buffer -> buffer.remaining()));
+        assertEquals(80, small.liveBytes());
+    }
+
+    @Test
+    void arena_ShouldNotReturnExpiredEntries() {
+        OffHeapArena expiring = new OffHeapArena(100, 0);
+        expiring.put("key", new byte[8], 8);
+
+        assertNull(expiring.read("key", buffer -> buffer.remaining()));
+    }
+
+    private Advertisement fullAdvertisement() {
+        return Advertisement.builder()
+                .id(42L)
+                .title("Summer Sale ☀")
+                .description("Seasonal campaign")
+                .content("<video/>")
+                .source(AdvertisementSource.YOUTUBE)
+                .sourceIdentifier("abc123")
+                .createdAt(LocalDateTime.of(2024, 6, 1, 10, 15, 30, 123_000_000))
+                .updatedAt(LocalDateTime.of(2024, 6, 2, 8, 0))
+                .active(true)
+                .targetUrl("https://example.com")
+                .clickable(true)
+                .weight(5)
+                .overrideStart(LocalDateTime.of(2024, 6, 1, 0, 0))
+                .youtubeDetails(YouTubeDetails.builder()
+                        .videoId("abc123")
+                        .videoTitle("Promo")
+                        .durationSeconds(30)
+                        .publishedAt(Instant.parse("2024-05-30T12:00:00.5Z"))
+                        .build())
+                .geoTargets(Set.of(GeoTarget.builder().countryCode("US").latitude(40.7).longitude(-74.0).radiusKm(50).include(true).build()))
+                .bioTargets(Set.of(BioTarget.builder().minAge(18).maxAge(35).gender(Gender.ALL).language("en").include(true).build()))
+                .moodTargets(Set.of(MoodTarget.builder().mood(Mood.HAPPY).intensityMin(3).season("Summer").include(false).build()))
+                .build();
+    }
+
+    private Advertisement minimalAdvertisement() {
+        return Advertisement.builder()
+                .title("Plain")
+                .source(AdvertisementSource.STORAGE)
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.adplatform.infrastructure.cache.invalidation;
+
+import com.example.adplatform.application.service.InventoryVersionServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two simulated instances sharing one H2 database, each with its own local caches.
+ */
+class CacheInvalidationBusTest {
+
+    private SingleConnectionDataSource keepAlive;
+    private Instance nodeA;
+    private Instance nodeB;
+
+    @BeforeEach
+    void setUp() {
+        String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        keepAlive = new SingleConnectionDataSource(url, "sa", "", true);
+        new JdbcTemplate(keepAlive).execute("CREATE TABLE cache_invalidations ("
+                + "id BIGINT AUTO_INCREMENT PRIMARY KEY, origin VARCHAR(64) NOT NULL, "
+                + "cache_name VARCHAR(128) NOT NULL, cache_key VARCHAR(512), created_at TIMESTAMP NOT NULL)");
+        nodeA = new Instance(url);
+        nodeB = new Instance(url);
+        nodeA.transport.poll();
+        nodeB.transport.poll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        new JdbcTemplate(keepAlive).execute("SHUTDOWN");
+        keepAlive.destroy();
+    }
+
+    @Test
+    void evict_ShouldRemoveTheSameKeyOnOtherInstance() {
+        // Given
+        nodeA.cache("advertisements").put(1L, "a");
+        nodeB.cache("advertisements").put(1L, "b");
+        nodeB.cache("advertisements").put(2L, "b");
+        long versionBefore = nodeB.versions.current().version();
+
+        // When
+        nodeA.cache("advertisements").evict(1L);
+        nodeB.transport.poll();
+
+        // Then
+        assertNull(nodeB.cache("advertisements").get(1L));
+        assertNotNull(nodeB.cache("advertisements").get(2L));
+        assertTrue(nodeB.versions.current().version() > versionBefore);
+        assertEquals(1, nodeA.meters.get("advertisements.cache.invalidations").tag("direction", "sent").counter().count());
+        assertEquals(1, nodeB.meters.get("advertisements.cache.invalidations").tag("direction", "received").counter().count());
+    }
+
+    @Test
+    void clear_ShouldWinOverKeyEvictionsAndNotEchoBack() {
+        // Given
+        nodeB.cache("activeAdvertisements").put("s:page", "b");
+        nodeB.cache("advertisements").put(3L, "b");
+
+        // When
+        nodeA.cache("advertisements").evict(7L);
+        nodeA.cache("activeAdvertisements").clear();
+        nodeB.transport.poll();
+        nodeA.transport.poll();
+
+        // Then
+        assertNull(nodeB.cache("activeAdvertisements").get("s:page"));
+        assertNotNull(nodeB.cache("advertisements").get(3L));
+        assertEquals(0, nodeA.meters.get("advertisements.cache.invalidations").tag("direction", "received").counter().count(),
+                "an instance must not apply its own invalidations");
+        assertEquals(0, nodeB.meters.get("advertisements.cache.invalidations").tag("direction", "sent").counter().count(),
+                "applying remote invalidations must not broadcast them again");
+    }
+
+    @Test
+    void poll_ShouldNotReplayInvalidationsWrittenBeforeStartup() {
+        nodeA.cache("advertisements").evict(1L);
+        Instance late = new Instance(nodeA.url);
+        late.cache("advertisements").put(1L, "late");
+
+        late.transport.poll();
+        late.transport.poll();
+
+        assertNotNull(late.cache("advertisements").get(1L));
+    }
+
+    @Test
+    void poll_ShouldWorkOffABacklogOneBatchPerPoll() {
+        for (long key = 0; key < 250; key++) {
+            nodeB.cache("advertisements").put(key, "b");
+            nodeA.cache("advertisements").evict(key);
+        }
+
+        nodeB.transport.poll();
+        assertEquals(100, nodeB.meters.get("advertisements.cache.invalidations").tag("direction", "received").counter().count());
+        assertNotNull(nodeB.cache("advertisements").get(100L));
+
+        nodeB.transport.poll();
+        nodeB.transport.poll();
+        assertEquals(250, nodeB.meters.get("advertisements.cache.invalidations").tag("direction", "received").counter().count());
+        assertNull(nodeB.cache("advertisements").get(249L));
+    }
+
+    private static final class Instance {
+        final String url;
+        final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        final InventoryVersionServiceImpl versions = new InventoryVersionServiceImpl();
+        final JdbcCacheInvalidationTransport transport;
+        final CacheManager cacheManager;
+
+        Instance(String url) {
+            this.url = url;
+            this.transport = new JdbcCacheInvalidationTransport(new DriverManagerDataSource(url, "sa", ""), 100, Duration.ofHours(1));
+            DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+            CacheInvalidationBus bus = new CacheInvalidationBus(transport, beans.getBeanProvider(CacheManager.class), versions, meters);
+            SimpleCacheManager manager = new SimpleCacheManager();
+            manager.setCaches(List.of(
+                    new BroadcastingCache(new ConcurrentMapCache("advertisements"), bus),
+                    new BroadcastingCache(new ConcurrentMapCache("activeAdvertisements"), bus)));
+            manager.afterPropertiesSet();
+            beans.registerSingleton("cacheManager", manager);
+            this.cacheManager = manager;
+        }
+
+        Cache cache(String name) {
+            return cacheManager.getCache(name);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.adplatform.infrastructure.codec;
+
+import com.example.adplatform.domain.event.AdViewEvent;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Encodes and decodes a typical view event with the binary codec and with Jackson JSON and
+ * reports the bytes per event and the time per encode and decode. Timing depends on the machine,
+ * so only the round trips are asserted.
+ *
+ * Opt-in: {@code mvn test -Dtest=AdEventCodecBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AdEventCodecBenchmarkTest {
+
+    private static final int ROUNDS = 1_000_000;
+
+    @Test
+    void encode_ShouldBeSmallerAndFasterThanJson() throws Exception {
+        AdViewEvent view = AdViewEvent.builder()
+                .advertisementId(42L)
+                .timestamp(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000))
+                .userId("user-123456")
+                .sessionId("3f2b9c1e-5a7d-4e8f-9b6c-2d1a0e4f7c8b")
+                .deviceType("MOBILE")
+                .browserInfo("Mozilla/5.0 (iPhone; CPU iPhone OS 17_0 like Mac OS X)")
+                .ipAddress("203.0.113.7")
+                .contextData(Map.of("country", "DE", "placement", "sidebar"))
+                .viewDurationSeconds(8)
+                .isCompleteView(false)
+                .build();
+        AdEventCodec codec = new AdEventCodec(ValueDictionary.inMemory(1 << 16));
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+        long began = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            buffer.clear();
+            codec.encode(view, buffer);
+        }
+        long binaryEncodeNanos = System.nanoTime() - began;
+        buffer.flip();
+        int binaryBytes = buffer.remaining();
+        Object decoded = null;
+        began = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            decoded = codec.decode(buffer.duplicate());
+        }
+        long binaryDecodeNanos = System.nanoTime() - began;
+
+        byte[] json = null;
+        began = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            json = objectMapper.writeValueAsBytes(view);
+        }
+        long jsonEncodeNanos = System.nanoTime() - began;
+        Map<String, Object> parsed = null;
+        began = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            parsed = objectMapper.readValue(json, new TypeReference<>() {
+            });
+        }
+        long jsonDecodeNanos = System.nanoTime() - began;
+
+        System.out.printf("binary: %d bytes/event, encode %d ns, decode %d ns | JSON: %d bytes/event, encode %d ns, decode %d ns%n",
+                binaryBytes, binaryEncodeNanos / ROUNDS, binaryDecodeNanos / ROUNDS,
+                json.length, jsonEncodeNanos / ROUNDS, jsonDecodeNanos / ROUNDS);
+
+        assertThat(decoded).isEqualTo(view);
+        assertThat(parsed).containsEntry("advertisementId", 42);
+        assertThat(binaryBytes).isLessThan(json.length);
+    }
+}
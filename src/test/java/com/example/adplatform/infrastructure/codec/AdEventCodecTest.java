@@ -0,0 +1,141 @@
+package com.example.adplatform.infrastructure.codec;
+
+import com.example.adplatform.domain.event.AdClickEvent;
+import com.example.adplatform.domain.event.AdViewEvent;
+import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdEventCodecTest {
+
+    private final List<String> added = new ArrayList<>();
+    private final AdEventCodec codec = new AdEventCodec(new ValueDictionary(16, List.of(), added::add));
+
+    @Test
+    void decode_ShouldReturnEveryEventTypeUnchanged() {
+        Map<String, Object> context = new HashMap<>();
+        context.put("country", "DE");
+        context.put("slot", 3);
+        context.put("bid", 7_000_000_000L);
+        context.put("score", 0.25);
+        context.put("premium", true);
+        context.put("campaign", null);
+        AdViewEvent view = AdViewEvent.builder()
+                .advertisementId(1L)
+                .timestamp(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000))
+                .userId("user-1")
+                .sessionId("3f2b9c1e-5a7d-4e8f-9b6c-2d1a0e4f7c8b")
+                .deviceType("MOBILE")
+                .browserInfo("Firefox ☃")
+                .ipAddress("203.0.113.7")
+                .contextData(context)
+                .viewDurationSeconds(12)
+                .isCompleteView(true)
+                .build();
+        AdClickEvent click = AdClickEvent.builder()
+                .advertisementId(-2L)
+                .timestamp(LocalDateTime.of(1969, 12, 31, 23, 59))
+                .targetUrl("https://example.com/landing")
+                .referrer("https://example.com/")
+                .xPosition(40)
+                .yPosition(-3)
+                .resultedInConversion(false)
+                .contextData(Map.of())
+                .build();
+        AdvertisementViewedEvent viewed = new AdvertisementViewedEvent(Long.MAX_VALUE, Instant.parse("2024-05-01T12:32:00.001Z"));
+        AdvertisementInteractedEvent interacted = new AdvertisementInteractedEvent(null, "LIKE", null);
+        AdvertisementViewedEvent viewedInSession = new AdvertisementViewedEvent(2L, Instant.parse("2024-05-01T12:32:00Z"),
+                "3f2b9c1e-5a7d-4e8f-9b6c-2d1a0e4f7c8b");
+        AdvertisementInteractedEvent clickedInSession = new AdvertisementInteractedEvent(2L, "CLICK",
+                Instant.parse("2024-05-01T12:32:05Z"), "session-7");
+
+        for (Object event : List.of(view, click, viewed, interacted, viewedInSession, clickedInSession, AdViewEvent.builder().build())) {
+            assertThat(roundTrip(event)).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void encode_ShouldWriteRecurringValuesAsDictionaryIds() {
+        AdViewEvent view = AdViewEvent.builder()
+                .advertisementId(1L)
+                .userId("user-1")
+                .deviceType("MOBILE")
+                .browserInfo("Firefox")
+                .contextData(Map.of("country", "DE"))
+                .build();
+
+        int first = encode(view).remaining();
+        int second = encode(view).remaining();
+
+        assertThat(added).containsExactly("MOBILE", "Firefox", "country", "DE");
+        assertThat(second).isEqualTo(first);
+        // Header, id, timestamp, duration, the literal user id, absent session id, two ids, absent
+        // address, then the context count, key id, value tag and value id
+        assertThat(first).isEqualTo(4 + (2 + "user-1".length()) + 4 + 4);
+    }
+
+    @Test
+    void encode_ShouldWriteTheValueItselfOnceTheDictionaryIsFull() {
+        for (int i = 0; i < 16; i++) {
+            roundTrip(new AdvertisementInteractedEvent(1L, "TYPE-" + i, null));
+        }
+
+        AdvertisementInteractedEvent event = new AdvertisementInteractedEvent(1L, "SHARE", null);
+
+        assertThat(roundTrip(event)).isEqualTo(event);
+        assertThat(added).hasSize(16).doesNotContain("SHARE");
+    }
+
+    @Test
+    void encode_ShouldKeepLookalikesOfUuidsAndAddressesAsWritten() {
+        for (String value : List.of("3F2B9C1E-5A7D-4E8F-9B6C-2D1A0E4F7C8B", "010.0.0.1", "256.0.0.1", "1.2.3", "1.2.3.4.5", "0.0.0.0", "255.255.255.255")) {
+            AdViewEvent view = AdViewEvent.builder().sessionId(value).ipAddress(value).build();
+            assertThat(roundTrip(view)).isEqualTo(view);
+        }
+    }
+
+    @Test
+    void encode_ShouldLeaveOutAContextThatDoesNotFit() {
+        AdViewEvent view = AdViewEvent.builder()
+                .advertisementId(1L)
+                .contextData(Map.of("note", "x".repeat(ValueDictionary.MAX_VALUE_CHARS + 1)))
+                .build();
+        ByteBuffer target = ByteBuffer.allocate(64);
+
+        codec.encode(view, target);
+
+        assertThat(codec.decode(target.flip())).isEqualTo(AdViewEvent.builder().advertisementId(1L).build());
+    }
+
+    @Test
+    void encode_ShouldCutLongStrings() {
+        AdClickEvent click = AdClickEvent.builder().targetUrl("u".repeat(5000)).build();
+
+        AdClickEvent decoded = (AdClickEvent) roundTrip(click);
+
+        assertThat(decoded.getTargetUrl()).hasSize(AdEventCodec.MAX_STRING_CHARS);
+    }
+
+    private Object roundTrip(Object event) {
+        ByteBuffer encoded = encode(event);
+        Object decoded = codec.decode(encoded);
+        assertThat(encoded.hasRemaining()).isFalse();
+        return decoded;
+    }
+
+    private ByteBuffer encode(Object event) {
+        ByteBuffer target = ByteBuffer.allocate(1 << 16);
+        codec.encode(event, target);
+        return target.flip();
+    }
+}
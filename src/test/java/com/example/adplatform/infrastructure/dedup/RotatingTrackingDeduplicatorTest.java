@@ -0,0 +1,106 @@
+package com.example.adplatform.infrastructure.dedup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RotatingTrackingDeduplicatorTest {
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void firstSeen_ShouldReportKeysSeenWithinTheWindowAsDuplicates() {
+        RotatingTrackingDeduplicator deduplicator = deduplicator(10_000);
+
+        assertThat(deduplicator.firstSeen("session-1|42")).isTrue();
+        assertThat(deduplicator.firstSeen("session-1|42")).isFalse();
+        assertThat(deduplicator.firstSeen("session-1|43")).isTrue();
+
+        assertThat(meterRegistry.get("advertisements.tracking.dedup.checked").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("advertisements.tracking.dedup.duplicates").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void firstSeen_ShouldRememberKeysForTheWholeWindowAndForgetThemAfterwards() {
+        RotatingTrackingDeduplicator deduplicator = deduplicator(10_000);
+        deduplicator.firstSeen("view");
+
+        clock.advance(Duration.ofMinutes(9).plusSeconds(59));
+        assertThat(deduplicator.firstSeen("view")).isFalse();
+
+        clock.advance(Duration.ofMinutes(4));
+        assertThat(deduplicator.firstSeen("view")).isTrue();
+    }
+
+    @Test
+    void forget_ShouldLetTheKeyBeRecordedAgain() {
+        RotatingTrackingDeduplicator deduplicator = deduplicator(10_000);
+        deduplicator.firstSeen("dropped");
+
+        deduplicator.forget("dropped");
+
+        assertThat(deduplicator.firstSeen("dropped")).isTrue();
+    }
+
+    @Test
+    void firstSeen_ShouldKeepFalsePositivesNearTheConfiguredRateAndRotateEarlyWhenFull() {
+        int expected = 200_000;
+        RotatingTrackingDeduplicator deduplicator = deduplicator(expected);
+        for (int i = 0; i < expected; i++) {
+            deduplicator.firstSeen("seen-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (!deduplicator.firstSeen("new-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Configured at 0.001
+        assertThat(falsePositives).isLessThan(200);
+        assertThat(meterRegistry.get("advertisements.tracking.dedup.overflows").counter().count()).isPositive();
+    }
+
+    private RotatingTrackingDeduplicator deduplicator(int expectedKeys) {
+        return new RotatingTrackingDeduplicator(Duration.ofMinutes(10), 4, expectedKeys, 0.001, clock, meterRegistry);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.adplatform.infrastructure.eventlog;
+
+import com.example.adplatform.domain.event.AdViewEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Appends view events to the event log with the flusher running and reports the append rate,
+ * the bytes per record and the time spent in fsync, then replays the log. Timing depends on the
+ * machine and disk, so only the record accounting is asserted.
+ *
+ * Opt-in: {@code mvn test -Dtest=EventLogBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class EventLogBenchmarkTest {
+
+    private static final int EVENTS = 2_000_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_ShouldCostACopyIntoTheMappedSegment() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        MappedEventLog eventLog = new MappedEventLog(directory, 64 << 20, Duration.ofMillis(200), 10_000,
+                Duration.ofDays(1), Clock.systemUTC(), meterRegistry);
+        eventLog.start();
+        AdViewEvent view = AdViewEvent.builder()
+                .advertisementId(42L)
+                .timestamp(LocalDateTime.now())
+                .userId("user-123456")
+                .sessionId("3f2b9c1e-5a7d-4e8f-9b6c-2d1a0e4f7c8b")
+                .deviceType("MOBILE")
+                .browserInfo("Mozilla/5.0 (iPhone; CPU iPhone OS 17_0 like Mac OS X)")
+                .ipAddress("203.0.113.7")
+                .viewDurationSeconds(8)
+                .isCompleteView(false)
+                .build();
+        try {
+            long began = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                eventLog.append(view);
+            }
+            long appendNanos = System.nanoTime() - began;
+            eventLog.flush();
+
+            AtomicLong replayed = new AtomicLong();
+            began = System.nanoTime();
+            eventLog.replay(0, Integer.MAX_VALUE, logged -> replayed.incrementAndGet());
+            long replayNanos = System.nanoTime() - began;
+
+            System.out.printf("%d appends in %.1f ms: %.0f events/s, %d ns/event, %d bytes/event | %d fsyncs, %.1f ms total | replay %.0f events/s%n",
+                    EVENTS, appendNanos / 1_000_000.0, EVENTS / (appendNanos / 1_000_000_000.0), appendNanos / EVENTS,
+                    eventLog.endPosition() / EVENTS,
+                    meterRegistry.get("advertisements.event.log.fsync").timer().count(),
+                    meterRegistry.get("advertisements.event.log.fsync").timer().totalTime(TimeUnit.MILLISECONDS),
+                    replayed.get() / (replayNanos / 1_000_000_000.0));
+
+            assertThat(replayed.get()).isEqualTo(EVENTS);
+        } finally {
+            eventLog.close();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.adplatform.infrastructure.eventlog;
+
+import com.example.adplatform.domain.event.AdClickEvent;
+import com.example.adplatform.domain.event.AdViewEvent;
+import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedEventLogTest {
+
+    @TempDir
+    Path directory;
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private MappedEventLog eventLog;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+        eventLog = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventLog.close();
+    }
+
+    @Test
+    void replay_ShouldReturnEveryEventTypeInAppendOrder() {
+        AdViewEvent view = AdViewEvent.builder()
+                .advertisementId(1L)
+                .timestamp(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000))
+                .userId("user-1")
+                .sessionId("session-1")
+                .deviceType("MOBILE")
+                .browserInfo("Firefox ☃")
+                .ipAddress("10.0.0.1")
+                .contextData(Map.of("country", "DE", "slot", 3))
+                .viewDurationSeconds(12)
+                .isCompleteView(true)
+                .build();
+        AdClickEvent click = AdClickEvent.builder()
+                .advertisementId(2L)
+                .timestamp(LocalDateTime.of(2024, 5, 1, 12, 31))
+                .userId("user-1")
+                .targetUrl("https://example.com/landing")
+                .xPosition(40)
+                .yPosition(-3)
+                .resultedInConversion(false)
+                .build();
+        AdvertisementViewedEvent viewed = new AdvertisementViewedEvent(3L, Instant.parse("2024-05-01T12:32:00.001Z"));
+        AdvertisementInteractedEvent interacted = new AdvertisementInteractedEvent(null, "LIKE", null);
+
+        long first = eventLog.append(view);
+        eventLog.append(click);
+        eventLog.append(viewed);
+        eventLog.append(interacted);
+
+        List<LoggedEvent> replayed = replayAll(first);
+        assertThat(first).isZero();
+        assertThat(replayed).extracting(LoggedEvent::event).containsExactly(view, click, viewed, interacted);
+        for (int i = 1; i < replayed.size(); i++) {
+            assertThat(replayed.get(i).position()).isEqualTo(replayed.get(i - 1).nextPosition());
+        }
+        assertThat(replayed.get(3).nextPosition()).isEqualTo(eventLog.endPosition());
+        assertThat(meterRegistry.get("advertisements.event.log.appended").counter().count()).isEqualTo(4.0);
+    }
+
+    @Test
+    void append_ShouldRollSegmentsAndReplayResumeAcrossThem() {
+        int events = 200_000;
+        for (long id = 0; id < events; id++) {
+            eventLog.append(new AdvertisementViewedEvent(id, Instant.EPOCH));
+        }
+
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+        List<Long> ids = new ArrayList<>();
+        long position = 0;
+        long next;
+        while ((next = eventLog.replay(position, 1000, logged -> ids.add(((AdvertisementViewedEvent) logged.event()).advertisementId()))) != position) {
+            position = next;
+        }
+        assertThat(position).isEqualTo(eventLog.endPosition());
+        assertThat(ids).hasSize(events);
+        for (int i = 0; i < events; i++) {
+            assertThat(ids.get(i)).isEqualTo(i);
+        }
+    }
+
+    @Test
+    void reopen_ShouldResumeAfterTheLastIntactRecordAndClearATornTail() throws IOException {
+        for (long id = 1; id <= 3; id++) {
+            eventLog.append(new AdvertisementViewedEvent(id, Instant.EPOCH));
+        }
+        long end = eventLog.endPosition();
+        eventLog.close();
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            // A record whose checksum never made it to disk, followed by stale bytes
+            file.seek(end);
+            file.write(new byte[]{48, 0, 0, 0, 1, 2, 3, 4, 3});
+            file.seek(end + 4096);
+            file.write(new byte[]{1, 2, 3});
+        }
+
+        eventLog = open();
+        eventLog.append(new AdvertisementViewedEvent(4L, Instant.EPOCH));
+
+        assertThat(replayAll(0)).extracting(logged -> ((AdvertisementViewedEvent) logged.event()).advertisementId())
+                .containsExactly(1L, 2L, 3L, 4L);
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "r")) {
+            file.seek(end + 4096);
+            assertThat(file.read()).isZero();
+        }
+    }
+
+    @Test
+    void reopen_ShouldDecodeDictionaryValuesWrittenBeforeTheRestart() {
+        AdViewEvent view = AdViewEvent.builder()
+                .advertisementId(1L)
+                .deviceType("MOBILE")
+                .browserInfo("Firefox")
+                .contextData(Map.of("country", "DE"))
+                .build();
+        eventLog.append(view);
+        eventLog.close();
+
+        eventLog = open();
+        eventLog.append(view);
+
+        assertThat(replayAll(0)).extracting(LoggedEvent::event).containsExactly(view, view);
+    }
+
+    @Test
+    void reopen_ShouldDropRecordsReferringToDictionaryValuesLostInACrash() throws IOException {
+        eventLog.append(new AdvertisementViewedEvent(1L, Instant.EPOCH));
+        long end = eventLog.endPosition();
+        eventLog.append(AdViewEvent.builder().advertisementId(2L).deviceType("MOBILE").build());
+        eventLog.close();
+        try (RandomAccessFile file = new RandomAccessFile(directory.resolve("dictionary.dat").toFile(), "rw")) {
+            file.setLength(3);
+        }
+
+        eventLog = open();
+
+        assertThat(eventLog.endPosition()).isEqualTo(end);
+        assertThat(replayAll(0)).extracting(LoggedEvent::event).containsExactly(new AdvertisementViewedEvent(1L, Instant.EPOCH));
+        assertThat(directory.resolve("dictionary.dat")).isEmptyFile();
+    }
+
+    @Test
+    void enforceRetention_ShouldDeleteRolledSegmentsOnceExpired() {
+        for (long id = 0; id < 150_000; id++) {
+            eventLog.append(new AdvertisementViewedEvent(id, Instant.EPOCH));
+        }
+        eventLog.flush();
+        int segments = segmentFiles().size();
+
+        eventLog.enforceRetention();
+        assertThat(segmentFiles()).hasSize(segments);
+
+        clock.advance(Duration.ofDays(2));
+        eventLog.enforceRetention();
+
+        assertThat(segmentFiles()).hasSize(1);
+        assertThat(meterRegistry.get("advertisements.event.log.segments.deleted").counter().count()).isEqualTo(segments - 1);
+        List<LoggedEvent> retained = replayAll(0);
+        assertThat(retained).isNotEmpty();
+        assertThat(retained.get(0).position()).isEqualTo(eventLog.startPosition()).isPositive();
+        assertThat(retained.get(retained.size() - 1).event()).isEqualTo(new AdvertisementViewedEvent(149_999L, Instant.EPOCH));
+    }
+
+    @Test
+    void open_ShouldRejectADirectoryAlreadyInUse() {
+        assertThatThrownBy(this::open)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("in use");
+    }
+
+    private MappedEventLog open() {
+        return new MappedEventLog(directory, MappedEventLog.MIN_SEGMENT_BYTES, Duration.ofMillis(50), 100,
+                Duration.ofDays(1), clock, meterRegistry);
+    }
+
+    private List<LoggedEvent> replayAll(long from) {
+        List<LoggedEvent> replayed = new ArrayList<>();
+        eventLog.replay(from, Integer.MAX_VALUE, replayed::add);
+        return replayed;
+    }
+
+    private List<Path> segmentFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".events")).sorted().toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
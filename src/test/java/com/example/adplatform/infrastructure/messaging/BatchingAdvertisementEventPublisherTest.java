@@ -0,0 +1,194 @@
+package com.example.adplatform.infrastructure.messaging;
+
+import com.example.adplatform.application.exception.TrackingOverloadedException;
+import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
+import com.example.adplatform.infrastructure.messaging.BatchingAdvertisementEventPublisher.ShedPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchingAdvertisementEventPublisherTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private List<List<AdvertisementTrackingEvent>> batches;
+    private BatchingAdvertisementEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        batches = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (publisher != null) {
+            publisher.stop();
+        }
+    }
+
+    @Test
+    void publish_ShouldOnlyEnqueueUntilTheConsumersRun() {
+        publisher = publisher(16, batches::add);
+
+        publisher.publish(view(1L));
+        publisher.publish(new AdvertisementInteractedEvent(2L, "CLICK", Instant.now()));
+
+        assertThat(batches).isEmpty();
+        assertThat(meterRegistry.get("advertisements.tracking.buffer.size").gauge().value()).isEqualTo(2.0);
+
+        publisher.start();
+        publisher.stop();
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).extracting(AdvertisementTrackingEvent::advertisementId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void publish_ShouldDeliverInLineOnceStopped() {
+        publisher = publisher(16, batches::add);
+        publisher.start();
+        publisher.stop();
+
+        publisher.publish(view(1L));
+        assertThat(publisher.publishAll(List.of(view(2L), view(3L)))).isEqualTo(2);
+
+        assertThat(publisher.queued()).isZero();
+        assertThat(batches).flatExtracting(batch -> batch).extracting(AdvertisementTrackingEvent::advertisementId)
+                .containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void phase_ShouldStopAfterTheWebServerHasShutDownGracefully() {
+        publisher = publisher(16, batches::add);
+
+        assertThat(publisher.getPhase()).isLessThan(WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024);
+    }
+
+    @Test
+    void publish_ShouldDropAndCountEventsWhenTheBufferIsFull() {
+        publisher = publisher(4, batches::add);
+
+        for (long id = 0; id < 6; id++) {
+            publisher.publish(view(id));
+        }
+
+        assertThat(meterRegistry.get("advertisements.tracking.events").tag("outcome", "accepted").counter().count()).isEqualTo(4.0);
+        assertThat(meterRegistry.get("advertisements.tracking.events").tag("outcome", "dropped").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void publishAll_ShouldEnqueueUntilTheBufferIsFullAndReportHowManyWereAccepted() {
+        publisher = publisher(4, batches::add);
+        publisher.publish(view(0L));
+
+        int accepted = publisher.publishAll(List.of(view(1L), view(2L), view(3L), view(4L), view(5L)));
+
+        assertThat(accepted).isEqualTo(3);
+        assertThat(meterRegistry.get("advertisements.tracking.events").tag("outcome", "accepted").counter().count()).isEqualTo(4.0);
+        assertThat(meterRegistry.get("advertisements.tracking.events").tag("outcome", "dropped").counter().count()).isEqualTo(2.0);
+        publisher.start();
+        publisher.stop();
+        assertThat(batches.get(0)).extracting(AdvertisementTrackingEvent::advertisementId).containsExactly(0L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void publish_ShouldShedTheOldestEventsWhenDroppingOldest() {
+        publisher = publisher(4, ShedPolicy.DROP_OLDEST, 1.0);
+
+        for (long id = 0; id < 6; id++) {
+            publisher.publish(view(id));
+        }
+
+        assertThat(count("accepted")).isEqualTo(6.0);
+        assertThat(count("shed")).isEqualTo(2.0);
+        assertThat(count("dropped")).isZero();
+        publisher.start();
+        publisher.stop();
+        assertThat(batches.get(0)).extracting(AdvertisementTrackingEvent::advertisementId).containsExactly(2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void publish_ShouldSampleEventsAboveTheShedThresholdWithoutFillingTheBuffer() {
+        publisher = publisher(64, ShedPolicy.SAMPLE, 0.5);
+
+        for (long id = 0; id < 1000; id++) {
+            publisher.publish(view(id));
+        }
+
+        assertThat(publisher.queued()).isBetween(32, 64);
+        assertThat(count("accepted")).isEqualTo(publisher.queued());
+        assertThat(count("shed")).isEqualTo(1000.0 - publisher.queued());
+        assertThat(count("dropped")).isZero();
+    }
+
+    @Test
+    void publish_ShouldRejectEventsThatDoNotFitWhenRejecting() {
+        publisher = publisher(4, ShedPolicy.REJECT, 1.0);
+        for (long id = 0; id < 4; id++) {
+            publisher.publish(view(id));
+        }
+
+        assertThatThrownBy(() -> publisher.publish(view(4L)))
+                .isInstanceOf(TrackingOverloadedException.class)
+                .extracting(e -> ((TrackingOverloadedException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(2));
+        assertThat(publisher.publishAll(List.of(view(5L), view(6L)))).isZero();
+        assertThat(count("rejected")).isEqualTo(1.0);
+        assertThat(count("dropped")).isEqualTo(2.0);
+    }
+
+    @Test
+    void consumers_ShouldDeliverBatchesToEverySinkAndSurviveFailingSinks() throws Exception {
+        CountDownLatch received = new CountDownLatch(1000);
+        TrackingEventSink failing = batch -> {
+            throw new IllegalStateException("sink down");
+        };
+        TrackingEventSink counting = batch -> {
+            batches.add(batch);
+            batch.forEach(event -> received.countDown());
+        };
+        publisher = new BatchingAdvertisementEventPublisher(1024, 2, 100, Duration.ofMillis(1),
+                List.of(failing, counting), meterRegistry);
+        publisher.start();
+
+        for (long id = 0; id < 1000; id++) {
+            publisher.publish(view(id));
+        }
+
+        assertThat(received.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(100));
+        assertThat(meterRegistry.get("advertisements.tracking.sink.failures").counter().count()).isEqualTo(batches.size());
+    }
+
+    private BatchingAdvertisementEventPublisher publisher(int capacity, TrackingEventSink sink) {
+        return new BatchingAdvertisementEventPublisher(capacity, 1, 512, Duration.ofMillis(1), List.of(sink), meterRegistry);
+    }
+
+    private BatchingAdvertisementEventPublisher publisher(int capacity, ShedPolicy shedPolicy, double shedThreshold) {
+        return new BatchingAdvertisementEventPublisher(capacity, 1, 512, Duration.ofMillis(1), shedPolicy, shedThreshold,
+                Duration.ofSeconds(2), List.of(batches::add), meterRegistry);
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("advertisements.tracking.events").tag("outcome", outcome).counter().count();
+    }
+
+    private static AdvertisementViewedEvent view(Long id) {
+        return new AdvertisementViewedEvent(id, Instant.now());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.adplatform.infrastructure.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventRingBufferTest {
+
+    @Test
+    void offer_ShouldRejectElementsOnceFullAndAcceptAgainAfterPolling() {
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(3);
+
+        assertThat(buffer.capacity()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isZero();
+        assertThat(buffer.offer(4)).isTrue();
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 10)).isEqualTo(4);
+        assertThat(drained).containsExactly(1, 2, 3, 4);
+        assertThat(buffer.poll()).isNull();
+        assertThatThrownBy(() -> new EventRingBuffer<>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void concurrentProducersAndConsumers_ShouldHandOverEveryElementExactlyOnce() throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(1024);
+        BitSet seen = new BitSet(producers * perProducer);
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger received = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 2);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int base = p * perProducer;
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (int c = 0; c < 2; c++) {
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    List<Integer> batch = new ArrayList<>();
+                    while (received.get() < producers * perProducer) {
+                        batch.clear();
+                        buffer.drainTo(batch, 64);
+                        synchronized (seen) {
+                            for (int value : batch) {
+                                if (seen.get(value)) {
+                                    duplicates.incrementAndGet();
+                                }
+                                seen.set(value);
+                            }
+                        }
+                        received.addAndGet(batch.size());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(duplicates).hasValue(0);
+        assertThat(seen.cardinality()).isEqualTo(producers * perProducer);
+        assertThat(buffer.size()).isZero();
+    }
+}
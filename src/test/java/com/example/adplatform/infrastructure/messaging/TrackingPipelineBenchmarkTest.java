@@ -0,0 +1,86 @@
+package com.example.adplatform.infrastructure.messaging;
+
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Publishes views from several request-like threads into the tracking pipeline and reports the
+ * throughput and the latency of {@code publish} as seen by the caller. Timing depends on the
+ * machine, so only the event accounting is asserted.
+ *
+ * Opt-in: {@code mvn test -Dtest=TrackingPipelineBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TrackingPipelineBenchmarkTest {
+
+    private static final int PRODUCERS = 8;
+    private static final int EVENTS_PER_PRODUCER = 250_000;
+
+    @Test
+    void publish_ShouldAbsorbBurstsWithoutWaitingForTheSinks() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LongAdder delivered = new LongAdder();
+        BatchingAdvertisementEventPublisher publisher = new BatchingAdvertisementEventPublisher(
+                65536, 2, 512, Duration.ofMillis(1), List.of(batch -> delivered.add(batch.size())), meterRegistry);
+        publisher.start();
+
+        long[][] latencies = new long[PRODUCERS][EVENTS_PER_PRODUCER];
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        long elapsed;
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int p = 0; p < PRODUCERS; p++) {
+                long[] samples = latencies[p];
+                producers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                        long before = System.nanoTime();
+                        publisher.publish(new AdvertisementViewedEvent((long) i, Instant.now()));
+                        samples[i] = System.nanoTime() - before;
+                    }
+                    return null;
+                }));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<?> producer : producers) {
+                producer.get(2, TimeUnit.MINUTES);
+            }
+            elapsed = System.nanoTime() - began;
+        } finally {
+            executor.shutdownNow();
+            publisher.stop();
+        }
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        double accepted = meterRegistry.get("advertisements.tracking.events").tag("outcome", "accepted").counter().count();
+        double dropped = meterRegistry.get("advertisements.tracking.events").tag("outcome", "dropped").counter().count();
+        System.out.printf("%d events from %d threads in %.1f ms: %.0f events/s | publish p50 %d ns, p99 %d ns, p99.9 %d ns | dropped %.0f%n",
+                all.length, PRODUCERS, elapsed / 1_000_000.0, all.length / (elapsed / 1_000_000_000.0),
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), dropped);
+
+        assertThat(accepted + dropped).isEqualTo(all.length);
+        assertThat(delivered.sum()).isEqualTo((long) accepted);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
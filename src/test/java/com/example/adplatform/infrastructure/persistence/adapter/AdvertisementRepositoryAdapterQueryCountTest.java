@@ -0,0 +1,298 @@
+package com.example.adplatform.infrastructure.persistence.adapter;
+
+import com.example.adplatform.domain.model.Advertisement;
+import com.example.adplatform.domain.model.AdvertisementSeekKey;
+import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.domain.model.AdvertisementSummary;
+import com.example.adplatform.domain.model.BioTarget;
+import com.example.adplatform.domain.model.GeoTarget;
+import com.example.adplatform.domain.model.Mood;
+import com.example.adplatform.domain.model.MoodTarget;
+import com.example.adplatform.domain.model.TargetingStatistics;
+import com.example.adplatform.infrastructure.persistence.entity.AdvertisementJpaEntity;
+import com.example.adplatform.infrastructure.persistence.entity.GeoTargetJpaEntity;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the adapter against an in-memory H2 database to count the SQL statements it issues.
+ */
+class AdvertisementRepositoryAdapterQueryCountTest {
+
+    private static final int ACTIVE_ADS = 20;
+
+    private InMemoryAdvertisementStore store;
+    private AdvertisementRepositoryAdapter adapter;
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryAdvertisementStore();
+        adapter = store.adapter;
+        transactionTemplate = store.transactionTemplate;
+        statistics = store.statistics;
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ACTIVE_ADS; i++) {
+                AdvertisementJpaEntity entity = InMemoryAdvertisementStore.entity("Ad " + i, true);
+                entity.setWeight(i % 3);
+                store.repository.save(entity);
+            }
+            store.repository.save(InMemoryAdvertisementStore.entity("Inactive", false));
+        });
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void findByActiveTrue_ShouldLoadInventoryWithTargetsInThreeQueries() {
+        // When
+        List<Advertisement> result = transactionTemplate.execute(status -> adapter.findByActiveTrue());
+
+        // Then
+        assertThat(result).hasSize(ACTIVE_ADS);
+        assertThat(result).allSatisfy(ad -> {
+            assertThat(ad.getGeoTargets()).hasSize(2);
+            assertThat(ad.getBioTargets()).hasSize(1);
+            assertThat(ad.getMoodTargets()).hasSize(2);
+        });
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void findByActiveTrue_ShouldIssueOneQueryWhenNothingIsActive() {
+        transactionTemplate.executeWithoutResult(status -> adapter.findAll().stream()
+                .filter(Advertisement::isActive)
+                .forEach(ad -> adapter.deleteById(ad.getId())));
+        statistics.clear();
+
+        List<Advertisement> result = transactionTemplate.execute(status -> adapter.findByActiveTrue());
+
+        assertThat(result).isEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void findActiveAfter_ShouldWalkTheSeekOrderWithoutCountQueries() {
+        // Given
+        List<Advertisement> seen = new ArrayList<>();
+        AdvertisementSeekKey after = null;
+        int slices = 0;
+
+        // When
+        Slice<Advertisement> slice;
+        do {
+            AdvertisementSeekKey position = after;
+            statistics.clear();
+            slice = transactionTemplate.execute(status -> adapter.findActiveAfter(position, 7));
+            // Slice query plus one fetch per target collection, never a count
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+            seen.addAll(slice.getContent());
+            after = AdvertisementSeekKey.of(slice.getContent().get(slice.getContent().size() - 1));
+            slices++;
+        } while (slice.hasNext());
+
+        // Then
+        assertThat(slices).isEqualTo(3);
+        assertThat(seen).hasSize(ACTIVE_ADS);
+        assertThat(seen).extracting(Advertisement::getId).doesNotHaveDuplicates();
+        assertThat(seen).isSortedAccordingTo(Comparator.comparingInt(Advertisement::getWeight).reversed()
+                .thenComparing(Advertisement::getCreatedAt, Comparator.reverseOrder())
+                .thenComparing(Advertisement::getId, Comparator.reverseOrder()));
+        assertThat(seen).allSatisfy(ad -> assertThat(ad.getMoodTargets()).hasSize(2));
+    }
+
+    @Test
+    void findAllAfter_ShouldContinueAfterTheGivenId() {
+        Slice<Advertisement> first = transactionTemplate.execute(status -> adapter.findAllAfter(null, 15));
+        Slice<Advertisement> second = transactionTemplate.execute(status ->
+                adapter.findAllAfter(first.getContent().get(14).getId(), 15));
+
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).hasSize(ACTIVE_ADS + 1 - 15);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.getContent().get(0).getId()).isGreaterThan(first.getContent().get(14).getId());
+    }
+
+    @Test
+    void forEachAdvertisement_ShouldStreamInIdOrderWithTargetsPerChunk() {
+        // Given
+        List<Advertisement> exported = new ArrayList<>();
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> adapter.forEachAdvertisement(exported::add));
+
+        // Then
+        assertThat(exported).hasSize(ACTIVE_ADS + 1);
+        assertThat(exported).extracting(Advertisement::getId).isSorted();
+        assertThat(exported).allSatisfy(ad -> assertThat(ad.getBioTargets()).hasSize(1));
+        // The stream plus one fetch per target collection for the single chunk
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    void saveAll_ShouldBatchInsertsOfAdvertisementsAndTargets() {
+        // Given
+        List<Advertisement> imported = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            imported.add(Advertisement.builder()
+                    .title("Imported " + i)
+                    .content("content")
+                    .source(AdvertisementSource.STORAGE)
+                    .sourceIdentifier("/import/" + i)
+                    .active(true)
+                    .geoTargets(Set.of(GeoTarget.builder().countryCode("US").include(true).build(),
+                            GeoTarget.builder().countryCode("GR").include(true).build()))
+                    .moodTargets(Set.of(MoodTarget.builder().mood(Mood.RELAXED).include(true).build()))
+                    .build());
+        }
+
+        // When
+        List<Advertisement> saved = transactionTemplate.execute(status -> adapter.saveAll(imported));
+
+        // Then
+        assertThat(saved).hasSize(120).allSatisfy(ad -> assertThat(ad.getId()).isNotNull());
+        assertThat(saved).extracting(Advertisement::getTitle).startsWith("Imported 0", "Imported 1");
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        // 360 rows over three tables in batches of 50, plus a few sequence calls, instead of one statement per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+    }
+
+    @Test
+    void saveAll_ShouldUpdateExistingRowsWithoutSelectingThemOneByOne() {
+        List<Advertisement> existing = transactionTemplate.execute(status -> adapter.findByActiveTrue());
+        existing.forEach(ad -> ad.setTitle(ad.getTitle() + " (updated)"));
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> adapter.saveAll(existing));
+
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(ACTIVE_ADS);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(ACTIVE_ADS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+        List<Advertisement> updated = transactionTemplate.execute(status ->
+                adapter.findByTitleContainingIgnoreCase("(updated)"));
+        assertThat(updated).hasSize(ACTIVE_ADS);
+    }
+
+    @Test
+    void saveAndDelete_ShouldRecordChangesInTheSameTransaction() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(store.dataSource);
+        List<Advertisement> existing = transactionTemplate.execute(status -> adapter.findByActiveTrue());
+        Advertisement first = existing.get(0);
+        first.setTitle("Renamed");
+
+        transactionTemplate.executeWithoutResult(status -> adapter.saveAll(existing.subList(0, 2)));
+        transactionTemplate.executeWithoutResult(status -> adapter.save(first));
+        transactionTemplate.executeWithoutResult(status -> adapter.deleteById(first.getId()));
+        transactionTemplate.executeWithoutResult(status -> {
+            adapter.deleteById(existing.get(1).getId());
+            status.setRollbackOnly();
+        });
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT advertisement_id || ':' || operation || ':' || version FROM advertisement_changes ORDER BY id", String.class))
+                .containsExactly(
+                        first.getId() + ":UPSERT:1",
+                        existing.get(1).getId() + ":UPSERT:1",
+                        first.getId() + ":UPSERT:2",
+                        first.getId() + ":DELETE:3");
+    }
+
+    @Test
+    void findByCountryCode_ShouldMatchCaseInsensitivelyAndFetchTargetsPerCollection() {
+        // Given
+        transactionTemplate.executeWithoutResult(status -> adapter.save(Advertisement.builder()
+                .title("German")
+                .content("content")
+                .source(AdvertisementSource.STORAGE)
+                .sourceIdentifier("/ads/German")
+                .active(true)
+                .geoTargets(Set.of(GeoTarget.builder().countryCode("de").include(true).build()))
+                .bioTargets(Set.of(BioTarget.builder().minAge(18).maxAge(35).include(true).build()))
+                .moodTargets(Set.of(
+                        MoodTarget.builder().mood(Mood.HAPPY).include(true).build(),
+                        MoodTarget.builder().mood(Mood.EXCITED).include(true).build()))
+                .build()));
+        statistics.clear();
+
+        // When
+        List<Advertisement> result = transactionTemplate.execute(status -> adapter.findByCountryCode("DE"));
+
+        // Then
+        assertThat(result).singleElement().satisfies(ad -> {
+            assertThat(ad.getTitle()).isEqualTo("German");
+            assertThat(ad.getBioTargets()).hasSize(1);
+            assertThat(ad.getMoodTargets()).hasSize(2);
+        });
+        // The candidates, then one query per target collection
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+
+    @Test
+    void loadTargetingStatistics_ShouldCountActiveAdvertisementsPerIncludedValue() {
+        transactionTemplate.executeWithoutResult(status -> {
+            AdvertisementJpaEntity entity = InMemoryAdvertisementStore.entity("Lower case", true);
+            entity.setGeoTargets(new HashSet<>(Set.of(GeoTargetJpaEntity.builder().countryCode("us").include(true).build())));
+            store.repository.save(entity);
+        });
+
+        TargetingStatistics result = transactionTemplate.execute(status -> adapter.loadTargetingStatistics());
+
+        assertThat(result.activeCount()).isEqualTo(ACTIVE_ADS + 1);
+        assertThat(result.estimateCountry("us")).isEqualTo(ACTIVE_ADS + 1);
+        assertThat(result.estimateCountry("CA")).isEqualTo(ACTIVE_ADS);
+        assertThat(result.estimateCountry("FR")).isZero();
+        assertThat(result.estimateMood(Mood.HAPPY)).isEqualTo(ACTIVE_ADS + 1);
+        assertThat(result.estimateMood(Mood.SAD)).isZero();
+        assertThat(result.estimateAge(20)).isEqualTo(ACTIVE_ADS + 1);
+        assertThat(result.estimateAge(40)).isZero();
+    }
+
+    @Test
+    void findAllSummaries_ShouldNotLoadTargetCollections() {
+        // When
+        Page<AdvertisementSummary> page = transactionTemplate.execute(status ->
+                adapter.findAllSummaries(PageRequest.of(1, 5, Sort.by("id"))));
+
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(ACTIVE_ADS + 1);
+        assertThat(page.getContent()).extracting(AdvertisementSummary::title)
+                .containsExactly("Ad 5", "Ad 6", "Ad 7", "Ad 8", "Ad 9");
+        // Content and count query only; no collection is initialized
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void findSummariesByTitleContainingIgnoreCase_ShouldFilterLikeTheFullQuery() {
+        Page<AdvertisementSummary> page = transactionTemplate.execute(status ->
+                adapter.findSummariesByTitleContainingIgnoreCase("INACT", PageRequest.of(0, 10)));
+
+        assertThat(page.getContent()).singleElement().satisfies(summary -> {
+            assertThat(summary.active()).isFalse();
+            assertThat(summary.source()).isEqualTo(AdvertisementSource.STORAGE);
+            assertThat(summary.updatedAt()).isNotNull();
+        });
+    }
+}
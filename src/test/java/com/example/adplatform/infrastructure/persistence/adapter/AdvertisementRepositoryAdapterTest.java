@@ -3,6 +3,8 @@ package com.example.adplatform.infrastructure.persistence.adapter;
 import com.example.adplatform.domain.model.*;
 import com.example.adplatform.infrastructure.persistence.entity.*;
 import com.example.adplatform.infrastructure.persistence.entity.MoodTargetJpaEntity.MoodJpaEnum;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChange;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChangeOutbox;
 import com.example.adplatform.infrastructure.persistence.repository.AdvertisementJpaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -31,6 +33,9 @@ public class AdvertisementRepositoryAdapterTest {
     @Mock
     private AdvertisementJpaRepository jpaRepository;
 
+    @Mock
+    private AdvertisementChangeOutbox changeOutbox;
+
     @InjectMocks
     private AdvertisementRepositoryAdapter adapter;
 
@@ -134,6 +139,7 @@ public class AdvertisementRepositoryAdapterTest {
 
         // Then
         verify(jpaRepository).save(any(AdvertisementJpaEntity.class));
+        verify(changeOutbox).record(List.of(1L), AdvertisementChange.Operation.UPSERT);
         assertThat(result).isNotNull();
         assertThat(result.getTitle()).isEqualTo("Test Advertisement");
     }
@@ -249,6 +255,7 @@ public class AdvertisementRepositoryAdapterTest {
 
         // Then
         verify(jpaRepository).deleteById(1L);
+        verify(changeOutbox).record(List.of(1L), AdvertisementChange.Operation.DELETE);
     }
 
     @Test
@@ -312,6 +319,7 @@ public class AdvertisementRepositoryAdapterTest {
 
         // Mock the repository save method
         AdvertisementJpaEntity savedEntity = new AdvertisementJpaEntity();
+        savedEntity.setId(2L);
         when(jpaRepository.save(entityCaptor.capture())).thenReturn(savedEntity);
 
         // Call the adapter save method
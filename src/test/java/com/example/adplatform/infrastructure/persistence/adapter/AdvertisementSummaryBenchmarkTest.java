@@ -0,0 +1,144 @@
+package com.example.adplatform.infrastructure.persistence.adapter;
+
+import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.infrastructure.persistence.entity.AdvertisementJpaEntity;
+import com.example.adplatform.infrastructure.persistence.entity.YouTubeDetailsEmbeddable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares a list-view page loaded as full entities with the same page loaded as summary projections.
+ * Reports latency and the bytes of column data each variant reads (summed over the textual value of
+ * every non-null column). Timing depends on the machine, so only the byte and statement counts are asserted.
+ *
+ * Opt-in: {@code mvn test -Dtest=AdvertisementSummaryBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AdvertisementSummaryBenchmarkTest {
+
+    private static final int ADS = 5_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP = 50;
+    private static final int ITERATIONS = 200;
+
+    private InMemoryAdvertisementStore store;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryAdvertisementStore();
+        jdbcTemplate = new JdbcTemplate(store.dataSource);
+        String description = "Seasonal campaign description ".repeat(25);
+        store.transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ADS; i++) {
+                AdvertisementJpaEntity entity = InMemoryAdvertisementStore.entity("Ad " + i, i % 4 != 0);
+                entity.setDescription(description);
+                entity.setContent("https://cdn.example.com/ads/" + i + "/creative.mp4");
+                entity.setSource(i % 2 == 0 ? AdvertisementSource.STORAGE : AdvertisementSource.YOUTUBE);
+                entity.setYoutubeDetails(YouTubeDetailsEmbeddable.builder()
+                        .videoId("video-" + i)
+                        .videoTitle("Video title " + i)
+                        .channelId("channel-" + (i % 20))
+                        .channelTitle("Channel " + (i % 20))
+                        .durationSeconds(30)
+                        .thumbnailUrl("https://img.example.com/" + i + ".jpg")
+                        .publishedAt(Instant.now())
+                        .build());
+                store.repository.save(entity);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void summaryPages_ShouldReadFewerBytesAndStatementsThanEntityPages() {
+        for (int page : new int[]{0, ADS / PAGE_SIZE / 2}) {
+            Pageable pageable = PageRequest.of(page, PAGE_SIZE, Sort.by("id"));
+
+            Result full = measure(() -> store.adapter.findAll(pageable).getContent());
+            Result summary = measure(() -> store.adapter.findAllSummaries(pageable).getContent());
+            long fullBytes = entityPageBytes(page);
+            long summaryBytes = summaryPageBytes(page);
+
+            System.out.printf("page %3d | entities: %7.3f ms, %2d statements, %7d bytes | summaries: %7.3f ms, %2d statements, %7d bytes%n",
+                    page, full.millis, full.statements, fullBytes, summary.millis, summary.statements, summaryBytes);
+
+            assertThat(summary.statements).isLessThan(full.statements);
+            assertThat(summaryBytes).isLessThan(fullBytes / 5);
+        }
+    }
+
+    private Result measure(Supplier<List<?>> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            store.transactionTemplate.execute(status -> query.get().size());
+        }
+        store.statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            store.transactionTemplate.execute(status -> query.get().size());
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+        return new Result(millis, store.statistics.getPrepareStatementCount() / ITERATIONS);
+    }
+
+    private long entityPageBytes(int page) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM advertisements ORDER BY id LIMIT ? OFFSET ?",
+                Long.class, PAGE_SIZE, page * PAGE_SIZE);
+        String in = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return bytes("SELECT * FROM advertisements WHERE id IN (" + in + ")")
+                + bytes("SELECT * FROM advertisement_geo_targets WHERE advertisement_id IN (" + in + ")")
+                + bytes("SELECT * FROM advertisement_bio_targets WHERE advertisement_id IN (" + in + ")")
+                + bytes("SELECT * FROM advertisement_mood_targets WHERE advertisement_id IN (" + in + ")");
+    }
+
+    private long summaryPageBytes(int page) {
+        return bytes("SELECT id, title, source, active, weight, updated_at FROM advertisements ORDER BY id"
+                + " LIMIT " + PAGE_SIZE + " OFFSET " + page * PAGE_SIZE);
+    }
+
+    private long bytes(String sql) {
+        Long total = jdbcTemplate.query(sql, (ResultSet rs) -> {
+            long sum = 0;
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                sum += rowBytes(rs, columns);
+            }
+            return sum;
+        });
+        return total != null ? total : 0;
+    }
+
+    private static long rowBytes(ResultSet rs, int columns) throws SQLException {
+        long sum = 0;
+        for (int i = 1; i <= columns; i++) {
+            String value = rs.getString(i);
+            if (value != null) {
+                sum += value.getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+        return sum;
+    }
+
+    private record Result(double millis, long statements) {
+    }
+}
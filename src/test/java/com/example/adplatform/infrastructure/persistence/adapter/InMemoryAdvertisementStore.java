@@ -0,0 +1,121 @@
+package com.example.adplatform.infrastructure.persistence.adapter;
+
+import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.infrastructure.persistence.entity.AdvertisementJpaEntity;
+import com.example.adplatform.infrastructure.persistence.entity.BioTargetJpaEntity;
+import com.example.adplatform.infrastructure.persistence.entity.GeoTargetJpaEntity;
+import com.example.adplatform.infrastructure.persistence.entity.MoodTargetJpaEntity;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChangeOutbox;
+import com.example.adplatform.infrastructure.persistence.repository.AdvertisementJpaRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import liquibase.command.CommandScope;
+import liquibase.command.core.UpdateCommandStep;
+import liquibase.command.core.helpers.DbUrlConnectionCommandStep;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Wires {@link AdvertisementRepositoryAdapter} to Hibernate on a private in-memory H2 database
+ * with statistics enabled, without starting a Spring context. Tables without an entity, such as
+ * the change outbox, are created from their Liquibase changesets.
+ */
+final class InMemoryAdvertisementStore implements AutoCloseable {
+
+    private final LocalContainerEntityManagerFactoryBean factoryBean;
+    final DataSource dataSource;
+    final AdvertisementJpaRepository repository;
+    final AdvertisementChangeOutbox changeOutbox;
+    final AdvertisementRepositoryAdapter adapter;
+    final TransactionTemplate transactionTemplate;
+    final Statistics statistics;
+
+    InMemoryAdvertisementStore() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setPackagesToScan("com.example.adplatform.infrastructure.persistence.entity");
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.generate_statistics", "true",
+                // Batching settings from application.yml
+                "hibernate.jdbc.batch_size", "50",
+                "hibernate.order_inserts", "true",
+                "hibernate.order_updates", "true",
+                // Same column names as under Spring Boot, e.g. created_at
+                "hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName(),
+                "hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName()));
+        factoryBean.afterPropertiesSet();
+        EntityManagerFactory emf = factoryBean.getObject();
+
+        EntityManager sharedEntityManager = SharedEntityManagerCreator.createSharedEntityManager(emf);
+        repository = new JpaRepositoryFactory(sharedEntityManager).getRepository(AdvertisementJpaRepository.class);
+        applyChangelog("db/changelog/changes/09-create-advertisement-changes.xml");
+        changeOutbox = new AdvertisementChangeOutbox(dataSource, true);
+        adapter = new AdvertisementRepositoryAdapter(repository, changeOutbox);
+        ReflectionTestUtils.setField(adapter, "entityManager", sharedEntityManager);
+        transactionTemplate = new TransactionTemplate(new JpaTransactionManager(emf));
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private void applyChangelog(String changelog) {
+        try (Connection connection = dataSource.getConnection()) {
+            Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            new CommandScope(UpdateCommandStep.COMMAND_NAME)
+                    .addArgumentValue(DbUrlConnectionCommandStep.DATABASE_ARG, database)
+                    .addArgumentValue(UpdateCommandStep.CHANGELOG_FILE_ARG, changelog)
+                    .execute();
+        } catch (SQLException | LiquibaseException e) {
+            throw new IllegalStateException("Failed to apply " + changelog, e);
+        }
+    }
+
+    /**
+     * @return an unsaved advertisement with two geo, one bio and two mood targets
+     */
+    static AdvertisementJpaEntity entity(String title, boolean active) {
+        return AdvertisementJpaEntity.builder()
+                .title(title)
+                .content("content")
+                .source(AdvertisementSource.STORAGE)
+                .sourceIdentifier("/ads/" + title)
+                .active(active)
+                .geoTargets(new HashSet<>(Set.of(
+                        GeoTargetJpaEntity.builder().countryCode("US").include(true).build(),
+                        GeoTargetJpaEntity.builder().countryCode("CA").include(true).build())))
+                .bioTargets(new HashSet<>(Set.of(
+                        BioTargetJpaEntity.builder().minAge(18).maxAge(35).include(true).build())))
+                .moodTargets(new HashSet<>(Set.of(
+                        MoodTargetJpaEntity.builder().mood(MoodTargetJpaEntity.MoodJpaEnum.HAPPY).include(true).build(),
+                        MoodTargetJpaEntity.builder().mood(MoodTargetJpaEntity.MoodJpaEnum.EXCITED).include(true).build())))
+                .build();
+    }
+
+    @Override
+    public void close() {
+        factoryBean.destroy();
+    }
+}
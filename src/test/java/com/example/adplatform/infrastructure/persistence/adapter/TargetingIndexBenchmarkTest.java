@@ -0,0 +1,134 @@
+package com.example.adplatform.infrastructure.persistence.adapter;
+
+import com.example.adplatform.domain.model.Mood;
+import com.example.adplatform.infrastructure.persistence.entity.AdvertisementJpaEntity;
+import com.example.adplatform.infrastructure.persistence.entity.BioTargetJpaEntity;
+import com.example.adplatform.infrastructure.persistence.entity.GeoTargetJpaEntity;
+import com.example.adplatform.infrastructure.persistence.entity.MoodTargetJpaEntity;
+import liquibase.command.CommandScope;
+import liquibase.command.core.UpdateCommandStep;
+import liquibase.command.core.helpers.DbUrlConnectionCommandStep;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the targeting lookups on generated data before and after the targeting indexes
+ * changeset is applied. Reports latency per lookup and the plan H2 chooses for the predicate.
+ * Timing depends on the machine, so only the choice of index is asserted.
+ *
+ * Opt-in: {@code mvn test -Dtest=TargetingIndexBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TargetingIndexBenchmarkTest {
+
+    private static final String CHANGELOG = "db/changelog/changes/08-add-targeting-indexes.xml";
+    private static final int ADS = 10_000;
+    private static final int COUNTRIES = 100;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 100;
+
+    private static final String COUNTRY_PREDICATE =
+            "SELECT advertisement_id FROM advertisement_geo_targets WHERE country_code = 'C7' AND include = TRUE";
+    private static final String MOOD_PREDICATE =
+            "SELECT advertisement_id FROM advertisement_mood_targets WHERE mood = 'ANGRY' AND include = TRUE";
+    private static final String AGE_PREDICATE =
+            "SELECT advertisement_id FROM advertisement_bio_targets WHERE min_age <= 70 AND max_age >= 70 AND include = TRUE";
+
+    private InMemoryAdvertisementStore store;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryAdvertisementStore();
+        jdbcTemplate = new JdbcTemplate(store.dataSource);
+        MoodTargetJpaEntity.MoodJpaEnum[] moods = MoodTargetJpaEntity.MoodJpaEnum.values();
+        store.transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < ADS; i++) {
+                AdvertisementJpaEntity entity = InMemoryAdvertisementStore.entity("Ad " + i, i % 5 != 0);
+                int minAge = 13 + i % 60;
+                entity.setGeoTargets(new HashSet<>(Set.of(
+                        GeoTargetJpaEntity.builder().countryCode("C" + i % COUNTRIES).include(true).build())));
+                entity.setBioTargets(new HashSet<>(Set.of(
+                        BioTargetJpaEntity.builder().minAge(minAge).maxAge(minAge + 2 + i % 5).include(true).build())));
+                entity.setMoodTargets(new HashSet<>(Set.of(
+                        MoodTargetJpaEntity.builder().mood(moods[i % moods.length]).include(i % 3 != 0).build())));
+                store.repository.save(entity);
+            }
+        });
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void targetingLookups_ShouldUseTheNewIndexes() throws Exception {
+        Report before = report();
+        applyChangeset();
+        jdbcTemplate.execute("ANALYZE");
+        Report after = report();
+
+        System.out.printf("country | without indexes: %8.3f ms | with indexes: %8.3f ms%n", before.country, after.country);
+        System.out.printf("mood    | without indexes: %8.3f ms | with indexes: %8.3f ms%n", before.mood, after.mood);
+        System.out.printf("age     | without indexes: %8.3f ms | with indexes: %8.3f ms%n", before.age, after.age);
+        System.out.printf("age plan with indexes: %s%n", explain(AGE_PREDICATE));
+
+        assertThat(explain(COUNTRY_PREDICATE)).contains("IDX_GEO_TARGETS_COUNTRY_INCLUDE");
+        assertThat(explain(MOOD_PREDICATE)).contains("IDX_MOOD_TARGETS_MOOD_INCLUDE");
+        assertThat(before.countryPlan).doesNotContain("IDX_GEO_TARGETS_COUNTRY_INCLUDE");
+        assertThat(before.moodPlan).doesNotContain("IDX_MOOD_TARGETS_MOOD_INCLUDE");
+    }
+
+    private Report report() {
+        return new Report(
+                measure(() -> store.adapter.findByCountryCode("c7")),
+                measure(() -> store.adapter.findByMood(Mood.ANGRY)),
+                measure(() -> store.adapter.findByAgeRange(70)),
+                explain(COUNTRY_PREDICATE),
+                explain(MOOD_PREDICATE));
+    }
+
+    private double measure(Supplier<List<?>> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            store.transactionTemplate.execute(status -> query.get().size());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            store.transactionTemplate.execute(status -> query.get().size());
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class).replaceAll("\\s+", " ");
+    }
+
+    private void applyChangeset() throws Exception {
+        try (Connection connection = store.dataSource.getConnection()) {
+            Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            new CommandScope(UpdateCommandStep.COMMAND_NAME)
+                    .addArgumentValue(DbUrlConnectionCommandStep.DATABASE_ARG, database)
+                    .addArgumentValue(UpdateCommandStep.CHANGELOG_FILE_ARG, CHANGELOG)
+                    .execute();
+        }
+    }
+
+    private record Report(double country, double mood, double age, String countryPlan, String moodPlan) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.adplatform.infrastructure.persistence.outbox;
+
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChange.Operation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import liquibase.command.CommandScope;
+import liquibase.command.core.UpdateCommandStep;
+import liquibase.command.core.helpers.DbUrlConnectionCommandStep;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Writes to the outbox and polls it on a local H2 database created from the Liquibase changeset.
+ */
+class AdvertisementChangeFeedTest {
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private AdvertisementChangeOutbox outbox;
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        try (Connection connection = dataSource.getConnection()) {
+            Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+            new CommandScope(UpdateCommandStep.COMMAND_NAME)
+                    .addArgumentValue(DbUrlConnectionCommandStep.DATABASE_ARG, database)
+                    .addArgumentValue(UpdateCommandStep.CHANGELOG_FILE_ARG, "db/changelog/changes/09-create-advertisement-changes.xml")
+                    .execute();
+        }
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        outbox = new AdvertisementChangeOutbox(dataSource, true);
+        clock = new MutableClock();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void record_ShouldNumberVersionsPerAdvertisementAndRollBackWithTheTransaction() {
+        record(List.of(1L, 2L), Operation.UPSERT);
+        record(List.of(1L), Operation.DELETE);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                outbox.record(List.of(3L), Operation.UPSERT);
+                throw new IllegalStateException("rollback");
+            });
+        } catch (IllegalStateException expected) {
+            // the change must not be recorded
+        }
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT advertisement_id || ':' || operation || ':' || version FROM advertisement_changes ORDER BY id", String.class))
+                .containsExactly("1:UPSERT:1", "2:UPSERT:1", "1:DELETE:2");
+        assertThatThrownBy(() -> outbox.record(List.of(4L), Operation.UPSERT)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void record_ShouldWriteNothingWhenTheOutboxIsDisabled() {
+        AdvertisementChangeOutbox disabled = new AdvertisementChangeOutbox(dataSource, false);
+        transactionTemplate.executeWithoutResult(status -> disabled.record(List.of(1L), Operation.UPSERT));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM advertisement_changes", Integer.class)).isZero();
+    }
+
+    @Test
+    void poll_ShouldDeliverChangesMadeBetweenSubscribingAndTheFirstPoll() {
+        record(List.of(1L), Operation.UPSERT);
+        RecordingConsumer consumer = new RecordingConsumer("index");
+        AdvertisementChangeFeed feed = feed("instance-a", 100);
+        feed.subscribe(consumer);
+
+        // The consumer loads its initial state here, while changes keep coming
+        record(List.of(2L), Operation.UPSERT);
+        feed.poll();
+
+        assertThat(consumer.advertisementIds()).containsExactly(2L);
+    }
+
+    @Test
+    void poll_ShouldStartAtTheEndAndDeliverLaterChangesInOrder() {
+        record(List.of(1L), Operation.UPSERT);
+        RecordingConsumer consumer = new RecordingConsumer("index");
+        AdvertisementChangeFeed feed = feed("instance-a", 2);
+        feed.subscribe(consumer);
+        feed.poll();
+
+        record(List.of(2L, 3L, 4L), Operation.UPSERT);
+        feed.poll();
+        feed.poll();
+
+        assertThat(consumer.advertisementIds()).containsExactly(2L, 3L, 4L);
+        assertThat(consumer.batches).hasSize(2);
+        assertThat(checkpoint("instance-a/index")).isEqualTo(consumer.received.get(2).position());
+        assertThat(meterRegistry.get("advertisements.change.feed.delivered").tag("consumer", "index").counter().count())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    void poll_ShouldDeliverChangesOfALongTransactionThatCommitsBelowThePosition() throws Exception {
+        RecordingConsumer consumer = new RecordingConsumer("index");
+        AdvertisementChangeFeed feed = feed("instance-a", 100);
+        feed.subscribe(consumer);
+
+        try (Connection bulk = dataSource.getConnection()) {
+            // A bulk save takes its ids first and commits last
+            bulk.setAutoCommit(false);
+            try (PreparedStatement insert = bulk.prepareStatement(
+                    "INSERT INTO advertisement_changes (advertisement_id, operation, version, created_at) VALUES (?, 'UPSERT', 1, ?)")) {
+                insert.setLong(1, 1000L);
+                insert.setTimestamp(2, Timestamp.from(Instant.now()));
+                insert.executeUpdate();
+            }
+            for (long id = 1; id <= 300; id++) {
+                record(List.of(id), Operation.UPSERT);
+            }
+            for (int i = 0; i < 3; i++) {
+                feed.poll();
+            }
+            assertThat(consumer.advertisementIds()).hasSize(300).doesNotContain(1000L);
+            bulk.commit();
+        }
+        feed.poll();
+
+        assertThat(consumer.advertisementIds()).hasSize(301).endsWith(1000L);
+    }
+
+    @Test
+    void poll_ShouldResumeFromTheCheckpointAfterARestart() {
+        AdvertisementChangeFeed feed = feed("instance-a", 100);
+        feed.subscribe(new RecordingConsumer("index"));
+        feed.poll();
+        record(List.of(1L), Operation.UPSERT);
+        feed.poll();
+
+        // Changes made while the instance was down
+        record(List.of(2L), Operation.DELETE);
+        RecordingConsumer restarted = new RecordingConsumer("index");
+        AdvertisementChangeFeed restartedFeed = feed("instance-a", 100);
+        restartedFeed.subscribe(restarted);
+        restartedFeed.poll();
+
+        // At least once: changes just below the checkpoint are delivered again
+        assertThat(restarted.advertisementIds()).endsWith(2L);
+        assertThat(restarted.received.get(restarted.received.size() - 1).operation()).isEqualTo(Operation.DELETE);
+    }
+
+    @Test
+    void poll_ShouldRetryABatchTheConsumerFailedToApply() {
+        RecordingConsumer consumer = new RecordingConsumer("index");
+        AdvertisementChangeFeed feed = feed("instance-a", 100);
+        feed.subscribe(consumer);
+        feed.poll();
+        long start = checkpoint("instance-a/index");
+        record(List.of(1L), Operation.UPSERT);
+
+        consumer.failures = 1;
+        feed.poll();
+        assertThat(checkpoint("instance-a/index")).isEqualTo(start);
+        feed.poll();
+
+        assertThat(consumer.advertisementIds()).containsExactly(1L);
+        assertThat(checkpoint("instance-a/index")).isGreaterThan(start);
+    }
+
+    @Test
+    void purge_ShouldKeepTheLatestChangeOfEveryExistingAdvertisement() {
+        record(List.of(1L, 2L), Operation.UPSERT);
+        record(List.of(1L), Operation.UPSERT);
+        record(List.of(2L), Operation.DELETE);
+        clock.advance(Duration.ofDays(2));
+
+        feed("instance-a", 100).purge();
+        record(List.of(1L), Operation.UPSERT);
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT advertisement_id || ':' || version FROM advertisement_changes ORDER BY id", String.class))
+                .containsExactly("1:2", "1:3");
+    }
+
+    private void record(List<Long> ids, Operation operation) {
+        transactionTemplate.executeWithoutResult(status -> outbox.record(ids, operation));
+    }
+
+    private AdvertisementChangeFeed feed(String instanceId, int batchSize) {
+        return new AdvertisementChangeFeed(dataSource, instanceId, batchSize, Duration.ofDays(1), Duration.ofMinutes(10), clock, meterRegistry);
+    }
+
+    private long checkpoint(String consumer) {
+        return jdbcTemplate.queryForObject(
+                "SELECT position FROM advertisement_change_checkpoints WHERE consumer = ?", Long.class, consumer);
+    }
+
+    private static final class RecordingConsumer implements AdvertisementChangeConsumer {
+        private final String name;
+        private final List<AdvertisementChange> received = new ArrayList<>();
+        private final List<List<AdvertisementChange>> batches = new ArrayList<>();
+        private int failures;
+
+        private RecordingConsumer(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public void accept(List<AdvertisementChange> changes) {
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("not now");
+            }
+            batches.add(changes);
+            received.addAll(changes);
+        }
+
+        private List<Long> advertisementIds() {
+            return received.stream().map(AdvertisementChange::advertisementId).toList();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.adplatform.infrastructure.persistence.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes connections between local H2 databases standing in for the primary and two replicas.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private DriverManagerDataSource primary;
+    private ReplicaRoutingDataSource.Replica first;
+    private ReplicaRoutingDataSource.Replica second;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        first = new ReplicaRoutingDataSource.Replica("first", h2("first"));
+        second = new ReplicaRoutingDataSource.Replica("second", h2("second"));
+        first.update(Duration.ZERO, true);
+        second.update(Duration.ZERO, true);
+        routing = new ReplicaRoutingDataSource(primary, List.of(first, second));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.close();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldGoToTheReplicaWithFewestConnectionsInUse() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (Connection held = routing.getConnection()) {
+            String busy = database(held);
+            assertThat(busy).isIn("first", "second");
+
+            // The other replica is idle, whichever turn it is
+            try (Connection next = routing.getConnection()) {
+                assertThat(database(next)).isNotEqualTo(busy).isIn("first", "second");
+            }
+        }
+        assertThat(first.outstanding()).isZero();
+        assertThat(second.outstanding()).isZero();
+    }
+
+    @Test
+    void readWriteTransactions_ShouldGoToThePrimary() throws SQLException {
+        try (Connection connection = routing.getConnection()) {
+            assertThat(database(connection)).isEqualTo("primary");
+        }
+    }
+
+    @Test
+    void reads_ShouldSkipEjectedReplicasAndFallBackToThePrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        first.update(Duration.ofSeconds(30), false);
+        for (int i = 0; i < 3; i++) {
+            try (Connection connection = routing.getConnection()) {
+                assertThat(database(connection)).isEqualTo("second");
+            }
+        }
+
+        second.update(null, false);
+        try (Connection connection = routing.getConnection()) {
+            assertThat(database(connection)).isEqualTo("primary");
+        }
+    }
+
+    @Test
+    void reads_ShouldGoToThePrimaryWhenPinned() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadYourWrites.open(true, () -> { });
+
+        try (Connection connection = routing.getConnection()) {
+            assertThat(database(connection)).isEqualTo("primary");
+        }
+    }
+
+    @Test
+    void reads_ShouldGoToThePrimaryInsideOnPrimary() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        String database = ReadYourWrites.onPrimary(() -> {
+            try (Connection connection = routing.getConnection()) {
+                return database(connection);
+            }
+        });
+
+        assertThat(database).isEqualTo("primary");
+        assertThat(ReadYourWrites.isPinned()).isFalse();
+    }
+
+    @Test
+    void committedWrites_ShouldPinTheRestOfTheRequest() throws SQLException {
+        int[] tokens = new int[1];
+        ReadYourWrites.open(false, () -> tokens[0]++);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Two connections of one read-write transaction report a single write
+        routing.getConnection().close();
+        routing.getConnection().close();
+        assertThat(ReadYourWrites.isPinned()).isFalse();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(tokens[0]).isEqualTo(1);
+        assertThat(ReadYourWrites.isPinned()).isTrue();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try (Connection connection = routing.getConnection()) {
+            assertThat(database(connection)).isEqualTo("primary");
+        }
+    }
+
+    private static DriverManagerDataSource h2(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static String database(Connection connection) throws SQLException {
+        String url = connection.getMetaData().getURL();
+        return url.substring("jdbc:h2:mem:".length(), url.indexOf('-'));
+    }
+}
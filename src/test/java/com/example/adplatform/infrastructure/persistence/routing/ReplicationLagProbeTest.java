@@ -0,0 +1,203 @@
+package com.example.adplatform.infrastructure.persistence.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import liquibase.command.CommandScope;
+import liquibase.command.core.UpdateCommandStep;
+import liquibase.command.core.helpers.DbUrlConnectionCommandStep;
+import liquibase.database.Database;
+import liquibase.database.DatabaseFactory;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.LiquibaseException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Probes local H2 databases standing in for the primary and its replicas, with the heartbeat table
+ * created from its Liquibase changesets; replication is simulated by copying the heartbeat row by hand.
+ */
+class ReplicationLagProbeTest {
+
+    private static final String INSTANCE = "instance-1";
+
+    private MutableClock clock;
+    private JdbcTemplate primary;
+    private JdbcTemplate inSync;
+    private JdbcTemplate lagging;
+    private ReplicaRoutingDataSource.Replica inSyncReplica;
+    private ReplicaRoutingDataSource.Replica laggingReplica;
+    private ReplicaRoutingDataSource.Replica brokenReplica;
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicationLagProbe probe;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        DriverManagerDataSource primaryDataSource = h2();
+        DriverManagerDataSource inSyncDataSource = h2();
+        DriverManagerDataSource laggingDataSource = h2();
+        primary = new JdbcTemplate(primaryDataSource);
+        inSync = new JdbcTemplate(inSyncDataSource);
+        lagging = new JdbcTemplate(laggingDataSource);
+        createHeartbeatTable(primaryDataSource);
+        createHeartbeatTable(inSyncDataSource);
+        createHeartbeatTable(laggingDataSource);
+
+        inSyncReplica = new ReplicaRoutingDataSource.Replica("in-sync", inSyncDataSource);
+        laggingReplica = new ReplicaRoutingDataSource.Replica("lagging", laggingDataSource);
+        // No heartbeat table: the probe query fails
+        brokenReplica = new ReplicaRoutingDataSource.Replica("broken", h2());
+        meterRegistry = new SimpleMeterRegistry();
+        probe = new ReplicationLagProbe(primaryDataSource, List.of(inSyncReplica, laggingReplica, brokenReplica),
+                INSTANCE, Duration.ofSeconds(5), Duration.ofMillis(50), Duration.ofSeconds(1), clock, meterRegistry);
+    }
+
+    @Test
+    void probe_ShouldEjectReplicasBehindTheMaximumLagOrUnreachable() {
+        // Given: the lagging replica last saw a heartbeat 10 seconds ago
+        replicate(lagging, clock.instant().minusSeconds(10));
+
+        // When
+        probe.probe();
+        replicate(inSync, currentBeat());
+        probe.probe();
+
+        // Then
+        assertThat(inSyncReplica.isAvailable()).isTrue();
+        assertThat(laggingReplica.isAvailable()).isFalse();
+        assertThat(laggingReplica.lag()).isEqualTo(Duration.ofSeconds(10));
+        assertThat(brokenReplica.isAvailable()).isFalse();
+        assertThat(brokenReplica.lag()).isNull();
+        assertThat(meterRegistry.get("advertisements.datasource.replica.available").tag("replica", "in-sync").gauge().value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void probe_ShouldReadmitAReplicaOnceItCaughtUp() {
+        replicate(lagging, clock.instant().minusSeconds(10));
+        probe.probe();
+        assertThat(laggingReplica.isAvailable()).isFalse();
+
+        // The replica applies the last heartbeat; the next one is a second later
+        replicate(lagging, currentBeat());
+        clock.advance(Duration.ofSeconds(1));
+        probe.probe();
+
+        assertThat(laggingReplica.isAvailable()).isTrue();
+        assertThat(laggingReplica.lag()).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void probe_ShouldKeepOneHeartbeatRowPerInstanceAndDeleteStaleOnes() {
+        primary.update("INSERT INTO replication_heartbeat (instance_id, beat_at) VALUES (?, ?)",
+                "other", Timestamp.from(clock.instant().minusSeconds(1)));
+        primary.update("INSERT INTO replication_heartbeat (instance_id, beat_at) VALUES (?, ?)",
+                "stopped", Timestamp.from(clock.instant().minus(Duration.ofHours(2))));
+
+        probe.probe();
+        clock.advance(Duration.ofSeconds(1));
+        probe.probe();
+
+        assertThat(primary.queryForList("SELECT instance_id FROM replication_heartbeat ORDER BY instance_id", String.class))
+                .containsExactly(INSTANCE, "other");
+        assertThat(currentBeat()).isEqualTo(clock.instant());
+    }
+
+    @Test
+    void probe_ShouldMeasureTheLagAgainstItsOwnHeartbeatOnly() {
+        replicate(lagging, clock.instant().minusSeconds(10));
+        // Another instance, whose clock runs ahead, wrote a newer heartbeat the replica already has
+        lagging.update("INSERT INTO replication_heartbeat (instance_id, beat_at) VALUES (?, ?)",
+                "other", Timestamp.from(clock.instant().plusSeconds(30)));
+
+        probe.probe();
+
+        assertThat(laggingReplica.isAvailable()).isFalse();
+        assertThat(laggingReplica.lag()).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void start_ShouldProbeOnAThreadOfItsOwn() throws InterruptedException {
+        replicate(inSync, clock.instant());
+
+        probe.start();
+        try {
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (inSyncReplica.lag() == null && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            probe.stop();
+        }
+
+        assertThat(inSyncReplica.isAvailable()).isTrue();
+        assertThat(probe.isRunning()).isFalse();
+    }
+
+    private Instant currentBeat() {
+        return primary.queryForObject("SELECT beat_at FROM replication_heartbeat WHERE instance_id = ?",
+                Timestamp.class, INSTANCE).toInstant();
+    }
+
+    private static void replicate(JdbcTemplate replica, Instant beat) {
+        replica.update("DELETE FROM replication_heartbeat WHERE instance_id = ?", INSTANCE);
+        replica.update("INSERT INTO replication_heartbeat (instance_id, beat_at) VALUES (?, ?)", INSTANCE, Timestamp.from(beat));
+    }
+
+    private static void createHeartbeatTable(DataSource dataSource) {
+        for (String changelog : List.of("db/changelog/changes/07-create-replication-heartbeat.xml",
+                "db/changelog/changes/10-key-replication-heartbeat-by-instance.xml")) {
+            try (Connection connection = dataSource.getConnection()) {
+                Database database = DatabaseFactory.getInstance().findCorrectDatabaseImplementation(new JdbcConnection(connection));
+                new CommandScope(UpdateCommandStep.COMMAND_NAME)
+                        .addArgumentValue(DbUrlConnectionCommandStep.DATABASE_ARG, database)
+                        .addArgumentValue(UpdateCommandStep.CHANGELOG_FILE_ARG, changelog)
+                        .execute();
+            } catch (SQLException | LiquibaseException e) {
+                throw new IllegalStateException("Failed to apply " + changelog, e);
+            }
+        }
+    }
+
+    private static DriverManagerDataSource h2() {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
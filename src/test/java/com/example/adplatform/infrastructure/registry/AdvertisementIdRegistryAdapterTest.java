@@ -0,0 +1,168 @@
+package com.example.adplatform.infrastructure.registry;
+
+import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidation;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidationTransport;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdvertisementIdRegistryAdapterTest {
+
+    @Mock
+    private AdvertisementRepository advertisementRepository;
+
+    @Mock
+    private CacheInvalidationTransport transport;
+
+    @Captor
+    private ArgumentCaptor<Consumer<List<CacheInvalidation>>> remoteListener;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdvertisementIdRegistryAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        adapter = new AdvertisementIdRegistryAdapter(new CompactIdSet(1024, 0.01), advertisementRepository,
+                new TransactionTemplate(new NoOpTransactionManager()), transport, 2, Duration.ofMillis(1), meterRegistry);
+        verify(transport).subscribe(remoteListener.capture());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void load_ShouldPageThroughAllIdsAndBecomeReady() {
+        // Given
+        when(advertisementRepository.findIdsAfter(null, 2)).thenReturn(List.of(1L, 2L));
+        when(advertisementRepository.findIdsAfter(2L, 2)).thenReturn(List.of(9L));
+        assertFalse(adapter.isReady());
+
+        // When
+        adapter.load();
+
+        // Then
+        assertTrue(adapter.isReady());
+        assertTrue(adapter.contains(9L));
+        assertFalse(adapter.contains(3L));
+        assertEquals(3, meterRegistry.get("advertisements.tracking.id.registry.entries").gauge().value());
+    }
+
+    @Test
+    void loadUntilReady_ShouldRetryAFailedLoad() {
+        // Given: the database is unreachable for the first two attempts
+        when(advertisementRepository.findIdsAfter(null, 2))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(List.of(1L));
+
+        // When
+        assertFalse(adapter.load());
+        assertFalse(adapter.isReady());
+        adapter.loadUntilReady();
+
+        // Then
+        assertTrue(adapter.isReady());
+        assertTrue(adapter.contains(1L));
+        verify(advertisementRepository, times(3)).findIdsAfter(null, 2);
+    }
+
+    @Test
+    void add_ShouldApplyAndBroadcastOnlyAfterCommit() {
+        // Given
+        adapter.add(8L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        adapter.add(7L);
+        adapter.remove(8L);
+
+        // Then
+        assertFalse(adapter.contains(7L));
+        assertTrue(adapter.contains(8L));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertTrue(adapter.contains(7L));
+        assertFalse(adapter.contains(8L));
+        verify(transport).send(List.of(
+                CacheInvalidation.evict(AdvertisementIdRegistryAdapter.CHANNEL, 7L),
+                CacheInvalidation.evict(AdvertisementIdRegistryAdapter.CHANNEL, 8L)));
+    }
+
+    @Test
+    void changeFeed_ShouldApplyTheLastOperationOfEachAdvertisementWithoutReadingIt() {
+        adapter.add(2L);
+
+        adapter.accept(List.of(
+                new AdvertisementChange(10, 1L, AdvertisementChange.Operation.UPSERT, 1, Instant.now()),
+                new AdvertisementChange(11, 2L, AdvertisementChange.Operation.DELETE, 5, Instant.now()),
+                new AdvertisementChange(12, 1L, AdvertisementChange.Operation.DELETE, 2, Instant.now())));
+
+        assertFalse(adapter.contains(1L));
+        assertFalse(adapter.contains(2L));
+        verifyNoInteractions(advertisementRepository);
+    }
+
+    @Test
+    void remoteUpdates_ShouldReCheckExistence() {
+        adapter.add(2L);
+        when(advertisementRepository.existsById(1L)).thenReturn(true);
+        when(advertisementRepository.existsById(2L)).thenReturn(false);
+
+        remoteListener.getValue().accept(List.of(
+                CacheInvalidation.evict(AdvertisementIdRegistryAdapter.CHANNEL, 1L),
+                CacheInvalidation.evict(AdvertisementIdRegistryAdapter.CHANNEL, 2L),
+                CacheInvalidation.clear("allAdvertisements")));
+
+        assertTrue(adapter.contains(1L));
+        assertFalse(adapter.contains(2L));
+        verify(advertisementRepository, never()).findById(any());
+    }
+
+    // Runs the template callbacks without a database
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, org.springframework.transaction.TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.adplatform.infrastructure.registry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactIdSetTest {
+
+    @Test
+    void contains_ShouldAnswerForDenseAndSparseIds() {
+        CompactIdSet ids = new CompactIdSet(1024, 0.01);
+
+        ids.add(1L);
+        ids.add(1023L);
+        ids.add(1024L);
+        ids.add(5_000_000_000L);
+        ids.add(-7L);
+        ids.add(1L);
+
+        assertTrue(ids.contains(1L));
+        assertTrue(ids.contains(1023L));
+        assertTrue(ids.contains(1024L));
+        assertTrue(ids.contains(5_000_000_000L));
+        assertTrue(ids.contains(-7L));
+        assertFalse(ids.contains(2L));
+        assertFalse(ids.contains(5_000_000_001L));
+        assertEquals(5, ids.size());
+        assertEquals(3, ids.sparseSize());
+    }
+
+    @Test
+    void remove_ShouldForgetDenseAndSparseIds() {
+        CompactIdSet ids = new CompactIdSet(1024, 0.01);
+        ids.add(3L);
+        ids.add(4096L);
+
+        ids.remove(3L);
+        ids.remove(4096L);
+        ids.remove(99L);
+        ids.remove(10_000L);
+
+        assertFalse(ids.contains(3L));
+        assertFalse(ids.contains(4096L));
+        assertEquals(0, ids.size());
+    }
+
+    @Test
+    void sparseIds_ShouldMatchAReferenceSetThroughGrowthAndChurn() {
+        CompactIdSet ids = new CompactIdSet(64, 0.01);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            long id = 64 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                ids.remove(id);
+                expected.remove(id);
+            } else {
+                ids.add(id);
+                expected.add(id);
+            }
+        }
+
+        for (long id = 0; id < 5_100; id++) {
+            assertEquals(expected.contains(id), ids.contains(id), "id " + id);
+        }
+        assertEquals(expected.size(), ids.size());
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.adplatform.infrastructure.search;
+
+import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.domain.model.AdvertisementSummary;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidation;
+import com.example.adplatform.infrastructure.cache.invalidation.CacheInvalidationTransport;
+import com.example.adplatform.infrastructure.persistence.outbox.AdvertisementChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdvertisementTitleIndexAdapterTest {
+
+    @Mock
+    private AdvertisementRepository advertisementRepository;
+
+    @Mock
+    private CacheInvalidationTransport transport;
+
+    @Captor
+    private ArgumentCaptor<Consumer<List<CacheInvalidation>>> remoteListener;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdvertisementTitleIndexAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        adapter = new AdvertisementTitleIndexAdapter(advertisementRepository, new TransactionTemplate(new NoOpTransactionManager()),
+                transport, 2, meterRegistry);
+        verify(transport).subscribe(remoteListener.capture());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void load_ShouldPageThroughAllSummariesAndBecomeReady() {
+        // Given
+        when(advertisementRepository.findAllSummaries(any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable pageable = invocation.getArgument(0);
+            List<AdvertisementSummary> all = List.of(summary(1L, "Summer sale"), summary(2L, "Winter sale"), summary(3L, "Shoes"));
+            int from = (int) pageable.getOffset();
+            return new PageImpl<>(all.subList(from, Math.min(from + 2, all.size())), pageable, all.size());
+        });
+        assertFalse(adapter.isReady());
+
+        // When
+        adapter.load();
+
+        // Then
+        assertTrue(adapter.isReady());
+        assertEquals(2, adapter.findByTitleContaining("sale").size());
+        verify(advertisementRepository, times(2)).findAllSummaries(any(Pageable.class));
+        assertEquals(3, meterRegistry.get("advertisements.search.title.index.entries").gauge().value());
+    }
+
+    @Test
+    void load_ShouldStayNotReadyWhenTheDatabaseFails() {
+        when(advertisementRepository.findAllSummaries(any(Pageable.class))).thenThrow(new IllegalStateException("db down"));
+
+        adapter.load();
+
+        assertFalse(adapter.isReady());
+    }
+
+    @Test
+    void put_ShouldApplyAndBroadcastOnlyAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        adapter.put(summary(7L, "Flash sale"));
+        adapter.remove(8L);
+
+        // Then
+        assertTrue(adapter.findByTitleContaining("flash").isEmpty());
+        verify(transport, never()).send(any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(1, adapter.findByTitleContaining("flash").size());
+        verify(transport).send(List.of(
+                CacheInvalidation.evict(AdvertisementTitleIndexAdapter.CHANNEL, 7L),
+                CacheInvalidation.evict(AdvertisementTitleIndexAdapter.CHANNEL, 8L)));
+    }
+
+    @Test
+    void put_ShouldBeDiscardedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        adapter.put(summary(7L, "Flash sale"));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertTrue(adapter.findByTitleContaining("flash").isEmpty());
+        verify(transport, never()).send(any());
+    }
+
+    @Test
+    void remoteUpdates_ShouldReReadChangedSummaries() {
+        // Given
+        adapter.put(summary(1L, "Summer sale"));
+        adapter.put(summary(2L, "Winter sale"));
+        when(advertisementRepository.findSummaryById(1L)).thenReturn(Optional.of(summary(1L, "Autumn deals")));
+        when(advertisementRepository.findSummaryById(2L)).thenReturn(Optional.empty());
+
+        // When
+        remoteListener.getValue().accept(List.of(
+                CacheInvalidation.evict(AdvertisementTitleIndexAdapter.CHANNEL, 1L),
+                CacheInvalidation.evict(AdvertisementTitleIndexAdapter.CHANNEL, 2L),
+                CacheInvalidation.clear("allAdvertisements")));
+
+        // Then
+        assertTrue(adapter.findByTitleContaining("sale").isEmpty());
+        assertEquals(1, adapter.findByTitleContaining("autumn").size());
+    }
+
+    @Test
+    void changeFeed_ShouldReReadEachChangedAdvertisementOnce() {
+        // Given
+        adapter.put(summary(1L, "Summer sale"));
+        adapter.put(summary(2L, "Winter sale"));
+        when(advertisementRepository.findSummaryById(1L)).thenReturn(Optional.of(summary(1L, "Autumn deals")));
+        when(advertisementRepository.findSummaryById(2L)).thenReturn(Optional.empty());
+
+        // When
+        adapter.accept(List.of(
+                new AdvertisementChange(10, 1L, AdvertisementChange.Operation.UPSERT, 2, Instant.now()),
+                new AdvertisementChange(11, 2L, AdvertisementChange.Operation.DELETE, 5, Instant.now()),
+                new AdvertisementChange(12, 1L, AdvertisementChange.Operation.UPSERT, 3, Instant.now())));
+
+        // Then
+        assertTrue(adapter.findByTitleContaining("sale").isEmpty());
+        assertEquals(1, adapter.findByTitleContaining("autumn").size());
+        verify(advertisementRepository).findSummaryById(1L);
+    }
+
+    @Test
+    void load_ShouldNotOverwriteAdvertisementsChangedWhileLoading() {
+        when(advertisementRepository.findAllSummaries(any(Pageable.class))).thenAnswer(invocation -> {
+            // A save commits after the load read its page
+            adapter.put(summary(1L, "Renamed"));
+            return new PageImpl<>(List.of(summary(1L, "Old title")), PageRequest.of(0, 2), 1);
+        });
+
+        adapter.load();
+
+        assertEquals(1, adapter.findByTitleContaining("renamed").size());
+        assertTrue(adapter.findByTitleContaining("old").isEmpty());
+    }
+
+    private static AdvertisementSummary summary(Long id, String title) {
+        return new AdvertisementSummary(id, title, AdvertisementSource.STORAGE, true, 1, null);
+    }
+
+    // Runs the template callbacks without a database
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, org.springframework.transaction.TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
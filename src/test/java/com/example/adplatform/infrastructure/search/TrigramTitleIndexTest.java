@@ -0,0 +1,79 @@
+package com.example.adplatform.infrastructure.search;
+
+import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.domain.model.AdvertisementSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramTitleIndexTest {
+
+    private TrigramTitleIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TrigramTitleIndex();
+        index.put(summary(1L, "Summer Sale - 50% off"));
+        index.put(summary(2L, "Winter sale"));
+        index.put(summary(3L, "Running shoes for summer"));
+        index.put(summary(4L, "Coffee & Co."));
+    }
+
+    @Test
+    void findContaining_ShouldMatchSubstringsCaseInsensitivelyInIdOrder() {
+        assertEquals(List.of(1L, 3L), ids(index.findContaining("SUMM")));
+        assertEquals(List.of(1L, 2L), ids(index.findContaining("sale")));
+        assertEquals(List.of(1L), ids(index.findContaining("mer sa")));
+        assertEquals(List.of(), ids(index.findContaining("autumn")));
+    }
+
+    @Test
+    void findContaining_ShouldScanForQueriesWithoutWordTrigrams() {
+        assertEquals(List.of(1L), ids(index.findContaining("%")));
+        assertEquals(List.of(4L), ids(index.findContaining("& c")));
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(index.findContaining("")));
+    }
+
+    @Test
+    void put_ShouldReplaceThePreviousTitle() {
+        index.put(summary(2L, "Autumn deals"));
+
+        assertEquals(List.of(1L), ids(index.findContaining("sale")));
+        assertEquals(List.of(2L), ids(index.findContaining("autumn")));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void remove_ShouldDropTheAdvertisementFromAllSearches() {
+        index.remove(1L);
+
+        assertEquals(List.of(3L), ids(index.findContaining("summer")));
+        assertTrue(index.findSimilar("summer sale", 10).stream().noneMatch(s -> s.id() == 1L));
+        assertFalse(index.contains(1L));
+    }
+
+    @Test
+    void findSimilar_ShouldRankByTrigramSimilarityAndTolerateTypos() {
+        List<AdvertisementSummary> result = index.findSimilar("sumer sael", 10);
+
+        assertEquals(1L, result.get(0).id());
+        assertFalse(ids(result).contains(4L));
+    }
+
+    @Test
+    void findSimilar_ShouldIgnoreWordOrderAndRespectLimit() {
+        assertEquals(List.of(2L), ids(index.findSimilar("sale winter", 1)));
+        assertEquals(List.of(), index.findSimilar("  ", 10));
+    }
+
+    private static AdvertisementSummary summary(Long id, String title) {
+        return new AdvertisementSummary(id, title, AdvertisementSource.STORAGE, true, 1, null);
+    }
+
+    private static List<Long> ids(List<AdvertisementSummary> summaries) {
+        return summaries.stream().map(AdvertisementSummary::id).toList();
+    }
+}
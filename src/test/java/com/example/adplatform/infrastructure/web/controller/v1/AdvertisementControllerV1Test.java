@@ -1,26 +1,43 @@
 package com.example.adplatform.infrastructure.web.controller.v1;
 
 import com.example.adplatform.application.port.in.AdvertisementService;
+import com.example.adplatform.application.port.in.InventoryVersionService;
 import com.example.adplatform.domain.model.Advertisement;
+import com.example.adplatform.domain.model.AdvertisementSeekKey;
 import com.example.adplatform.domain.model.AdvertisementSource;
+import com.example.adplatform.domain.model.InventoryVersion;
 import com.example.adplatform.domain.model.Mood;
+import com.example.adplatform.domain.model.TrackingBeacon;
+import com.example.adplatform.domain.model.TrackingBeaconResult;
 import com.example.adplatform.infrastructure.web.dto.AdvertisementDTO;
 import com.example.adplatform.infrastructure.web.mapper.AdvertisementMapper;
+import com.example.adplatform.infrastructure.web.pagination.KeysetCursor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,6 +54,9 @@ public class AdvertisementControllerV1Test {
     @MockBean
     private AdvertisementMapper mapper;
 
+    @MockBean
+    private InventoryVersionService inventoryVersionService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -73,6 +93,75 @@ public class AdvertisementControllerV1Test {
 
         when(mapper.toDto(testAd)).thenReturn(testAdDto);
         when(mapper.toDomain(testAdDto)).thenReturn(testAd);
+        when(inventoryVersionService.current()).thenReturn(new InventoryVersion("e1", 42L, Instant.parse("2024-01-01T10:00:00Z")));
+    }
+
+    @Test
+    void getAllAdvertisements_ShouldReturnInventoryValidators() throws Exception {
+        when(advertisementService.getAllAdvertisements()).thenReturn(testAds);
+
+        mockMvc.perform(get("/api/v1/advertisements"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"e1-42\""))
+                .andExpect(header().string("Last-Modified", "Mon, 01 Jan 2024 10:00:00 GMT"));
+    }
+
+    @Test
+    void getAllAdvertisements_MatchingETag_ShouldReturn304WithoutServiceCall() throws Exception {
+        mockMvc.perform(get("/api/v1/advertisements").header("If-None-Match", "\"e1-42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"e1-42\""))
+                .andExpect(content().string(""));
+
+        verifyNoInteractions(advertisementService, mapper);
+    }
+
+    @Test
+    void getAdvertisementById_StaleETag_ShouldReturnFreshBody() throws Exception {
+        when(advertisementService.getAdvertisementById(1L)).thenReturn(Optional.of(testAd));
+
+        mockMvc.perform(get("/api/v1/advertisements/1").header("If-None-Match", "\"e1-41\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"e1-42\""))
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
+    @Test
+    void getTargetedAdvertisements_MatchingETag_ShouldStillTargetTheRequestBody() throws Exception {
+        when(advertisementService.getTargetedAdvertisements(eq("US"), any(), any())).thenReturn(List.of());
+
+        mockMvc.perform(post("/api/v1/advertisements/targeted")
+                .param("countryCode", "US")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"age\": 30}")
+                .header("If-None-Match", "\"e1-42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+
+        verify(advertisementService).getTargetedAdvertisements(eq("US"), eq(Map.of("age", 30)), any());
+    }
+
+    @Test
+    void getGeoTargetedAdvertisements_MatchingETag_ShouldStillRankForNow() throws Exception {
+        when(advertisementService.getGeoTargetedAdvertisements(eq("US"), any(), any(), any(), any())).thenReturn(testAds);
+
+        mockMvc.perform(get("/api/v1/advertisements/geo-targeted")
+                .param("countryCode", "US")
+                .header("If-None-Match", "\"e1-42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$[0].id", is(1)));
+
+        verify(advertisementService).getGeoTargetedAdvertisements(eq("US"), any(), any(), any(), any());
+    }
+
+    @Test
+    void getActiveAdvertisementsPage_NotModifiedSince_ShouldReturn304() throws Exception {
+        mockMvc.perform(get("/api/v1/advertisements/active/page")
+                .header("If-Modified-Since", "Mon, 01 Jan 2024 10:00:00 GMT"))
+                .andExpect(status().isNotModified());
+
+        verifyNoInteractions(advertisementService);
     }
 
     @Test
@@ -98,6 +187,58 @@ public class AdvertisementControllerV1Test {
                 .andExpect(jsonPath("$[0].active", is(true)));
     }
 
+    @Test
+    void getActiveAdvertisementsSlice_ShouldReturnCursorOfLastElement() throws Exception {
+        AdvertisementSeekKey previous = new AdvertisementSeekKey(3, LocalDateTime.of(2024, 1, 1, 0, 0), 9L);
+        when(advertisementService.getActiveAdvertisementsAfter(previous, 1))
+                .thenReturn(new SliceImpl<>(testAds, PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get("/api/v1/advertisements/active/slice")
+                .param("cursor", KeysetCursor.encodeActive(previous))
+                .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is(KeysetCursor.encodeActive(AdvertisementSeekKey.of(testAd)))));
+    }
+
+    @Test
+    void getAllAdvertisementsSlice_InvalidCursor_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/api/v1/advertisements/slice").param("cursor", "bogus"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportAdvertisements_ShouldStreamOneJsonDocumentPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Advertisement> sink = invocation.getArgument(0);
+            sink.accept(testAd);
+            sink.accept(testAd);
+            return null;
+        }).when(advertisementService).exportAllAdvertisements(any());
+
+        MvcResult result = mockMvc.perform(get("/api/v1/advertisements/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(Duration.ofMinutes(30).toMillis(), result.getRequest().getAsyncContext().getTimeout());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"e1-42\""))
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(matchesPattern("(\\{\"id\":1,[^\\n]*}\\n){2}")));
+    }
+
+    @Test
+    void exportAdvertisements_MatchingETag_ShouldReturn304WithoutExporting() throws Exception {
+        mockMvc.perform(get("/api/v1/advertisements/export").header("If-None-Match", "\"e1-42\""))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"e1-42\""));
+
+        verify(advertisementService, never()).exportAllAdvertisements(any());
+    }
+
     @Test
     void getAdvertisementById_ShouldReturnAd() throws Exception {
         when(advertisementService.getAdvertisementById(1L)).thenReturn(Optional.of(testAd));
@@ -170,6 +311,108 @@ public class AdvertisementControllerV1Test {
                 .andExpect(jsonPath("$.title", is("New Advertisement")));
     }
 
+    @Test
+    void saveAdvertisements_ShouldSaveBatchAndReturnItInOrder() throws Exception {
+        when(advertisementService.saveAdvertisements(List.of(testAd))).thenReturn(List.of(testAd));
+
+        mockMvc.perform(post("/api/v1/advertisements/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(testAdDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(1)));
+    }
+
+    @Test
+    void saveAdvertisements_ShouldRejectOversizedBatch() throws Exception {
+        List<AdvertisementDTO> batch = Collections.nCopies(5_001, testAdDto);
+
+        mockMvc.perform(post("/api/v1/advertisements/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(advertisementService);
+    }
+
+    @Test
+    void trackView_ShouldPassTheIdempotencyKeyToTheService() throws Exception {
+        mockMvc.perform(post("/api/v1/advertisements/{id}/view", 7L)
+                .header("Idempotency-Key", "beacon-42"))
+                .andExpect(status().isAccepted());
+
+        verify(advertisementService).trackAdvertisementView(7L, "beacon-42");
+    }
+
+    @Test
+    void trackEvents_ShouldReturnPerEventResultsAndTheBatchLimit() throws Exception {
+        when(advertisementService.trackAdvertisementEvents(List.of(
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 1L, null, Instant.parse("2024-05-01T12:00:00Z")),
+                new TrackingBeacon(null, 2L, null, null),
+                new TrackingBeacon(TrackingBeacon.Kind.INTERACTION, 3L, "LIKE", null))))
+                .thenReturn(List.of(TrackingBeaconResult.accepted(),
+                        TrackingBeaconResult.invalid("type must be one of VIEW, CLICK, INTERACTION"),
+                        TrackingBeaconResult.dropped()));
+
+        mockMvc.perform(post("/api/v1/advertisements/events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        [{"type":"view","advertisementId":1,"occurredAt":"2024-05-01T12:00:00Z"},
+                         {"type":"HOVER","advertisementId":2},
+                         {"type":"INTERACTION","advertisementId":3,"interactionType":"LIKE"}]
+                        """))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("X-Tracking-Batch-Limit", "1000"))
+                .andExpect(jsonPath("$.accepted", is(1)))
+                .andExpect(jsonPath("$.invalid", is(1)))
+                .andExpect(jsonPath("$.dropped", is(1)))
+                .andExpect(jsonPath("$.results[1].status", is("INVALID")))
+                .andExpect(jsonPath("$.results[2].status", is("DROPPED")));
+    }
+
+    @Test
+    void trackEventStream_ShouldReportMalformedLinesWithoutFailingTheBatch() throws Exception {
+        when(advertisementService.trackAdvertisementEvents(Arrays.asList(
+                new TrackingBeacon(TrackingBeacon.Kind.CLICK, 1L, null, null),
+                null)))
+                .thenReturn(List.of(TrackingBeaconResult.accepted(), TrackingBeaconResult.invalid("event is required")));
+
+        mockMvc.perform(post("/api/v1/advertisements/events")
+                .contentType("application/x-ndjson")
+                .content("{\"type\":\"CLICK\",\"advertisementId\":1}\n\n{\"type\":\n"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted", is(1)))
+                .andExpect(jsonPath("$.results[1].status", is("INVALID")))
+                .andExpect(jsonPath("$.results[1].error", startsWith("malformed JSON")));
+    }
+
+    @Test
+    void trackEvents_ShouldRejectOversizedBatch() throws Exception {
+        String batch = String.join("\n", Collections.nCopies(1_001, "{\"type\":\"VIEW\",\"advertisementId\":1}"));
+
+        mockMvc.perform(post("/api/v1/advertisements/events")
+                .contentType("application/x-ndjson")
+                .content(batch))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string("X-Tracking-Batch-Limit", "1000"));
+
+        verifyNoInteractions(advertisementService);
+    }
+
+    @Test
+    void trackEvents_ShouldRejectOversizedArrayWithTheBatchLimit() throws Exception {
+        String batch = "[" + String.join(",", Collections.nCopies(1_001, "{\"type\":\"VIEW\",\"advertisementId\":1}")) + "]";
+
+        mockMvc.perform(post("/api/v1/advertisements/events")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(batch))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string("X-Tracking-Batch-Limit", "1000"))
+                .andExpect(jsonPath("$.errors.events", is("at most 1000 per request")));
+
+        verifyNoInteractions(advertisementService);
+    }
+
     @Test
     void contentNegotiationVersioning_ShouldWork() throws Exception {
         when(advertisementService.getAllAdvertisements()).thenReturn(testAds);
@@ -0,0 +1,105 @@
+package com.example.adplatform.infrastructure.web.controller.v1;
+
+import com.example.adplatform.application.port.in.InventoryVersionService;
+import com.example.adplatform.application.port.in.TargetingService;
+import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.application.service.AdvertisementServiceImpl;
+import com.example.adplatform.application.service.ViewingPolicyServiceImpl;
+import com.example.adplatform.infrastructure.messaging.BatchingAdvertisementEventPublisher;
+import com.example.adplatform.infrastructure.web.mapper.AdvertisementMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tracks the same number of views through the single-event endpoint and through the batch
+ * endpoint, as JSON arrays and as NDJSON, and reports the events per second of each. Requests go
+ * through MockMvc, so connection and HTTP parsing costs that batching also saves are not even
+ * counted. Timing depends on the machine, so only the delivered events are asserted.
+ *
+ * Opt-in: {@code mvn test -Dtest=TrackingBatchBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TrackingBatchBenchmarkTest {
+
+    private static final int EVENTS = 20_000;
+    private static final int BATCH_SIZE = 500;
+
+    @Test
+    void batchEndpoint_ShouldTrackEventsWithFarLessOverheadThanOneRequestPerEvent() throws Exception {
+        LongAdder delivered = new LongAdder();
+        BatchingAdvertisementEventPublisher publisher = new BatchingAdvertisementEventPublisher(
+                65536, 2, 512, Duration.ofMillis(1), List.of(batch -> delivered.add(batch.size())), new SimpleMeterRegistry());
+        publisher.start();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        AdvertisementServiceImpl service = new AdvertisementServiceImpl(mock(AdvertisementRepository.class),
+                mock(TargetingService.class), new ViewingPolicyServiceImpl(), publisher, mock(InventoryVersionService.class),
+                mock(ObjectProvider.class), mock(ObjectProvider.class), mock(ObjectProvider.class), mock(ObjectProvider.class));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new AdvertisementControllerV1(service,
+                        mock(AdvertisementMapper.class), mock(InventoryVersionService.class), objectMapper, new MockEnvironment()))
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+                .build();
+        StringBuilder array = new StringBuilder("[");
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String event = "{\"type\":\"VIEW\",\"advertisementId\":" + (i + 1) + "}";
+            array.append(i == 0 ? "" : ",").append(event);
+            ndjson.append(event).append('\n');
+        }
+        array.append(']');
+
+        try {
+            long began = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                mockMvc.perform(post("/api/v1/advertisements/{id}/view", i + 1)).andExpect(status().isAccepted());
+            }
+            long single = System.nanoTime() - began;
+
+            began = System.nanoTime();
+            for (int i = 0; i < EVENTS / BATCH_SIZE; i++) {
+                mockMvc.perform(post("/api/v1/advertisements/events")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(array.toString()))
+                        .andExpect(status().isAccepted());
+            }
+            long jsonBatches = System.nanoTime() - began;
+
+            began = System.nanoTime();
+            for (int i = 0; i < EVENTS / BATCH_SIZE; i++) {
+                mockMvc.perform(post("/api/v1/advertisements/events")
+                                .contentType("application/x-ndjson")
+                                .content(ndjson.toString()))
+                        .andExpect(status().isAccepted());
+            }
+            long ndjsonBatches = System.nanoTime() - began;
+
+            System.out.printf("%d views | single: %.0f events/s | JSON batches of %d: %.0f events/s (%.1fx) | NDJSON batches: %.0f events/s (%.1fx)%n",
+                    EVENTS, rate(single), BATCH_SIZE, rate(jsonBatches), (double) single / jsonBatches,
+                    rate(ndjsonBatches), (double) single / ndjsonBatches);
+        } finally {
+            publisher.stop();
+        }
+
+        assertThat(delivered.sum()).isEqualTo(3L * EVENTS);
+    }
+
+    private static double rate(long nanos) {
+        return EVENTS / (nanos / 1_000_000_000.0);
+    }
+}
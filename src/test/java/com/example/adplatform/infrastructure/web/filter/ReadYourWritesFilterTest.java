@@ -0,0 +1,74 @@
+package com.example.adplatform.infrastructure.web.filter;
+
+import com.example.adplatform.infrastructure.persistence.routing.ReadYourWrites;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesFilterTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final ReadYourWritesFilter filter =
+            new ReadYourWritesFilter(Duration.ofSeconds(10), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    void requestWithoutToken_ShouldReadFromReplicasAndGetATokenAfterAWrite() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean[] pinnedBeforeWrite = new boolean[1];
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/advertisements"), response, chain(() -> {
+            pinnedBeforeWrite[0] = ReadYourWrites.isPinned();
+            ReadYourWrites.writeCommitted();
+        }));
+
+        assertThat(pinnedBeforeWrite[0]).isFalse();
+        assertThat(response.getHeader(ReadYourWritesFilter.HEADER)).isEqualTo(Long.toString(NOW.toEpochMilli()));
+        assertThat(response.getHeader(HttpHeaders.SET_COOKIE))
+                .startsWith(ReadYourWritesFilter.COOKIE + "=" + NOW.toEpochMilli())
+                .contains("Max-Age=10", "HttpOnly");
+        assertThat(ReadYourWrites.isPinned()).isFalse();
+    }
+
+    @Test
+    void requestWithRecentToken_ShouldBePinnedToThePrimary() throws Exception {
+        MockHttpServletRequest byHeader = new MockHttpServletRequest("GET", "/api/v1/advertisements/1");
+        byHeader.addHeader(ReadYourWritesFilter.HEADER, Long.toString(NOW.minusSeconds(3).toEpochMilli()));
+        MockHttpServletRequest byCookie = new MockHttpServletRequest("GET", "/api/v1/advertisements/1");
+        byCookie.setCookies(new Cookie(ReadYourWritesFilter.COOKIE, Long.toString(NOW.minusSeconds(9).toEpochMilli())));
+
+        assertThat(pinnedDuring(byHeader)).isTrue();
+        assertThat(pinnedDuring(byCookie)).isTrue();
+    }
+
+    @Test
+    void requestWithExpiredOrInvalidToken_ShouldNotBePinned() throws Exception {
+        MockHttpServletRequest expired = new MockHttpServletRequest("GET", "/api/v1/advertisements/1");
+        expired.addHeader(ReadYourWritesFilter.HEADER, Long.toString(NOW.minusSeconds(10).toEpochMilli()));
+        MockHttpServletRequest invalid = new MockHttpServletRequest("GET", "/api/v1/advertisements/1");
+        invalid.addHeader(ReadYourWritesFilter.HEADER, "yesterday");
+
+        assertThat(pinnedDuring(expired)).isFalse();
+        assertThat(pinnedDuring(invalid)).isFalse();
+    }
+
+    private boolean pinnedDuring(MockHttpServletRequest request) throws Exception {
+        boolean[] pinned = new boolean[1];
+        filter.doFilter(request, new MockHttpServletResponse(), chain(() -> pinned[0] = ReadYourWrites.isPinned()));
+        return pinned[0];
+    }
+
+    private static FilterChain chain(Runnable body) {
+        return (request, response) -> body.run();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.adplatform.infrastructure.web.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TrackingAdmissionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void shouldReturn503WithRetryAfterWhileTheTrackingSlotsAreTaken() throws ServletException, IOException {
+        TrackingAdmissionFilter filter = new TrackingAdmissionFilter(1, Duration.ofMillis(5), Duration.ofMillis(1500), objectMapper, meterRegistry);
+
+        HttpServletRequest request = trackingRequest();
+        HttpServletResponse outer = mock(HttpServletResponse.class);
+        MockHttpServletResponse inner = new MockHttpServletResponse();
+        HttpServletResponse after = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+
+        // A second tracking request arrives while the first still holds the only slot
+        doAnswer(invocation -> {
+            assertEquals(1, filter.inFlight());
+            filter.doFilterInternal(request, inner, chain);
+            return null;
+        }).when(chain).doFilter(request, outer);
+        filter.doFilterInternal(request, outer, chain);
+
+        assertEquals(503, inner.getStatus());
+        assertEquals("2", inner.getHeader("Retry-After"));
+        assertEquals(503, objectMapper.readTree(inner.getContentAsString()).get("status").asInt());
+        assertEquals("uri=/api/v1/advertisements/42/view", objectMapper.readTree(inner.getContentAsString()).get("path").asText());
+        verify(chain, times(0)).doFilter(request, inner);
+
+        // The slot is free again once the first request completes
+        filter.doFilterInternal(request, after, chain);
+        verify(chain, times(1)).doFilter(request, after);
+        verify(after, never()).setStatus(anyInt());
+        assertEquals(0, filter.inFlight());
+        assertEquals(2.0, meterRegistry.get("advertisements.tracking.admission").tag("outcome", "admitted").counter().count());
+        assertEquals(1.0, meterRegistry.get("advertisements.tracking.admission").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void shouldReleaseTheSlotWhenTheRequestFails() throws ServletException, IOException {
+        TrackingAdmissionFilter filter = new TrackingAdmissionFilter(1, Duration.ZERO, Duration.ofSeconds(1), objectMapper, meterRegistry);
+        HttpServletRequest request = trackingRequest();
+        FilterChain chain = mock(FilterChain.class);
+        doThrow(new ServletException("boom")).when(chain).doFilter(any(), any());
+
+        try {
+            filter.doFilterInternal(request, mock(HttpServletResponse.class), chain);
+        } catch (ServletException expected) {
+            // propagated to the container
+        }
+
+        assertEquals(0, filter.inFlight());
+    }
+
+    @Test
+    void shouldOnlyFilterTrackingPosts() {
+        TrackingAdmissionFilter filter = new TrackingAdmissionFilter(1, Duration.ZERO, Duration.ofSeconds(1), objectMapper, meterRegistry);
+
+        assertFalse(filter.shouldNotFilter(trackingRequest()));
+        assertFalse(filter.shouldNotFilter(request("POST", "/api/v1/advertisements/42/interactions")));
+        assertTrue(filter.shouldNotFilter(request("GET", "/api/v1/advertisements/42/view")));
+        assertFalse(filter.shouldNotFilter(request("POST", "/api/v1/advertisements/events")));
+        assertTrue(filter.shouldNotFilter(request("POST", "/api/v1/advertisements")));
+        assertTrue(filter.shouldNotFilter(request("GET", "/api/v1/advertisements/42")));
+    }
+
+    private static HttpServletRequest trackingRequest() {
+        return request("POST", "/api/v1/advertisements/42/view");
+    }
+
+    private static HttpServletRequest request(String method, String path) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getRequestURI()).thenReturn(path);
+        return request;
+    }
+}
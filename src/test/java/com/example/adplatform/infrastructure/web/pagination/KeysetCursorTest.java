@@ -0,0 +1,39 @@
+package com.example.adplatform.infrastructure.web.pagination;
+
+import com.example.adplatform.application.exception.AdvertisementValidationException;
+import com.example.adplatform.domain.model.AdvertisementSeekKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void activeCursor_ShouldRoundTripIncludingNanos() {
+        AdvertisementSeekKey key = new AdvertisementSeekKey(5, LocalDateTime.of(2024, 1, 2, 3, 4, 5, 123456789), 42L);
+
+        String cursor = KeysetCursor.encodeActive(key);
+
+        assertEquals(key, KeysetCursor.decodeActive(cursor));
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"), "cursor must be URL-safe");
+    }
+
+    @Test
+    void idCursor_ShouldRoundTrip() {
+        assertEquals(500_000L, KeysetCursor.decodeId(KeysetCursor.encodeId(500_000L)));
+        assertNull(KeysetCursor.decodeId(null));
+        assertNull(KeysetCursor.decodeActive(""));
+    }
+
+    @Test
+    void decode_ShouldRejectForeignOrMalformedCursors() {
+        String idCursor = KeysetCursor.encodeId(7L);
+
+        assertThrows(AdvertisementValidationException.class, () -> KeysetCursor.decodeActive(idCursor));
+        assertThrows(AdvertisementValidationException.class, () -> KeysetCursor.decodeId("not base64!"));
+        assertThrows(AdvertisementValidationException.class, () -> KeysetCursor.decodeId(KeysetCursor.encodeActive(
+                new AdvertisementSeekKey(1, LocalDateTime.now(), 1L))));
+    }
+}
@@ -1,23 +1,51 @@
 package com.example.adplatform.service;
 
+import com.example.adplatform.application.exception.AdvertisementNotFoundException;
+import com.example.adplatform.application.exception.AdvertisementValidationException;
+import com.example.adplatform.application.exception.TrackingOverloadedException;
 import com.example.adplatform.application.port.in.AdvertisementService;
 import com.example.adplatform.application.port.in.TargetingService;
+import com.example.adplatform.application.port.out.AdvertisementEventPublisher;
+import com.example.adplatform.application.port.out.AdvertisementIdRegistry;
 import com.example.adplatform.application.port.out.AdvertisementRepository;
+import com.example.adplatform.application.port.out.AdvertisementTitleIndex;
+import com.example.adplatform.application.port.out.TrackingDeduplicator;
 import com.example.adplatform.application.service.AdvertisementServiceImpl;
+import com.example.adplatform.application.service.InventoryVersionServiceImpl;
+import com.example.adplatform.application.service.ViewingPolicyServiceImpl;
+import com.example.adplatform.application.service.stats.AttributionJoin;
+import com.example.adplatform.application.service.stats.RealTimeStatsAggregator;
+import com.example.adplatform.application.service.targeting.TargetingPlanner;
+import com.example.adplatform.domain.event.AdvertisementInteractedEvent;
+import com.example.adplatform.domain.event.AdvertisementTrackingEvent;
+import com.example.adplatform.domain.event.AdvertisementViewedEvent;
 import com.example.adplatform.domain.model.*;
+import com.example.adplatform.infrastructure.event.AdvertisementStatsEventListener;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -317,6 +345,377 @@ public class AdvertisementServiceTest {
         assertEquals(testAd, result);
     }
 
+    @Test
+    void saveAdvertisements_ShouldSaveWholeBatchInOneRepositoryCall() {
+        // Arrange
+        List<Advertisement> batch = List.of(testAd, geoTargetedAd);
+        when(advertisementRepository.saveAll(batch)).thenReturn(batch);
+
+        // Act
+        List<Advertisement> result = advertisementService.saveAdvertisements(batch);
+
+        // Assert
+        assertEquals(batch, result);
+        verify(advertisementRepository).saveAll(batch);
+    }
+
+    @Test
+    void saveAdvertisements_ShouldReportInvalidEntriesByPositionAndSaveNothing() {
+        // Arrange
+        Advertisement invalid = Advertisement.builder()
+                .content("Content")
+                .source(AdvertisementSource.STORAGE)
+                .sourceIdentifier("invalid.mp4")
+                .build();
+
+        // Act
+        AdvertisementValidationException exception = assertThrows(AdvertisementValidationException.class,
+                () -> advertisementService.saveAdvertisements(List.of(testAd, invalid)));
+
+        // Assert
+        assertEquals(Set.of("[1].title"), exception.getErrors().keySet());
+        verify(advertisementRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void getAdvertisementsByTitle_ShouldLoadMatchesOfTheTitleIndexById() {
+        // Arrange
+        AdvertisementTitleIndex titleIndex = readyTitleIndex();
+        when(titleIndex.findByTitleContaining("test")).thenReturn(List.of(AdvertisementSummary.of(testAd)));
+        when(advertisementRepository.findAllById(List.of(1L))).thenReturn(List.of(testAd));
+
+        // Act
+        List<Advertisement> result = serviceWithTitleIndex(titleIndex).getAdvertisementsByTitle("test");
+
+        // Assert
+        assertEquals(List.of(testAd), result);
+        verify(advertisementRepository, never()).findByTitleContainingIgnoreCase(anyString());
+    }
+
+    @Test
+    void getAdvertisementsByTitle_ShouldUseDatabaseUntilTitleIndexIsReady() {
+        // Arrange
+        AdvertisementTitleIndex titleIndex = mock(AdvertisementTitleIndex.class);
+        when(advertisementRepository.findByTitleContainingIgnoreCase("test")).thenReturn(List.of(testAd));
+
+        // Act
+        List<Advertisement> result = serviceWithTitleIndex(titleIndex).getAdvertisementsByTitle("test");
+
+        // Assert
+        assertEquals(List.of(testAd), result);
+        verify(titleIndex, never()).findByTitleContaining(anyString());
+    }
+
+    @Test
+    void getAdvertisementSummariesByTitle_ShouldSortAndPageTitleIndexMatchesInMemory() {
+        // Arrange
+        AdvertisementTitleIndex titleIndex = readyTitleIndex();
+        when(titleIndex.findByTitleContaining("ad")).thenReturn(List.of(
+                new AdvertisementSummary(1L, "Ad 1", AdvertisementSource.STORAGE, true, 1, null),
+                new AdvertisementSummary(2L, "Ad 2", AdvertisementSource.STORAGE, true, 5, null),
+                new AdvertisementSummary(3L, "Ad 3", AdvertisementSource.YOUTUBE, false, 3, null)));
+
+        // Act
+        Page<AdvertisementSummary> page = serviceWithTitleIndex(titleIndex)
+                .getAdvertisementSummariesByTitle("ad", PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "weight")));
+
+        // Assert
+        assertEquals(List.of(2L, 3L), page.getContent().stream().map(AdvertisementSummary::id).toList());
+        assertEquals(3, page.getTotalElements());
+        verifyNoInteractions(advertisementRepository);
+    }
+
+    @Test
+    void saveAdvertisement_ShouldUpdateTitleIndex() {
+        // Arrange
+        AdvertisementTitleIndex titleIndex = mock(AdvertisementTitleIndex.class);
+        when(advertisementRepository.save(testAd)).thenReturn(testAd);
+
+        // Act
+        serviceWithTitleIndex(titleIndex).saveAdvertisement(testAd);
+
+        // Assert
+        verify(titleIndex).put(AdvertisementSummary.of(testAd));
+    }
+
+    private static AdvertisementTitleIndex readyTitleIndex() {
+        AdvertisementTitleIndex titleIndex = mock(AdvertisementTitleIndex.class);
+        when(titleIndex.isReady()).thenReturn(true);
+        return titleIndex;
+    }
+
+    @Test
+    void getTargetedAdvertisements_ShouldFilterTheCandidatesOfThePlannedPredicate() {
+        // Arrange
+        TargetingPlanner planner = mock(TargetingPlanner.class);
+        Map<String, Object> bioData = Map.of("age", 30);
+        when(planner.plan("US", 30, Mood.HAPPY)).thenReturn(TargetingPlanner.Plan.MOOD);
+        when(advertisementRepository.findByMood(Mood.HAPPY)).thenReturn(List.of(moodTargetedAd));
+        when(targetingService.filterByTargetingCriteria(List.of(moodTargetedAd), "US", bioData, Mood.HAPPY))
+                .thenReturn(List.of(moodTargetedAd));
+
+        // Act
+        List<Advertisement> result = serviceWith(mock(AdvertisementTitleIndex.class), planner)
+                .getTargetedAdvertisements("US", bioData, Mood.HAPPY);
+
+        // Assert
+        assertEquals(List.of(moodTargetedAd), result);
+        verify(advertisementRepository, never()).findByActiveTrue();
+    }
+
+    @Test
+    void getBioTargetedAdvertisements_ShouldUseTheActiveInventoryWhenPlanned() {
+        // Arrange
+        TargetingPlanner planner = mock(TargetingPlanner.class);
+        List<Advertisement> activeAds = List.of(testAd, bioTargetedAd);
+        when(planner.plan(null, 30, null)).thenReturn(TargetingPlanner.Plan.SNAPSHOT);
+        when(advertisementRepository.findByActiveTrue()).thenReturn(activeAds);
+        when(targetingService.filterByBioTargeting(activeAds, 30, null, null, null, null, null))
+                .thenReturn(List.of(bioTargetedAd));
+
+        // Act
+        List<Advertisement> result = serviceWith(mock(AdvertisementTitleIndex.class), planner)
+                .getBioTargetedAdvertisements(30, null, null, null, null, null);
+
+        // Assert
+        assertEquals(List.of(bioTargetedAd), result);
+        verify(advertisementRepository, never()).findByAgeRange(any());
+    }
+
+    private AdvertisementService serviceWithTitleIndex(AdvertisementTitleIndex titleIndex) {
+        return serviceWith(titleIndex, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private AdvertisementService serviceWith(AdvertisementTitleIndex titleIndex, TargetingPlanner planner) {
+        ObjectProvider<AdvertisementTitleIndex> titleIndexProvider = mock(ObjectProvider.class);
+        when(titleIndexProvider.getIfAvailable(any())).thenReturn(titleIndex);
+        ObjectProvider<TargetingPlanner> plannerProvider = mock(ObjectProvider.class);
+        if (planner != null) {
+            when(plannerProvider.getIfAvailable()).thenReturn(planner);
+        }
+        return new AdvertisementServiceImpl(advertisementRepository, targetingService, new ViewingPolicyServiceImpl(),
+                mock(AdvertisementEventPublisher.class), new InventoryVersionServiceImpl(), titleIndexProvider, plannerProvider,
+                mock(ObjectProvider.class), mock(ObjectProvider.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void trackAdvertisementView_ShouldPublishWithoutLookingUpTheAdvertisement() {
+        AdvertisementEventPublisher publisher = mock(AdvertisementEventPublisher.class);
+        AdvertisementService service = new AdvertisementServiceImpl(advertisementRepository, targetingService,
+                new ViewingPolicyServiceImpl(), publisher, new InventoryVersionServiceImpl(),
+                mock(ObjectProvider.class), mock(ObjectProvider.class), mock(ObjectProvider.class), mock(ObjectProvider.class));
+
+        service.trackAdvertisementView(42L);
+        service.trackAdvertisementInteraction(42L, "CLICK");
+
+        verify(publisher).publish(argThat((AdvertisementViewedEvent event) -> event.advertisementId().equals(42L)));
+        verify(publisher).publish(argThat((AdvertisementInteractedEvent event) -> "CLICK".equals(event.interactionType())));
+        verifyNoInteractions(advertisementRepository);
+        assertThrows(IllegalArgumentException.class, () -> service.trackAdvertisementView(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tracking_ShouldRejectIdsMissingFromTheLoadedRegistryWithoutQueryingTheRepository() {
+        AdvertisementEventPublisher publisher = mock(AdvertisementEventPublisher.class);
+        when(publisher.publishAll(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        AdvertisementIdRegistry registry = mock(AdvertisementIdRegistry.class);
+        when(registry.isReady()).thenReturn(true);
+        when(registry.contains(1L)).thenReturn(true);
+        ObjectProvider<AdvertisementIdRegistry> registryProvider = mock(ObjectProvider.class);
+        when(registryProvider.getIfAvailable()).thenReturn(registry);
+        AdvertisementService service = new AdvertisementServiceImpl(advertisementRepository, targetingService,
+                new ViewingPolicyServiceImpl(), publisher, new InventoryVersionServiceImpl(),
+                mock(ObjectProvider.class), mock(ObjectProvider.class), registryProvider, mock(ObjectProvider.class));
+
+        service.trackAdvertisementView(1L);
+        assertThrows(AdvertisementNotFoundException.class, () -> service.trackAdvertisementView(2L));
+        assertThrows(AdvertisementNotFoundException.class, () -> service.trackAdvertisementInteraction(2L, "CLICK"));
+        List<TrackingBeaconResult> results = service.trackAdvertisementEvents(List.of(
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 1L, null, null),
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 2L, null, null)));
+
+        assertEquals(TrackingBeaconResult.Status.ACCEPTED, results.get(0).status());
+        assertEquals(TrackingBeaconResult.invalid("advertisement not found"), results.get(1));
+        verify(publisher).publish(any(AdvertisementViewedEvent.class));
+        verify(publisher, never()).publish(any(AdvertisementInteractedEvent.class));
+        verifyNoInteractions(advertisementRepository);
+    }
+
+    @Test
+    void trackAdvertisementEvents_ShouldValidateEachBeaconAndPublishTheValidOnesTogether() {
+        AdvertisementEventPublisher publisher = mock(AdvertisementEventPublisher.class);
+        when(publisher.publishAll(anyList())).thenReturn(2);
+        AdvertisementService service = new AdvertisementServiceImpl(advertisementRepository, targetingService,
+                new ViewingPolicyServiceImpl(), publisher, new InventoryVersionServiceImpl(),
+                mock(ObjectProvider.class), mock(ObjectProvider.class), mock(ObjectProvider.class), mock(ObjectProvider.class));
+        Instant viewedAt = Instant.now().minusSeconds(30);
+
+        List<TrackingBeaconResult> results = service.trackAdvertisementEvents(Arrays.asList(
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 1L, null, viewedAt),
+                new TrackingBeacon(TrackingBeacon.Kind.INTERACTION, 2L, null, null),
+                null,
+                new TrackingBeacon(TrackingBeacon.Kind.CLICK, 3L, null, null),
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 4L, null, Instant.now().plusSeconds(3600)),
+                new TrackingBeacon(TrackingBeacon.Kind.INTERACTION, 5L, " like ", null)));
+
+        assertEquals(List.of(TrackingBeaconResult.Status.ACCEPTED, TrackingBeaconResult.Status.INVALID,
+                        TrackingBeaconResult.Status.INVALID, TrackingBeaconResult.Status.ACCEPTED,
+                        TrackingBeaconResult.Status.INVALID, TrackingBeaconResult.Status.DROPPED),
+                results.stream().map(TrackingBeaconResult::status).toList());
+        assertEquals("interactionType is required for INTERACTION events", results.get(1).error());
+        assertEquals("occurredAt is in the future", results.get(4).error());
+        ArgumentCaptor<List<AdvertisementTrackingEvent>> published = ArgumentCaptor.forClass(List.class);
+        verify(publisher).publishAll(published.capture());
+        assertEquals(3, published.getValue().size());
+        assertEquals(new AdvertisementViewedEvent(1L, viewedAt), published.getValue().get(0));
+        assertEquals("CLICK", ((AdvertisementInteractedEvent) published.getValue().get(1)).interactionType());
+        assertEquals("LIKE", ((AdvertisementInteractedEvent) published.getValue().get(2)).interactionType());
+        verifyNoInteractions(advertisementRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tracking_ShouldCountResentEventsOnceAndForgetTheKeysOfDroppedOnes() {
+        AdvertisementEventPublisher publisher = mock(AdvertisementEventPublisher.class);
+        // The buffer has room for all but the last event
+        when(publisher.publishAll(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size() - 1);
+        Set<String> seen = new HashSet<>();
+        TrackingDeduplicator deduplicator = new TrackingDeduplicator() {
+            @Override
+            public boolean firstSeen(String key) {
+                return seen.add(key);
+            }
+
+            @Override
+            public void forget(String key) {
+                seen.remove(key);
+            }
+        };
+        ObjectProvider<TrackingDeduplicator> deduplicatorProvider = mock(ObjectProvider.class);
+        when(deduplicatorProvider.getIfAvailable()).thenReturn(deduplicator);
+        AdvertisementService service = new AdvertisementServiceImpl(advertisementRepository, targetingService,
+                new ViewingPolicyServiceImpl(), publisher, new InventoryVersionServiceImpl(),
+                mock(ObjectProvider.class), mock(ObjectProvider.class), mock(ObjectProvider.class), deduplicatorProvider);
+        Instant viewedAt = Instant.now().minusSeconds(5);
+
+        service.trackAdvertisementView(1L, "view-1");
+        service.trackAdvertisementView(1L, "view-1");
+        List<TrackingBeaconResult> results = service.trackAdvertisementEvents(List.of(
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 1L, null, null, null, "view-1"),
+                new TrackingBeacon(TrackingBeacon.Kind.CLICK, 1L, null, null, null, "view-1"),
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 2L, null, viewedAt, "session-1", null),
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 2L, null, viewedAt, "session-1", null),
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 2L, null, null, "session-1", null),
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 3L, null, null, null, "view-3")));
+
+        assertEquals(List.of(TrackingBeaconResult.Status.DUPLICATE, TrackingBeaconResult.Status.ACCEPTED,
+                        TrackingBeaconResult.Status.ACCEPTED, TrackingBeaconResult.Status.DUPLICATE,
+                        TrackingBeaconResult.Status.ACCEPTED, TrackingBeaconResult.Status.DROPPED),
+                results.stream().map(TrackingBeaconResult::status).toList());
+        verify(publisher).publish(any(AdvertisementViewedEvent.class));
+        assertTrue(deduplicator.firstSeen("key|3|VIEW|view-3"), "the dropped event can be resent");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void tracking_ShouldForgetTheKeyOfARejectedEventSoTheRetryIsTracked() {
+        AdvertisementEventPublisher publisher = mock(AdvertisementEventPublisher.class);
+        lenient().doThrow(new TrackingOverloadedException("Tracking is overloaded", Duration.ofSeconds(1)))
+                .when(publisher).publish(any(AdvertisementInteractedEvent.class));
+        Set<String> seen = new HashSet<>();
+        TrackingDeduplicator deduplicator = new TrackingDeduplicator() {
+            @Override
+            public boolean firstSeen(String key) {
+                return seen.add(key);
+            }
+
+            @Override
+            public void forget(String key) {
+                seen.remove(key);
+            }
+        };
+        ObjectProvider<TrackingDeduplicator> deduplicatorProvider = mock(ObjectProvider.class);
+        when(deduplicatorProvider.getIfAvailable()).thenReturn(deduplicator);
+        AdvertisementService service = new AdvertisementServiceImpl(advertisementRepository, targetingService,
+                new ViewingPolicyServiceImpl(), publisher, new InventoryVersionServiceImpl(),
+                mock(ObjectProvider.class), mock(ObjectProvider.class), mock(ObjectProvider.class), deduplicatorProvider);
+
+        service.trackAdvertisementView(1L, "view-1");
+        assertThrows(TrackingOverloadedException.class, () -> service.trackAdvertisementInteraction(1L, "CLICK", "click-1"));
+
+        assertEquals(Set.of("key|1|VIEW|view-1"), seen);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void trackAdvertisementEvents_ShouldCountTheSessionsOfViewsTowardsUniqueReach() {
+        RealTimeStatsAggregator aggregator = new RealTimeStatsAggregator(60, 48, 30, Clock.systemUTC());
+        AdvertisementService service = new AdvertisementServiceImpl(advertisementRepository, targetingService,
+                new ViewingPolicyServiceImpl(), statsPublisher(new AdvertisementStatsEventListener(aggregator)),
+                new InventoryVersionServiceImpl(), mock(ObjectProvider.class), mock(ObjectProvider.class),
+                mock(ObjectProvider.class), mock(ObjectProvider.class));
+        Instant now = Instant.now();
+
+        service.trackAdvertisementEvents(List.of(
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 1L, null, now.minusSeconds(30), "session-1", null),
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 1L, null, now.minusSeconds(20), "session-2", null),
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 1L, null, now.minusSeconds(10), "session-1", null),
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 1L, null, null)));
+        service.trackAdvertisementView(1L);
+
+        AdvertisementStats stats = aggregator.getStats(1L, Duration.ofHours(1));
+        assertEquals(5L, stats.getViewCount());
+        assertEquals(2L, stats.getUniqueReach());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void trackAdvertisementEvents_ShouldAttributeClicksToTheViewOfTheSameSession() {
+        RealTimeStatsAggregator aggregator = new RealTimeStatsAggregator(60, 48, 30, Clock.systemUTC());
+        AttributionJoin join = new AttributionJoin(aggregator, Duration.ofMinutes(30), Duration.ofMinutes(1),
+                Duration.ofMinutes(1), Clock.systemUTC());
+        AdvertisementService service = new AdvertisementServiceImpl(advertisementRepository, targetingService,
+                new ViewingPolicyServiceImpl(), statsPublisher(new AdvertisementStatsEventListener(aggregator, join)),
+                new InventoryVersionServiceImpl(), mock(ObjectProvider.class), mock(ObjectProvider.class),
+                mock(ObjectProvider.class), mock(ObjectProvider.class));
+        Instant now = Instant.now();
+
+        service.trackAdvertisementEvents(List.of(
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 1L, null, now.minusSeconds(40), "session-1", null),
+                new TrackingBeacon(TrackingBeacon.Kind.VIEW, 1L, null, now.minusSeconds(40), "session-2", null),
+                new TrackingBeacon(TrackingBeacon.Kind.CLICK, 1L, null, now.minusSeconds(20), "session-1", null),
+                new TrackingBeacon(TrackingBeacon.Kind.INTERACTION, 1L, "conversion", now.minusSeconds(10), "session-2", null),
+                // Not a click, and a click from a session without a view
+                new TrackingBeacon(TrackingBeacon.Kind.INTERACTION, 1L, "LIKE", now.minusSeconds(10), "session-1", null),
+                new TrackingBeacon(TrackingBeacon.Kind.CLICK, 1L, null, now.minusSeconds(10), "session-3", null)));
+
+        AdvertisementStats stats = aggregator.getStats(1L, Duration.ofHours(1));
+        assertEquals(2L, join.attributed());
+        assertEquals(2L, stats.getAttributedClickCount());
+        assertEquals(1L, stats.getAttributedConversionCount());
+        assertEquals(1.0, stats.getAttributedClickThroughRate());
+    }
+
+    /**
+     * Delivers published events to the stats listener, as the pipeline's Spring sink does.
+     */
+    private static AdvertisementEventPublisher statsPublisher(AdvertisementStatsEventListener listener) {
+        return new AdvertisementEventPublisher() {
+            @Override
+            public void publish(AdvertisementViewedEvent event) {
+                listener.onTrackingEvent(event);
+            }
+
+            @Override
+            public void publish(AdvertisementInteractedEvent event) {
+                listener.onTrackingEvent(event);
+            }
+        };
+    }
+
     @Test
     void deleteAdvertisement_ShouldCallRepository() {
         // Arrange